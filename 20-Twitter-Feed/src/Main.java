@@ -1,9 +1,17 @@
 import enums.*;
 import factory.PostFactory;
+import graph.SocialGraph;
 import model.*;
+import notification.NotificationDispatcher;
+import notification.NotificationInbox;
 import service.*;
+import trends.Trend;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Main class demonstrating the Twitter/Social Media Feed system with various scenarios.
@@ -33,6 +41,27 @@ public class Main {
         // Scenario 6: Retweets and Quote Tweets
         scenario6_RetweetsAndQuoteTweets();
         
+        // Scenario 7: Precomputed Home Timelines
+        scenario7_HomeTimelines();
+        
+        // Scenario 8: Incremental Feed Pages
+        scenario8_IncrementalFeedPages();
+        
+        // Scenario 9: Concurrent Engagement on a Viral Post
+        scenario9_ConcurrentEngagement();
+        
+        // Scenario 10: Indexed Search and Autocomplete
+        scenario10_IndexedSearch();
+        
+        // Scenario 11: Streaming Trends
+        scenario11_StreamingTrends();
+        
+        // Scenario 12: Aggregated Notification Inbox
+        scenario12_NotificationInbox();
+        
+        // Scenario 13: Compact Social Graph
+        scenario13_SocialGraph();
+        
         System.out.println("\n" + repeatString("=", 80));
         System.out.println("  ALL SCENARIOS COMPLETED SUCCESSFULLY!");
         System.out.println(repeatString("=", 80) + "\n");
@@ -65,27 +94,27 @@ public class Main {
         
         // Follow relationships
         System.out.println("\n🔗 Creating Follow Relationships...");
-        alice.follow(bob);
-        alice.follow(charlie);
+        twitter.follow(alice, bob);
+        twitter.follow(alice, charlie);
         System.out.println("✓ Alice follows Bob and Charlie");
         
-        bob.follow(alice);
-        bob.follow(charlie);
-        bob.follow(david);
+        twitter.follow(bob, alice);
+        twitter.follow(bob, charlie);
+        twitter.follow(bob, david);
         System.out.println("✓ Bob follows Alice, Charlie, and David");
         
-        charlie.follow(alice);
-        charlie.follow(bob);
-        charlie.follow(david);
-        charlie.follow(emma);
+        twitter.follow(charlie, alice);
+        twitter.follow(charlie, bob);
+        twitter.follow(charlie, david);
+        twitter.follow(charlie, emma);
         System.out.println("✓ Charlie follows everyone");
         
-        david.follow(alice);
-        david.follow(emma);
+        twitter.follow(david, alice);
+        twitter.follow(david, emma);
         System.out.println("✓ David follows Alice and Emma");
         
-        emma.follow(bob);
-        emma.follow(charlie);
+        twitter.follow(emma, bob);
+        twitter.follow(emma, charlie);
         System.out.println("✓ Emma follows Bob and Charlie");
         
         // Display user stats
@@ -342,6 +371,364 @@ public class Main {
         twitter.displayStatistics();
     }
     
+    /**
+     * Scenario 7: Precomputed Home Timelines (fan-out-on-write with celebrity fan-out-on-read)
+     */
+    private static void scenario7_HomeTimelines() {
+        System.out.println("\n" + repeatString("-", 80));
+        System.out.println("SCENARIO 7: Precomputed Home Timelines");
+        System.out.println(repeatString("-", 80));
+        
+        TwitterService twitter = TwitterService.getInstance();
+        TimelineService timelines = twitter.getTimelineService();
+        User alice = twitter.getUserByUsername("alice");
+        User david = twitter.getUserByUsername("david");
+        User emma = twitter.getUserByUsername("emma");
+        
+        // Cursor paging over David's pushed timeline
+        System.out.println("\n📜 David's home timeline, 3 posts per page:");
+        String cursor = null;
+        int pageNumber = 1;
+        do {
+            FeedPage page = twitter.getHomeTimeline(david, cursor, 3);
+            System.out.println("Page " + pageNumber++ + ":");
+            for (Post post : page.getPosts()) {
+                System.out.println("  " + post);
+            }
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        
+        // Following through the service backfills the timeline
+        int before = timelines.getTimelineSize(emma);
+        twitter.follow(emma, alice);
+        System.out.println("\n✓ Emma followed Alice; timeline backfilled " + 
+                           before + " → " + timelines.getTimelineSize(emma) + " entries");
+        
+        // Alice crosses the celebrity threshold: her next post is merged on read
+        timelines.setCelebrityThreshold(alice.getFollowerCount());
+        long writesBefore = timelines.getFanoutWrites();
+        Post announcement = twitter.createPost(PostType.REGULAR, alice, 
+            "Big announcement: I'm speaking at the design patterns conference! 🎤", null);
+        System.out.println("\n⭐ Celebrity threshold set to " + timelines.getCelebrityThreshold() + 
+                           " followers (Alice has " + alice.getFollowerCount() + ")");
+        System.out.println("✓ Fan-out writes for Alice's post: " + (timelines.getFanoutWrites() - writesBefore));
+        
+        FeedPage davidTop = twitter.getHomeTimeline(david, null, 1);
+        System.out.println("✓ David's newest post (merged on read): " + davidTop.getPosts().get(0).getDisplayContent());
+        System.out.println("✓ Same post in Emma's timeline: " + 
+                           twitter.getHomeTimeline(emma, null, 1).getPosts().get(0).equals(announcement));
+        
+        System.out.println("\n📊 Timeline Statistics:");
+        System.out.println("  Total fan-out writes: " + timelines.getFanoutWrites());
+        System.out.println("  Celebrity accounts:   " + timelines.getCelebrityCount());
+        System.out.println("  Pending fan-out:      " + timelines.getPendingFanout());
+    }
+    
+    /**
+     * Scenario 8: Incremental Feed Pages (k-way merge and top-K selection)
+     */
+    private static void scenario8_IncrementalFeedPages() {
+        System.out.println("\n" + repeatString("-", 80));
+        System.out.println("SCENARIO 8: Incremental Feed Pages");
+        System.out.println(repeatString("-", 80));
+        
+        TwitterService twitter = TwitterService.getInstance();
+        User charlie = twitter.getUserByUsername("charlie");
+        
+        // Chronological pages via lazy k-way merge of followee post lists
+        FeedService feedService = new FeedService(FeedAlgorithmType.CHRONOLOGICAL);
+        FeedPage first = feedService.generateFeedPage(charlie, null, 4);
+        FeedPage second = feedService.generateFeedPage(charlie, first.getNextCursor(), 4);
+        System.out.println("\n🔀 Charlie's chronological feed (k-way merge), pages of 4:");
+        for (Post post : first.getPosts()) {
+            System.out.println("  1 | " + post);
+        }
+        for (Post post : second.getPosts()) {
+            System.out.println("  2 | " + post);
+        }
+        List<Post> scanned = feedService.generateFeed(charlie, twitter.getAllPosts());
+        System.out.println("✓ Matches scan-and-sort order: " + 
+                           scanned.subList(0, first.getPosts().size()).equals(first.getPosts()));
+        
+        // Popular: bounded top-K heap over cached engagement scores
+        feedService.setAlgorithm(FeedAlgorithmType.POPULAR);
+        System.out.println("\n🏆 Top 3 popular for Charlie (bounded top-K heap):");
+        FeedPage popular = feedService.generateFeedPage(charlie, null, 3);
+        for (Post post : popular.getPosts()) {
+            System.out.println("  score " + post.getEngagementScore() + " | " + post.getDisplayContent());
+        }
+        
+        // A like invalidates the cached score and re-ranks the post
+        Post underdog = feedService.generateFeedPage(charlie, popular.getNextCursor(), 1).getPosts().get(0);
+        int scoreBefore = underdog.getEngagementScore();
+        for (User fan : twitter.getAllUsers()) {
+            twitter.likePost(underdog.getPostId(), fan);
+        }
+        twitter.commentOnPost(underdog.getPostId(), charlie, "This deserves more attention!");
+        System.out.println("\n✓ Engagement on @" + underdog.getAuthor().getUsername() + "'s post #4: " + 
+                           scoreBefore + " → " + underdog.getEngagementScore());
+        System.out.println("✓ New rank in Charlie's popular feed: #" + 
+                           (feedService.generateFeedPage(charlie, null, 10).getPosts().indexOf(underdog) + 1));
+        
+        feedService.setAlgorithm(FeedAlgorithmType.TRENDING);
+        Post trending = feedService.generateFeedPage(charlie, null, 1).getPosts().get(0);
+        System.out.println("✓ Top trending for Charlie: " + trending.getDisplayContent());
+    }
+    
+    /**
+     * Scenario 9: Concurrent Engagement on a Viral Post
+     */
+    private static void scenario9_ConcurrentEngagement() {
+        System.out.println("\n" + repeatString("-", 80));
+        System.out.println("SCENARIO 9: Concurrent Engagement on a Viral Post");
+        System.out.println(repeatString("-", 80));
+        
+        TwitterService twitter = TwitterService.getInstance();
+        User emma = twitter.getUserByUsername("emma");
+        Post viral = twitter.createPost(PostType.REGULAR, emma, 
+            "My cat just learned to open the fridge 🐱", null);
+        
+        int fanCount = 20_000;
+        int threads = 4;
+        User[] fans = new User[fanCount];
+        for (int i = 0; i < fanCount; i++) {
+            fans[i] = new User("FAN" + i, "fan" + i, "Fan " + i);
+        }
+        
+        // Every thread likes on behalf of every fan, so most attempts are duplicates
+        System.out.println("\n🔥 " + threads + " threads liking from " + fanCount + " fans each...");
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            final int offset = t * 997;
+            pool.submit(() -> {
+                for (int i = 0; i < fanCount; i++) {
+                    User fan = fans[(i + offset) % fanCount];
+                    twitter.likePost(viral.getPostId(), fan);
+                    if (i % 1000 == 0) {
+                        twitter.commentOnPost(viral.getPostId(), fan, "😂");
+                        twitter.createPost(PostType.RETWEET, fan, null, viral);
+                    }
+                }
+            });
+        }
+        pool.shutdown();
+        try {
+            pool.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        
+        System.out.println("✓ Completed " + (threads * fanCount) + " like attempts in " + elapsedMs + " ms");
+        System.out.println("✓ Likes: " + viral.getLikeCount() + " (expected " + fanCount + ")");
+        System.out.println("✓ Comments: " + viral.getCommentCount() + " | Retweets: " + viral.getRetweetCount() + 
+                           " (expected " + (threads * fanCount / 1000) + " each)");
+        System.out.println("✓ Engagement score: " + viral.getEngagementScore());
+        System.out.println("✓ fan42 liked it: " + viral.hasLiked(fans[42]) + 
+                           " | Emma liked it: " + viral.hasLiked(emma));
+        
+        twitter.unlikePost(viral.getPostId(), fans[42]);
+        System.out.println("✓ After fan42 unlikes: " + viral.getLikeCount() + " likes, score " + viral.getEngagementScore());
+    }
+    
+    /**
+     * Scenario 10: Indexed Search and Autocomplete
+     */
+    private static void scenario10_IndexedSearch() {
+        System.out.println("\n" + repeatString("-", 80));
+        System.out.println("SCENARIO 10: Indexed Search and Autocomplete");
+        System.out.println(repeatString("-", 80));
+        
+        TwitterService twitter = TwitterService.getInstance();
+        User alice = twitter.getUserByUsername("alice");
+        User bob = twitter.getUserByUsername("bob");
+        User david = twitter.getUserByUsername("david");
+        
+        twitter.registerUser("U006", "alex_dev", "Alexander Brooks");
+        twitter.registerUser("U007", "bobby", "Roberta Alvarez");
+        System.out.println("\n👥 Registered @alex_dev and @bobby");
+        try {
+            twitter.registerUser("U008", "ALICE", "Alice Impostor");
+        } catch (IllegalArgumentException e) {
+            System.out.println("✓ Rejected duplicate: " + e.getMessage());
+        }
+        
+        System.out.println("\n📝 Posting with hashtags and mentions...");
+        twitter.createPost(PostType.REGULAR, bob, "Refactoring with the #Strategy pattern today #java", null);
+        twitter.createPost(PostType.REGULAR, david, "Thanks @alice for the code review! #java", null);
+        twitter.createPost(PostType.REGULAR, alice, "Observer vs Strategy pattern: a thread 🧵 #DesignPatterns", null);
+        
+        System.out.println("\n🔎 Search \"strategy pattern\":");
+        for (Post post : twitter.searchPosts("strategy pattern", 3)) {
+            System.out.println("  " + post.getDisplayContent());
+        }
+        
+        System.out.println("\n#️⃣  Latest #java posts:");
+        for (Post post : twitter.searchHashtag("java", 5)) {
+            System.out.println("  @" + post.getAuthor().getUsername() + ": " + post.getDisplayContent());
+        }
+        
+        System.out.println("\n📣 Mentions of @alice:");
+        for (Post post : twitter.getMentions(alice, 5)) {
+            System.out.println("  @" + post.getAuthor().getUsername() + ": " + post.getDisplayContent());
+        }
+        
+        System.out.println("\n⌨️  Autocomplete:");
+        for (String prefix : new String[] {"al", "bo", "Rob", "z"}) {
+            StringBuilder line = new StringBuilder("  \"" + prefix + "\" → ");
+            for (User user : twitter.autocompleteUsers(prefix, 5)) {
+                line.append("@").append(user.getUsername()).append(" ");
+            }
+            System.out.println(line);
+        }
+        
+        System.out.println("\n✓ Username lookup is case-insensitive: " + (twitter.getUserByUsername("BoB") == bob));
+        System.out.println("✓ Index: " + twitter.getPostIndex().getTermCount() + " terms, " + 
+                           twitter.getPostIndex().getPostingCount() + " postings");
+    }
+    
+    /**
+     * Scenario 11: Streaming Trends (decayed hashtag and post scores)
+     */
+    private static void scenario11_StreamingTrends() {
+        System.out.println("\n" + repeatString("-", 80));
+        System.out.println("SCENARIO 11: Streaming Trends");
+        System.out.println(repeatString("-", 80));
+        
+        TwitterService twitter = TwitterService.getInstance();
+        User alice = twitter.getUserByUsername("alice");
+        User bob = twitter.getUserByUsername("bob");
+        User charlie = twitter.getUserByUsername("charlie");
+        User david = twitter.getUserByUsername("david");
+        User emma = twitter.getUserByUsername("emma");
+        
+        System.out.println("\n📝 A burst of #LLD posts...");
+        Post lldPost = twitter.createPost(PostType.REGULAR, charlie, 
+            "Designing a parking lot today #LLD #interviews", null);
+        twitter.createPost(PostType.REGULAR, david, "Elevator system design is tricky #LLD", null);
+        twitter.createPost(PostType.REGULAR, emma, "My notes on the #LLD elevator problem #java", null);
+        twitter.createPost(PostType.QUOTE_TWEET, alice, "Great breakdown #LLD", lldPost);
+        for (User fan : new User[] {alice, bob, david, emma}) {
+            twitter.likePost(lldPost.getPostId(), fan);
+        }
+        twitter.commentOnPost(lldPost.getPostId(), bob, "Which pattern for the pricing strategy?");
+        
+        System.out.println("\n📈 Trending hashtags:");
+        int rank = 1;
+        for (Trend<String> trend : twitter.getTrendingHashtags(4)) {
+            System.out.println("  " + rank++ + ". " + trend);
+        }
+        
+        System.out.println("\n🔥 Trending posts:");
+        for (Post post : twitter.getTrendingPosts(3)) {
+            System.out.printf("  %.1f | @%s: %s%n", 
+                twitter.getTrendsEngine().getPostScore(post.getSequence(), System.currentTimeMillis()),
+                post.getAuthor().getUsername(), post.getDisplayContent());
+        }
+        
+        FeedService feedService = new FeedService(FeedAlgorithmType.TRENDING);
+        Post top = feedService.generateFeed(bob, twitter.getAllPosts()).get(0);
+        System.out.println("\n✓ Top of Bob's trending feed: @" + top.getAuthor().getUsername() + 
+                           ": " + top.getDisplayContent());
+        
+        // Scores halve every 30 minutes without new engagement
+        long twoHoursLater = System.currentTimeMillis() + 2 * 60 * 60 * 1000L;
+        Trend<String> lld = twitter.getTrendsEngine().getTrendingHashtags(1, twoHoursLater).get(0);
+        System.out.printf("✓ %s score two hours from now: %.2f%n", lld.getKey(), lld.getScore());
+        System.out.println("✓ Events applied: " + twitter.getTrendsEngine().getAppliedCount() + 
+                           " | dropped: " + twitter.getTrendsEngine().getDroppedCount());
+    }
+    
+    /**
+     * Scenario 12: Aggregated, bounded notification inbox with async delivery
+     */
+    private static void scenario12_NotificationInbox() {
+        System.out.println("\n" + repeatString("-", 80));
+        System.out.println("SCENARIO 12: Aggregated Notification Inbox");
+        System.out.println(repeatString("-", 80));
+        
+        TwitterService twitter = TwitterService.getInstance();
+        User emma = twitter.getUserByUsername("emma");
+        User alice = twitter.getUserByUsername("alice");
+        NotificationInbox inbox = emma.getInbox();
+        
+        // Scenario 9's 20k likes arrived as individual events
+        System.out.println("\n📬 Emma's inbox after the viral post:");
+        for (Notification notification : emma.getNotifications(3)) {
+            System.out.println("  " + notification);
+        }
+        System.out.println("✓ " + inbox.getEventCount() + " events held in " + inbox.size() + 
+                           " entries | unread: " + emma.getUnreadNotificationCount());
+        
+        emma.markAllNotificationsAsRead();
+        Post viral = emma.getPostsBefore(Long.MAX_VALUE, 1).get(0);
+        twitter.likePost(viral.getPostId(), alice);
+        System.out.println("\n✓ Marked all read, then Alice liked the viral post");
+        System.out.println("✓ Unread: " + emma.getUnreadNotificationCount() + " -> " + emma.getUnreadNotifications().get(0));
+        
+        // One like on each of many posts cannot be aggregated, so the ring bound applies
+        User grace = twitter.registerUser("U008", "grace", "Grace Hopper");
+        int postCount = NotificationInbox.DEFAULT_CAPACITY + 500;
+        for (int i = 0; i < postCount; i++) {
+            Post post = twitter.createPost(PostType.REGULAR, grace, "Bug report #" + i, null);
+            twitter.likePost(post.getPostId(), alice);
+        }
+        System.out.println("\n🐞 Alice liked " + postCount + " of Grace's posts");
+        System.out.println("✓ Grace's inbox holds " + grace.getInbox().size() + " of " + 
+                           grace.getInbox().getEventCount() + " (capacity " + grace.getInbox().getCapacity() + 
+                           ") | unread: " + grace.getUnreadNotificationCount());
+        
+        NotificationDispatcher dispatcher = NotificationDispatcher.getInstance();
+        System.out.printf("✓ Dispatcher delivered %d notifications in %d batches (%.1f per batch)%n",
+            dispatcher.getDeliveredCount(), dispatcher.getBatchCount(),
+            (double) dispatcher.getDeliveredCount() / Math.max(1, dispatcher.getBatchCount()));
+    }
+    
+    /**
+     * Scenario 13: Compact social graph with batched follows and 2-hop suggestions
+     */
+    private static void scenario13_SocialGraph() {
+        System.out.println("\n" + repeatString("-", 80));
+        System.out.println("SCENARIO 13: Compact Social Graph");
+        System.out.println(repeatString("-", 80));
+        
+        TwitterService twitter = TwitterService.getInstance();
+        User alice = twitter.getUserByUsername("alice");
+        User bob = twitter.getUserByUsername("bob");
+        User charlie = twitter.getUserByUsername("charlie");
+        User david = twitter.getUserByUsername("david");
+        User grace = twitter.getUserByUsername("grace");
+        SocialGraph graph = twitter.getSocialGraph();
+        
+        System.out.println("\n🤝 Mutual follows of @alice:");
+        for (User user : twitter.getMutualFollows(alice)) {
+            System.out.println("  @" + user.getUsername());
+        }
+        
+        System.out.println("\n💡 Who to follow for @alice:");
+        for (User user : twitter.suggestUsersToFollow(alice, 3)) {
+            System.out.println("  @" + user.getUsername());
+        }
+        
+        // One batch for the graph instead of one insert per edge
+        twitter.followAll(grace, Arrays.asList(alice, bob, charlie, david));
+        System.out.println("\n✓ Grace followed 4 users in one batch | following: " + 
+                           graph.getFollowingCount(graph.getNode(grace.getUserId())));
+        System.out.println("✓ Grace follows Bob: " + twitter.isFollowing(grace, bob) + 
+                           " | Bob follows Grace: " + twitter.isFollowing(bob, grace));
+        
+        twitter.unfollowAll(grace, Arrays.asList(bob, charlie));
+        System.out.println("✓ After unfollowing Bob and Charlie: Grace follows Bob: " + twitter.isFollowing(grace, bob) + 
+                           " | follows Alice: " + twitter.isFollowing(grace, alice));
+        
+        System.out.println("\n💡 Who to follow for @grace now:");
+        for (User user : twitter.suggestUsersToFollow(grace, 3)) {
+            System.out.println("  @" + user.getUsername());
+        }
+        System.out.println("✓ Graph: " + graph.getNodeCount() + " users, " + graph.getEdgeCount() + " edges");
+    }
+    
     /**
      * Helper method to repeat a string n times (Java 8 compatible).
      */
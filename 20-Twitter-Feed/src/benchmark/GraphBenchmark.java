@@ -0,0 +1,185 @@
+package benchmark;
+
+import graph.SocialGraph;
+import graph.Suggestion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Builds a 50M-edge follow graph in batches and reports its memory against the
+ * per-user hash-set representation, plus query latency for edge checks,
+ * mutual follows and 2-hop suggestions.
+ *
+ * Followees are skewed toward low node numbers, so a few accounts collect
+ * millions of followers while the average user follows 50. The hash-set cost
+ * is measured on a smaller sample and extrapolated, since 50M edges of it do
+ * not fit in a modest heap. Run with a large heap, e.g.
+ * java -Xmx3g benchmark.GraphBenchmark
+ *
+ * JMH is not available in this source-only tree, so this is a plain
+ * warm-up-then-measure harness; results are consumed to defeat dead-code
+ * elimination.
+ *
+ * Usage: java benchmark.GraphBenchmark [users] [edges]
+ */
+public class GraphBenchmark {
+    private static final int BATCH_SIZE = 2_000_000;
+    private static final int HASH_SET_SAMPLE_EDGES = 2_000_000;
+    private static final int QUERIES = 10_000;
+    
+    public static void main(String[] args) {
+        int userCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        long edgeCount = args.length > 1 ? Long.parseLong(args[1]) : 50_000_000L;
+        Random random = new Random(42);
+        long sink = 0;
+        
+        long hashSetBytesPerEdge = measureHashSetBytesPerEdge(userCount, random);
+        
+        long heapBefore = usedHeap();
+        SocialGraph graph = new SocialGraph(userCount);
+        for (int i = 0; i < userCount; i++) {
+            graph.intern("U" + i);
+        }
+        long heapAfterIntern = usedHeap();
+        
+        System.out.printf("Building %,d edges over %,d users in batches of %,d...%n", edgeCount, userCount, BATCH_SIZE);
+        int[] sources = new int[BATCH_SIZE];
+        int[] targets = new int[BATCH_SIZE];
+        long start = System.nanoTime();
+        while (graph.getEdgeCount() < edgeCount) {
+            int batch = (int) Math.min(BATCH_SIZE, edgeCount - graph.getEdgeCount());
+            for (int i = 0; i < batch; i++) {
+                sources[i] = random.nextInt(userCount);
+                targets[i] = skewedUser(random, userCount, sources[i]);
+            }
+            graph.followAll(Arrays.copyOf(sources, batch), Arrays.copyOf(targets, batch));
+        }
+        double buildSeconds = (System.nanoTime() - start) / 1e9;
+        graph.trimToSize();
+        long heapAfterBuild = usedHeap();
+        
+        long adjacencyBytes = graph.estimatedAdjacencyBytes();
+        System.out.printf("Built in %.1f s (%,.0f edges/s), %,d edges%n",
+            buildSeconds, graph.getEdgeCount() / buildSeconds, graph.getEdgeCount());
+        System.out.printf("Most-followed account: %,d followers%n", graph.getFollowerCount(0));
+        System.out.printf("%nMemory for %,d edges (both directions):%n", graph.getEdgeCount());
+        System.out.printf("  %-32s %,6d MB (%.1f bytes/edge)%n", "compact adjacency (estimated)",
+            adjacencyBytes >> 20, (double) adjacencyBytes / graph.getEdgeCount());
+        System.out.printf("  %-32s %,6d MB%n", "compact adjacency (heap delta)", (heapAfterBuild - heapAfterIntern) >> 20);
+        System.out.printf("  %-32s %,6d MB%n", "ID interning", (heapAfterIntern - heapBefore) >> 20);
+        System.out.printf("  %-32s %,6d MB (%d bytes/edge)%n", "hash sets (extrapolated)",
+            hashSetBytesPerEdge * graph.getEdgeCount() >> 20, hashSetBytesPerEdge);
+        
+        System.out.printf("%nQueries (%d available processors):%n", Runtime.getRuntime().availableProcessors());
+        for (int round = 0; round < 2; round++) {
+            long[] latencies = new long[QUERIES];
+            for (int q = 0; q < QUERIES; q++) {
+                int a = random.nextInt(userCount);
+                int b = skewedUser(random, userCount, a);
+                long t0 = System.nanoTime();
+                sink += graph.isFollowing(a, b) ? 1 : 0;
+                latencies[q] = System.nanoTime() - t0;
+            }
+            if (round == 1) {
+                printLatencies("isFollowing", latencies);
+            }
+            
+            for (int q = 0; q < QUERIES; q++) {
+                int user = random.nextInt(userCount);
+                long t0 = System.nanoTime();
+                sink += graph.getMutualFollows(user).length;
+                latencies[q] = System.nanoTime() - t0;
+            }
+            if (round == 1) {
+                printLatencies("mutual follows", latencies);
+            }
+            
+            for (int q = 0; q < QUERIES; q++) {
+                int user = random.nextInt(userCount);
+                long t0 = System.nanoTime();
+                List<Suggestion> suggestions = graph.suggestFollows(user, 10);
+                latencies[q] = System.nanoTime() - t0;
+                sink += suggestions.size();
+            }
+            if (round == 1) {
+                printLatencies("who to follow (2-hop, top 10)", latencies);
+            }
+        }
+        
+        int[] bulkUsers = new int[100_000];
+        for (int i = 0; i < bulkUsers.length; i++) {
+            bulkUsers[i] = random.nextInt(userCount);
+        }
+        for (int round = 0; round < 2; round++) {
+            start = System.nanoTime();
+            int[] counts = graph.countMutualFollows(bulkUsers);
+            double millis = (System.nanoTime() - start) / 1e6;
+            sink += counts[0];
+            if (round == 1) {
+                System.out.printf("%-32s %,d users in %.1f ms%n", "bulk mutual-follow counts", bulkUsers.length, millis);
+            }
+        }
+        System.out.println("(sink " + sink + ")");
+    }
+    
+    /**
+     * Followees skewed toward low node numbers; never the follower itself.
+     */
+    private static int skewedUser(Random random, int userCount, int follower) {
+        int followee;
+        do {
+            followee = (int) (userCount * Math.pow(random.nextDouble(), 2.5));
+        } while (followee == follower);
+        return followee;
+    }
+    
+    /**
+     * Heap per edge when each user holds follower and following sets of user
+     * objects, as model.User does.
+     */
+    private static long measureHashSetBytesPerEdge(int userCount, Random random) {
+        int sampleUsers = Math.min(userCount, HASH_SET_SAMPLE_EDGES / 50);
+        Object[] users = new Object[sampleUsers];
+        List<Set<Object>> following = new ArrayList<>(sampleUsers);
+        List<Set<Object>> followers = new ArrayList<>(sampleUsers);
+        for (int i = 0; i < sampleUsers; i++) {
+            users[i] = new Object();
+            following.add(ConcurrentHashMap.newKeySet());
+            followers.add(ConcurrentHashMap.newKeySet());
+        }
+        long before = usedHeap();
+        long edges = 0;
+        while (edges < HASH_SET_SAMPLE_EDGES) {
+            int a = random.nextInt(sampleUsers);
+            int b = skewedUser(random, sampleUsers, a);
+            if (following.get(a).add(users[b])) {
+                followers.get(b).add(users[a]);
+                edges++;
+            }
+        }
+        long bytesPerEdge = (usedHeap() - before) / edges;
+        System.out.printf("Hash-set sample: %,d edges over %,d users, %d bytes/edge%n%n", edges, sampleUsers, bytesPerEdge);
+        return bytesPerEdge;
+    }
+    
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+    
+    private static void printLatencies(String label, long[] latencies) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        System.out.printf("%-32s p50 %8.2f µs | p99 %8.2f µs%n", label,
+            sorted[sorted.length / 2] / 1e3,
+            sorted[(int) (sorted.length * 0.99)] / 1e3);
+    }
+}
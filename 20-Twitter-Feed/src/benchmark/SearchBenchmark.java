@@ -0,0 +1,138 @@
+package benchmark;
+
+import search.PostIndex;
+import search.UsernameTrie;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Reports query latency of the inverted post index at 10M posts and of the
+ * username autocomplete trie.
+ *
+ * Post text is synthetic: words are drawn from a Zipf-distributed vocabulary
+ * and fed straight to the index as terms, so no Post objects are created and
+ * the heap holds only posting lists. Run with a large heap, e.g.
+ * java -Xmx3g benchmark.SearchBenchmark
+ *
+ * JMH is not available in this source-only tree, so this is a plain
+ * warm-up-then-measure harness; results are consumed to defeat dead-code
+ * elimination.
+ *
+ * Usage: java benchmark.SearchBenchmark [posts] [users]
+ */
+public class SearchBenchmark {
+    private static final int VOCABULARY = 50_000;
+    private static final int HASHTAGS = 2_000;
+    private static final int WORDS_PER_POST = 8;
+    private static final int QUERIES = 10_000;
+    private static final int LIMIT = 20;
+    
+    public static void main(String[] args) {
+        int postCount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        int userCount = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+        Random random = new Random(42);
+        
+        String[] words = new String[VOCABULARY];
+        for (int i = 0; i < VOCABULARY; i++) {
+            words[i] = "w" + i;
+        }
+        double[] zipf = zipfCumulative(VOCABULARY);
+        
+        System.out.printf("Indexing %,d posts (%d words each, 1 in 5 with a hashtag)...%n", postCount, WORDS_PER_POST);
+        PostIndex index = new PostIndex();
+        long start = System.nanoTime();
+        for (long sequence = 1; sequence <= postCount; sequence++) {
+            for (int w = 0; w < WORDS_PER_POST; w++) {
+                index.indexTerm(sequence, words[sample(zipf, random)]);
+            }
+            if (random.nextInt(5) == 0) {
+                index.indexTerm(sequence, "#tag" + random.nextInt(HASHTAGS));
+            }
+        }
+        double buildSeconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Built in %.1f s: %,d terms, %,d postings%n%n",
+            buildSeconds, index.getTermCount(), index.getPostingCount());
+        
+        long sink = 0;
+        sink += report("single common term", index, random, r -> "w" + r.nextInt(10));
+        sink += report("single mid-frequency term", index, random, r -> "w" + (100 + r.nextInt(900)));
+        sink += report("single rare term", index, random, r -> "w" + (20_000 + r.nextInt(30_000)));
+        sink += report("hashtag", index, random, r -> "#tag" + r.nextInt(HASHTAGS));
+        sink += report("AND common + common", index, random, r -> "w" + r.nextInt(10) + " w" + (10 + r.nextInt(10)));
+        sink += report("AND common + rare", index, random, r -> "w" + r.nextInt(10) + " w" + (20_000 + r.nextInt(30_000)));
+        sink += report("AND three mid-frequency", index, random,
+            r -> "w" + (100 + r.nextInt(50)) + " w" + (150 + r.nextInt(50)) + " w" + (200 + r.nextInt(50)));
+        
+        System.out.printf("%nBuilding autocomplete trie for %,d users...%n", userCount);
+        UsernameTrie<Integer> trie = new UsernameTrie<>();
+        for (int i = 0; i < userCount; i++) {
+            trie.insert(randomName(random) + i, i);
+        }
+        long[] latencies = new long[QUERIES];
+        for (int round = 0; round < 2; round++) {
+            for (int q = 0; q < QUERIES; q++) {
+                String prefix = randomName(random).substring(0, 1 + random.nextInt(3));
+                long t0 = System.nanoTime();
+                sink += trie.complete(prefix, 10).size();
+                latencies[q] = System.nanoTime() - t0;
+            }
+        }
+        printLatencies("autocomplete (top 10)", latencies);
+        System.out.println("(sink " + sink + ")");
+    }
+    
+    private interface QueryGenerator {
+        String next(Random random);
+    }
+    
+    private static long report(String label, PostIndex index, Random random, QueryGenerator generator) {
+        long sink = 0;
+        long[] latencies = new long[QUERIES];
+        for (int round = 0; round < 2; round++) {
+            for (int q = 0; q < QUERIES; q++) {
+                String query = generator.next(random);
+                long t0 = System.nanoTime();
+                sink += index.search(query, LIMIT).length;
+                latencies[q] = System.nanoTime() - t0;
+            }
+        }
+        printLatencies(label, latencies);
+        return sink;
+    }
+    
+    private static void printLatencies(String label, long[] latencies) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        System.out.printf("%-28s p50 %8.1f µs | p99 %8.1f µs | max %9.1f µs%n", label,
+            sorted[sorted.length / 2] / 1e3,
+            sorted[(int) (sorted.length * 0.99)] / 1e3,
+            sorted[sorted.length - 1] / 1e3);
+    }
+    
+    private static double[] zipfCumulative(int n) {
+        double[] cumulative = new double[n];
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += 1.0 / (i + 1);
+            cumulative[i] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            cumulative[i] /= sum;
+        }
+        return cumulative;
+    }
+    
+    private static int sample(double[] cumulative, Random random) {
+        int position = Arrays.binarySearch(cumulative, random.nextDouble());
+        return position >= 0 ? position : Math.min(-position - 1, cumulative.length - 1);
+    }
+    
+    private static String randomName(Random random) {
+        char[] name = new char[6];
+        for (int i = 0; i < name.length; i++) {
+            name[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(name);
+    }
+}
@@ -0,0 +1,122 @@
+package benchmark;
+
+import factory.PostFactory;
+import model.FeedPage;
+import model.Post;
+import model.User;
+import service.TimelineService;
+import strategy.ChronologicalFeed;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compares a first-page feed read from precomputed home timelines against the
+ * original scan-filter-sort ChronologicalFeed over every post in the system.
+ *
+ * The graph has 100k users; each follows a handful of random accounts plus a
+ * few from a small pool of popular accounts, so the popular ones cross the
+ * celebrity threshold and are merged on read.
+ *
+ * JMH is not available in this source-only tree, so this is a plain
+ * warm-up-then-measure harness; results are consumed to defeat dead-code
+ * elimination.
+ *
+ * Usage: java benchmark.TimelineBenchmark [users] [posts]
+ */
+public class TimelineBenchmark {
+    private static final int FOLLOWS_PER_USER = 8;
+    private static final int POPULAR_FOLLOWS_PER_USER = 2;
+    private static final int POPULAR_ACCOUNTS = 50;
+    private static final int CELEBRITY_THRESHOLD = 1_000;
+    private static final int PAGE_SIZE = 20;
+    private static final int SCAN_READS = 100;
+    private static final int TIMELINE_READS = 100_000;
+    
+    public static void main(String[] args) {
+        int userCount = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int postCount = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+        Random random = new Random(42);
+        
+        System.out.println("Building graph: " + userCount + " users...");
+        User[] users = new User[userCount];
+        for (int i = 0; i < userCount; i++) {
+            users[i] = new User("U" + i, "user" + i, "User " + i);
+        }
+        for (User user : users) {
+            for (int f = 0; f < FOLLOWS_PER_USER; f++) {
+                followQuietly(user, users[random.nextInt(userCount)]);
+            }
+            for (int f = 0; f < POPULAR_FOLLOWS_PER_USER; f++) {
+                followQuietly(user, users[random.nextInt(POPULAR_ACCOUNTS)]);
+            }
+        }
+        
+        Map<String, Post> posts = new ConcurrentHashMap<>();
+        TimelineService timelines = new TimelineService(posts::get,
+            TimelineService.DEFAULT_CAPACITY, CELEBRITY_THRESHOLD);
+        List<Post> allPosts = new ArrayList<>(postCount);
+        
+        long start = System.nanoTime();
+        for (int i = 0; i < postCount; i++) {
+            // Popular accounts post ten times as often as everyone else
+            User author = random.nextInt(10) == 0
+                ? users[random.nextInt(POPULAR_ACCOUNTS)]
+                : users[random.nextInt(userCount)];
+            Post post = PostFactory.createRegularPost(author, "Post number " + i);
+            posts.put(post.getPostId(), post);
+            author.addPost(post);
+            allPosts.add(post);
+            timelines.onPostCreated(post);
+        }
+        double writeSeconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Created %,d posts with fan-out in %.2f s (%,d timeline writes, %d celebrities)%n",
+            postCount, writeSeconds, timelines.getFanoutWrites(), timelines.getCelebrityCount());
+        
+        ChronologicalFeed scanFeed = new ChronologicalFeed();
+        long sink = 0;
+        int mismatches = 0;
+        for (int round = 0; round < 3; round++) {
+            Random readers = new Random(7);
+            start = System.nanoTime();
+            for (int i = 0; i < SCAN_READS; i++) {
+                List<Post> feed = scanFeed.generateFeed(users[readers.nextInt(userCount)], allPosts);
+                sink += feed.subList(0, Math.min(PAGE_SIZE, feed.size())).size();
+            }
+            double scanMicros = (System.nanoTime() - start) / 1e3 / SCAN_READS;
+            
+            readers = new Random(7);
+            start = System.nanoTime();
+            for (int i = 0; i < TIMELINE_READS; i++) {
+                FeedPage page = timelines.getHomeTimeline(users[readers.nextInt(userCount)], null, PAGE_SIZE);
+                sink += page.getPosts().size();
+            }
+            double timelineMicros = (System.nanoTime() - start) / 1e3 / TIMELINE_READS;
+            
+            System.out.printf("Round %d: scan-and-sort %,.1f µs/read | timeline %,.2f µs/read | speedup %.0fx%n",
+                round + 1, scanMicros, timelineMicros, scanMicros / timelineMicros);
+        }
+        
+        // Both paths must return the same first page
+        Random readers = new Random(7);
+        for (int i = 0; i < SCAN_READS; i++) {
+            User reader = users[readers.nextInt(userCount)];
+            List<Post> feed = scanFeed.generateFeed(reader, allPosts);
+            List<Post> expected = feed.subList(0, Math.min(PAGE_SIZE, feed.size()));
+            if (!expected.equals(timelines.getHomeTimeline(reader, null, PAGE_SIZE).getPosts())) {
+                mismatches++;
+            }
+        }
+        System.out.println("First-page mismatches (timestamp ties in scan order): " + mismatches + "/" + SCAN_READS);
+        System.out.println("(sink " + sink + ")");
+    }
+    
+    private static void followQuietly(User follower, User followee) {
+        if (!follower.equals(followee)) {
+            follower.follow(followee);
+        }
+    }
+}
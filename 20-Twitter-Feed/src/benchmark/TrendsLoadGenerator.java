@@ -0,0 +1,148 @@
+package benchmark;
+
+import enums.TrendEventType;
+import trends.Trend;
+import trends.TrendsEngine;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Replays a synthetic event stream through the trends engine and reports
+ * sustained events/sec, end to end from publish to applied.
+ *
+ * The stream covers six simulated hours: 20% new posts carrying 0-3
+ * Zipf-distributed hashtags, and likes, comments and retweets aimed mostly at
+ * recent posts. Events are generated up front so only the engine is timed.
+ *
+ * JMH is not available in this source-only tree, so this is a plain
+ * warm-up-then-measure harness.
+ *
+ * Usage: java benchmark.TrendsLoadGenerator [events] [producers]
+ */
+public class TrendsLoadGenerator {
+    private static final long SIMULATED_MILLIS = 6 * 60 * 60 * 1000L;
+    private static final int HASHTAGS = 10_000;
+    private static final TrendEventType[] TYPES = TrendEventType.values();
+    
+    private static byte[] types;
+    private static long[] postSequences;
+    private static String[][] tags;
+    private static long[] timestamps;
+    
+    public static void main(String[] args) throws InterruptedException {
+        int eventCount = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        int producers = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        
+        generate(eventCount, new Random(42));
+        System.out.printf("Generated %,d events over %d simulated hours%n%n", eventCount, SIMULATED_MILLIS / 3_600_000);
+        
+        for (int round = 0; round < 2; round++) {
+            replay("Round " + (round + 1) + ", 1 producer ", eventCount, 1, false);
+            replay("Round " + (round + 1) + ", " + producers + " producers", eventCount, producers, round == 1);
+        }
+    }
+    
+    private static void replay(String label, int eventCount, int producers, boolean printTrends)
+            throws InterruptedException {
+        TrendsEngine engine = new TrendsEngine(TrendsEngine.DEFAULT_HALF_LIFE_MILLIS,
+            TrendsEngine.DEFAULT_BUCKET_MILLIS, TrendsEngine.DEFAULT_WINDOW_BUCKETS, 10, 1 << 16);
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            final int offset = p;
+            threads[p] = new Thread(() -> {
+                // Interleave events so simulated time moves forward for every producer
+                for (int i = offset; i < eventCount; i += producers) {
+                    String[] eventTags = tags[i];
+                    while (!engine.publish(TYPES[types[i]], postSequences[i], eventTags, timestamps[i])) {
+                        Thread.yield();
+                    }
+                }
+            });
+        }
+        
+        long start = System.nanoTime();
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        while (engine.getAppliedCount() < eventCount) {
+            Thread.yield();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        
+        // The engine counts each rejected publish as a drop; here every one was retried
+        System.out.printf("%s: %,.0f events/sec (%,d applied, %,d ring-full retries, %,d posts / %,d tags tracked)%n",
+            label, eventCount / seconds, engine.getAppliedCount(), engine.getDroppedCount(),
+            engine.getTrackedPostCount(), engine.getTrackedHashtagCount());
+        
+        if (printTrends) {
+            long end = timestamps[eventCount - 1];
+            System.out.println("\nTop hashtags at end of stream:");
+            for (Trend<String> trend : engine.getTrendingHashtags(5, end)) {
+                System.out.println("  " + trend);
+            }
+            System.out.println("Top posts at end of stream:");
+            for (Trend<Long> trend : engine.getTrendingPosts(3, end)) {
+                System.out.printf("  post #%d (score %.1f)%n", trend.getKey(), trend.getScore());
+            }
+        }
+        engine.shutdown();
+    }
+    
+    private static void generate(int eventCount, Random random) {
+        types = new byte[eventCount];
+        postSequences = new long[eventCount];
+        tags = new String[eventCount][];
+        timestamps = new long[eventCount];
+        
+        String[] tagNames = new String[HASHTAGS];
+        for (int i = 0; i < HASHTAGS; i++) {
+            tagNames[i] = "#topic" + i;
+        }
+        double[] zipf = zipfCumulative(HASHTAGS);
+        long startMillis = 1_700_000_000_000L;
+        long posts = 0;
+        
+        for (int i = 0; i < eventCount; i++) {
+            timestamps[i] = startMillis + SIMULATED_MILLIS * i / eventCount;
+            int roll = random.nextInt(100);
+            if (roll < 20 || posts == 0) {
+                types[i] = (byte) TrendEventType.POST.ordinal();
+                postSequences[i] = ++posts;
+                String[] postTags = new String[random.nextInt(4)];
+                for (int t = 0; t < postTags.length; t++) {
+                    postTags[t] = tagNames[sample(zipf, random)];
+                }
+                tags[i] = postTags;
+            } else {
+                TrendEventType type = roll < 80 ? TrendEventType.LIKE
+                    : roll < 92 ? TrendEventType.COMMENT : TrendEventType.RETWEET;
+                types[i] = (byte) type.ordinal();
+                // Mostly recent posts, with a long tail into older ones
+                long age = (long) (Math.abs(random.nextGaussian()) * 2_000);
+                postSequences[i] = Math.max(1, posts - age);
+            }
+        }
+    }
+    
+    private static double[] zipfCumulative(int n) {
+        double[] cumulative = new double[n];
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += 1.0 / (i + 1);
+            cumulative[i] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            cumulative[i] /= sum;
+        }
+        return cumulative;
+    }
+    
+    private static int sample(double[] cumulative, Random random) {
+        int position = Arrays.binarySearch(cumulative, random.nextDouble());
+        return position >= 0 ? position : Math.min(-position - 1, cumulative.length - 1);
+    }
+}
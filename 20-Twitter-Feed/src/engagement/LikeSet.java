@@ -0,0 +1,202 @@
+package engagement;
+
+import java.util.Arrays;
+
+/**
+ * Concurrent set of interned user IDs (positive ints) for tracking likes.
+ * 
+ * IDs are spread over lock-striped segments, each a primitive open-addressing
+ * table with linear probing and backward-shift deletion, so a like costs about
+ * 8 bytes instead of a HashSet entry plus a boxed reference. Threads liking the
+ * same viral post contend only when they land on the same stripe. Segment
+ * tables are allocated on first use, so posts nobody likes stay cheap.
+ */
+public class LikeSet {
+    private static final int STRIPE_BITS = 3;
+    private static final int STRIPES = 1 << STRIPE_BITS;
+    private static final int INITIAL_SEGMENT_CAPACITY = 8;
+    private static final int EMPTY = 0;
+    
+    private final Segment[] segments;
+    
+    public LikeSet() {
+        this.segments = new Segment[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            segments[i] = new Segment();
+        }
+    }
+    
+    /**
+     * Add an ID.
+     * 
+     * @return true if the ID was not already present
+     */
+    public boolean add(int id) {
+        int hash = mix(requireValid(id));
+        return segmentFor(hash).add(id, hash);
+    }
+    
+    /**
+     * Remove an ID.
+     * 
+     * @return true if the ID was present
+     */
+    public boolean remove(int id) {
+        int hash = mix(requireValid(id));
+        return segmentFor(hash).remove(id, hash);
+    }
+    
+    public boolean contains(int id) {
+        int hash = mix(requireValid(id));
+        return segmentFor(hash).contains(id, hash);
+    }
+    
+    /**
+     * Number of IDs, summed over stripes without locking.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+    
+    /**
+     * Snapshot of the IDs in no particular order.
+     */
+    public int[] toArray() {
+        int[] result = new int[size()];
+        int count = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                if (segment.table == null) {
+                    continue;
+                }
+                for (int id : segment.table) {
+                    if (id != EMPTY) {
+                        if (count == result.length) {
+                            result = Arrays.copyOf(result, count * 2 + 1);
+                        }
+                        result[count++] = id;
+                    }
+                }
+            }
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+    
+    /**
+     * Approximate heap footprint of the table arrays, in bytes.
+     */
+    public long estimatedBytes() {
+        long bytes = 0;
+        for (Segment segment : segments) {
+            int[] table = segment.table;
+            bytes += table == null ? 0 : 16 + 4L * table.length;
+        }
+        return bytes;
+    }
+    
+    private Segment segmentFor(int hash) {
+        return segments[hash >>> (32 - STRIPE_BITS)];
+    }
+    
+    private static int requireValid(int id) {
+        if (id <= EMPTY) {
+            throw new IllegalArgumentException("User ID must be positive: " + id);
+        }
+        return id;
+    }
+    
+    private static int mix(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+    
+    /**
+     * One lock stripe: open-addressing table kept at most half full.
+     */
+    private static class Segment {
+        private int[] table;
+        private volatile int size;
+        
+        synchronized boolean add(int id, int hash) {
+            if (table == null) {
+                table = new int[INITIAL_SEGMENT_CAPACITY];
+            } else if ((size + 1) * 2 > table.length) {
+                resize();
+            }
+            int mask = table.length - 1;
+            int slot = hash & mask;
+            while (table[slot] != EMPTY) {
+                if (table[slot] == id) {
+                    return false;
+                }
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = id;
+            size++;
+            return true;
+        }
+        
+        synchronized boolean remove(int id, int hash) {
+            if (table == null) {
+                return false;
+            }
+            int mask = table.length - 1;
+            int slot = hash & mask;
+            while (table[slot] != id) {
+                if (table[slot] == EMPTY) {
+                    return false;
+                }
+                slot = (slot + 1) & mask;
+            }
+            
+            // Backward-shift deletion keeps probe chains intact without tombstones
+            int gap = slot;
+            int next = (gap + 1) & mask;
+            while (table[next] != EMPTY) {
+                int home = mix(table[next]) & mask;
+                if (((next - home) & mask) >= ((next - gap) & mask)) {
+                    table[gap] = table[next];
+                    gap = next;
+                }
+                next = (next + 1) & mask;
+            }
+            table[gap] = EMPTY;
+            size--;
+            return true;
+        }
+        
+        synchronized boolean contains(int id, int hash) {
+            if (table == null) {
+                return false;
+            }
+            int mask = table.length - 1;
+            int slot = hash & mask;
+            while (table[slot] != EMPTY) {
+                if (table[slot] == id) {
+                    return true;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return false;
+        }
+        
+        private void resize() {
+            int[] old = table;
+            table = new int[old.length * 2];
+            int mask = table.length - 1;
+            for (int id : old) {
+                if (id != EMPTY) {
+                    int slot = mix(id) & mask;
+                    while (table[slot] != EMPTY) {
+                        slot = (slot + 1) & mask;
+                    }
+                    table[slot] = id;
+                }
+            }
+        }
+    }
+}
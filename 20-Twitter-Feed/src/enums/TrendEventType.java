@@ -0,0 +1,11 @@
+package enums;
+
+/**
+ * Enum representing events consumed by the trends engine.
+ */
+public enum TrendEventType {
+    POST,         // New post; its hashtags gain a mention
+    LIKE,         // Someone liked a post
+    COMMENT,      // Someone commented on a post
+    RETWEET       // Someone retweeted or quoted a post
+}
@@ -0,0 +1,643 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+/**
+ * Compact follow graph over interned user IDs.
+ *
+ * Each user ID is interned to a dense int node. Every node keeps two sorted
+ * int arrays, the users it follows and its followers, so an edge costs 4 bytes
+ * per direction instead of a hash-set node plus object references, and
+ * membership is a binary search. Batched follow/unfollow sorts the edges once
+ * and merges them into each touched array in a single pass.
+ *
+ * Writes take an exclusive lock; queries share a read lock, and the heavier
+ * ones (2-hop suggestions, bulk mutual counts) fan out over the common
+ * fork/join pool while holding it.
+ *
+ * The shared instance holds the follow state of every User; standalone
+ * instances serve tools like GraphBenchmark.
+ */
+public class SocialGraph {
+    private static final int[] EMPTY = new int[0];
+    private static final int MIN_CAPACITY = 4;
+    private static final int PARALLEL_CHUNK = 16;     // Followees per suggestion task
+    private static final long ARRAY_HEADER_BYTES = 16;
+    
+    private static SocialGraph instance;
+    
+    private final ConcurrentHashMap<String, Integer> nodeIds;
+    private final ReentrantReadWriteLock lock;
+    private String[] userIds;
+    private int[][] following;
+    private int[] followingSize;
+    private int[][] followers;
+    private int[] followerSize;
+    private int nodeCount;
+    private long edgeCount;
+    
+    public SocialGraph(int expectedUsers) {
+        int capacity = Math.max(MIN_CAPACITY, expectedUsers);
+        this.nodeIds = new ConcurrentHashMap<>(capacity);
+        this.lock = new ReentrantReadWriteLock();
+        this.userIds = new String[capacity];
+        this.following = new int[capacity][];
+        this.followingSize = new int[capacity];
+        this.followers = new int[capacity][];
+        this.followerSize = new int[capacity];
+    }
+    
+    public SocialGraph() {
+        this(1_024);
+    }
+    
+    /**
+     * Get the graph shared by all users.
+     */
+    public static synchronized SocialGraph getInstance() {
+        if (instance == null) {
+            instance = new SocialGraph();
+        }
+        return instance;
+    }
+    
+    /**
+     * Intern a user ID, returning its dense node number.
+     */
+    public int intern(String userId) {
+        Integer node = nodeIds.get(userId);
+        if (node != null) {
+            return node;
+        }
+        lock.writeLock().lock();
+        try {
+            node = nodeIds.get(userId);
+            if (node != null) {
+                return node;
+            }
+            if (nodeCount == userIds.length) {
+                growNodes(nodeCount * 2);
+            }
+            int created = nodeCount++;
+            userIds[created] = userId;
+            following[created] = EMPTY;
+            followers[created] = EMPTY;
+            nodeIds.put(userId, created);
+            return created;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Node number of a user ID, or -1 if it was never interned.
+     */
+    public int getNode(String userId) {
+        Integer node = nodeIds.get(userId);
+        return node == null ? -1 : node;
+    }
+    
+    public String getUserId(int node) {
+        lock.readLock().lock();
+        try {
+            checkNode(node);
+            return userIds[node];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Add one edge.
+     *
+     * @return true if the edge is new
+     */
+    public boolean follow(int follower, int followee) {
+        if (follower == followee) {
+            throw new IllegalArgumentException("Cannot follow yourself");
+        }
+        lock.writeLock().lock();
+        try {
+            checkNode(follower);
+            checkNode(followee);
+            if (!insert(following, followingSize, follower, followee)) {
+                return false;
+            }
+            insert(followers, followerSize, followee, follower);
+            edgeCount++;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Remove one edge.
+     *
+     * @return true if the edge existed
+     */
+    public boolean unfollow(int follower, int followee) {
+        lock.writeLock().lock();
+        try {
+            checkNode(follower);
+            checkNode(followee);
+            if (!delete(following, followingSize, follower, followee)) {
+                return false;
+            }
+            delete(followers, followerSize, followee, follower);
+            edgeCount--;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Add many edges at once; edge i is followerNodes[i] -> followeeNodes[i].
+     * Duplicates and existing edges are ignored.
+     *
+     * @return number of edges actually added
+     */
+    public int followAll(int[] followerNodes, int[] followeeNodes) {
+        return applyBatch(followerNodes, followeeNodes, true);
+    }
+    
+    /**
+     * Remove many edges at once; missing edges are ignored.
+     *
+     * @return number of edges actually removed
+     */
+    public int unfollowAll(int[] followerNodes, int[] followeeNodes) {
+        return applyBatch(followerNodes, followeeNodes, false);
+    }
+    
+    public boolean isFollowing(int follower, int followee) {
+        lock.readLock().lock();
+        try {
+            checkNode(follower);
+            checkNode(followee);
+            // Search whichever side is shorter
+            if (followingSize[follower] <= followerSize[followee]) {
+                return Arrays.binarySearch(following[follower], 0, followingSize[follower], followee) >= 0;
+            }
+            return Arrays.binarySearch(followers[followee], 0, followerSize[followee], follower) >= 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Sorted copy of the nodes this node follows.
+     */
+    public int[] getFollowing(int node) {
+        lock.readLock().lock();
+        try {
+            checkNode(node);
+            return Arrays.copyOf(following[node], followingSize[node]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Sorted copy of this node's followers.
+     */
+    public int[] getFollowers(int node) {
+        lock.readLock().lock();
+        try {
+            checkNode(node);
+            return Arrays.copyOf(followers[node], followerSize[node]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public int getFollowingCount(int node) {
+        lock.readLock().lock();
+        try {
+            checkNode(node);
+            return followingSize[node];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public int getFollowerCount(int node) {
+        lock.readLock().lock();
+        try {
+            checkNode(node);
+            return followerSize[node];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Nodes that this node follows and that follow it back, sorted.
+     */
+    public int[] getMutualFollows(int node) {
+        lock.readLock().lock();
+        try {
+            checkNode(node);
+            return intersect(following[node], followingSize[node], followers[node], followerSize[node]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Mutual-follow counts for many nodes, computed in parallel.
+     */
+    public int[] countMutualFollows(int[] nodes) {
+        lock.readLock().lock();
+        try {
+            for (int node : nodes) {
+                checkNode(node);
+            }
+            int[][] out = following;
+            int[] outSize = followingSize;
+            int[][] in = followers;
+            int[] inSize = followerSize;
+            return Arrays.stream(nodes).parallel()
+                .map(node -> intersectionSize(out[node], outSize[node], in[node], inSize[node]))
+                .toArray();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * "Who to follow": accounts followed by the accounts this node follows,
+     * ranked by how many of them follow each candidate. Already-followed
+     * accounts and the node itself are excluded. Followees are split into
+     * chunks counted in parallel, then the partial counts are merged.
+     */
+    public List<Suggestion> suggestFollows(int node, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        lock.readLock().lock();
+        try {
+            checkNode(node);
+            int[][] out = following;
+            int[] outSize = followingSize;
+            int[] direct = out[node];
+            int directCount = outSize[node];
+            int chunks = (directCount + PARALLEL_CHUNK - 1) / PARALLEL_CHUNK;
+            
+            IntCounter counts = IntStream.range(0, chunks).parallel()
+                .mapToObj(chunk -> {
+                    IntCounter partial = new IntCounter();
+                    int end = Math.min(directCount, (chunk + 1) * PARALLEL_CHUNK);
+                    for (int i = chunk * PARALLEL_CHUNK; i < end; i++) {
+                        int[] hop = out[direct[i]];
+                        for (int j = 0, size = outSize[direct[i]]; j < size; j++) {
+                            int candidate = hop[j];
+                            if (candidate != node && Arrays.binarySearch(direct, 0, directCount, candidate) < 0) {
+                                partial.increment(candidate, 1);
+                            }
+                        }
+                    }
+                    return partial;
+                })
+                .reduce(IntCounter::mergeInto)
+                .orElseGet(IntCounter::new);
+            
+            return counts.top(limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public int getNodeCount() {
+        lock.readLock().lock();
+        try {
+            return nodeCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public long getEdgeCount() {
+        lock.readLock().lock();
+        try {
+            return edgeCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Release spare capacity in every adjacency array.
+     */
+    public void trimToSize() {
+        lock.writeLock().lock();
+        try {
+            for (int node = 0; node < nodeCount; node++) {
+                following[node] = trim(following[node], followingSize[node]);
+                followers[node] = trim(followers[node], followerSize[node]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Approximate heap held by the adjacency arrays and per-node bookkeeping,
+     * excluding the interned ID strings and the ID lookup map.
+     */
+    public long estimatedAdjacencyBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = 0;
+            for (int node = 0; node < nodeCount; node++) {
+                if (following[node].length > 0) {
+                    bytes += ARRAY_HEADER_BYTES + 4L * following[node].length;
+                }
+                if (followers[node].length > 0) {
+                    bytes += ARRAY_HEADER_BYTES + 4L * followers[node].length;
+                }
+            }
+            // Outer array slots and size counters
+            bytes += (long) userIds.length * (2 * 4 + 2 * 4);
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private int applyBatch(int[] sources, int[] targets, boolean add) {
+        if (sources.length != targets.length) {
+            throw new IllegalArgumentException("Follower and followee arrays differ in length");
+        }
+        lock.writeLock().lock();
+        try {
+            long[] outEdges = new long[sources.length];
+            long[] inEdges = new long[sources.length];
+            for (int i = 0; i < sources.length; i++) {
+                checkNode(sources[i]);
+                checkNode(targets[i]);
+                if (add && sources[i] == targets[i]) {
+                    throw new IllegalArgumentException("Cannot follow yourself");
+                }
+                outEdges[i] = pack(sources[i], targets[i]);
+                inEdges[i] = pack(targets[i], sources[i]);
+            }
+            Arrays.parallelSort(outEdges);
+            Arrays.parallelSort(inEdges);
+            int changed = mergeSorted(following, followingSize, outEdges, add);
+            mergeSorted(followers, followerSize, inEdges, add);
+            edgeCount += add ? changed : -changed;
+            return changed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Merge sorted (owner, neighbour) pairs into the adjacency arrays, one
+     * pass per owner.
+     *
+     * @return number of neighbours added or removed
+     */
+    private static int mergeSorted(int[][] adjacency, int[] sizes, long[] edges, boolean add) {
+        int changed = 0;
+        int start = 0;
+        while (start < edges.length) {
+            int owner = (int) (edges[start] >>> 32);
+            int end = start;
+            while (end < edges.length && (int) (edges[end] >>> 32) == owner) {
+                end++;
+            }
+            int[] current = adjacency[owner];
+            int size = sizes[owner];
+            int[] merged = new int[add ? size + (end - start) : size];
+            int count = 0;
+            int i = 0;
+            int j = start;
+            while (i < size || j < end) {
+                int existing = i < size ? current[i] : Integer.MAX_VALUE;
+                int incoming = j < end ? (int) edges[j] : Integer.MAX_VALUE;
+                if (j < end && incoming < existing) {
+                    if (add && (count == 0 || merged[count - 1] != incoming)) {
+                        merged[count++] = incoming;
+                        changed++;
+                    }
+                    j++;
+                } else if (j < end && incoming == existing) {
+                    if (add) {
+                        merged[count++] = existing;
+                    } else {
+                        changed++;
+                    }
+                    i++;
+                    // Skip duplicates of this neighbour in the batch
+                    while (j < end && (int) edges[j] == existing) {
+                        j++;
+                    }
+                } else {
+                    merged[count++] = existing;
+                    i++;
+                }
+            }
+            adjacency[owner] = count == 0 ? EMPTY : merged;
+            sizes[owner] = count;
+            start = end;
+        }
+        return changed;
+    }
+    
+    private static boolean insert(int[][] adjacency, int[] sizes, int owner, int neighbour) {
+        int[] current = adjacency[owner];
+        int size = sizes[owner];
+        int position = Arrays.binarySearch(current, 0, size, neighbour);
+        if (position >= 0) {
+            return false;
+        }
+        position = -position - 1;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, Math.max(MIN_CAPACITY, size * 2));
+            adjacency[owner] = current;
+        }
+        System.arraycopy(current, position, current, position + 1, size - position);
+        current[position] = neighbour;
+        sizes[owner] = size + 1;
+        return true;
+    }
+    
+    private static boolean delete(int[][] adjacency, int[] sizes, int owner, int neighbour) {
+        int[] current = adjacency[owner];
+        int size = sizes[owner];
+        int position = Arrays.binarySearch(current, 0, size, neighbour);
+        if (position < 0) {
+            return false;
+        }
+        System.arraycopy(current, position + 1, current, position, size - position - 1);
+        sizes[owner] = size - 1;
+        return true;
+    }
+    
+    private static int[] intersect(int[] a, int aSize, int[] b, int bSize) {
+        int[] result = new int[Math.min(aSize, bSize)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < aSize && j < bSize) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[count++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+    
+    private static int intersectionSize(int[] a, int aSize, int[] b, int bSize) {
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < aSize && j < bSize) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                count++;
+                i++;
+                j++;
+            }
+        }
+        return count;
+    }
+    
+    private static int[] trim(int[] array, int size) {
+        if (size == 0) {
+            return EMPTY;
+        }
+        return array.length == size ? array : Arrays.copyOf(array, size);
+    }
+    
+    private static long pack(int owner, int neighbour) {
+        return ((long) owner << 32) | (neighbour & 0xFFFFFFFFL);
+    }
+    
+    private void growNodes(int capacity) {
+        userIds = Arrays.copyOf(userIds, capacity);
+        following = Arrays.copyOf(following, capacity);
+        followingSize = Arrays.copyOf(followingSize, capacity);
+        followers = Arrays.copyOf(followers, capacity);
+        followerSize = Arrays.copyOf(followerSize, capacity);
+    }
+    
+    private void checkNode(int node) {
+        if (node < 0 || node >= nodeCount) {
+            throw new IllegalArgumentException("Unknown node: " + node);
+        }
+    }
+    
+    /**
+     * Open-addressing int -> count map used to tally 2-hop candidates.
+     */
+    private static final class IntCounter {
+        private static final int FREE = -1;
+        
+        private int[] keys;
+        private int[] counts;
+        private int size;
+        
+        IntCounter() {
+            keys = new int[64];
+            counts = new int[64];
+            Arrays.fill(keys, FREE);
+        }
+        
+        void increment(int key, int amount) {
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            while (keys[slot] != FREE) {
+                if (keys[slot] == key) {
+                    counts[slot] += amount;
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            counts[slot] = amount;
+            if (++size * 2 > keys.length) {
+                rehash();
+            }
+        }
+        
+        IntCounter mergeInto(IntCounter other) {
+            IntCounter larger = size >= other.size ? this : other;
+            IntCounter smaller = larger == this ? other : this;
+            for (int slot = 0; slot < smaller.keys.length; slot++) {
+                if (smaller.keys[slot] != FREE) {
+                    larger.increment(smaller.keys[slot], smaller.counts[slot]);
+                }
+            }
+            return larger;
+        }
+        
+        /**
+         * Highest counts first; ties go to the lower node number.
+         */
+        List<Suggestion> top(int limit) {
+            PriorityQueue<Suggestion> heap = new PriorityQueue<>(limit + 1, SocialGraph::compareWorstFirst);
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (keys[slot] == FREE) {
+                    continue;
+                }
+                if (heap.size() < limit) {
+                    heap.add(new Suggestion(keys[slot], counts[slot]));
+                } else {
+                    Suggestion worst = heap.peek();
+                    if (counts[slot] > worst.getMutualCount()
+                            || (counts[slot] == worst.getMutualCount() && keys[slot] < worst.getNode())) {
+                        heap.poll();
+                        heap.add(new Suggestion(keys[slot], counts[slot]));
+                    }
+                }
+            }
+            List<Suggestion> result = new ArrayList<>(heap);
+            result.sort((a, b) -> compareWorstFirst(b, a));
+            return result;
+        }
+        
+        private void rehash() {
+            int[] oldKeys = keys;
+            int[] oldCounts = counts;
+            keys = new int[oldKeys.length * 2];
+            counts = new int[oldKeys.length * 2];
+            Arrays.fill(keys, FREE);
+            size = 0;
+            for (int slot = 0; slot < oldKeys.length; slot++) {
+                if (oldKeys[slot] != FREE) {
+                    increment(oldKeys[slot], oldCounts[slot]);
+                }
+            }
+        }
+        
+        private static int mix(int key) {
+            int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+    
+    private static int compareWorstFirst(Suggestion a, Suggestion b) {
+        if (a.getMutualCount() != b.getMutualCount()) {
+            return Integer.compare(a.getMutualCount(), b.getMutualCount());
+        }
+        return Integer.compare(b.getNode(), a.getNode());
+    }
+}
@@ -0,0 +1,27 @@
+package graph;
+
+/**
+ * A "who to follow" candidate and how many of the user's followees follow it.
+ */
+public class Suggestion {
+    private final int node;
+    private final int mutualCount;
+    
+    public Suggestion(int node, int mutualCount) {
+        this.node = node;
+        this.mutualCount = mutualCount;
+    }
+    
+    public int getNode() {
+        return node;
+    }
+    
+    public int getMutualCount() {
+        return mutualCount;
+    }
+    
+    @Override
+    public String toString() {
+        return "node " + node + " (followed by " + mutualCount + " you follow)";
+    }
+}
@@ -0,0 +1,30 @@
+package model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of a cursor-paginated feed. Pass nextCursor back to fetch the
+ * following page; it is null on the last page.
+ */
+public class FeedPage {
+    private final List<Post> posts;
+    private final String nextCursor;
+    
+    public FeedPage(List<Post> posts, String nextCursor) {
+        this.posts = posts;
+        this.nextCursor = nextCursor;
+    }
+    
+    public List<Post> getPosts() {
+        return Collections.unmodifiableList(posts);
+    }
+    
+    public String getNextCursor() {
+        return nextCursor;
+    }
+    
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
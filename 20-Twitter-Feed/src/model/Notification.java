@@ -3,44 +3,67 @@ package model;
 import enums.NotificationType;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Represents a notification sent to a user.
+ * 
+ * Inbox reads return aggregated views, where relatedUser is the most recent
+ * actor and othersCount is how many more users did the same thing.
  */
 public class Notification {
-    private final String notificationId;
+    private static final AtomicLong NEXT_ID = new AtomicLong();
+    
+    private final long notificationId;  // Counter rather than UUID: created on every like
     private final User recipient;
     private final NotificationType type;
     private final LocalDateTime timestamp;
     private boolean isRead;
     private final User relatedUser;  // User who triggered the notification
     private final Post relatedPost;  // Post related to the notification (can be null)
+    private final int othersCount;   // Additional users aggregated into this notification
     
     public Notification(NotificationType type, User recipient, User relatedUser, Post relatedPost) {
-        this.notificationId = UUID.randomUUID().toString().substring(0, 8);
+        this(NEXT_ID.incrementAndGet(), type, recipient, relatedUser, relatedPost, 0, LocalDateTime.now(), false);
+    }
+    
+    /**
+     * Create an aggregated view of several notifications of the same kind.
+     */
+    public Notification(long notificationId, NotificationType type, User recipient, User relatedUser,
+                        Post relatedPost, int othersCount, LocalDateTime timestamp, boolean isRead) {
+        this.notificationId = notificationId;
         this.type = type;
         this.recipient = recipient;
         this.relatedUser = relatedUser;
         this.relatedPost = relatedPost;
-        this.timestamp = LocalDateTime.now();
-        this.isRead = false;
+        this.othersCount = othersCount;
+        this.timestamp = timestamp;
+        this.isRead = isRead;
     }
     
+    /**
+     * Flag this notification as read. Inbox listings are snapshots, so this
+     * does not change the inbox entry; use NotificationInbox.markAllAsRead.
+     */
     public void markAsRead() {
         this.isRead = true;
     }
     
     public String getMessage() {
+        String actors = relatedUser.getUsername();
+        if (othersCount > 0) {
+            actors += " and " + othersCount + (othersCount == 1 ? " other" : " others");
+        }
         switch (type) {
             case FOLLOW:
-                return relatedUser.getUsername() + " started following you";
+                return actors + " started following you";
             case LIKE:
-                return relatedUser.getUsername() + " liked your post";
+                return actors + " liked your post";
             case COMMENT:
-                return relatedUser.getUsername() + " commented on your post";
+                return actors + " commented on your post";
             case RETWEET:
-                return relatedUser.getUsername() + " retweeted your post";
+                return actors + " retweeted your post";
             default:
                 return "New notification";
         }
@@ -48,6 +71,10 @@ public class Notification {
     
     // Getters
     public String getNotificationId() {
+        return Long.toString(notificationId, 36);
+    }
+    
+    public long getSequence() {
         return notificationId;
     }
     
@@ -75,6 +102,10 @@ public class Notification {
         return relatedPost;
     }
     
+    public int getOthersCount() {
+        return othersCount;
+    }
+    
     @Override
     public String toString() {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMM dd, HH:mm");
@@ -1,7 +1,9 @@
 package model;
 
+import engagement.LikeSet;
 import enums.NotificationType;
 import enums.PostType;
+import notification.NotificationDispatcher;
 import observer.Observer;
 import observer.Subject;
 
@@ -9,31 +11,52 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.Queue;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Abstract base class for all post types.
+ * 
+ * Engagement is safe to record from many threads: likes go into a striped
+ * primitive set of interned user IDs, and like/comment/retweet totals are
+ * LongAdder counters, so count accessors never copy a collection.
+ * Notifications are handed to the NotificationDispatcher and delivered off
+ * the liking thread.
  */
 public abstract class Post implements Subject {
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+    private static final long NO_SCORE = -1L << 32;  // Tagged with a version never reached
+    
     protected final String postId;
+    protected final long sequence;  // Monotonic creation order, used for timeline cursors
     protected final User author;
     protected final LocalDateTime timestamp;
-    protected final Set<User> likes;
-    protected final List<Comment> comments;
-    protected int retweetCount;
+    protected final LikeSet likes;
+    protected final Queue<Comment> comments;
+    private final LongAdder likeCount;
+    private final LongAdder commentCount;
+    private final LongAdder retweetCount;
+    private final LongAdder engagementVersion;      // Bumped by every engagement change
+    private volatile long engagementCache = NO_SCORE;  // (version << 32) | score
     protected final List<Observer> observers;
     
     public Post(User author) {
         this.postId = UUID.randomUUID().toString().substring(0, 8);
+        this.sequence = SEQUENCE.incrementAndGet();
         this.author = author;
         this.timestamp = LocalDateTime.now();
-        this.likes = new HashSet<>();
-        this.comments = new ArrayList<>();
-        this.retweetCount = 0;
-        this.observers = new ArrayList<>();
+        this.likes = new LikeSet();
+        this.comments = new ConcurrentLinkedQueue<>();
+        this.likeCount = new LongAdder();
+        this.commentCount = new LongAdder();
+        this.retweetCount = new LongAdder();
+        this.engagementVersion = new LongAdder();
+        this.observers = new CopyOnWriteArrayList<>();
         
         // Author observes their own post for notifications
         addObserver(author);
@@ -51,22 +74,31 @@ public abstract class Post implements Subject {
     
     /**
      * Like the post.
+     * 
+     * @return true if this is a new like
      */
-    public void like(User user) {
-        if (likes.add(user)) {
-            // Notify author if someone else liked their post
-            if (!user.equals(author)) {
-                Notification notification = new Notification(NotificationType.LIKE, author, user, this);
-                notifyObservers(notification);
-            }
+    public boolean like(User user) {
+        if (!likes.add(user.getInternalId())) {
+            return false;
+        }
+        likeCount.increment();
+        invalidateEngagementScore();
+        // Notify author if someone else liked their post
+        if (!user.equals(author)) {
+            Notification notification = new Notification(NotificationType.LIKE, author, user, this);
+            notifyObservers(notification);
         }
+        return true;
     }
     
     /**
      * Unlike the post.
      */
     public void unlike(User user) {
-        likes.remove(user);
+        if (likes.remove(user.getInternalId())) {
+            likeCount.decrement();
+            invalidateEngagementScore();
+        }
     }
     
     /**
@@ -74,6 +106,8 @@ public abstract class Post implements Subject {
      */
     public void addComment(Comment comment) {
         comments.add(comment);
+        commentCount.increment();
+        invalidateEngagementScore();
         
         // Notify author if someone else commented
         if (!comment.getAuthor().equals(author)) {
@@ -86,27 +120,58 @@ public abstract class Post implements Subject {
      * Increment retweet count.
      */
     public void incrementRetweetCount() {
-        retweetCount++;
+        retweetCount.increment();
+        invalidateEngagementScore();
     }
     
     /**
-     * Calculate engagement score for ranking.
+     * Get engagement score for ranking. The score is cached until the next
+     * like, unlike, comment or retweet, so sorting does not recompute it.
+     * 
+     * The cached score is tagged with the version read before the counters.
+     * An update racing with a recompute bumps the version, so a score stored
+     * from older counts never matches the current version and is recomputed.
      */
     public int getEngagementScore() {
+        int version = (int) engagementVersion.sum();
+        long cached = engagementCache;
+        if ((int) (cached >>> 32) == version) {
+            return (int) cached;
+        }
+        int score = computeEngagementScore();
+        engagementCache = ((long) version << 32) | (score & 0xFFFFFFFFL);
+        return score;
+    }
+    
+    private int computeEngagementScore() {
         int likeWeight = 1;
         int commentWeight = 3;
         int retweetWeight = 5;
         
-        return (likes.size() * likeWeight) + 
-               (comments.size() * commentWeight) + 
-               (retweetCount * retweetWeight);
+        return (getLikeCount() * likeWeight) + 
+               (getCommentCount() * commentWeight) + 
+               (getRetweetCount() * retweetWeight);
+    }
+    
+    // Called after the counter changes, so a reader that sees the new
+    // version also sees the new count
+    private void invalidateEngagementScore() {
+        engagementVersion.increment();
     }
     
     /**
      * Calculate engagement velocity (engagement per hour).
      */
     public double getEngagementVelocity() {
-        long hoursOld = ChronoUnit.HOURS.between(timestamp, LocalDateTime.now());
+        return getEngagementVelocityAt(LocalDateTime.now());
+    }
+    
+    /**
+     * Calculate engagement velocity relative to a fixed "now", so a ranking
+     * pass reads the clock once instead of once per comparison.
+     */
+    public double getEngagementVelocityAt(LocalDateTime now) {
+        long hoursOld = ChronoUnit.HOURS.between(timestamp, now);
         if (hoursOld == 0) hoursOld = 1; // Avoid division by zero
         return (double) getEngagementScore() / hoursOld;
     }
@@ -124,10 +189,14 @@ public abstract class Post implements Subject {
         observers.remove(observer);
     }
     
+    /**
+     * Queue the notification for every observer; delivery is asynchronous.
+     */
     @Override
     public void notifyObservers(Notification notification) {
+        NotificationDispatcher dispatcher = NotificationDispatcher.getInstance();
         for (Observer observer : observers) {
-            observer.update(notification);
+            dispatcher.dispatch(observer, notification);
         }
     }
     
@@ -136,6 +205,10 @@ public abstract class Post implements Subject {
         return postId;
     }
     
+    public long getSequence() {
+        return sequence;
+    }
+    
     public User getAuthor() {
         return author;
     }
@@ -144,16 +217,37 @@ public abstract class Post implements Subject {
         return timestamp;
     }
     
-    public Set<User> getLikes() {
-        return new HashSet<>(likes);
+    /**
+     * Check whether a user has liked this post.
+     */
+    public boolean hasLiked(User user) {
+        return likes.contains(user.getInternalId());
+    }
+    
+    /**
+     * Snapshot of the interned IDs of users who liked this post.
+     */
+    public int[] getLikerIds() {
+        return likes.toArray();
+    }
+    
+    public int getLikeCount() {
+        return likeCount.intValue();
     }
     
+    /**
+     * Copy of the comments in the order they were added.
+     */
     public List<Comment> getComments() {
         return new ArrayList<>(comments);
     }
     
+    public int getCommentCount() {
+        return commentCount.intValue();
+    }
+    
     public int getRetweetCount() {
-        return retweetCount;
+        return retweetCount.intValue();
     }
     
     public String getFormattedTimestamp() {
@@ -164,7 +258,7 @@ public abstract class Post implements Subject {
     @Override
     public String toString() {
         return "[@" + author.getUsername() + "] " + getDisplayContent() + 
-               " | ❤️ " + likes.size() + " 💬 " + comments.size() + " 🔄 " + retweetCount +
+               " | ❤️ " + getLikeCount() + " 💬 " + getCommentCount() + " 🔄 " + getRetweetCount() +
                " (" + getFormattedTimestamp() + ")";
     }
 }
@@ -1,40 +1,62 @@
 package model;
 
 import enums.NotificationType;
+import graph.SocialGraph;
+import notification.NotificationDispatcher;
+import notification.NotificationInbox;
 import observer.Observer;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 /**
  * Represents a user in the social media system.
+ * 
+ * Follow relationships live only in the shared SocialGraph, as sorted int
+ * adjacency arrays keyed by this user's graph node; the User keeps no sets.
  */
 public class User implements Observer {
+    private static final AtomicInteger NEXT_INTERNAL_ID = new AtomicInteger();
+    private static final SocialGraph GRAPH = SocialGraph.getInstance();
+    private static volatile User[] byNode = new User[1_024];  // Graph node -> user
+    
     private final String userId;
+    private final int internalId;  // Interned int ID for compact primitive sets
+    private final int graphNode;
     private final String username;
     private String name;
     private String bio;
     private final LocalDateTime joinDate;
-    private final Set<User> followers;
-    private final Set<User> following;
     private final List<Post> posts;
-    private final List<Notification> notifications;
+    private final NotificationInbox inbox;
     
     public User(String userId, String username, String name) {
         this.userId = userId;
+        this.internalId = NEXT_INTERNAL_ID.incrementAndGet();
         this.username = username;
         this.name = name;
         this.bio = "";
         this.joinDate = LocalDateTime.now();
-        this.followers = new HashSet<>();
-        this.following = new HashSet<>();
         this.posts = new ArrayList<>();
-        this.notifications = new ArrayList<>();
+        this.inbox = new NotificationInbox(this);
+        this.graphNode = GRAPH.intern(userId);
+        register(this);
+    }
+    
+    private static synchronized void register(User user) {
+        User[] current = byNode;
+        if (user.graphNode >= current.length) {
+            current = Arrays.copyOf(current, Math.max(current.length * 2, user.graphNode + 1));
+        }
+        current[user.graphNode] = user;
+        byNode = current;
     }
     
     /**
@@ -45,81 +67,192 @@ public class User implements Observer {
             throw new IllegalArgumentException("Cannot follow yourself");
         }
         
-        if (following.add(user)) {
-            user.addFollower(this);
-            
-            // Notify the followed user
-            Notification notification = new Notification(NotificationType.FOLLOW, user, this, null);
-            user.update(notification);
+        if (GRAPH.follow(graphNode, user.graphNode)) {
+            notifyFollowed(user);
         }
     }
     
     /**
-     * Unfollow a user.
+     * Follow several users as one graph batch; only new follows notify.
      */
-    public void unfollow(User user) {
-        if (following.remove(user)) {
-            user.removeFollower(this);
+    public void followAll(List<User> users) {
+        List<User> added = new ArrayList<>(users.size());
+        int[] followerNodes = new int[users.size()];
+        int[] followeeNodes = new int[users.size()];
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            if (this.equals(user)) {
+                throw new IllegalArgumentException("Cannot follow yourself");
+            }
+            if (!isFollowing(user) && !added.contains(user)) {
+                added.add(user);
+            }
+            followerNodes[i] = graphNode;
+            followeeNodes[i] = user.graphNode;
         }
+        GRAPH.followAll(followerNodes, followeeNodes);
+        for (User user : added) {
+            notifyFollowed(user);
+        }
+    }
+    
+    private void notifyFollowed(User user) {
+        Notification notification = new Notification(NotificationType.FOLLOW, user, this, null);
+        NotificationDispatcher.getInstance().dispatch(user, notification);
     }
     
     /**
-     * Add a follower (called by follow method).
+     * Unfollow a user.
      */
-    private void addFollower(User user) {
-        followers.add(user);
+    public void unfollow(User user) {
+        GRAPH.unfollow(graphNode, user.graphNode);
     }
     
     /**
-     * Remove a follower (called by unfollow method).
+     * Unfollow several users as one graph batch.
      */
-    private void removeFollower(User user) {
-        followers.remove(user);
+    public void unfollowAll(List<User> users) {
+        int[] followerNodes = new int[users.size()];
+        int[] followeeNodes = new int[users.size()];
+        for (int i = 0; i < users.size(); i++) {
+            followerNodes[i] = graphNode;
+            followeeNodes[i] = users.get(i).graphNode;
+        }
+        GRAPH.unfollowAll(followerNodes, followeeNodes);
     }
     
     /**
-     * Check if this user is following another user.
+     * Check if this user is following another user (binary search in the graph).
      */
     public boolean isFollowing(User user) {
-        return following.contains(user);
+        return GRAPH.isFollowing(graphNode, user.graphNode);
     }
     
     /**
-     * Add a post to this user's posts.
+     * Add a post to this user's posts, keeping them in sequence order.
      */
     public void addPost(Post post) {
-        posts.add(post);
+        synchronized (posts) {
+            int i = posts.size();
+            while (i > 0 && posts.get(i - 1).getSequence() > post.getSequence()) {
+                i--;
+            }
+            posts.add(i, post);
+        }
+    }
+    
+    /**
+     * Get up to limit of this user's posts created before the given sequence, newest first.
+     */
+    public List<Post> getPostsBefore(long beforeSequence, int limit) {
+        List<Post> result = new ArrayList<>(Math.min(limit, 64));
+        synchronized (posts) {
+            int lo = 0, hi = posts.size();
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (posts.get(mid).getSequence() < beforeSequence) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            for (int i = lo - 1; i >= 0 && result.size() < limit; i--) {
+                result.add(posts.get(i));
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Visit each of this user's posts, oldest first, without copying the list.
+     */
+    public void forEachPost(Consumer<Post> action) {
+        synchronized (posts) {
+            posts.forEach(action);
+        }
+    }
+    
+    /**
+     * Visit each follower. Only the int adjacency array is snapshotted, so the
+     * action runs outside the graph lock and may itself follow or unfollow.
+     */
+    public void forEachFollower(Consumer<User> action) {
+        forEachNode(GRAPH.getFollowers(graphNode), action);
+    }
+    
+    /**
+     * Visit each followed user, over a snapshot of the int adjacency array.
+     */
+    public void forEachFollowing(Consumer<User> action) {
+        forEachNode(GRAPH.getFollowing(graphNode), action);
     }
     
     /**
-     * Get unread notifications.
+     * The user interned at a graph node, e.g. to resolve graph query results.
+     */
+    public static User forGraphNode(int node) {
+        return byNode[node];
+    }
+    
+    private static void forEachNode(int[] nodes, Consumer<User> action) {
+        User[] users = byNode;
+        for (int node : nodes) {
+            action.accept(users[node]);
+        }
+    }
+    
+    /**
+     * Get unread notifications, newest first, with similar events aggregated.
      */
     public List<Notification> getUnreadNotifications() {
-        return notifications.stream()
-            .filter(n -> !n.isRead())
-            .collect(Collectors.toList());
+        NotificationDispatcher.getInstance().flush();
+        return inbox.getUnread(inbox.getCapacity());
     }
     
     /**
-     * Get all notifications.
+     * Get all notifications still held in the bounded inbox, newest first.
      */
     public List<Notification> getAllNotifications() {
-        return new ArrayList<>(notifications);
+        return getNotifications(inbox.getCapacity());
+    }
+    
+    /**
+     * Get up to limit notifications, newest first.
+     */
+    public List<Notification> getNotifications(int limit) {
+        NotificationDispatcher.getInstance().flush();
+        return inbox.getNotifications(limit);
+    }
+    
+    /**
+     * Number of unread inbox entries, without building the list.
+     */
+    public int getUnreadNotificationCount() {
+        NotificationDispatcher.getInstance().flush();
+        return inbox.getUnreadCount();
     }
     
     /**
      * Mark all notifications as read.
      */
     public void markAllNotificationsAsRead() {
-        for (Notification notification : notifications) {
-            notification.markAsRead();
-        }
+        NotificationDispatcher.getInstance().flush();
+        inbox.markAllAsRead();
+    }
+    
+    public NotificationInbox getInbox() {
+        return inbox;
     }
     
     // Observer pattern implementation
     @Override
     public void update(Notification notification) {
-        notifications.add(notification);
+        inbox.add(notification);
+    }
+    
+    @Override
+    public void updateAll(List<Notification> notifications) {
+        inbox.addAll(notifications);
     }
     
     @Override
@@ -132,6 +265,14 @@ public class User implements Observer {
         return userId;
     }
     
+    public int getInternalId() {
+        return internalId;
+    }
+    
+    public int getGraphNode() {
+        return graphNode;
+    }
+    
     public String getUsername() {
         return username;
     }
@@ -140,6 +281,7 @@ public class User implements Observer {
         return name;
     }
     
+    // Does not update search; rename through TwitterService.renameUser
     public void setName(String name) {
         this.name = name;
     }
@@ -156,24 +298,36 @@ public class User implements Observer {
         return joinDate;
     }
     
+    /**
+     * Followers materialized from the graph; forEachFollower avoids the set.
+     */
     public Set<User> getFollowers() {
-        return new HashSet<>(followers);
+        Set<User> result = new HashSet<>();
+        forEachFollower(result::add);
+        return result;
     }
     
+    /**
+     * Followed users materialized from the graph; forEachFollowing avoids the set.
+     */
     public Set<User> getFollowing() {
-        return new HashSet<>(following);
+        Set<User> result = new HashSet<>();
+        forEachFollowing(result::add);
+        return result;
     }
     
     public List<Post> getPosts() {
-        return new ArrayList<>(posts);
+        synchronized (posts) {
+            return new ArrayList<>(posts);
+        }
     }
     
     public int getFollowerCount() {
-        return followers.size();
+        return GRAPH.getFollowerCount(graphNode);
     }
     
     public int getFollowingCount() {
-        return following.size();
+        return GRAPH.getFollowingCount(graphNode);
     }
     
     @Override
@@ -192,8 +346,8 @@ public class User implements Observer {
     @Override
     public String toString() {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMM yyyy");
-        return "@" + username + " (" + name + ") | Followers: " + followers.size() + 
-               " | Following: " + following.size() + " | Joined: " + joinDate.format(formatter);
+        return "@" + username + " (" + name + ") | Followers: " + getFollowerCount() + 
+               " | Following: " + getFollowingCount() + " | Joined: " + joinDate.format(formatter);
     }
 }
 
@@ -0,0 +1,163 @@
+package notification;
+
+import model.Notification;
+import observer.Observer;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Delivers notifications to observers off the producing thread.
+ *
+ * Likes, comments, retweets and follows only enqueue a delivery; a daemon
+ * worker drains the queue in batches, groups each batch by recipient and hands
+ * every recipient its share in one call, so an inbox lock is taken once per
+ * batch rather than once per event. Readers call flush() first to see their
+ * own writes. When the queue is full the producer delivers a batch itself
+ * instead of dropping notifications.
+ *
+ * Singleton pattern, like TwitterService.
+ */
+public class NotificationDispatcher {
+    public static final int DEFAULT_QUEUE_CAPACITY = 1 << 18;
+    public static final int DEFAULT_BATCH_SIZE = 512;
+    
+    private static final long IDLE_PARK_NANOS = 1_000_000L;
+    
+    private final BlockingQueue<Delivery> queue;
+    private final int batchSize;
+    private final ReentrantLock deliveryLock;  // Keeps batches in queue order
+    private final List<Delivery> batch;         // Guarded by deliveryLock
+    private final LongAdder delivered;
+    private final LongAdder batches;
+    private final Thread worker;
+    private volatile boolean running;
+    
+    private static final class Delivery {
+        final Observer observer;
+        final Notification notification;
+        
+        Delivery(Observer observer, Notification notification) {
+            this.observer = observer;
+            this.notification = notification;
+        }
+    }
+    
+    public NotificationDispatcher(int queueCapacity, int batchSize) {
+        if (queueCapacity <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("Queue capacity and batch size must be positive");
+        }
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.deliveryLock = new ReentrantLock();
+        this.batch = new ArrayList<>(batchSize);
+        this.delivered = new LongAdder();
+        this.batches = new LongAdder();
+        this.running = true;
+        this.worker = new Thread(this::runWorker, "notification-dispatcher");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+    
+    private static final class Holder {
+        static final NotificationDispatcher INSTANCE =
+            new NotificationDispatcher(DEFAULT_QUEUE_CAPACITY, DEFAULT_BATCH_SIZE);
+    }
+    
+    /**
+     * Get the singleton instance. Lazily created without a lock, since every
+     * like goes through here.
+     */
+    public static NotificationDispatcher getInstance() {
+        return Holder.INSTANCE;
+    }
+    
+    /**
+     * Queue a notification for an observer and return immediately.
+     */
+    public void dispatch(Observer observer, Notification notification) {
+        Delivery delivery = new Delivery(observer, notification);
+        while (!queue.offer(delivery)) {
+            // Backpressure: help drain rather than block or drop
+            deliverBatch();
+        }
+    }
+    
+    /**
+     * Deliver everything queued before this call on the calling thread.
+     */
+    public void flush() {
+        int remaining = queue.size();
+        while (remaining > 0) {
+            int count = deliverBatch();
+            if (count == 0) {
+                break;
+            }
+            remaining -= count;
+        }
+    }
+    
+    /**
+     * Stop the worker and deliver whatever is still queued.
+     */
+    public void shutdown() throws InterruptedException {
+        running = false;
+        worker.join();
+        flush();
+    }
+    
+    public int getPendingCount() {
+        return queue.size();
+    }
+    
+    public long getDeliveredCount() {
+        return delivered.sum();
+    }
+    
+    public long getBatchCount() {
+        return batches.sum();
+    }
+    
+    private void runWorker() {
+        while (running) {
+            if (deliverBatch() == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+    
+    /**
+     * Drain and deliver up to one batch, grouped by recipient.
+     */
+    private int deliverBatch() {
+        deliveryLock.lock();
+        try {
+            queue.drainTo(batch, batchSize);
+            int count = batch.size();
+            if (count == 0) {
+                return 0;
+            }
+            Map<Observer, List<Notification>> byObserver = new IdentityHashMap<>();
+            for (Delivery delivery : batch) {
+                byObserver.computeIfAbsent(delivery.observer, o -> new ArrayList<>())
+                    .add(delivery.notification);
+            }
+            batch.clear();
+            for (Map.Entry<Observer, List<Notification>> entry : byObserver.entrySet()) {
+                entry.getKey().updateAll(entry.getValue());
+            }
+            delivered.add(count);
+            batches.increment();
+            return count;
+        } finally {
+            deliveryLock.unlock();
+        }
+    }
+}
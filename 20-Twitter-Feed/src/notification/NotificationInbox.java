@@ -0,0 +1,244 @@
+package notification;
+
+import enums.NotificationType;
+import model.Notification;
+import model.Post;
+import model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A user's notification inbox: a bounded ring of aggregated entries.
+ *
+ * Events of the same kind on the same post (or all follows) fold into one
+ * entry while that entry is unread, so a viral post shows up once as
+ * "X and 500 others liked your post". Once read, the next event starts a new
+ * entry. Entries keep the position of their first event; when the ring is
+ * full the oldest entry is overwritten.
+ *
+ * Read state is a watermark over ring positions, so marking everything read
+ * is O(1) and the unread count is a maintained counter, never a scan. The
+ * ring starts small and doubles up to its capacity, so idle users stay cheap.
+ *
+ * Returned notifications are snapshots of the entries. Calling markAsRead on
+ * one has no effect on the inbox; use markAllAsRead instead.
+ */
+public class NotificationInbox {
+    public static final int DEFAULT_CAPACITY = 1_000;
+    private static final int INITIAL_RING_SIZE = 8;
+    private static final int MAX_TRACKED_ACTORS = 100;  // Past this, "others" counts every new event
+    
+    private final User recipient;
+    private final int capacity;
+    private Entry[] ring;
+    private final Map<Key, Entry> openEntries;  // Unread entries still accepting events
+    private long head;           // Ring position of the next new entry
+    private long readWatermark;  // Entries below this position are read
+    private int unreadCount;
+    private long eventCount;
+    
+    public NotificationInbox(User recipient, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.recipient = recipient;
+        this.capacity = capacity;
+        this.ring = new Entry[Math.min(capacity, INITIAL_RING_SIZE)];
+        this.openEntries = new HashMap<>();
+    }
+    
+    public NotificationInbox(User recipient) {
+        this(recipient, DEFAULT_CAPACITY);
+    }
+    
+    /**
+     * Add one notification, aggregating it into an open entry when possible.
+     */
+    public synchronized void add(Notification notification) {
+        eventCount++;
+        Key key = new Key(notification.getType(), notification.getRelatedPost());
+        Entry entry = openEntries.get(key);
+        if (entry != null) {
+            entry.aggregate(notification);
+            return;
+        }
+        
+        entry = new Entry(key, notification, head);
+        if (head == ring.length && ring.length < capacity) {
+            // Not wrapped yet, so positions equal indices and a plain copy keeps them
+            ring = Arrays.copyOf(ring, Math.min(capacity, ring.length * 2));
+        }
+        int slot = (int) (head % ring.length);
+        Entry evicted = ring[slot];
+        if (evicted != null) {
+            if (isUnread(evicted)) {
+                unreadCount--;
+            }
+            openEntries.remove(evicted.key, evicted);
+        }
+        ring[slot] = entry;
+        openEntries.put(key, entry);
+        head++;
+        unreadCount++;
+    }
+    
+    /**
+     * Add a batch of notifications under a single lock acquisition.
+     */
+    public synchronized void addAll(List<Notification> notifications) {
+        for (Notification notification : notifications) {
+            add(notification);
+        }
+    }
+    
+    /**
+     * Up to limit entries, newest first, as read-only snapshots.
+     */
+    public synchronized List<Notification> getNotifications(int limit) {
+        return collect(limit, false);
+    }
+    
+    /**
+     * Up to limit unread entries, newest first. Only entries above the read
+     * watermark are visited.
+     */
+    public synchronized List<Notification> getUnread(int limit) {
+        return collect(limit, true);
+    }
+    
+    /**
+     * Mark every entry as read and close them to further aggregation.
+     */
+    public synchronized void markAllAsRead() {
+        readWatermark = head;
+        unreadCount = 0;
+        openEntries.clear();
+    }
+    
+    public synchronized int getUnreadCount() {
+        return unreadCount;
+    }
+    
+    /**
+     * Number of entries currently held, at most the capacity.
+     */
+    public synchronized int size() {
+        return (int) Math.min(head, capacity);
+    }
+    
+    public int getCapacity() {
+        return capacity;
+    }
+    
+    /**
+     * Total notifications received, including those folded into entries.
+     */
+    public synchronized long getEventCount() {
+        return eventCount;
+    }
+    
+    private List<Notification> collect(int limit, boolean unreadOnly) {
+        long oldest = Math.max(0, head - capacity);
+        if (unreadOnly) {
+            oldest = Math.max(oldest, readWatermark);
+        }
+        List<Notification> result = new ArrayList<>((int) Math.min(limit, head - oldest));
+        for (long position = head - 1; position >= oldest && result.size() < limit; position--) {
+            Entry entry = ring[(int) (position % ring.length)];
+            result.add(entry.toNotification(recipient, isUnread(entry)));
+        }
+        return result;
+    }
+    
+    private boolean isUnread(Entry entry) {
+        return entry.position >= readWatermark;
+    }
+    
+    /**
+     * Aggregation key: the notification type plus the post it refers to.
+     * Follows have no post, so all unread follows share one entry.
+     */
+    private static final class Key {
+        private final NotificationType type;
+        private final Post post;
+        
+        Key(NotificationType type, Post post) {
+            this.type = type;
+            this.post = post;
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (!(obj instanceof Key)) return false;
+            Key other = (Key) obj;
+            return type == other.type && post == other.post;
+        }
+        
+        @Override
+        public int hashCode() {
+            return 31 * type.hashCode() + System.identityHashCode(post);
+        }
+    }
+    
+    private static final class Entry {
+        private final Key key;
+        private final long id;
+        private final long position;
+        private User latestActor;
+        private int othersCount;
+        private LocalDateTime latestTimestamp;
+        private int[] actorIds;  // Distinct actors so far, up to MAX_TRACKED_ACTORS
+        private int actorCount;
+        
+        Entry(Key key, Notification first, long position) {
+            this.key = key;
+            this.id = first.getSequence();
+            this.position = position;
+            this.latestActor = first.getRelatedUser();
+            this.latestTimestamp = first.getTimestamp();
+            this.actorIds = new int[4];
+            trackActor(latestActor.getInternalId());
+        }
+        
+        void aggregate(Notification notification) {
+            // An actor counts once however often they act (e.g. unfollow then follow)
+            User actor = notification.getRelatedUser();
+            if (!hasActor(actor.getInternalId())) {
+                othersCount++;
+                trackActor(actor.getInternalId());
+            }
+            latestActor = actor;
+            latestTimestamp = notification.getTimestamp();
+        }
+        
+        private boolean hasActor(int actorId) {
+            for (int i = 0; i < actorCount; i++) {
+                if (actorIds[i] == actorId) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        
+        private void trackActor(int actorId) {
+            if (actorCount == MAX_TRACKED_ACTORS) {
+                return;
+            }
+            if (actorCount == actorIds.length) {
+                actorIds = Arrays.copyOf(actorIds, Math.min(MAX_TRACKED_ACTORS, actorIds.length * 2));
+            }
+            actorIds[actorCount++] = actorId;
+        }
+        
+        Notification toNotification(User recipient, boolean unread) {
+            return new Notification(id, key.type, recipient, latestActor, key.post,
+                othersCount, latestTimestamp, !unread);
+        }
+    }
+}
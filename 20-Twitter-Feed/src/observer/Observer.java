@@ -2,6 +2,8 @@ package observer;
 
 import model.Notification;
 
+import java.util.List;
+
 /**
  * Observer interface for receiving notifications.
  */
@@ -13,6 +15,17 @@ public interface Observer {
      */
     void update(Notification notification);
     
+    /**
+     * Update the observer with a batch of notifications, in order.
+     * 
+     * @param notifications The notifications to process
+     */
+    default void updateAll(List<Notification> notifications) {
+        for (Notification notification : notifications) {
+            update(notification);
+        }
+    }
+    
     /**
      * Get the observer's unique identifier.
      * 
@@ -0,0 +1,186 @@
+package search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory inverted index from terms to posting lists of post sequences.
+ * 
+ * Posting lists are ordered by sequence, i.e. by recency, so a query walks
+ * the smallest list backwards from the newest post and probes the others by
+ * binary search, stopping once it has enough results.
+ */
+public class PostIndex {
+    private static final long[] NO_RESULTS = new long[0];
+    private static final int GALLOP_SIZE_RATIO = 64;
+    
+    private final ConcurrentHashMap<String, PostingList> postings;
+    private final LongAdder postingCount;
+    
+    public PostIndex() {
+        this.postings = new ConcurrentHashMap<>();
+        this.postingCount = new LongAdder();
+    }
+    
+    /**
+     * Index a post's text under its sequence.
+     */
+    public void index(long sequence, String text) {
+        for (String term : Tokenizer.tokenize(text)) {
+            indexTerm(sequence, term);
+        }
+    }
+    
+    /**
+     * Add a single pre-tokenized term.
+     */
+    public void indexTerm(long sequence, String term) {
+        // Added inside compute so a concurrent remove cannot drop the list meanwhile
+        postings.compute(term, (t, list) -> {
+            PostingList target = list != null ? list : new PostingList();
+            target.add(sequence);
+            return target;
+        });
+        postingCount.increment();
+    }
+    
+    /**
+     * Remove a post from the lists of every term in its text. A term whose
+     * list becomes empty is dropped from the index.
+     */
+    public void remove(long sequence, String text) {
+        for (String term : Tokenizer.tokenize(text)) {
+            postings.computeIfPresent(term, (t, list) -> {
+                if (list.remove(sequence)) {
+                    postingCount.decrement();
+                }
+                return list.size() == 0 ? null : list;
+            });
+        }
+    }
+    
+    /**
+     * Sequences of posts containing every term of the query, newest first.
+     */
+    public long[] search(String query, int limit) {
+        return searchTerms(Tokenizer.tokenize(query), limit);
+    }
+    
+    /**
+     * Sequences of posts containing the exact term (e.g. "#java" or "@alice"), newest first.
+     */
+    public long[] searchTerm(String term, int limit) {
+        List<String> terms = new ArrayList<>(1);
+        terms.add(term);
+        return searchTerms(terms, limit);
+    }
+    
+    public int getTermCount() {
+        return postings.size();
+    }
+    
+    public long getPostingCount() {
+        return postingCount.sum();
+    }
+    
+    private long[] searchTerms(List<String> terms, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        if (terms.isEmpty()) {
+            return NO_RESULTS;
+        }
+        
+        PostingList.Snapshot[] lists = new PostingList.Snapshot[terms.size()];
+        for (int i = 0; i < lists.length; i++) {
+            PostingList list = postings.get(terms.get(i));
+            if (list == null) {
+                return NO_RESULTS;
+            }
+            lists[i] = list.snapshot();
+        }
+        
+        // Leapfrog intersection, newest first: each list in turn jumps to its
+        // largest sequence <= the current target, so runs of non-matching
+        // postings are skipped rather than probed one by one. Lists of similar
+        // size gallop from their last position; lists far larger than the
+        // rarest one binary search over their full range, so the same upper
+        // levels of the search are probed every time and stay in cache
+        Arrays.sort(lists, (x, y) -> Integer.compare(x.size, y.size));  // Rarest term leads
+        int minSize = lists[0].size;
+        int[] upper = new int[lists.length];
+        boolean[] gallop = new boolean[lists.length];
+        for (int i = 0; i < lists.length; i++) {
+            upper[i] = lists[i].size;
+            gallop[i] = lists[i].size / GALLOP_SIZE_RATIO <= minSize;
+        }
+        
+        long[] results = new long[Math.min(limit, minSize)];
+        int count = 0;
+        long target = Long.MAX_VALUE;
+        int agreeing = 0;
+        int j = 0;
+        while (count < results.length) {
+            PostingList.Snapshot list = lists[j];
+            int index = gallop[j]
+                ? gallopFloorIndex(list.sequences, upper[j], target)
+                : binaryFloorIndex(list.sequences, list.size, target);
+            if (index < 0) {
+                break;
+            }
+            upper[j] = index + 1;
+            long sequence = list.sequences[index];
+            if (sequence == target) {
+                agreeing++;
+            } else {
+                target = sequence;
+                agreeing = 1;
+            }
+            if (agreeing == lists.length) {
+                results[count++] = target;
+                target--;
+                agreeing = 0;
+            }
+            j = (j + 1) % lists.length;
+        }
+        return count == results.length ? results : Arrays.copyOf(results, count);
+    }
+    
+    /**
+     * Largest index below upper whose value is <= target, or -1. Gallops
+     * backwards from upper, then binary searches the bracketed range.
+     */
+    private static int gallopFloorIndex(long[] values, int upper, long target) {
+        int high = upper;
+        int low = upper - 1;
+        int step = 1;
+        while (low >= 0 && values[low] > target) {
+            high = low;
+            low -= step;
+            step <<= 1;
+        }
+        if (low < 0) {
+            low = 0;
+            if (high == 0 || values[0] > target) {
+                return -1;
+            }
+        }
+        // values[low] <= target < values[high] (or high == upper)
+        return floorInRange(values, low, high, target);
+    }
+    
+    /**
+     * Largest index below size whose value is <= target, or -1.
+     */
+    private static int binaryFloorIndex(long[] values, int size, long target) {
+        return floorInRange(values, 0, size, target);
+    }
+    
+    private static int floorInRange(long[] values, int from, int to, long target) {
+        int position = Arrays.binarySearch(values, from, to, target);
+        return position >= 0 ? position : -position - 2;
+    }
+}
@@ -0,0 +1,73 @@
+package search;
+
+import java.util.Arrays;
+
+/**
+ * Ascending list of post sequences for one term.
+ * 
+ * Posts are almost always indexed in creation order, so an add is an append.
+ * Readers take an (array, size) snapshot and search it without holding the
+ * lock; the rare out-of-order insert copies the array rather than shifting
+ * entries under a reader.
+ */
+public class PostingList {
+    private long[] sequences = new long[4];
+    private int size;
+    
+    public synchronized void add(long sequence) {
+        if (size == 0 || sequences[size - 1] < sequence) {
+            if (size == sequences.length) {
+                sequences = Arrays.copyOf(sequences, size + (size >> 1) + 1);
+            }
+            sequences[size++] = sequence;
+            return;
+        }
+        
+        int position = Arrays.binarySearch(sequences, 0, size, sequence);
+        if (position >= 0) {
+            return;
+        }
+        position = -position - 1;
+        long[] copy = new long[Math.max(sequences.length, size + 1)];
+        System.arraycopy(sequences, 0, copy, 0, position);
+        copy[position] = sequence;
+        System.arraycopy(sequences, position, copy, position + 1, size - position);
+        sequences = copy;
+        size++;
+    }
+    
+    public synchronized boolean remove(long sequence) {
+        int position = Arrays.binarySearch(sequences, 0, size, sequence);
+        if (position < 0) {
+            return false;
+        }
+        long[] copy = new long[sequences.length];
+        System.arraycopy(sequences, 0, copy, 0, position);
+        System.arraycopy(sequences, position + 1, copy, position, size - position - 1);
+        sequences = copy;
+        size--;
+        return true;
+    }
+    
+    public synchronized Snapshot snapshot() {
+        return new Snapshot(sequences, size);
+    }
+    
+    public synchronized int size() {
+        return size;
+    }
+    
+    /**
+     * Immutable view of the list at one point in time.
+     */
+    public static class Snapshot {
+        final long[] sequences;
+        final int size;
+        
+        Snapshot(long[] sequences, int size) {
+            this.sequences = sequences;
+            this.size = size;
+        }
+    
+    }
+}
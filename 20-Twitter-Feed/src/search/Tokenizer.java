@@ -0,0 +1,84 @@
+package search;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Splits post text into lower-case index terms.
+ * 
+ * Words are runs of letters and digits. A word prefixed with '#' yields both
+ * the hashtag term ("#java") and the bare word ("java"); a word prefixed
+ * with '@' yields only the mention term ("@alice").
+ */
+public class Tokenizer {
+    public static final char HASHTAG = '#';
+    public static final char MENTION = '@';
+    
+    private Tokenizer() {
+    }
+    
+    /**
+     * Distinct terms in order of first appearance.
+     */
+    public static List<String> tokenize(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (text == null) {
+            return new ArrayList<>();
+        }
+        
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            if (!Character.isLetterOrDigit(c)) {
+                i++;
+                continue;
+            }
+            
+            int start = i;
+            while (i < length && Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+            }
+            String word = text.substring(start, i).toLowerCase(Locale.ROOT);
+            char marker = start > 0 ? text.charAt(start - 1) : ' ';
+            
+            if (marker == MENTION) {
+                terms.add(MENTION + word);
+            } else {
+                if (marker == HASHTAG) {
+                    terms.add(HASHTAG + word);
+                }
+                terms.add(word);
+            }
+        }
+        return new ArrayList<>(terms);
+    }
+    
+    /**
+     * Hashtag terms only, e.g. "#java".
+     */
+    public static List<String> hashtags(String text) {
+        List<String> tags = new ArrayList<>();
+        for (String term : tokenize(text)) {
+            if (term.charAt(0) == HASHTAG) {
+                tags.add(term);
+            }
+        }
+        return tags;
+    }
+    
+    /**
+     * Normalize a user-supplied hashtag or mention ("Java", "#Java") to its term.
+     * Blank input normalizes to the empty string, which matches no term.
+     */
+    public static String normalize(char marker, String value) {
+        String lower = value.trim().toLowerCase(Locale.ROOT);
+        if (lower.isEmpty()) {
+            return lower;
+        }
+        return lower.charAt(0) == marker ? lower : marker + lower;
+    }
+}
@@ -0,0 +1,103 @@
+package search;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Prefix trie for user autocomplete. Keys are lower-cased, so lookups are
+ * case-insensitive, and completions come back in alphabetical key order.
+ * One value may be registered under several keys (username and name words).
+ */
+public class UsernameTrie<V> {
+    private final Node<V> root = new Node<>();
+    private int keyCount;
+    
+    public synchronized void insert(String key, V value) {
+        Node<V> node = root;
+        for (char c : key.toLowerCase(Locale.ROOT).toCharArray()) {
+            node = node.children.computeIfAbsent(c, ch -> new Node<>());
+        }
+        if (node.values.isEmpty()) {
+            keyCount++;
+        }
+        if (!node.values.contains(value)) {
+            node.values.add(value);
+        }
+    }
+    
+    /**
+     * Remove one value from a key, pruning nodes left without values or children.
+     */
+    public synchronized void remove(String key, V value) {
+        String lower = key.toLowerCase(Locale.ROOT);
+        List<Node<V>> path = new ArrayList<>(lower.length() + 1);
+        Node<V> node = root;
+        path.add(node);
+        for (char c : lower.toCharArray()) {
+            node = node.children.get(c);
+            if (node == null) {
+                return;
+            }
+            path.add(node);
+        }
+        if (!node.values.remove(value) || !node.values.isEmpty()) {
+            return;
+        }
+        keyCount--;
+        for (int depth = lower.length(); depth > 0; depth--) {
+            Node<V> child = path.get(depth);
+            if (!child.values.isEmpty() || !child.children.isEmpty()) {
+                break;
+            }
+            path.get(depth - 1).children.remove(lower.charAt(depth - 1));
+        }
+    }
+    
+    /**
+     * Up to limit distinct values whose key starts with the prefix.
+     */
+    public synchronized List<V> complete(String prefix, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        Node<V> node = root;
+        for (char c : prefix.toLowerCase(Locale.ROOT).toCharArray()) {
+            node = node.children.get(c);
+            if (node == null) {
+                return new ArrayList<>();
+            }
+        }
+        Set<V> results = new LinkedHashSet<>();
+        collect(node, results, limit);
+        return new ArrayList<>(results);
+    }
+    
+    public synchronized int getKeyCount() {
+        return keyCount;
+    }
+    
+    private void collect(Node<V> node, Set<V> results, int limit) {
+        for (V value : node.values) {
+            if (results.size() >= limit) {
+                return;
+            }
+            results.add(value);
+        }
+        for (Node<V> child : node.children.values()) {
+            if (results.size() >= limit) {
+                return;
+            }
+            collect(child, results, limit);
+        }
+    }
+    
+    private static class Node<V> {
+        private final Map<Character, Node<V>> children = new TreeMap<>();
+        private final List<V> values = new ArrayList<>(1);
+    }
+}
@@ -2,12 +2,18 @@ package service;
 
 import enums.FeedAlgorithmType;
 import model.Comment;
+import model.FeedPage;
 import model.Post;
 import model.User;
 import strategy.ChronologicalFeed;
 import strategy.FeedAlgorithm;
+import strategy.FolloweeFeedAlgorithm;
+import strategy.MergedChronologicalFeed;
 import strategy.PopularFeed;
+import strategy.TopKPopularFeed;
+import strategy.TopKTrendingFeed;
 import strategy.TrendingFeed;
+import trends.TrendsEngine;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -18,8 +24,15 @@ import java.util.List;
  */
 public class FeedService {
     private FeedAlgorithm currentAlgorithm;
+    private FolloweeFeedAlgorithm pagedAlgorithm;
+    private final TrendsEngine trendsEngine;
     
     public FeedService(FeedAlgorithmType algorithmType) {
+        this(algorithmType, TwitterService.getInstance().getTrendsEngine());
+    }
+    
+    public FeedService(FeedAlgorithmType algorithmType, TrendsEngine trendsEngine) {
+        this.trendsEngine = trendsEngine;
         setAlgorithm(algorithmType);
     }
     
@@ -30,15 +43,19 @@ public class FeedService {
         switch (algorithmType) {
             case CHRONOLOGICAL:
                 this.currentAlgorithm = new ChronologicalFeed();
+                this.pagedAlgorithm = new MergedChronologicalFeed();
                 break;
             case POPULAR:
                 this.currentAlgorithm = new PopularFeed();
+                this.pagedAlgorithm = new TopKPopularFeed();
                 break;
             case TRENDING:
-                this.currentAlgorithm = new TrendingFeed();
+                this.currentAlgorithm = new TrendingFeed(trendsEngine);
+                this.pagedAlgorithm = new TopKTrendingFeed(trendsEngine);
                 break;
             default:
                 this.currentAlgorithm = new ChronologicalFeed();
+                this.pagedAlgorithm = new MergedChronologicalFeed();
         }
     }
     
@@ -65,6 +82,16 @@ public class FeedService {
         return fullFeed.subList(start, end);
     }
     
+    /**
+     * Generate one page of the feed incrementally from followee post lists,
+     * without building the full feed first.
+     * 
+     * @param cursor null for the first page, otherwise the previous page's next cursor
+     */
+    public FeedPage generateFeedPage(User user, String cursor, int limit) {
+        return pagedAlgorithm.generatePage(user, cursor, limit);
+    }
+    
     /**
      * Display feed for a user.
      */
@@ -84,7 +111,7 @@ public class FeedService {
                 System.out.println("\n" + post);
                 
                 // Show comments if any
-                if (!post.getComments().isEmpty()) {
+                if (post.getCommentCount() > 0) {
                     for (Comment comment : post.getComments()) {
                         System.out.println(comment);
                     }
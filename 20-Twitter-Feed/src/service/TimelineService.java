@@ -0,0 +1,306 @@
+package service;
+
+import model.FeedPage;
+import model.Post;
+import model.User;
+import timeline.HomeTimeline;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Maintains precomputed home timelines (fan-out-on-write).
+ *
+ * A new post is queued and pushed into each follower's bounded timeline of
+ * post IDs. Authors at or above the celebrity threshold are not fanned out;
+ * their posts are merged in at read time instead (fan-out-on-read), so one
+ * post never turns into millions of timeline writes. Once an author has been
+ * treated as a celebrity they stay one, and reads de-duplicate by sequence.
+ */
+public class TimelineService {
+    public static final int DEFAULT_CAPACITY = 800;
+    public static final int DEFAULT_CELEBRITY_THRESHOLD = 10_000;
+    
+    private final Function<String, Post> postLookup;
+    private final int capacity;
+    private volatile int celebrityThreshold;
+    private final ConcurrentHashMap<String, HomeTimeline> timelines;
+    private final Set<String> celebrities;
+    private final BlockingQueue<Post> fanoutQueue;
+    private final AtomicInteger pendingFanout;
+    private final LongAdder fanoutWrites;
+    private final List<Thread> workers;
+    private volatile boolean running;
+    
+    public TimelineService(Function<String, Post> postLookup, int capacity, int celebrityThreshold) {
+        if (celebrityThreshold <= 0) {
+            throw new IllegalArgumentException("Celebrity threshold must be positive");
+        }
+        this.postLookup = postLookup;
+        this.capacity = capacity;
+        this.celebrityThreshold = celebrityThreshold;
+        this.timelines = new ConcurrentHashMap<>();
+        this.celebrities = ConcurrentHashMap.newKeySet();
+        this.fanoutQueue = new LinkedBlockingQueue<>();
+        this.pendingFanout = new AtomicInteger();
+        this.fanoutWrites = new LongAdder();
+        this.workers = new ArrayList<>();
+    }
+    
+    public TimelineService(Function<String, Post> postLookup) {
+        this(postLookup, DEFAULT_CAPACITY, DEFAULT_CELEBRITY_THRESHOLD);
+    }
+    
+    /**
+     * Record a newly created post. The author's own timeline is updated
+     * immediately; follower timelines are updated through the fan-out queue,
+     * inline on the caller's thread when no workers are running.
+     */
+    public void onPostCreated(Post post) {
+        User author = post.getAuthor();
+        timelineOf(author).insert(post.getSequence(), post.getPostId());
+        
+        if (isCelebrity(author)) {
+            return;
+        }
+        
+        pendingFanout.incrementAndGet();
+        fanoutQueue.offer(post);
+        if (!running) {
+            drainFanout();
+        }
+    }
+    
+    /**
+     * Backfill a new follower's timeline with the followee's recent posts.
+     */
+    public void onFollow(User follower, User followee) {
+        if (isCelebrity(followee)) {
+            return;
+        }
+        HomeTimeline timeline = timelineOf(follower);
+        for (Post post : followee.getPostsBefore(Long.MAX_VALUE, capacity)) {
+            timeline.insert(post.getSequence(), post.getPostId());
+        }
+    }
+    
+    /**
+     * Read one page of a user's home timeline, newest first.
+     *
+     * @param cursor null for the first page, otherwise the previous page's next cursor
+     */
+    public FeedPage getHomeTimeline(User user, String cursor, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        long before = cursor == null ? Long.MAX_VALUE : decodeCursor(cursor);
+        int want = limit + 1;  // One extra post tells us whether another page exists
+        
+        // Fan-out-on-read: pull recent posts from followed celebrities
+        List<Post> pulled = new ArrayList<>();
+        user.forEachFollowing(followee -> {
+            if (celebrities.contains(followee.getUserId())) {
+                pulled.addAll(followee.getPostsBefore(before, want));
+            }
+        });
+        pulled.sort((a, b) -> Long.compare(b.getSequence(), a.getSequence()));
+        
+        // Merge with the pushed timeline, reading it in chunks since
+        // entries from unfollowed or deleted authors are skipped
+        HomeTimeline timeline = timelineOf(user);
+        long[] sequences = new long[want];
+        String[] postIds = new String[want];
+        List<Post> page = new ArrayList<>(want);
+        int pulledIndex = 0;
+        long timelineCursor = before;
+        long lastSequence = Long.MAX_VALUE;
+        
+        while (page.size() < want) {
+            int count = timeline.readBefore(timelineCursor, want, sequences, postIds);
+            int i = 0;
+            while (i < count && page.size() < want) {
+                Post pushed = postLookup.apply(postIds[i]);
+                if (pushed == null || !isVisibleTo(pushed, user)) {
+                    i++;
+                    continue;
+                }
+                if (pulledIndex < pulled.size() && pulled.get(pulledIndex).getSequence() >= sequences[i]) {
+                    lastSequence = appendDistinct(page, pulled.get(pulledIndex++), lastSequence);
+                } else {
+                    lastSequence = appendDistinct(page, pushed, lastSequence);
+                    i++;
+                }
+            }
+            if (count < want) {
+                break;
+            }
+            timelineCursor = sequences[count - 1];
+        }
+        while (page.size() < want && pulledIndex < pulled.size()) {
+            lastSequence = appendDistinct(page, pulled.get(pulledIndex++), lastSequence);
+        }
+        
+        String nextCursor = null;
+        if (page.size() > limit) {
+            page.remove(limit);
+            nextCursor = encodeCursor(page.get(limit - 1).getSequence());
+        }
+        return new FeedPage(page, nextCursor);
+    }
+    
+    /**
+     * Process queued fan-out work on the calling thread.
+     */
+    public void drainFanout() {
+        Post post;
+        while ((post = fanoutQueue.poll()) != null) {
+            fanOut(post);
+        }
+    }
+    
+    /**
+     * Start background fan-out workers; createPost then returns without
+     * touching follower timelines.
+     */
+    public synchronized void startFanoutWorkers(int count) {
+        if (running) {
+            throw new IllegalStateException("Fan-out workers already running");
+        }
+        running = true;
+        for (int i = 0; i < count; i++) {
+            Thread worker = new Thread(this::runWorker, "timeline-fanout-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+    
+    /**
+     * Stop the workers and finish any remaining fan-out inline.
+     */
+    public synchronized void stopFanoutWorkers() throws InterruptedException {
+        running = false;
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        workers.clear();
+        drainFanout();
+    }
+    
+    /**
+     * Wait until every queued post has been fanned out.
+     *
+     * @return true if the queue drained before the timeout
+     */
+    public boolean awaitFanout(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (pendingFanout.get() > 0) {
+            if (System.nanoTime() >= deadline) {
+                return false;
+            }
+            Thread.sleep(1);
+        }
+        return true;
+    }
+    
+    public void setCelebrityThreshold(int celebrityThreshold) {
+        if (celebrityThreshold <= 0) {
+            throw new IllegalArgumentException("Celebrity threshold must be positive");
+        }
+        this.celebrityThreshold = celebrityThreshold;
+    }
+    
+    public int getCelebrityThreshold() {
+        return celebrityThreshold;
+    }
+    
+    public int getCelebrityCount() {
+        return celebrities.size();
+    }
+    
+    public long getFanoutWrites() {
+        return fanoutWrites.sum();
+    }
+    
+    public int getPendingFanout() {
+        return pendingFanout.get();
+    }
+    
+    public int getTimelineSize(User user) {
+        HomeTimeline timeline = timelines.get(user.getUserId());
+        return timeline == null ? 0 : timeline.size();
+    }
+    
+    private void runWorker() {
+        while (running) {
+            try {
+                fanOut(fanoutQueue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+    
+    private void fanOut(Post post) {
+        long sequence = post.getSequence();
+        String postId = post.getPostId();
+        post.getAuthor().forEachFollower(follower -> {
+            timelineOf(follower).insert(sequence, postId);
+            fanoutWrites.increment();
+        });
+        pendingFanout.decrementAndGet();
+    }
+    
+    private boolean isCelebrity(User author) {
+        String authorId = author.getUserId();
+        if (celebrities.contains(authorId)) {
+            return true;
+        }
+        if (author.getFollowerCount() >= celebrityThreshold) {
+            celebrities.add(authorId);
+            return true;
+        }
+        return false;
+    }
+    
+    private HomeTimeline timelineOf(User user) {
+        return timelines.computeIfAbsent(user.getUserId(), id -> new HomeTimeline(capacity));
+    }
+    
+    private static boolean isVisibleTo(Post post, User reader) {
+        User author = post.getAuthor();
+        return author.equals(reader) || reader.isFollowing(author);
+    }
+    
+    private static long appendDistinct(List<Post> page, Post post, long lastSequence) {
+        if (post.getSequence() == lastSequence) {
+            return lastSequence;
+        }
+        page.add(post);
+        return post.getSequence();
+    }
+    
+    private static String encodeCursor(long sequence) {
+        return Long.toString(sequence, 36);
+    }
+    
+    private static long decodeCursor(String cursor) {
+        try {
+            return Long.parseLong(cursor, 36);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+}
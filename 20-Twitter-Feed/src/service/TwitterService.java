@@ -1,16 +1,27 @@
 package service;
 
 import enums.PostType;
+import enums.TrendEventType;
 import factory.PostFactory;
+import graph.SocialGraph;
+import graph.Suggestion;
 import model.Comment;
+import model.FeedPage;
 import model.Post;
 import model.User;
+import search.PostIndex;
+import search.Tokenizer;
+import search.UsernameTrie;
+import trends.Trend;
+import trends.TrendsEngine;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Main service for managing Twitter-like functionality.
@@ -20,11 +31,25 @@ public class TwitterService {
     private static TwitterService instance;
     
     private final Map<String, User> users;
+    private final Map<String, User> usersByUsername;  // Lower-cased username -> user
     private final Map<String, Post> posts;
+    private final Map<Long, Post> postsBySequence;
+    private final TimelineService timelineService;
+    private final PostIndex postIndex;
+    private final UsernameTrie<User> userTrie;
+    private final TrendsEngine trendsEngine;
+    private final SocialGraph socialGraph;
     
     private TwitterService() {
-        this.users = new HashMap<>();
-        this.posts = new HashMap<>();
+        this.users = new ConcurrentHashMap<>();
+        this.usersByUsername = new ConcurrentHashMap<>();
+        this.posts = new ConcurrentHashMap<>();
+        this.postsBySequence = new ConcurrentHashMap<>();
+        this.timelineService = new TimelineService(this.posts::get);
+        this.postIndex = new PostIndex();
+        this.userTrie = new UsernameTrie<>();
+        this.trendsEngine = new TrendsEngine();
+        this.socialGraph = SocialGraph.getInstance();
     }
     
     /**
@@ -38,25 +63,61 @@ public class TwitterService {
     }
     
     /**
-     * Register a new user.
+     * Register a new user. Uniqueness checks are O(1) hash lookups; usernames
+     * are unique case-insensitively.
      */
-    public User registerUser(String userId, String username, String name) {
+    public synchronized User registerUser(String userId, String username, String name) {
         if (users.containsKey(userId)) {
             throw new IllegalArgumentException("User ID already exists: " + userId);
         }
         
-        // Check if username is taken
-        for (User user : users.values()) {
-            if (user.getUsername().equalsIgnoreCase(username)) {
-                throw new IllegalArgumentException("Username already taken: " + username);
-            }
+        String usernameKey = username.toLowerCase(Locale.ROOT);
+        if (usersByUsername.containsKey(usernameKey)) {
+            throw new IllegalArgumentException("Username already taken: " + username);
         }
         
         User user = new User(userId, username, name);
         users.put(userId, user);
+        usersByUsername.put(usernameKey, user);
+        
+        // Autocomplete on the username and on each word of the display name
+        for (String key : searchKeys(username, name)) {
+            userTrie.insert(key, user);
+        }
         return user;
     }
     
+    /**
+     * Change a user's display name and reindex it for autocomplete.
+     */
+    public synchronized void renameUser(String userId, String name) {
+        User user = users.get(userId);
+        if (user == null) {
+            throw new IllegalArgumentException("User not found: " + userId);
+        }
+        
+        Set<String> oldKeys = searchKeys(user.getUsername(), user.getName());
+        Set<String> newKeys = searchKeys(user.getUsername(), name);
+        for (String key : oldKeys) {
+            if (!newKeys.contains(key)) {
+                userTrie.remove(key, user);
+            }
+        }
+        for (String key : newKeys) {
+            userTrie.insert(key, user);
+        }
+        user.setName(name);
+    }
+    
+    private static Set<String> searchKeys(String username, String name) {
+        Set<String> keys = new LinkedHashSet<>();
+        keys.add(username.toLowerCase(Locale.ROOT));
+        for (String word : Tokenizer.tokenize(name)) {
+            keys.add(word.toLowerCase(Locale.ROOT));
+        }
+        return keys;
+    }
+    
     /**
      * Get user by ID.
      */
@@ -68,10 +129,7 @@ public class TwitterService {
      * Get user by username.
      */
     public User getUserByUsername(String username) {
-        return users.values().stream()
-            .filter(u -> u.getUsername().equalsIgnoreCase(username))
-            .findFirst()
-            .orElse(null);
+        return usersByUsername.get(username.toLowerCase(Locale.ROOT));
     }
     
     /**
@@ -80,10 +138,98 @@ public class TwitterService {
     public Post createPost(PostType type, User author, String content, Post originalPost) {
         Post post = PostFactory.createPost(type, author, content, originalPost);
         posts.put(post.getPostId(), post);
+        postsBySequence.put(post.getSequence(), post);
         author.addPost(post);
+        postIndex.index(post.getSequence(), post.getDisplayContent());
+        timelineService.onPostCreated(post);
+        publishTrendEvents(type, post, content, originalPost);
         return post;
     }
     
+    /**
+     * Follow a user and backfill the follower's home timeline.
+     */
+    public void follow(User follower, User followee) {
+        follower.follow(followee);
+        timelineService.onFollow(follower, followee);
+    }
+    
+    /**
+     * Unfollow a user. Stale timeline entries are filtered out at read time.
+     */
+    public void unfollow(User follower, User followee) {
+        follower.unfollow(followee);
+    }
+    
+    /**
+     * Follow several users at once; the social graph applies them as one batch.
+     */
+    public void followAll(User follower, List<User> followees) {
+        follower.followAll(followees);
+        for (User followee : followees) {
+            timelineService.onFollow(follower, followee);
+        }
+    }
+    
+    /**
+     * Unfollow several users at once.
+     */
+    public void unfollowAll(User follower, List<User> followees) {
+        follower.unfollowAll(followees);
+    }
+    
+    /**
+     * Check a follow edge in the compact graph (binary search, no User sets).
+     */
+    public boolean isFollowing(User follower, User followee) {
+        return follower.isFollowing(followee);
+    }
+    
+    /**
+     * Users who follow this user and are followed back.
+     */
+    public List<User> getMutualFollows(User user) {
+        List<User> result = new ArrayList<>();
+        for (int node : socialGraph.getMutualFollows(user.getGraphNode())) {
+            result.add(User.forGraphNode(node));
+        }
+        return result;
+    }
+    
+    /**
+     * "Who to follow" suggestions from the user's 2-hop neighbourhood, best first.
+     */
+    public List<User> suggestUsersToFollow(User user, int limit) {
+        List<User> result = new ArrayList<>();
+        for (Suggestion suggestion : socialGraph.suggestFollows(user.getGraphNode(), limit)) {
+            result.add(User.forGraphNode(suggestion.getNode()));
+        }
+        return result;
+    }
+    
+    /**
+     * Get the compact follow graph.
+     */
+    public SocialGraph getSocialGraph() {
+        return socialGraph;
+    }
+    
+    /**
+     * Get one page of a user's precomputed home timeline, newest first.
+     * 
+     * @param cursor null for the first page, otherwise the previous page's next cursor
+     */
+    public FeedPage getHomeTimeline(User user, String cursor, int limit) {
+        return timelineService.getHomeTimeline(user, cursor, limit);
+    }
+    
+    /**
+     * Get the timeline service (fan-out configuration and statistics).
+     */
+    public TimelineService getTimelineService() {
+        return timelineService;
+    }
+    
     /**
      * Get post by ID.
      */
@@ -106,7 +252,9 @@ public class TwitterService {
         if (post == null) {
             throw new IllegalArgumentException("Post not found: " + postId);
         }
-        post.like(user);
+        if (post.like(user)) {
+            trendsEngine.publish(TrendEventType.LIKE, post.getSequence(), null, System.currentTimeMillis());
+        }
     }
     
     /**
@@ -131,26 +279,108 @@ public class TwitterService {
         
         Comment comment = new Comment(user, content, postId);
         post.addComment(comment);
+        trendsEngine.publish(TrendEventType.COMMENT, post.getSequence(), null, System.currentTimeMillis());
         return comment;
     }
     
     /**
-     * Search posts by keyword.
+     * Search posts containing every word of the query, newest first.
      */
     public List<Post> searchPosts(String keyword) {
-        return posts.values().stream()
-            .filter(post -> post.getDisplayContent().toLowerCase().contains(keyword.toLowerCase()))
-            .collect(Collectors.toList());
+        return searchPosts(keyword, Integer.MAX_VALUE);
+    }
+    
+    /**
+     * Search posts containing every word of the query, newest first, up to limit.
+     */
+    public List<Post> searchPosts(String query, int limit) {
+        return resolvePosts(postIndex.search(query, limit));
     }
     
     /**
-     * Search users by username.
+     * Get the most recent posts tagged with a hashtag ("java" or "#java").
+     */
+    public List<Post> searchHashtag(String hashtag, int limit) {
+        return resolvePosts(postIndex.searchTerm(Tokenizer.normalize(Tokenizer.HASHTAG, hashtag), limit));
+    }
+    
+    /**
+     * Get the most recent posts that mention a user.
+     */
+    public List<Post> getMentions(User user, int limit) {
+        return resolvePosts(postIndex.searchTerm(Tokenizer.normalize(Tokenizer.MENTION, user.getUsername()), limit));
+    }
+    
+    /**
+     * Search users whose username or a word of their name starts with the keyword.
      */
     public List<User> searchUsers(String keyword) {
-        return users.values().stream()
-            .filter(user -> user.getUsername().toLowerCase().contains(keyword.toLowerCase()) ||
-                           user.getName().toLowerCase().contains(keyword.toLowerCase()))
-            .collect(Collectors.toList());
+        return autocompleteUsers(keyword, Integer.MAX_VALUE);
+    }
+    
+    /**
+     * Autocomplete users by username or name prefix, alphabetically.
+     */
+    public List<User> autocompleteUsers(String prefix, int limit) {
+        return userTrie.complete(prefix, limit);
+    }
+    
+    /**
+     * Get the top trending hashtags right now.
+     */
+    public List<Trend<String>> getTrendingHashtags(int limit) {
+        return trendsEngine.getTrendingHashtags(limit, System.currentTimeMillis());
+    }
+    
+    /**
+     * Get the posts with the highest decayed engagement right now.
+     */
+    public List<Post> getTrendingPosts(int limit) {
+        List<Post> result = new ArrayList<>(limit);
+        for (Trend<Long> trend : trendsEngine.getTrendingPosts(limit, System.currentTimeMillis())) {
+            Post post = postsBySequence.get(trend.getKey());
+            if (post != null) {
+                result.add(post);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Get the trends engine.
+     */
+    public TrendsEngine getTrendsEngine() {
+        return trendsEngine;
+    }
+    
+    /**
+     * Get the post index (term and posting statistics).
+     */
+    public PostIndex getPostIndex() {
+        return postIndex;
+    }
+    
+    private void publishTrendEvents(PostType type, Post post, String content, Post originalPost) {
+        long now = System.currentTimeMillis();
+        if (type == PostType.RETWEET || type == PostType.QUOTE_TWEET) {
+            trendsEngine.publish(TrendEventType.RETWEET, originalPost.getSequence(), null, now);
+        }
+        if (type != PostType.RETWEET) {
+            // Only the author's own text counts towards hashtag trends
+            List<String> tags = Tokenizer.hashtags(content);
+            trendsEngine.publish(TrendEventType.POST, post.getSequence(), tags.toArray(new String[0]), now);
+        }
+    }
+    
+    private List<Post> resolvePosts(long[] sequences) {
+        List<Post> result = new ArrayList<>(sequences.length);
+        for (long sequence : sequences) {
+            Post post = postsBySequence.get(sequence);
+            if (post != null) {
+                result.add(post);
+            }
+        }
+        return result;
     }
     
     /**
@@ -170,8 +400,8 @@ public class TwitterService {
         System.out.println("Total Users: " + users.size());
         System.out.println("Total Posts: " + posts.size());
         
-        long totalLikes = posts.values().stream().mapToLong(p -> p.getLikes().size()).sum();
-        long totalComments = posts.values().stream().mapToLong(p -> p.getComments().size()).sum();
+        long totalLikes = posts.values().stream().mapToLong(Post::getLikeCount).sum();
+        long totalComments = posts.values().stream().mapToLong(Post::getCommentCount).sum();
         long totalRetweets = posts.values().stream().mapToLong(Post::getRetweetCount).sum();
         
         System.out.println("Total Likes: " + totalLikes);
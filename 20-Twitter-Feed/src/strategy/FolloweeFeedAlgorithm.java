@@ -0,0 +1,71 @@
+package strategy;
+
+import model.FeedPage;
+import model.Post;
+import model.User;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Base class for feed algorithms that read candidates straight from the
+ * posts of the user and the accounts they follow, rather than filtering
+ * every post in the system. Feeds are produced one page at a time.
+ */
+public abstract class FolloweeFeedAlgorithm implements FeedAlgorithm {
+    private static final int FULL_FEED_PAGE_SIZE = 256;
+    
+    /**
+     * Generate one page of the user's feed.
+     * 
+     * @param user User requesting the feed
+     * @param cursor null for the first page, otherwise the previous page's next cursor
+     * @param limit Maximum number of posts in the page
+     * @return Page of posts plus the cursor for the next page
+     */
+    public abstract FeedPage generatePage(User user, String cursor, int limit);
+    
+    /**
+     * Generate the complete feed page by page. Candidates come from the
+     * followee post lists, so allPosts is not consulted.
+     */
+    @Override
+    public List<Post> generateFeed(User user, List<Post> allPosts) {
+        List<Post> feed = new ArrayList<>();
+        String cursor = null;
+        do {
+            FeedPage page = generatePage(user, cursor, FULL_FEED_PAGE_SIZE);
+            feed.addAll(page.getPosts());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return feed;
+    }
+    
+    /**
+     * The user plus everyone they follow.
+     */
+    protected static List<User> sourcesFor(User user) {
+        List<User> sources = new ArrayList<>(user.getFollowingCount() + 1);
+        sources.add(user);
+        user.forEachFollowing(sources::add);
+        return sources;
+    }
+    
+    protected static void requirePositive(int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+    }
+    
+    protected static String encodeCursor(long value) {
+        return Long.toString(value, 36);
+    }
+    
+    protected static long decodeCursor(String cursor) {
+        try {
+            return Long.parseLong(cursor, 36);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package strategy;
+
+import model.FeedPage;
+import model.Post;
+import model.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Chronological feed built by a lazy k-way merge of the already time-ordered
+ * post lists of the user and their followees. Each source is read backwards
+ * in small chunks, so a page costs O(limit · log k) instead of a full sort.
+ * The cursor is the sequence of the last post returned.
+ */
+public class MergedChronologicalFeed extends FolloweeFeedAlgorithm {
+    private static final int CHUNK_SIZE = 8;
+    
+    @Override
+    public FeedPage generatePage(User user, String cursor, int limit) {
+        requirePositive(limit);
+        long before = cursor == null ? Long.MAX_VALUE : decodeCursor(cursor);
+        
+        PriorityQueue<SourceCursor> heads = new PriorityQueue<>(
+            (a, b) -> Long.compare(b.peek().getSequence(), a.peek().getSequence()));
+        for (User source : sourcesFor(user)) {
+            SourceCursor sourceCursor = new SourceCursor(source, before, Math.min(CHUNK_SIZE, limit + 1));
+            if (sourceCursor.peek() != null) {
+                heads.add(sourceCursor);
+            }
+        }
+        
+        List<Post> page = new ArrayList<>(limit);
+        while (page.size() < limit && !heads.isEmpty()) {
+            SourceCursor head = heads.poll();
+            page.add(head.next());
+            if (head.peek() != null) {
+                heads.add(head);
+            }
+        }
+        
+        String nextCursor = heads.isEmpty() ? null : encodeCursor(page.get(page.size() - 1).getSequence());
+        return new FeedPage(page, nextCursor);
+    }
+    
+    @Override
+    public String getAlgorithmName() {
+        return "Chronological (Latest First, k-way merge)";
+    }
+    
+    /**
+     * Reads one author's posts newest first, refilling a small buffer on demand.
+     */
+    private static class SourceCursor {
+        private final User author;
+        private final int chunkSize;
+        private List<Post> buffer;
+        private int index;
+        
+        SourceCursor(User author, long before, int chunkSize) {
+            this.author = author;
+            this.chunkSize = chunkSize;
+            this.buffer = author.getPostsBefore(before, chunkSize);
+        }
+        
+        Post peek() {
+            if (index == buffer.size()) {
+                if (buffer.size() < chunkSize) {
+                    return null;
+                }
+                long before = buffer.get(index - 1).getSequence();
+                buffer = author.getPostsBefore(before, chunkSize);
+                index = 0;
+                if (buffer.isEmpty()) {
+                    return null;
+                }
+            }
+            return buffer.get(index);
+        }
+        
+        Post next() {
+            Post post = peek();
+            index++;
+            return post;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package strategy;
+
+import model.Post;
+
+/**
+ * Popular feed using bounded top-K selection over cached engagement scores.
+ */
+public class TopKPopularFeed extends TopKRankedFeed {
+    
+    @Override
+    protected double score(Post post, long nowMillis) {
+        return post.getEngagementScore();
+    }
+    
+    @Override
+    public String getAlgorithmName() {
+        return "Popular (Most Engaged, top-K)";
+    }
+}
@@ -0,0 +1,98 @@
+package strategy;
+
+import model.FeedPage;
+import model.Post;
+import model.User;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Ranked feed that selects only the top offset + limit posts with a bounded
+ * min-heap, O(n log K), instead of sorting every candidate. Each candidate is
+ * scored exactly once per request. Ties go to the newer post. The cursor is
+ * the rank offset of the next page, so rankings may shift between pages as
+ * engagement changes.
+ */
+public abstract class TopKRankedFeed extends FolloweeFeedAlgorithm {
+    
+    /**
+     * Score a post for ranking; higher ranks first.
+     */
+    protected abstract double score(Post post, long nowMillis);
+    
+    @Override
+    public FeedPage generatePage(User user, String cursor, int limit) {
+        requirePositive(limit);
+        long offset = cursor == null ? 0 : decodeCursor(cursor);
+        if (offset < 0 || offset > Integer.MAX_VALUE - limit - 1) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        
+        // One extra entry tells us whether another page exists
+        List<Scored> top = selectTop(user, (int) offset + limit + 1);
+        int from = (int) Math.min(offset, top.size());
+        int to = Math.min(from + limit, top.size());
+        
+        List<Post> page = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            page.add(top.get(i).post);
+        }
+        String nextCursor = top.size() > to ? encodeCursor(to) : null;
+        return new FeedPage(page, nextCursor);
+    }
+    
+    @Override
+    public List<Post> generateFeed(User user, List<Post> allPosts) {
+        List<Scored> ranked = selectTop(user, Integer.MAX_VALUE);
+        List<Post> feed = new ArrayList<>(ranked.size());
+        for (Scored scored : ranked) {
+            feed.add(scored.post);
+        }
+        return feed;
+    }
+    
+    /**
+     * Best k candidates, highest first.
+     */
+    private List<Scored> selectTop(User user, int k) {
+        long now = System.currentTimeMillis();
+        PriorityQueue<Scored> heap = new PriorityQueue<>();
+        for (User source : sourcesFor(user)) {
+            source.forEachPost(post -> {
+                Scored candidate = new Scored(post, score(post, now));
+                if (heap.size() < k) {
+                    heap.add(candidate);
+                } else if (candidate.compareTo(heap.peek()) > 0) {
+                    heap.poll();
+                    heap.add(candidate);
+                }
+            });
+        }
+        
+        List<Scored> top = new ArrayList<>(heap);
+        top.sort(Collections.reverseOrder());
+        return top;
+    }
+    
+    /**
+     * Post with its score computed once; natural order is worst first.
+     */
+    private static class Scored implements Comparable<Scored> {
+        private final Post post;
+        private final double score;
+        
+        Scored(Post post, double score) {
+            this.post = post;
+            this.score = score;
+        }
+        
+        @Override
+        public int compareTo(Scored other) {
+            int byScore = Double.compare(score, other.score);
+            return byScore != 0 ? byScore : Long.compare(post.getSequence(), other.post.getSequence());
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package strategy;
+
+import model.FeedPage;
+import model.Post;
+import model.User;
+import trends.TrendsEngine;
+
+import java.util.List;
+
+/**
+ * Trending feed using bounded top-K selection over decayed engagement scores
+ * maintained by the trends engine.
+ */
+public class TopKTrendingFeed extends TopKRankedFeed {
+    private final TrendsEngine trendsEngine;
+    
+    public TopKTrendingFeed(TrendsEngine trendsEngine) {
+        this.trendsEngine = trendsEngine;
+    }
+    
+    @Override
+    public FeedPage generatePage(User user, String cursor, int limit) {
+        trendsEngine.drain();
+        return super.generatePage(user, cursor, limit);
+    }
+    
+    @Override
+    public List<Post> generateFeed(User user, List<Post> allPosts) {
+        trendsEngine.drain();
+        return super.generateFeed(user, allPosts);
+    }
+    
+    @Override
+    protected double score(Post post, long nowMillis) {
+        return trendsEngine.getPostScore(post.getSequence(), nowMillis);
+    }
+    
+    @Override
+    public String getAlgorithmName() {
+        return "Trending (Decayed Engagement, top-K)";
+    }
+}
@@ -2,22 +2,43 @@ package strategy;
 
 import model.Post;
 import model.User;
+import trends.TrendsEngine;
 
-import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 /**
- * Trending feed algorithm - shows recent posts with high engagement velocity.
+ * Trending feed algorithm - shows posts with the highest decayed engagement
+ * first, as tracked by the trends engine.
  */
 public class TrendingFeed implements FeedAlgorithm {
+    private final TrendsEngine trendsEngine;
+    
+    public TrendingFeed(TrendsEngine trendsEngine) {
+        this.trendsEngine = trendsEngine;
+    }
     
     @Override
     public List<Post> generateFeed(User user, List<Post> allPosts) {
-        return allPosts.stream()
-            .filter(post -> user.isFollowing(post.getAuthor()) || post.getAuthor().equals(user))
-            .sorted(Comparator.comparing(Post::getEngagementVelocity).reversed())
-            .collect(Collectors.toList());
+        trendsEngine.drain();
+        long now = System.currentTimeMillis();
+        
+        // Look each score up once; the engine keeps updating while we sort
+        Map<Post, Double> scores = new HashMap<>();
+        List<Post> feed = new ArrayList<>();
+        for (Post post : allPosts) {
+            if (user.isFollowing(post.getAuthor()) || post.getAuthor().equals(user)) {
+                scores.put(post, trendsEngine.getPostScore(post.getSequence(), now));
+                feed.add(post);
+            }
+        }
+        feed.sort((a, b) -> {
+            int byScore = Double.compare(scores.get(b), scores.get(a));
+            return byScore != 0 ? byScore : Long.compare(b.getSequence(), a.getSequence());
+        });
+        return feed;
     }
     
     @Override
@@ -25,4 +46,3 @@ public class TrendingFeed implements FeedAlgorithm {
         return "Trending (High Velocity)";
     }
 }
-
@@ -0,0 +1,97 @@
+package timeline;
+
+/**
+ * Bounded, precomputed home timeline holding post IDs in sequence order.
+ * Entries live in parallel ring arrays (oldest at start); once full, the
+ * oldest entry is evicted. Fan-out usually appends at the tail, but a
+ * late-arriving post is shifted into place so cursor reads can binary search.
+ */
+public class HomeTimeline {
+    private final long[] sequences;
+    private final String[] postIds;
+    private int start;
+    private int size;
+    
+    public HomeTimeline(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Timeline capacity must be positive");
+        }
+        this.sequences = new long[capacity];
+        this.postIds = new String[capacity];
+    }
+    
+    /**
+     * Insert a post. Duplicates and posts older than a full timeline's oldest entry are ignored.
+     */
+    public synchronized void insert(long sequence, String postId) {
+        int capacity = sequences.length;
+        int position = lowerBound(sequence);
+        if (position < size && sequences[physical(position)] == sequence) {
+            return;
+        }
+        if (size == capacity) {
+            if (position == 0) {
+                return;
+            }
+            postIds[start] = null;
+            start = (start + 1) % capacity;
+            size--;
+            position--;
+        }
+        for (int i = size; i > position; i--) {
+            int to = physical(i);
+            int from = physical(i - 1);
+            sequences[to] = sequences[from];
+            postIds[to] = postIds[from];
+        }
+        sequences[physical(position)] = sequence;
+        postIds[physical(position)] = postId;
+        size++;
+    }
+    
+    /**
+     * Copy up to limit entries older than beforeSequence into the output
+     * arrays, newest first.
+     * 
+     * @return Number of entries copied
+     */
+    public synchronized int readBefore(long beforeSequence, int limit, long[] sequenceOut, String[] postIdOut) {
+        int count = 0;
+        for (int i = lowerBound(beforeSequence) - 1; i >= 0 && count < limit; i--) {
+            int p = physical(i);
+            sequenceOut[count] = sequences[p];
+            postIdOut[count] = postIds[p];
+            count++;
+        }
+        return count;
+    }
+    
+    public synchronized int size() {
+        return size;
+    }
+    
+    public int capacity() {
+        return sequences.length;
+    }
+    
+    /**
+     * Logical index of the first entry whose sequence is >= the given one.
+     */
+    private int lowerBound(long sequence) {
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sequences[physical(mid)] < sequence) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+    
+    private int physical(int logical) {
+        int p = start + logical;
+        return p >= sequences.length ? p - sequences.length : p;
+    }
+}
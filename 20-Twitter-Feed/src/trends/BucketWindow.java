@@ -0,0 +1,42 @@
+package trends;
+
+import java.util.Arrays;
+
+/**
+ * Event counts over a sliding window of fixed-width time buckets, kept in a
+ * ring indexed by bucket number. Written by a single thread; readers may see
+ * a count that is at most one update behind.
+ */
+public class BucketWindow {
+    private final int[] counts;
+    private final long[] buckets;
+    
+    public BucketWindow(int bucketCount) {
+        this.counts = new int[bucketCount];
+        this.buckets = new long[bucketCount];
+        Arrays.fill(buckets, -1);
+    }
+    
+    public void add(long bucket, int amount) {
+        int slot = (int) (bucket % counts.length);
+        if (buckets[slot] != bucket) {
+            buckets[slot] = bucket;
+            counts[slot] = 0;
+        }
+        counts[slot] += amount;
+    }
+    
+    /**
+     * Total over the buckets in (currentBucket - bucketCount, currentBucket].
+     */
+    public int total(long currentBucket) {
+        int total = 0;
+        for (int i = 0; i < counts.length; i++) {
+            long bucket = buckets[i];
+            if (bucket <= currentBucket && bucket > currentBucket - counts.length) {
+                total += counts[i];
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,148 @@
+package trends;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Exponentially decayed scores per key with a continuously maintained top-K.
+ * 
+ * Scores use forward decay: an event at time t adds weight · 2^((t - L) / h)
+ * for a shared landmark L and half-life h. Every score decays by the same
+ * factor, so ordering between keys only changes when a key is updated and the
+ * top-K set can be maintained incrementally on each update. Written by a
+ * single thread; readers use the published snapshot and the concurrent map.
+ */
+public class DecayedTopK<K> {
+    private final int k;
+    private final ConcurrentHashMap<K, Entry<K>> entries;
+    private final TreeSet<Entry<K>> top;
+    private volatile List<Entry<K>> snapshot;
+    private long nextId;
+    
+    public DecayedTopK(int k) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("K must be positive");
+        }
+        this.k = k;
+        this.entries = new ConcurrentHashMap<>();
+        this.top = new TreeSet<>();
+        this.snapshot = Collections.emptyList();
+    }
+    
+    /**
+     * Add landmark-scaled weight to a key and update the top-K.
+     */
+    public void add(K key, double scaledWeight) {
+        Entry<K> entry = entries.get(key);
+        if (entry == null) {
+            entry = new Entry<>(key, nextId++);
+            entries.put(key, entry);
+        }
+        
+        boolean inTop = entry.inTop && top.remove(entry);
+        entry.value += scaledWeight;
+        if (inTop || top.size() < k) {
+            top.add(entry);
+            entry.inTop = true;
+        } else if (entry.compareTo(top.first()) > 0) {
+            Entry<K> evicted = top.pollFirst();
+            evicted.inTop = false;
+            top.add(entry);
+            entry.inTop = true;
+        }
+    }
+    
+    /**
+     * Landmark-scaled score of a key, or 0 if unseen.
+     */
+    public double scaledScore(K key) {
+        Entry<K> entry = entries.get(key);
+        return entry == null ? 0 : entry.value;
+    }
+    
+    /**
+     * Publish the current top-K, highest first, for readers.
+     */
+    public void publish() {
+        List<Entry<K>> ranked = new ArrayList<>(top.size());
+        for (Entry<K> entry : top.descendingSet()) {
+            ranked.add(entry.copy());
+        }
+        snapshot = ranked;
+    }
+    
+    /**
+     * Last published top-K as (key, landmark-scaled score), highest first.
+     */
+    public List<Entry<K>> getSnapshot() {
+        return snapshot;
+    }
+    
+    /**
+     * Multiply every score by factor after the landmark moves, dropping keys
+     * outside the top-K whose score falls below pruneBelow.
+     * 
+     * @return Number of keys pruned
+     */
+    public int rescale(double factor, double pruneBelow) {
+        List<Entry<K>> leaders = new ArrayList<>(top);
+        top.clear();
+        int pruned = 0;
+        for (Entry<K> entry : entries.values()) {
+            entry.value *= factor;
+            if (!entry.inTop && entry.value < pruneBelow) {
+                entries.remove(entry.key);
+                pruned++;
+            }
+        }
+        // Scaling preserves order in theory; re-insert so rounding cannot corrupt the tree
+        top.addAll(leaders);
+        return pruned;
+    }
+    
+    public int size() {
+        return entries.size();
+    }
+    
+    public boolean contains(K key) {
+        return entries.containsKey(key);
+    }
+    
+    /**
+     * A key and its score; natural order is lowest score first.
+     */
+    public static class Entry<K> implements Comparable<Entry<K>> {
+        private final K key;
+        private final long id;  // Tie-breaker: earlier keys rank lower
+        private volatile double value;
+        private boolean inTop;
+        
+        Entry(K key, long id) {
+            this.key = key;
+            this.id = id;
+        }
+        
+        private Entry<K> copy() {
+            Entry<K> copy = new Entry<>(key, id);
+            copy.value = value;
+            return copy;
+        }
+        
+        public K getKey() {
+            return key;
+        }
+        
+        public double getScaledScore() {
+            return value;
+        }
+        
+        @Override
+        public int compareTo(Entry<K> other) {
+            int byValue = Double.compare(value, other.value);
+            return byValue != 0 ? byValue : Long.compare(id, other.id);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package trends;
+
+/**
+ * A trending key with its decayed score at query time and the number of
+ * events seen for it in the sliding window.
+ */
+public class Trend<K> {
+    private final K key;
+    private final double score;
+    private final int windowCount;
+    
+    public Trend(K key, double score, int windowCount) {
+        this.key = key;
+        this.score = score;
+        this.windowCount = windowCount;
+    }
+    
+    public K getKey() {
+        return key;
+    }
+    
+    public double getScore() {
+        return score;
+    }
+    
+    public int getWindowCount() {
+        return windowCount;
+    }
+    
+    @Override
+    public String toString() {
+        return key + " (score " + String.format("%.1f", score) + ", " + windowCount + " in window)";
+    }
+}
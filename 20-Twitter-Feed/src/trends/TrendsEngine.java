@@ -0,0 +1,278 @@
+package trends;
+
+import enums.TrendEventType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Streaming trends engine for posts and hashtags.
+ * 
+ * Producers (post creation, likes, comments, retweets) copy events into a
+ * pre-allocated ring and return immediately; a single daemon consumer applies
+ * them in batches. Event times are quantized to fixed-width buckets, scores
+ * decay exponentially with a configurable half-life, and a top-K for posts and
+ * hashtags is updated incrementally and republished after every batch. Readers
+ * drain pending events first, so queries always reflect published events.
+ */
+public class TrendsEngine {
+    public static final long DEFAULT_HALF_LIFE_MILLIS = 30 * 60_000L;
+    public static final long DEFAULT_BUCKET_MILLIS = 60_000L;
+    public static final int DEFAULT_WINDOW_BUCKETS = 60;
+    public static final int DEFAULT_TOP_K = 50;
+    
+    private static final int LIKE_WEIGHT = 1;
+    private static final int COMMENT_WEIGHT = 3;
+    private static final int RETWEET_WEIGHT = 5;
+    private static final double RESCALE_HALF_LIVES = 32;  // Keeps 2^x well inside double range
+    private static final double PRUNE_BELOW = 1e-3;
+    private static final long IDLE_PARK_NANOS = 1_000_000L;
+    
+    private final long halfLifeMillis;
+    private final long bucketMillis;
+    private final int windowBuckets;
+    private final DecayedTopK<Long> posts;
+    private final DecayedTopK<String> hashtags;
+    private final ConcurrentHashMap<String, BucketWindow> hashtagWindows;
+    private volatile long landmarkBucket = -1;
+    private volatile long latestBucket = -1;
+    
+    private final Slot[] ring;
+    private final int mask;
+    private final AtomicLong claimed;
+    private volatile long consumed;
+    private final LongAdder dropped;
+    private final LongAdder applied;
+    private final Thread consumer;
+    private volatile boolean running;
+    
+    private static final class Slot {
+        volatile long sequence = -1;
+        TrendEventType type;
+        long postSequence;
+        String[] hashtags;
+        long timestampMillis;
+    }
+    
+    public TrendsEngine(long halfLifeMillis, long bucketMillis, int windowBuckets, int topK, int ringCapacity) {
+        if (halfLifeMillis <= 0 || bucketMillis <= 0 || windowBuckets <= 0) {
+            throw new IllegalArgumentException("Half-life, bucket width and window must be positive");
+        }
+        this.halfLifeMillis = halfLifeMillis;
+        this.bucketMillis = bucketMillis;
+        this.windowBuckets = windowBuckets;
+        this.posts = new DecayedTopK<>(topK);
+        this.hashtags = new DecayedTopK<>(topK);
+        this.hashtagWindows = new ConcurrentHashMap<>();
+        
+        int size = Integer.highestOneBit(Math.max(2, ringCapacity - 1)) << 1;
+        this.ring = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            ring[i] = new Slot();
+        }
+        this.mask = size - 1;
+        this.claimed = new AtomicLong();
+        this.dropped = new LongAdder();
+        this.applied = new LongAdder();
+        this.running = true;
+        this.consumer = new Thread(this::consumeLoop, "trends-engine");
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+    }
+    
+    public TrendsEngine() {
+        this(DEFAULT_HALF_LIFE_MILLIS, DEFAULT_BUCKET_MILLIS, DEFAULT_WINDOW_BUCKETS, DEFAULT_TOP_K, 1 << 16);
+    }
+    
+    /**
+     * Publish an event without blocking. When the ring is full the event is
+     * dropped and counted.
+     * 
+     * @param hashtags Hashtag terms for POST events, otherwise null
+     * @return false if the event was dropped
+     */
+    public boolean publish(TrendEventType type, long postSequence, String[] hashtags, long timestampMillis) {
+        long seq;
+        do {
+            seq = claimed.get();
+            if (seq - consumed >= ring.length) {
+                dropped.increment();
+                return false;
+            }
+        } while (!claimed.compareAndSet(seq, seq + 1));
+        
+        Slot slot = ring[(int) (seq & mask)];
+        slot.type = type;
+        slot.postSequence = postSequence;
+        slot.hashtags = hashtags;
+        slot.timestampMillis = timestampMillis;
+        slot.sequence = seq;
+        return true;
+    }
+    
+    /**
+     * Apply every published event. Called by the consumer thread and by readers.
+     */
+    public synchronized int drain() {
+        int drained = 0;
+        long next = consumed;
+        while (true) {
+            Slot slot = ring[(int) (next & mask)];
+            if (slot.sequence != next) {
+                break;
+            }
+            apply(slot.type, slot.postSequence, slot.hashtags, slot.timestampMillis);
+            slot.hashtags = null;
+            next++;
+            consumed = next;
+            drained++;
+        }
+        if (drained > 0) {
+            applied.add(drained);
+            posts.publish();
+            hashtags.publish();
+        }
+        return drained;
+    }
+    
+    /**
+     * Top trending hashtags with scores decayed to the given time.
+     */
+    public List<Trend<String>> getTrendingHashtags(int limit, long nowMillis) {
+        drain();
+        List<Trend<String>> result = new ArrayList<>();
+        long currentBucket = Math.max(bucketOf(nowMillis), latestBucket);
+        for (DecayedTopK.Entry<String> entry : hashtags.getSnapshot()) {
+            if (result.size() >= limit) {
+                break;
+            }
+            BucketWindow window = hashtagWindows.get(entry.getKey());
+            int windowCount = window == null ? 0 : window.total(currentBucket);
+            result.add(new Trend<>(entry.getKey(), decay(entry.getScaledScore(), nowMillis), windowCount));
+        }
+        return result;
+    }
+    
+    /**
+     * Sequences of the top trending posts, highest first.
+     */
+    public List<Trend<Long>> getTrendingPosts(int limit, long nowMillis) {
+        drain();
+        List<Trend<Long>> result = new ArrayList<>();
+        for (DecayedTopK.Entry<Long> entry : posts.getSnapshot()) {
+            if (result.size() >= limit) {
+                break;
+            }
+            result.add(new Trend<>(entry.getKey(), decay(entry.getScaledScore(), nowMillis), 0));
+        }
+        return result;
+    }
+    
+    /**
+     * Decayed engagement score of one post at the given time. Does not drain,
+     * so ranking loops can call it once per candidate cheaply.
+     */
+    public double getPostScore(long postSequence, long nowMillis) {
+        return decay(posts.scaledScore(postSequence), nowMillis);
+    }
+    
+    public long getAppliedCount() {
+        return applied.sum();
+    }
+    
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+    
+    public long getPendingCount() {
+        return claimed.get() - consumed;
+    }
+    
+    public int getTrackedPostCount() {
+        return posts.size();
+    }
+    
+    public int getTrackedHashtagCount() {
+        return hashtags.size();
+    }
+    
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(consumer);
+    }
+    
+    private void apply(TrendEventType type, long postSequence, String[] tags, long timestampMillis) {
+        long bucket = bucketOf(timestampMillis);
+        if (landmarkBucket < 0) {
+            landmarkBucket = bucket;
+        }
+        if (bucket > latestBucket) {
+            latestBucket = bucket;
+            maybeRescale(bucket);
+        }
+        double scale = Math.pow(2, (bucket - landmarkBucket) * (double) bucketMillis / halfLifeMillis);
+        
+        switch (type) {
+            case POST:
+                if (tags != null) {
+                    for (String tag : tags) {
+                        hashtags.add(tag, scale);
+                        hashtagWindows.computeIfAbsent(tag, t -> new BucketWindow(windowBuckets)).add(bucket, 1);
+                    }
+                }
+                break;
+            case LIKE:
+                posts.add(postSequence, LIKE_WEIGHT * scale);
+                break;
+            case COMMENT:
+                posts.add(postSequence, COMMENT_WEIGHT * scale);
+                break;
+            case RETWEET:
+                posts.add(postSequence, RETWEET_WEIGHT * scale);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown trend event: " + type);
+        }
+    }
+    
+    /**
+     * Move the landmark forward once it is far enough behind, so forward-decay
+     * weights stay in range, and drop keys whose score has decayed to nothing.
+     */
+    private void maybeRescale(long bucket) {
+        double halfLivesBehind = (bucket - landmarkBucket) * (double) bucketMillis / halfLifeMillis;
+        if (halfLivesBehind < RESCALE_HALF_LIVES) {
+            return;
+        }
+        double factor = Math.pow(2, -halfLivesBehind);
+        posts.rescale(factor, PRUNE_BELOW);
+        hashtags.rescale(factor, PRUNE_BELOW);
+        hashtagWindows.keySet().removeIf(tag -> !hashtags.contains(tag));
+        landmarkBucket = bucket;
+    }
+    
+    private double decay(double scaledScore, long nowMillis) {
+        if (scaledScore == 0) {
+            return 0;
+        }
+        double halfLives = (bucketOf(nowMillis) - landmarkBucket) * (double) bucketMillis / halfLifeMillis;
+        return scaledScore * Math.pow(2, -halfLives);
+    }
+    
+    private long bucketOf(long timestampMillis) {
+        return Math.floorDiv(timestampMillis, bucketMillis);
+    }
+    
+    private void consumeLoop() {
+        while (running) {
+            if (drain() == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        drain();
+    }
+}
@@ -3,9 +3,21 @@ import service.*;
 import enums.*;
 import strategy.*;
 import observer.*;
+import marketdata.*;
+import backtest.*;
+import risk.*;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
 
 public class Main {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         System.out.println("========================================");
         System.out.println("  📈 STOCK TRADING SYSTEM DEMO 📈");
         System.out.println("========================================\n");
@@ -13,6 +25,10 @@ public class Main {
         // Initialize Stock Exchange (Singleton)
         StockExchange exchange = StockExchange.getInstance();
         
+        // Journal every command so the session can be replayed (scenario 12)
+        Path journalDirectory = Files.createTempDirectory("exchange-journal");
+        exchange.enableJournal(journalDirectory, 25);
+        
         // Register stocks
         Stock apple = new Stock("AAPL", "Apple Inc.", 150.00);
         Stock google = new Stock("GOOGL", "Alphabet Inc.", 2800.00);
@@ -225,6 +241,172 @@ public class Main {
             System.out.println("   " + txn);
         }
         
+        // ====================
+        // SCENARIO 10: Order Book Matching
+        // ====================
+        System.out.println("\n========================================");
+        System.out.println("  SCENARIO 10: ORDER BOOK MATCHING");
+        System.out.println("========================================");
+        
+        // Alice offers her TSLA above the market; the asks rest in the book
+        Order ask1 = new LimitOrder(alice, tesla, 3, TransactionType.SELL, 248.00);
+        Order ask2 = new LimitOrder(alice, tesla, 2, TransactionType.SELL, 249.00);
+        exchange.placeOrder(ask1);
+        exchange.placeOrder(ask2);
+        exchange.displayOrderBook("TSLA", 5);
+        
+        // Bob's bid crosses both levels: best price first, the second ask partially
+        Order bid = new LimitOrder(bob, tesla, 4, TransactionType.BUY, 249.00);
+        exchange.placeOrder(bid);
+        System.out.println("   " + ask1.getOrderId() + ": " + ask1.getStatus() + 
+            " | " + ask2.getOrderId() + ": " + ask2.getStatus() + 
+            " (" + ask2.getFilledQuantity() + "/" + ask2.getQuantity() + " filled)");
+        exchange.displayOrderBook("TSLA", 5);
+        
+        // Cancel is a direct index lookup and releases the unsold share
+        exchange.cancelOrder(ask2.getOrderId());
+        System.out.println("   Alice TSLA available to sell: " + alice.getPortfolio().getAvailableShares(tesla));
+        
+        // ====================
+        // SCENARIO 11: Sharded Matching
+        // ====================
+        System.out.println("\n========================================");
+        System.out.println("  SCENARIO 11: SHARDED MATCHING");
+        System.out.println("========================================");
+        
+        // Orders for different symbols go to their own matching threads; submit
+        // them without waiting, then wait for all of them to settle
+        System.out.println("Matching shards: " + exchange.getMatchingShardCount());
+        CompletableFuture<Order> appleBuy = exchange.submitOrder(new MarketOrder(charlie, apple, 2, TransactionType.BUY));
+        CompletableFuture<Order> teslaBuy = exchange.submitOrder(new MarketOrder(charlie, tesla, 1, TransactionType.BUY));
+        CompletableFuture.allOf(appleBuy, teslaBuy).join();
+        System.out.println("   " + appleBuy.join().getOrderId() + ": " + appleBuy.join().getStatus() + 
+            " | " + teslaBuy.join().getOrderId() + ": " + teslaBuy.join().getStatus());
+        System.out.printf("   Charlie's available cash after settlement: $%.2f\n", charlie.getAvailableBalance());
+        
+        // ====================
+        // SCENARIO 12: Journal Replay
+        // ====================
+        System.out.println("\n========================================");
+        System.out.println("  SCENARIO 12: JOURNAL REPLAY");
+        System.out.println("========================================");
+        
+        // Rebuild the whole session from the journal into a standalone copy
+        long replayStart = System.nanoTime();
+        StockExchange replica = StockExchange.replay(journalDirectory, Long.MAX_VALUE);
+        System.out.printf("Replayed %d journal records in %.1f ms\n",
+            replica.getLastReplayedSequence(), (System.nanoTime() - replayStart) / 1e6);
+        for (Trader trader : Arrays.asList(alice, bob, charlie)) {
+            Trader replayed = replica.getTrader(trader.getTraderId());
+            System.out.printf("   %s: live $%.2f cash, $%.2f portfolio | replayed $%.2f cash, $%.2f portfolio\n",
+                trader.getName(), trader.getBalance(), trader.getPortfolio().getTotalValue(),
+                replayed.getBalance(), replayed.getPortfolio().getTotalValue());
+        }
+        System.out.println("   Trades: live " + exchange.getTradeCount() + " | replayed " + replica.getTradeCount());
+        
+        // ====================
+        // SCENARIO 13: Conflated Market Data
+        // ====================
+        System.out.println("\n========================================");
+        System.out.println("  SCENARIO 13: CONFLATED MARKET DATA");
+        System.out.println("========================================");
+        
+        // Resting quotes on both sides give the feed a book to show
+        Order amazonBid = exchange.placeOrder(new LimitOrder(alice, amazon, 2, TransactionType.BUY, 3100.00));
+        Order amazonAsk = exchange.placeOrder(new LimitOrder(bob, amazon, 1, TransactionType.SELL, 3250.00));
+        
+        // A subscriber far slower than the market only ever sees the latest state
+        MarketDataPublisher.Subscription slowFeed = exchange.getMarketData().subscribe("AMZN", snapshot -> {
+            try {
+                Thread.sleep(2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        
+        System.out.println("\n📊 Market Update: 500 rapid AMZN ticks...");
+        CompletableFuture<Void> lastTick = null;
+        for (int i = 1; i <= 500; i++) {
+            double price = 3168.00 + 20 * Math.sin(i / 25.0);
+            lastTick = exchange.submitPriceUpdate("AMZN", Math.round(price * 100) / 100.0);
+        }
+        lastTick.join();
+        exchange.updateStockPrice("AMZN", 3168.00);
+        
+        System.out.printf("   Slow subscriber: %d snapshots delivered, %d conflated away\n",
+            slowFeed.getDeliveredCount(), slowFeed.getConflatedCount());
+        System.out.println("   Latest: " + exchange.getMarketSnapshot("AMZN"));
+        List<Bar> bars = amazon.getTickHistory().bars(10);
+        System.out.println("   Last 10 ms bars:");
+        for (Bar bar : bars.subList(Math.max(0, bars.size() - 3), bars.size())) {
+            System.out.println("      " + bar);
+        }
+        slowFeed.cancel();
+        exchange.cancelOrder(amazonBid.getOrderId());
+        exchange.cancelOrder(amazonAsk.getOrderId());
+        
+        // ====================
+        // SCENARIO 14: Strategy Backtest
+        // ====================
+        System.out.println("\n========================================");
+        System.out.println("  SCENARIO 14: STRATEGY BACKTEST");
+        System.out.println("========================================");
+        
+        // A day and a bit of one-second ticks with occasional jumps, as CSV
+        Path tickFile = Files.createTempFile("ticks", ".csv");
+        Random random = new Random(7);
+        try (BufferedWriter out = Files.newBufferedWriter(tickFile)) {
+            double price = 100.00;
+            for (int second = 0; second < 100_000; second++) {
+                double jump = random.nextInt(2_000) == 0 ? random.nextGaussian() * 0.03 : 0;
+                price = Math.round(price * (1 + random.nextGaussian() * 0.0005 + jump) * 100) / 100.0;
+                out.write((1_704_200_400_000L + second * 1000L) + ",DEMO," + price + "\n");
+            }
+        }
+        
+        // The three strategies as shipped, plus a sweep of the aggressive momentum threshold
+        List<BacktestRun> runs = new ArrayList<>();
+        runs.add(new BacktestRun("Aggressive", new AggressiveStrategy(), 10_000, 0.5));
+        runs.add(new BacktestRun("Conservative", new ConservativeStrategy(), 10_000, 0.5));
+        runs.add(new BacktestRun("Day Trading", new DayTradingStrategy(), 10_000, 0.5));
+        for (double momentum : new double[] {0.5, 1.0, 1.5}) {
+            runs.add(new BacktestRun("Aggressive momentum " + momentum + "%",
+                new AggressiveStrategy(momentum, 5.0, 3.0), 10_000, 0.5));
+        }
+        List<BacktestResult> results;
+        try (TickReader reader = TickReader.open(tickFile)) {
+            results = new BacktestEngine().run(reader, runs);
+        }
+        System.out.printf("Backtested %d runs over %,d ticks in %.2f s\n",
+            results.size(), results.get(0).getTicks(), results.get(0).getElapsedSeconds());
+        for (BacktestResult result : results) {
+            System.out.println("   " + result);
+        }
+        
+        // ====================
+        // SCENARIO 15: Risk Dashboard
+        // ====================
+        System.out.println("\n========================================");
+        System.out.println("  SCENARIO 15: RISK DASHBOARD");
+        System.out.println("========================================");
+        
+        // Valuations are running totals, re-marked on each tick for holders only
+        RiskEngine risk = exchange.getRiskEngine();
+        System.out.printf("Firm: $%.2f at market, $%.2f cost, P/L $%.2f\n",
+            risk.getFirmMarketValue(), risk.getFirmCostBasis(), risk.getFirmUnrealizedProfitLoss());
+        for (SymbolExposure exposure : risk.getExposures()) {
+            if (exposure.getShares() > 0) {
+                System.out.println("   " + exposure);
+            }
+        }
+        
+        // Pre-trade limits are checked against those totals in O(1)
+        exchange.setRiskLimits(new RiskLimits(20_000, 60_000, 1_000_000));
+        System.out.println("\n🛡️  Limits: " + risk.getLimits());
+        Order oversized = exchange.placeOrder(new MarketOrder(alice, google, 10, TransactionType.BUY));
+        System.out.println("   Oversized order status: " + oversized.getStatus());
+        exchange.setRiskLimits(RiskLimits.NONE);
+        
         // ====================
         // Final Market Summary
         // ====================
@@ -252,6 +434,12 @@ public class Main {
         System.out.println("✓ Market orders (execute immediately)");
         System.out.println("✓ Limit orders (execute at specified price)");
         System.out.println("✓ Stop-loss orders (automatic sell on price drop)");
+        System.out.println("✓ Price-time priority order book with partial fills and O(1) cancel");
+        System.out.println("✓ Per-symbol single-writer matching threads with ordered settlement");
+        System.out.println("✓ Binary command journal with snapshots and deterministic replay");
+        System.out.println("✓ Conflated market-data feed with top of book and primitive tick history");
+        System.out.println("✓ Parallel strategy backtests and parameter sweeps over CSV or binary ticks");
+        System.out.println("✓ Incremental portfolio valuation, firm exposure and O(1) pre-trade risk checks");
         System.out.println("✓ Real-time price updates with observer notifications");
         System.out.println("✓ Portfolio management and P/L calculation");
         System.out.println("✓ Trading strategies with different behaviors");
@@ -0,0 +1,105 @@
+package backtest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Streams one tick file through many backtest runs at once.
+//
+// The file is read once, a batch at a time. Runs are split into one group per
+// worker thread and every group replays the current batch while the caller
+// parses the next one into a second batch, so parsing overlaps simulation and
+// memory stays at two batches however long the history is. Runs share only
+// the read-only batch; each has its own exchange and portfolio, so results
+// do not depend on the number of threads.
+public class BacktestEngine {
+    public static final int DEFAULT_BATCH_SIZE = 1 << 16;
+    
+    private final int parallelism;
+    private final int batchSize;
+    
+    public BacktestEngine() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_BATCH_SIZE);
+    }
+    
+    public BacktestEngine(int parallelism, int batchSize) {
+        if (parallelism <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("Parallelism and batch size must be positive");
+        }
+        this.parallelism = parallelism;
+        this.batchSize = batchSize;
+    }
+    
+    // Replay every tick the reader yields through each run; results are in run order
+    public List<BacktestResult> run(TickReader reader, List<BacktestRun> runs) throws IOException {
+        if (runs.isEmpty()) {
+            throw new IllegalArgumentException("No backtest runs given");
+        }
+        int threads = Math.min(parallelism, runs.size());
+        List<List<BacktestRun>> groups = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            groups.add(new ArrayList<>());
+        }
+        for (int i = 0; i < runs.size(); i++) {
+            groups.get(i % threads).add(runs.get(i));
+        }
+        
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "backtest-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long start = System.nanoTime();
+        try {
+            TickBatch current = new TickBatch(batchSize);
+            TickBatch next = new TickBatch(batchSize);
+            boolean more = reader.read(current);
+            while (more) {
+                TickBatch batch = current;
+                List<Future<?>> pending = new ArrayList<>(threads);
+                for (List<BacktestRun> group : groups) {
+                    pending.add(workers.submit(() -> {
+                        for (BacktestRun run : group) {
+                            run.process(batch);
+                        }
+                    }));
+                }
+                more = reader.read(next); // Parse ahead while the runs work
+                for (Future<?> future : pending) {
+                    waitFor(future);
+                }
+                current = next;
+                next = batch;
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+        
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        List<BacktestResult> results = new ArrayList<>(runs.size());
+        for (BacktestRun run : runs) {
+            results.add(run.finish(elapsedSeconds));
+        }
+        return results;
+    }
+    
+    private static void waitFor(Future<?> future) {
+        try {
+            future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Backtest run failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Backtest interrupted", e);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package backtest;
+
+// Outcome of one backtest run
+public class BacktestResult {
+    private final String label;
+    private final String strategyName;
+    private final double initialCash;
+    private final double finalEquity;
+    private final double maxDrawdown;
+    private final double maxDrawdownPercent;
+    private final int trades;
+    private final int roundTrips;
+    private final int winningRoundTrips;
+    private final long ticks;
+    private final long simulatedMillis;
+    private final double elapsedSeconds;
+    
+    public BacktestResult(String label, String strategyName, double initialCash, double finalEquity,
+                         double maxDrawdown, double maxDrawdownPercent, int trades, int roundTrips,
+                         int winningRoundTrips, long ticks, long simulatedMillis, double elapsedSeconds) {
+        this.label = label;
+        this.strategyName = strategyName;
+        this.initialCash = initialCash;
+        this.finalEquity = finalEquity;
+        this.maxDrawdown = maxDrawdown;
+        this.maxDrawdownPercent = maxDrawdownPercent;
+        this.trades = trades;
+        this.roundTrips = roundTrips;
+        this.winningRoundTrips = winningRoundTrips;
+        this.ticks = ticks;
+        this.simulatedMillis = simulatedMillis;
+        this.elapsedSeconds = elapsedSeconds;
+    }
+    
+    public double getProfitLoss() {
+        return finalEquity - initialCash;
+    }
+    
+    public double getProfitLossPercent() {
+        return getProfitLoss() / initialCash * 100;
+    }
+    
+    // Share of closed positions sold for more than they cost
+    public double getWinRate() {
+        return roundTrips == 0 ? 0 : (double) winningRoundTrips / roundTrips * 100;
+    }
+    
+    public String getLabel() {
+        return label;
+    }
+    
+    public String getStrategyName() {
+        return strategyName;
+    }
+    
+    public double getInitialCash() {
+        return initialCash;
+    }
+    
+    // Cash plus open positions at the last prices
+    public double getFinalEquity() {
+        return finalEquity;
+    }
+    
+    // Largest fall in equity from a previous peak
+    public double getMaxDrawdown() {
+        return maxDrawdown;
+    }
+    
+    public double getMaxDrawdownPercent() {
+        return maxDrawdownPercent;
+    }
+    
+    // Filled orders, buys and sells
+    public int getTrades() {
+        return trades;
+    }
+    
+    public int getRoundTrips() {
+        return roundTrips;
+    }
+    
+    public long getTicks() {
+        return ticks;
+    }
+    
+    // Span of market time the run covered
+    public long getSimulatedMillis() {
+        return simulatedMillis;
+    }
+    
+    // Wall-clock time for the whole backtest the run was part of
+    public double getElapsedSeconds() {
+        return elapsedSeconds;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%-28s P&L $%10.2f (%+7.2f%%) | max drawdown $%9.2f (%5.2f%%) | %5d trades, %5.1f%% wins",
+            label, getProfitLoss(), getProfitLossPercent(), maxDrawdown, maxDrawdownPercent, trades, getWinRate());
+    }
+}
@@ -0,0 +1,144 @@
+package backtest;
+
+import enums.TransactionType;
+import marketdata.TickHistory;
+import model.Holding;
+import model.MarketOrder;
+import model.Order;
+import model.Stock;
+import model.Trader;
+import service.StockExchange;
+import strategy.TradingStrategy;
+import java.util.Arrays;
+
+// One strategy configuration replayed over the tick stream, with its own
+// simulated exchange, stocks and trader, so runs share nothing and can
+// proceed in parallel. Time is the timestamp of the tick being processed.
+//
+// On each tick the run moves the price through its exchange, asks the
+// strategy whether to exit a held position or open a new one (investing a
+// fixed fraction of available cash), then marks the account to market to
+// track equity and drawdown. A run is used for one backtest only.
+public class BacktestRun {
+    private static final int HISTORY_TICKS = 1 << 12; // Simulated stocks keep a short tick history
+    
+    private final String label;
+    private final double initialCash;
+    private final double positionFraction;
+    private final StockExchange exchange;
+    private final Trader trader;
+    private Stock[] stocks;     // symbol ID -> this run's stock, created on first tick
+    private long now;           // Simulated time
+    private long firstTime;
+    private long ticks;
+    private int trades;
+    private int roundTrips;
+    private int winningRoundTrips;
+    private double peakEquity;
+    private double maxDrawdown;
+    private double maxDrawdownPercent;
+    private boolean finished;
+    
+    public BacktestRun(String label, TradingStrategy strategy, double initialCash, double positionFraction) {
+        if (initialCash <= 0) {
+            throw new IllegalArgumentException("Initial cash must be positive");
+        }
+        if (positionFraction <= 0 || positionFraction > 1) {
+            throw new IllegalArgumentException("Position fraction must be in (0, 1]");
+        }
+        this.label = label;
+        this.initialCash = initialCash;
+        this.positionFraction = positionFraction;
+        this.exchange = StockExchange.simulation();
+        this.trader = new Trader("BT-" + label, label, initialCash);
+        this.trader.setTradingStrategy(strategy);
+        this.exchange.registerTrader(trader);
+        this.stocks = new Stock[0];
+        this.peakEquity = initialCash;
+    }
+    
+    // Replay a batch of ticks; called by one thread at a time
+    void process(TickBatch batch) {
+        if (finished) {
+            throw new IllegalStateException("Backtest run already finished: " + label);
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            now = batch.getTime(i);
+            if (ticks++ == 0) {
+                firstTime = now;
+            }
+            int symbolId = batch.getSymbolId(i);
+            double price = batch.getPrice(i);
+            Stock stock = symbolId < stocks.length ? stocks[symbolId] : null;
+            if (stock == null) {
+                stock = listStock(batch.getSymbol(symbolId), symbolId, price);
+            } else {
+                exchange.submitPriceUpdate(stock.getSymbol(), price);
+            }
+            trade(stock);
+            markToMarket();
+        }
+    }
+    
+    private Stock listStock(String symbol, int symbolId, double price) {
+        Stock stock = new Stock(symbol, symbol, price, new TickHistory(HISTORY_TICKS), () -> now);
+        exchange.registerStock(stock);
+        if (symbolId >= stocks.length) {
+            stocks = Arrays.copyOf(stocks, symbolId + 1);
+        }
+        stocks[symbolId] = stock;
+        return stock;
+    }
+    
+    private void trade(Stock stock) {
+        TradingStrategy strategy = trader.getTradingStrategy();
+        Holding holding = trader.getPortfolio().getHolding(stock);
+        if (holding != null) {
+            if (strategy.shouldSell(stock, holding)) {
+                double invested = holding.getTotalInvested();
+                double cashBefore = trader.getBalance();
+                Order sell = exchange.placeOrder(new MarketOrder(trader, stock, holding.getQuantity(), TransactionType.SELL));
+                if (sell.getFilledQuantity() > 0) {
+                    trades++;
+                    roundTrips++;
+                    if (trader.getBalance() - cashBefore > invested) {
+                        winningRoundTrips++;
+                    }
+                }
+            }
+        } else if (strategy.shouldBuy(stock, trader.getAvailableBalance())) {
+            int quantity = (int) (trader.getAvailableBalance() * positionFraction / stock.getCurrentPrice());
+            Order buy = exchange.placeOrder(new MarketOrder(trader, stock, Math.max(1, quantity), TransactionType.BUY));
+            if (buy.getFilledQuantity() > 0) {
+                trades++;
+            }
+        }
+    }
+    
+    private void markToMarket() {
+        double equity = getEquity();
+        if (equity >= peakEquity) {
+            peakEquity = equity;
+            return;
+        }
+        double drawdown = peakEquity - equity;
+        maxDrawdown = Math.max(maxDrawdown, drawdown);
+        maxDrawdownPercent = Math.max(maxDrawdownPercent, drawdown / peakEquity * 100);
+    }
+    
+    // Cash plus open positions at the latest prices
+    public double getEquity() {
+        return trader.getBalance() + trader.getPortfolio().getTotalValue();
+    }
+    
+    BacktestResult finish(double elapsedSeconds) {
+        finished = true;
+        return new BacktestResult(label, trader.getTradingStrategy().getStrategyName(), initialCash, getEquity(),
+            maxDrawdown, maxDrawdownPercent, trades, roundTrips, winningRoundTrips, ticks, now - firstTime,
+            elapsedSeconds);
+    }
+    
+    public String getLabel() {
+        return label;
+    }
+}
@@ -0,0 +1,100 @@
+package backtest;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// Streams ticks written by BinaryTickWriter through a direct buffer, a
+// megabyte at a time, with no per-tick allocation
+public class BinaryTickReader implements TickReader {
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private boolean endOfInput;
+    private String[] symbols;
+    private long time;
+    
+    public BinaryTickReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.buffer = ByteBuffer.allocateDirect(1 << 20);
+        this.buffer.flip();
+        this.symbols = new String[0];
+        if (!ensure(8) || buffer.getInt() != BinaryTickWriter.MAGIC) {
+            channel.close();
+            throw new IllegalArgumentException("Not a tick file: " + path);
+        }
+        int version = buffer.getInt();
+        if (version != BinaryTickWriter.VERSION) {
+            channel.close();
+            throw new IllegalArgumentException("Unsupported tick file version " + version + ": " + path);
+        }
+    }
+    
+    @Override
+    public boolean read(TickBatch batch) throws IOException {
+        batch.clear();
+        while (!batch.isFull() && ensure(1)) {
+            byte kind = buffer.get();
+            switch (kind) {
+                case BinaryTickWriter.TICK:
+                    require(BinaryTickWriter.TICK_BYTES - 1);
+                    time += buffer.getInt();
+                    int symbolId = buffer.getShort();
+                    double price = buffer.getDouble();
+                    long quantity = buffer.getInt();
+                    if (symbolId < 0 || symbolId >= symbols.length) {
+                        throw new IllegalStateException("Tick refers to undefined symbol " + symbolId);
+                    }
+                    batch.add(time, symbolId, price, quantity);
+                    break;
+                case BinaryTickWriter.TIME:
+                    require(8);
+                    time = buffer.getLong();
+                    break;
+                case BinaryTickWriter.SYMBOL:
+                    require(2);
+                    int length = buffer.getShort();
+                    require(length);
+                    byte[] bytes = new byte[length];
+                    buffer.get(bytes);
+                    // Grow by copying, so batches already handed out keep a consistent table
+                    symbols = Arrays.copyOf(symbols, symbols.length + 1);
+                    symbols[symbols.length - 1] = new String(bytes, StandardCharsets.UTF_8);
+                    break;
+                default:
+                    throw new IllegalStateException("Corrupt tick file: unknown record kind " + kind);
+            }
+        }
+        batch.setSymbols(symbols);
+        return batch.size() > 0;
+    }
+    
+    private void require(int bytes) throws IOException {
+        if (!ensure(bytes)) {
+            throw new IllegalStateException("Tick file ends in the middle of a record");
+        }
+    }
+    
+    // Make at least the given number of bytes readable; false if the file has fewer left
+    private boolean ensure(int bytes) throws IOException {
+        while (buffer.remaining() < bytes) {
+            if (endOfInput) {
+                return false;
+            }
+            buffer.compact();
+            if (channel.read(buffer) < 0) {
+                endOfInput = true;
+            }
+            buffer.flip();
+        }
+        return true;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
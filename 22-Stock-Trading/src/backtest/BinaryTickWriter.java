@@ -0,0 +1,92 @@
+package backtest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+// Writes ticks in the compact binary format BinaryTickReader streams back.
+//
+// After an 8-byte header ("TICK" and a version), the file is a sequence of
+// records, each starting with a kind byte:
+//
+//     SYMBOL  [short length][UTF-8 bytes]          defines the next symbol ID
+//     TIME    [long timeMillis]                    sets the clock absolutely
+//     TICK    [int deltaMillis][short symbolId][double price][int quantity]
+//
+// A tick is 19 bytes. Its time is a delta from the previous tick; a TIME
+// record is written first and whenever a delta would not fit.
+public class BinaryTickWriter implements Closeable {
+    static final int MAGIC = 0x5449434B; // "TICK"
+    static final int VERSION = 1;
+    static final byte SYMBOL = 1;
+    static final byte TIME = 2;
+    static final byte TICK = 3;
+    static final int TICK_BYTES = 1 + 4 + 2 + 8 + 4;
+    
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final Map<String, Integer> symbolIds;
+    private long lastTime;
+    private boolean started;
+    
+    public BinaryTickWriter(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+        this.buffer = ByteBuffer.allocateDirect(1 << 20);
+        this.symbolIds = new HashMap<>();
+        buffer.putInt(MAGIC).putInt(VERSION);
+    }
+    
+    public void write(long timeMillis, String symbol, double price, long quantity) throws IOException {
+        if (quantity < 0 || quantity > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Tick quantity out of range: " + quantity);
+        }
+        Integer symbolId = symbolIds.get(symbol);
+        if (symbolId == null) {
+            byte[] bytes = symbol.getBytes(StandardCharsets.UTF_8);
+            if (symbolIds.size() > Short.MAX_VALUE || bytes.length > Short.MAX_VALUE) {
+                throw new IllegalArgumentException("Too many symbols or symbol too long: " + symbol);
+            }
+            symbolId = symbolIds.size();
+            symbolIds.put(symbol, symbolId);
+            ensure(3 + bytes.length);
+            buffer.put(SYMBOL).putShort((short) bytes.length).put(bytes);
+        }
+        long delta = timeMillis - lastTime;
+        if (!started || delta < 0 || delta > Integer.MAX_VALUE) {
+            ensure(9);
+            buffer.put(TIME).putLong(timeMillis);
+            delta = 0;
+            started = true;
+        }
+        ensure(TICK_BYTES);
+        buffer.put(TICK).putInt((int) delta).putShort(symbolId.shortValue()).putDouble(price).putInt((int) quantity);
+        lastTime = timeMillis;
+    }
+    
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            drain();
+        }
+    }
+    
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+    
+    @Override
+    public void close() throws IOException {
+        drain();
+        channel.close();
+    }
+}
@@ -0,0 +1,208 @@
+package backtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Reads ticks from CSV lines of the form
+//
+//     timestampMillis,symbol,price[,quantity]
+//
+// A first line that does not start with a digit is taken as a header. Lines
+// are parsed straight out of a byte buffer, without splitting them into
+// strings; a symbol string is only built when it differs from the previous
+// line's.
+public class CsvTickReader implements TickReader {
+    private static final int BUFFER_SIZE = 1 << 16; // Also the longest line accepted
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18
+    };
+    
+    private final InputStream in;
+    private final byte[] buffer;
+    private int position;
+    private int limit;
+    private boolean endOfInput;
+    private long lineNumber;
+    private final Map<String, Integer> symbolIds;
+    private String[] symbols;
+    private byte[] lastSymbol;  // Bytes of the previous line's symbol
+    private int lastSymbolId;
+    
+    public CsvTickReader(Path path) throws IOException {
+        this.in = Files.newInputStream(path);
+        this.buffer = new byte[BUFFER_SIZE];
+        this.symbolIds = new HashMap<>();
+        this.symbols = new String[0];
+        this.lastSymbol = new byte[0];
+        this.lastSymbolId = -1;
+    }
+    
+    @Override
+    public boolean read(TickBatch batch) throws IOException {
+        batch.clear();
+        while (!batch.isFull()) {
+            int end = nextLineEnd();
+            if (end < 0) {
+                break;
+            }
+            int start = position;
+            position = end < limit ? end + 1 : end; // Skip the newline, if any
+            lineNumber++;
+            int length = end > start && buffer[end - 1] == '\r' ? end - 1 - start : end - start;
+            if (length == 0 || (lineNumber == 1 && !isDigit(buffer[start]))) {
+                continue; // Blank line or header
+            }
+            parseLine(start, start + length, batch);
+        }
+        batch.setSymbols(symbols);
+        return batch.size() > 0;
+    }
+    
+    // Index of the newline ending the next line (or of the end of input for a
+    // last line without one), refilling the buffer as needed; -1 at end of input
+    private int nextLineEnd() throws IOException {
+        int scanned = position;
+        while (true) {
+            for (int i = scanned; i < limit; i++) {
+                if (buffer[i] == '\n') {
+                    return i;
+                }
+            }
+            if (endOfInput) {
+                return position < limit ? limit : -1;
+            }
+            scanned = limit - position;
+            if (position > 0) {
+                System.arraycopy(buffer, position, buffer, 0, limit - position);
+                limit -= position;
+                position = 0;
+            } else if (limit == buffer.length) {
+                throw new IllegalArgumentException("Line " + (lineNumber + 1) + " is longer than " + BUFFER_SIZE + " bytes");
+            }
+            int read = in.read(buffer, limit, buffer.length - limit);
+            if (read < 0) {
+                endOfInput = true;
+            } else {
+                limit += read;
+            }
+        }
+    }
+    
+    private void parseLine(int start, int end, TickBatch batch) {
+        int timeEnd = fieldEnd(start, end);
+        int symbolEnd = fieldEnd(timeEnd + 1, end);
+        int priceEnd = fieldEnd(symbolEnd + 1, end);
+        if (symbolEnd >= end) {
+            throw malformed(start, end);
+        }
+        long time = parseLong(start, timeEnd, start, end);
+        int symbolId = symbolId(timeEnd + 1, symbolEnd);
+        double price = parsePrice(symbolEnd + 1, priceEnd, start, end);
+        long quantity = priceEnd < end ? parseLong(priceEnd + 1, fieldEnd(priceEnd + 1, end), start, end) : 0;
+        batch.add(time, symbolId, price, quantity);
+    }
+    
+    private int fieldEnd(int from, int end) {
+        for (int i = from; i < end; i++) {
+            if (buffer[i] == ',') {
+                return i;
+            }
+        }
+        return end;
+    }
+    
+    private int symbolId(int from, int to) {
+        if (sameAsLastSymbol(from, to)) {
+            return lastSymbolId;
+        }
+        lastSymbol = Arrays.copyOfRange(buffer, from, to);
+        String symbol = new String(lastSymbol, StandardCharsets.UTF_8).trim();
+        Integer id = symbolIds.get(symbol);
+        if (id == null) {
+            id = symbols.length;
+            symbolIds.put(symbol, id);
+            // Grow by copying, so batches already handed out keep a consistent table
+            symbols = Arrays.copyOf(symbols, id + 1);
+            symbols[id] = symbol;
+        }
+        lastSymbolId = id;
+        return id;
+    }
+    
+    private boolean sameAsLastSymbol(int from, int to) {
+        if (to - from != lastSymbol.length) {
+            return false;
+        }
+        for (int i = 0; i < lastSymbol.length; i++) {
+            if (buffer[from + i] != lastSymbol[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private long parseLong(int from, int to, int lineStart, int lineEnd) {
+        if (from >= to) {
+            throw malformed(lineStart, lineEnd);
+        }
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            if (!isDigit(buffer[i])) {
+                throw malformed(lineStart, lineEnd);
+            }
+            value = value * 10 + (buffer[i] - '0');
+        }
+        return value;
+    }
+    
+    // Plain decimals are parsed exactly from their digits; anything else
+    // (exponents, very long mantissas) goes through Double.parseDouble
+    private double parsePrice(int from, int to, int lineStart, int lineEnd) {
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        for (int i = from; i < to; i++) {
+            byte b = buffer[i];
+            if (isDigit(b)) {
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+            } else if (b == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else {
+                digits = Integer.MAX_VALUE;
+                break;
+            }
+        }
+        if (digits > 0 && digits <= 15 && fractionDigits < POWERS_OF_TEN.length) {
+            return fractionDigits > 0 ? mantissa / POWERS_OF_TEN[fractionDigits] : mantissa;
+        }
+        try {
+            return Double.parseDouble(new String(buffer, from, to - from, StandardCharsets.US_ASCII).trim());
+        } catch (NumberFormatException e) {
+            throw malformed(lineStart, lineEnd);
+        }
+    }
+    
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+    
+    private IllegalArgumentException malformed(int start, int end) {
+        return new IllegalArgumentException("Malformed tick at line " + lineNumber + ": "
+            + new String(buffer, start, end - start, StandardCharsets.UTF_8));
+    }
+    
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
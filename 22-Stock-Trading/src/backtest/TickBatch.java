@@ -0,0 +1,71 @@
+package backtest;
+
+// A block of historical ticks in primitive columns, filled by a TickReader
+// and then read by every backtest run. Symbols are small integer IDs into
+// the symbol table captured with the batch.
+public class TickBatch {
+    private final long[] times;
+    private final int[] symbolIds;
+    private final double[] prices;
+    private final long[] quantities;
+    private int size;
+    private String[] symbols = new String[0]; // symbol ID -> symbol, as of this batch
+    
+    public TickBatch(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.times = new long[capacity];
+        this.symbolIds = new int[capacity];
+        this.prices = new double[capacity];
+        this.quantities = new long[capacity];
+    }
+    
+    void clear() {
+        size = 0;
+    }
+    
+    boolean isFull() {
+        return size == times.length;
+    }
+    
+    void add(long timeMillis, int symbolId, double price, long quantity) {
+        times[size] = timeMillis;
+        symbolIds[size] = symbolId;
+        prices[size] = price;
+        quantities[size] = quantity;
+        size++;
+    }
+    
+    void setSymbols(String[] symbols) {
+        this.symbols = symbols;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public long getTime(int index) {
+        return times[index];
+    }
+    
+    public int getSymbolId(int index) {
+        return symbolIds[index];
+    }
+    
+    public double getPrice(int index) {
+        return prices[index];
+    }
+    
+    public long getQuantity(int index) {
+        return quantities[index];
+    }
+    
+    public String getSymbol(int symbolId) {
+        return symbols[symbolId];
+    }
+    
+    public int getSymbolCount() {
+        return symbols.length;
+    }
+}
@@ -0,0 +1,19 @@
+package backtest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+
+// Streams historical ticks, oldest first, one batch at a time
+public interface TickReader extends Closeable {
+    // Replace the batch's contents with the next ticks; false once the input is exhausted
+    boolean read(TickBatch batch) throws IOException;
+    
+    // CSV for .csv files, the binary tick format otherwise
+    static TickReader open(Path path) throws IOException {
+        if (path.getFileName().toString().toLowerCase().endsWith(".csv")) {
+            return new CsvTickReader(path);
+        }
+        return new BinaryTickReader(path);
+    }
+}
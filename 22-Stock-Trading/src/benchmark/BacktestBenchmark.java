@@ -0,0 +1,121 @@
+package benchmark;
+
+import backtest.BacktestEngine;
+import backtest.BacktestResult;
+import backtest.BacktestRun;
+import backtest.BinaryTickWriter;
+import backtest.CsvTickReader;
+import backtest.TickBatch;
+import backtest.TickReader;
+import strategy.AggressiveStrategy;
+import strategy.ConservativeStrategy;
+import strategy.DayTradingStrategy;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Backtests the built-in strategies and a parameter sweep over a year of
+// synthetic one-second ticks (252 sessions of 6.5 hours), streamed from the
+// binary tick format.
+//
+// Prices follow a random walk at about 30% annual volatility with occasional
+// jumps of a few percent, so the momentum and dip thresholds actually fire.
+// Also reports CSV parsing speed on a sample of the same ticks. JMH is not
+// available in this source-only tree, so this is a plain harness.
+//
+// Usage: java benchmark.BacktestBenchmark [symbols] [sessions]
+public class BacktestBenchmark {
+    private static final int SECONDS_PER_SESSION = 23_400;
+    private static final long SESSION_OPEN_MILLIS = 1_704_200_400_000L; // 2024-01-02 14:30 UTC
+    private static final long DAY_MILLIS = 86_400_000L;
+    private static final int CSV_SAMPLE_TICKS = 2_000_000;
+    
+    public static void main(String[] args) throws IOException {
+        int symbolCount = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+        int sessions = args.length > 1 ? Integer.parseInt(args[1]) : 252;
+        Path directory = Files.createTempDirectory("backtest-bench");
+        Path binary = directory.resolve("ticks.bin");
+        Path csv = directory.resolve("ticks.csv");
+        
+        long start = System.nanoTime();
+        long tickCount = writeTicks(binary, csv, symbolCount, sessions);
+        System.out.printf("Generated %,d ticks (%d symbols, %d sessions) in %.1f s: binary %,d KB%n",
+            tickCount, symbolCount, sessions, (System.nanoTime() - start) / 1e9, Files.size(binary) >> 10);
+        
+        for (int round = 1; round <= 2; round++) {
+            start = System.nanoTime();
+            long parsed = 0;
+            try (TickReader reader = new CsvTickReader(csv)) {
+                TickBatch batch = new TickBatch(BacktestEngine.DEFAULT_BATCH_SIZE);
+                while (reader.read(batch)) {
+                    parsed += batch.size();
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("CSV parse %d: %,d ticks in %.2f s (%,.0f ticks/s)%n", round, parsed, seconds, parsed / seconds);
+        }
+        
+        List<BacktestRun> runs = new ArrayList<>();
+        runs.add(new BacktestRun("Aggressive (default)", new AggressiveStrategy(), 100_000, 0.5));
+        runs.add(new BacktestRun("Conservative (default)", new ConservativeStrategy(), 100_000, 0.5));
+        runs.add(new BacktestRun("Day trading (default)", new DayTradingStrategy(), 100_000, 0.5));
+        for (double momentum : new double[] {1.0, 2.0, 3.0}) {
+            for (double takeProfit : new double[] {3.0, 6.0, 12.0}) {
+                runs.add(new BacktestRun(String.format("Aggressive m%.0f tp%.0f sl3", momentum, takeProfit),
+                    new AggressiveStrategy(momentum, takeProfit, 3.0), 100_000, 0.5));
+            }
+        }
+        
+        int threads = Runtime.getRuntime().availableProcessors();
+        List<BacktestResult> results;
+        try (TickReader reader = TickReader.open(binary)) {
+            results = new BacktestEngine(threads, BacktestEngine.DEFAULT_BATCH_SIZE).run(reader, runs);
+        }
+        double seconds = results.get(0).getElapsedSeconds();
+        System.out.printf("%nBacktested %d runs x %,d ticks (%.0f simulated days) in %.2f s on %d threads: %,.0f run-ticks/s%n%n",
+            runs.size(), tickCount, results.get(0).getSimulatedMillis() / (double) DAY_MILLIS, seconds, threads,
+            runs.size() * tickCount / seconds);
+        for (BacktestResult result : results) {
+            System.out.println(result);
+        }
+    }
+    
+    // Binary file with every tick; CSV with the first CSV_SAMPLE_TICKS
+    private static long writeTicks(Path binary, Path csv, int symbolCount, int sessions) throws IOException {
+        Random random = new Random(42);
+        double tickVolatility = 0.30 / Math.sqrt(252.0 * SECONDS_PER_SESSION);
+        double[] prices = new double[symbolCount];
+        for (int s = 0; s < symbolCount; s++) {
+            prices[s] = 50 + random.nextInt(250);
+        }
+        long count = 0;
+        try (BinaryTickWriter writer = new BinaryTickWriter(binary);
+             BufferedWriter csvWriter = Files.newBufferedWriter(csv)) {
+            csvWriter.write("timestamp,symbol,price,quantity\n");
+            for (int day = 0; day < sessions; day++) {
+                long open = SESSION_OPEN_MILLIS + day * DAY_MILLIS;
+                for (int second = 0; second < SECONDS_PER_SESSION; second++) {
+                    for (int s = 0; s < symbolCount; s++) {
+                        double move = random.nextGaussian() * tickVolatility;
+                        if (random.nextInt(20_000) == 0) {
+                            move += random.nextGaussian() * 0.025; // News
+                        }
+                        prices[s] = Math.max(0.01, Math.round(prices[s] * (1 + move) * 100) / 100.0);
+                        long time = open + second * 1000L + s;
+                        int quantity = 1 + random.nextInt(500);
+                        writer.write(time, "SYM" + s, prices[s], quantity);
+                        if (count < CSV_SAMPLE_TICKS) {
+                            csvWriter.write(time + ",SYM" + s + "," + prices[s] + "," + quantity + "\n");
+                        }
+                        count++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,94 @@
+package benchmark;
+
+import enums.TransactionType;
+import model.LimitOrder;
+import model.MarketOrder;
+import model.Order;
+import model.Stock;
+import model.Trader;
+import service.StockExchange;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+// Runs a synthetic trading session on a journaled exchange, then replays the
+// journal into a fresh copy and checks that cash balances match.
+//
+// Reports live throughput with group-committed, fsynced journal writes, the
+// journal size, and replay speed. JMH is not available in this source-only
+// tree, so this is a plain harness.
+//
+// Usage: java benchmark.JournalReplayBenchmark [orders]
+public class JournalReplayBenchmark {
+    private static final int SYMBOLS = 8;
+    private static final int TRADERS = 1_000;
+    private static final int SEED_SHARES = 100_000;
+    
+    public static void main(String[] args) throws IOException {
+        int orderCount = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        Path directory = Files.createTempDirectory("exchange-journal-bench");
+        StockExchange exchange = StockExchange.getInstance();
+        exchange.setQuiet(true);
+        exchange.enableJournal(directory, 100_000);
+        
+        Stock[] stocks = new Stock[SYMBOLS];
+        for (int i = 0; i < SYMBOLS; i++) {
+            stocks[i] = new Stock("SYM" + i, "Symbol " + i, 100.00);
+            exchange.registerStock(stocks[i]);
+        }
+        Trader[] traders = new Trader[TRADERS];
+        for (int i = 0; i < TRADERS; i++) {
+            traders[i] = new Trader("B" + i, "Bench " + i, 1e9);
+            exchange.registerTrader(traders[i]);
+        }
+        // Give every trader shares to sell, bought from the exchange
+        List<CompletableFuture<Order>> seeding = new ArrayList<>();
+        for (Trader trader : traders) {
+            for (Stock stock : stocks) {
+                seeding.add(exchange.submitOrder(new MarketOrder(trader, stock, SEED_SHARES, TransactionType.BUY)));
+            }
+        }
+        CompletableFuture.allOf(seeding.toArray(new CompletableFuture<?>[seeding.size()])).join();
+        
+        // Limit orders around the reference price, built before the clock starts
+        Random random = new Random(42);
+        Order[] orders = new Order[orderCount];
+        for (int i = 0; i < orderCount; i++) {
+            TransactionType side = random.nextBoolean() ? TransactionType.BUY : TransactionType.SELL;
+            double price = Math.round((100.00 + random.nextGaussian() * 0.20 + (side == TransactionType.BUY ? -0.10 : 0.10)) * 100) / 100.0;
+            orders[i] = new LimitOrder(traders[random.nextInt(TRADERS)], stocks[random.nextInt(SYMBOLS)],
+                1 + random.nextInt(100), side, price);
+        }
+        
+        List<CompletableFuture<Order>> pending = new ArrayList<>(orderCount);
+        long start = System.nanoTime();
+        for (Order order : orders) {
+            pending.add(exchange.submitOrder(order));
+        }
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[pending.size()])).join();
+        double liveSeconds = (System.nanoTime() - start) / 1e9;
+        
+        long journalBytes = Files.size(directory.resolve("journal.bin"));
+        System.out.printf("Live:   %,d orders in %.2f s (%,.0f orders/s), %,d trades, journal %,d KB%n",
+            orderCount, liveSeconds, orderCount / liveSeconds, exchange.getTradeCount(), journalBytes >> 10);
+        
+        for (int round = 1; round <= 2; round++) {
+            start = System.nanoTime();
+            StockExchange replica = StockExchange.replay(directory, Long.MAX_VALUE);
+            double replaySeconds = (System.nanoTime() - start) / 1e9;
+            
+            double maxDifference = 0;
+            for (Trader trader : traders) {
+                Trader replayed = replica.getTrader(trader.getTraderId());
+                maxDifference = Math.max(maxDifference, Math.abs(trader.getBalance() - replayed.getBalance()));
+            }
+            System.out.printf("Replay %d: %,d records in %.2f s (%,.0f records/s), max balance difference $%.6f%n",
+                round, replica.getLastReplayedSequence(), replaySeconds,
+                replica.getLastReplayedSequence() / replaySeconds, maxDifference);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package benchmark;
+
+import book.OrderBook;
+import enums.TransactionType;
+import model.LimitOrder;
+import model.Order;
+import model.Stock;
+import model.Trade;
+import model.Trader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+// Measures matching throughput and per-order latency of a single OrderBook.
+//
+// Limit orders arrive around a drifting mid price, half buys and half sells,
+// so roughly half of them cross and the rest rest in the book; one operation
+// in five cancels a random resting order. Orders are created before the clock
+// starts, so only matching, resting and cancelling are timed.
+//
+// JMH is not available in this source-only tree, so this is a plain
+// warm-up-then-measure harness.
+//
+// Usage: java benchmark.OrderBookBenchmark [orders]
+public class OrderBookBenchmark {
+    private static final int CANCEL_PERCENT = 20;
+    private static final long MID_TICKS = 10_000;
+    private static final int SPREAD_TICKS = 40;
+    
+    public static void main(String[] args) {
+        int orderCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Stock stock = new Stock("BENCH", "Benchmark Corp", OrderBook.toPrice(MID_TICKS));
+        Trader[] traders = new Trader[100];
+        for (int i = 0; i < traders.length; i++) {
+            traders[i] = new Trader("B" + i, "Bench " + i, 1e12);
+        }
+        
+        for (int round = 1; round <= 3; round++) {
+            Random random = new Random(round);
+            Order[] orders = new Order[orderCount];
+            boolean[] cancels = new boolean[orderCount];
+            long mid = MID_TICKS;
+            for (int i = 0; i < orderCount; i++) {
+                mid += random.nextInt(3) - 1;
+                TransactionType side = random.nextBoolean() ? TransactionType.BUY : TransactionType.SELL;
+                // Buys lean above mid and sells below it, so about half cross
+                long offset = (long) (random.nextGaussian() * SPREAD_TICKS / 2);
+                long priceTicks = side == TransactionType.BUY ? mid - SPREAD_TICKS / 4 + offset : mid + SPREAD_TICKS / 4 + offset;
+                orders[i] = new LimitOrder(traders[random.nextInt(traders.length)], stock,
+                    1 + random.nextInt(500), side, OrderBook.toPrice(priceTicks));
+                cancels[i] = random.nextInt(100) < CANCEL_PERCENT;
+            }
+            
+            OrderBook book = new OrderBook(stock);
+            List<String> resting = new ArrayList<>();
+            long[] latencies = new long[orderCount];
+            long tradeCount = 0;
+            long cancelled = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < orderCount; i++) {
+                long t0 = System.nanoTime();
+                if (cancels[i] && !resting.isEmpty()) {
+                    // Swap-remove keeps picking a random victim O(1)
+                    int victim = random.nextInt(resting.size());
+                    String orderId = resting.get(victim);
+                    resting.set(victim, resting.get(resting.size() - 1));
+                    resting.remove(resting.size() - 1);
+                    if (book.cancel(orderId) != null) {
+                        cancelled++;
+                    }
+                }
+                Order order = orders[i];
+                long limitTicks = OrderBook.toTicks(((LimitOrder) order).getLimitPrice());
+                List<Trade> trades = book.match(order, limitTicks);
+                tradeCount += trades.size();
+                if (order.isActive()) {
+                    book.rest(order, limitTicks);
+                    resting.add(order.getOrderId());
+                }
+                latencies[i] = System.nanoTime() - t0;
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            
+            Arrays.sort(latencies);
+            System.out.printf("Round %d: %,.0f orders/s | %,d trades, %,d cancels, %,d resting | " +
+                    "latency p50 %.2f µs, p99 %.2f µs, p99.9 %.2f µs%n",
+                round, orderCount / seconds, tradeCount, cancelled, book.getRestingOrderCount(),
+                latencies[orderCount / 2] / 1e3,
+                latencies[(int) (orderCount * 0.99)] / 1e3,
+                latencies[(int) (orderCount * 0.999)] / 1e3);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package benchmark;
+
+import enums.TransactionType;
+import model.Holding;
+import model.MarketOrder;
+import model.Order;
+import model.Stock;
+import model.Trader;
+import risk.RiskEngine;
+import risk.RiskLimits;
+import risk.SymbolExposure;
+import service.StockExchange;
+import java.util.Arrays;
+import java.util.Random;
+
+// Builds a book of traders each holding a handful of symbols, then measures
+// what a risk dashboard and order entry see: the cost of a price tick
+// (re-marking only that symbol's holders), polling every trader's valuation
+// from the running totals against recomputing it from holdings, and
+// pre-trade check latency. Running totals are checked against the
+// recomputation. Uses a simulation exchange so every step is inline and
+// deterministic. JMH is not available in this source-only tree, so this is
+// a plain harness.
+//
+// Usage: java benchmark.RiskBenchmark [traders] [symbols]
+public class RiskBenchmark {
+    private static final int HOLDINGS_PER_TRADER = 10;
+    private static final int TICKS = 200_000;
+    private static final int CHECKS = 200_000;
+    
+    public static void main(String[] args) {
+        int traderCount = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int symbolCount = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        Random random = new Random(42);
+        StockExchange exchange = StockExchange.simulation();
+        RiskEngine risk = exchange.getRiskEngine();
+        
+        Stock[] stocks = new Stock[symbolCount];
+        for (int i = 0; i < symbolCount; i++) {
+            stocks[i] = new Stock("SYM" + i, "Symbol " + i, 20 + random.nextInt(300));
+            exchange.registerStock(stocks[i]);
+        }
+        Trader[] traders = new Trader[traderCount];
+        for (int i = 0; i < traderCount; i++) {
+            traders[i] = new Trader("T" + i, "Trader " + i, 1_000_000);
+            exchange.registerTrader(traders[i]);
+            for (int h = 0; h < HOLDINGS_PER_TRADER; h++) {
+                Stock stock = stocks[random.nextInt(symbolCount)];
+                exchange.placeOrder(new MarketOrder(traders[i], stock, 1 + random.nextInt(100), TransactionType.BUY));
+            }
+        }
+        System.out.printf("%,d traders x %d holdings over %d symbols (~%,d holders per symbol)%n",
+            traderCount, HOLDINGS_PER_TRADER, symbolCount, (long) traderCount * HOLDINGS_PER_TRADER / symbolCount);
+        
+        // Ticks, with some selling in between so positions open and close
+        for (int round = 1; round <= 2; round++) {
+            long start = System.nanoTime();
+            for (int t = 0; t < TICKS; t++) {
+                Stock stock = stocks[random.nextInt(symbolCount)];
+                double price = Math.max(1, Math.round(stock.getCurrentPrice() * (1 + random.nextGaussian() * 0.002) * 100) / 100.0);
+                exchange.submitPriceUpdate(stock.getSymbol(), price);
+                if (t % 20 == 0) {
+                    Trader trader = traders[random.nextInt(traderCount)];
+                    Stock other = stocks[random.nextInt(symbolCount)];
+                    int owned = trader.getPortfolio().getAvailableShares(other);
+                    exchange.placeOrder(owned > 0
+                        ? new MarketOrder(trader, other, owned, TransactionType.SELL)
+                        : new MarketOrder(trader, other, 1 + random.nextInt(100), TransactionType.BUY));
+                }
+            }
+            double micros = (System.nanoTime() - start) / 1e3 / TICKS;
+            System.out.printf("Ticks %d: %.2f µs per tick incl. re-marking holders and occasional orders%n", round, micros);
+        }
+        
+        // Dashboard poll: every trader's value and P/L
+        double sink = 0;
+        for (int round = 1; round <= 2; round++) {
+            long start = System.nanoTime();
+            for (Trader trader : traders) {
+                sink += trader.getPortfolio().getTotalValue() + trader.getPortfolio().getTotalProfitLossPercent();
+            }
+            double incremental = (System.nanoTime() - start) / 1e9;
+            
+            start = System.nanoTime();
+            double worstError = 0;
+            for (Trader trader : traders) {
+                double value = 0;
+                double invested = 0;
+                for (Holding holding : trader.getPortfolio().getAllHoldings()) {
+                    value += holding.getCurrentValue();
+                    invested += holding.getTotalInvested();
+                }
+                sink += value + (invested == 0 ? 0 : (value - invested) / invested * 100);
+                worstError = Math.max(worstError, Math.abs(value - trader.getPortfolio().getTotalValue()));
+                worstError = Math.max(worstError, Math.abs(invested - trader.getPortfolio().getTotalInvested()));
+            }
+            double recomputed = (System.nanoTime() - start) / 1e9;
+            if (round == 2) {
+                System.out.printf("Poll all traders: running totals %,.0f traders/s | recomputed %,.0f traders/s | max difference $%.6f%n",
+                    traderCount / incremental, traderCount / recomputed, worstError);
+            }
+        }
+        
+        double firmValue = 0;
+        for (SymbolExposure exposure : risk.getExposures()) {
+            firmValue += exposure.getShares() * exchange.getStock(exposure.getSymbol()).getCurrentPrice();
+        }
+        System.out.printf("Firm market value: running $%,.2f | recomputed $%,.2f%n", risk.getFirmMarketValue(), firmValue);
+        
+        // Pre-trade checks: orders over the order-notional limit are rejected by the check itself
+        exchange.setRiskLimits(new RiskLimits(50_000, 5_000_000, 1e12));
+        long[] latencies = new long[CHECKS];
+        int rejected = 0;
+        for (int round = 1; round <= 2; round++) {
+            for (int c = 0; c < CHECKS; c++) {
+                Trader trader = traders[random.nextInt(traderCount)];
+                Stock stock = stocks[random.nextInt(symbolCount)];
+                Order order = new MarketOrder(trader, stock, 1_000 + random.nextInt(1_000), TransactionType.BUY);
+                long t0 = System.nanoTime();
+                exchange.submitOrder(order);
+                latencies[c] = System.nanoTime() - t0;
+                rejected += order.getFilledQuantity() == 0 ? 1 : 0;
+            }
+        }
+        Arrays.sort(latencies);
+        System.out.printf("Pre-trade check + reject: p50 %.2f µs | p99 %.2f µs (%,d of %,d rejected)%n",
+            latencies[CHECKS / 2] / 1e3, latencies[(int) (CHECKS * 0.99)] / 1e3, rejected, 2 * CHECKS);
+        System.out.println("(sink " + (long) sink + ")");
+    }
+}
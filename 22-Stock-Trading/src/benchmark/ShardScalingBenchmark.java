@@ -0,0 +1,121 @@
+package benchmark;
+
+import book.OrderBook;
+import engine.Command;
+import engine.EventLoop;
+import engine.MatchingEngine;
+import enums.TransactionType;
+import model.LimitOrder;
+import model.Order;
+import model.Stock;
+import model.Trade;
+import model.Trader;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+// Measures how matching throughput scales with the number of shards when
+// symbols are independent.
+//
+// Each run registers the same symbols on a MatchingEngine with 1, 2, 4 ... N
+// shards and has one producer thread per shard push pre-built limit orders
+// through the rings. Shards match on their own books and hand each command's
+// trades to a single settlement loop, as StockExchange does; settlement here
+// only counts, so the figures are for matching and hand-off. Scaling is
+// bounded by available cores, which the report prints.
+//
+// JMH is not available in this source-only tree, so this is a plain
+// warm-up-then-measure harness.
+//
+// Usage: java benchmark.ShardScalingBenchmark [orders] [maxShards]
+public class ShardScalingBenchmark {
+    private static final int SYMBOLS = 16;
+    private static final int RING_CAPACITY = 1 << 14;
+    private static final long MID_TICKS = 10_000;
+    
+    public static void main(String[] args) throws InterruptedException {
+        int orderCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int cores = Runtime.getRuntime().availableProcessors();
+        int maxShards = args.length > 1 ? Integer.parseInt(args[1]) : Math.max(4, cores);
+        Stock[] stocks = new Stock[SYMBOLS];
+        for (int i = 0; i < SYMBOLS; i++) {
+            stocks[i] = new Stock("SYM" + i, "Symbol " + i, OrderBook.toPrice(MID_TICKS));
+        }
+        Trader trader = new Trader("B0", "Bench", 1e12);
+        
+        System.out.printf("%,d orders over %d symbols, %d available processors%n", orderCount, SYMBOLS, cores);
+        double baseline = 0;
+        for (int shards = 1; shards <= maxShards; shards *= 2) {
+            run(shards, stocks, trader, orderCount / 4); // Warm-up
+            double ordersPerSecond = run(shards, stocks, trader, orderCount);
+            if (shards == 1) {
+                baseline = ordersPerSecond;
+            }
+            System.out.printf("%2d shard(s): %,12.0f orders/s  (%.2fx)%n", shards, ordersPerSecond, ordersPerSecond / baseline);
+        }
+    }
+    
+    private static double run(int shardCount, Stock[] stocks, Trader trader, int orderCount) throws InterruptedException {
+        // One producer per shard, each feeding the symbols that shard owns
+        Map<String, OrderBook> books = new HashMap<>();
+        for (Stock stock : stocks) {
+            books.put(stock.getSymbol(), new OrderBook(stock));
+        }
+        Order[][] orders = new Order[shardCount][];
+        Random random = new Random(shardCount);
+        for (int p = 0; p < shardCount; p++) {
+            orders[p] = new Order[orderCount / shardCount];
+            for (int i = 0; i < orders[p].length; i++) {
+                // Symbol i is registered on shard i % shardCount
+                Stock stock = stocks[p + shardCount * random.nextInt(SYMBOLS / shardCount)];
+                TransactionType side = random.nextBoolean() ? TransactionType.BUY : TransactionType.SELL;
+                long priceTicks = MID_TICKS + (long) (random.nextGaussian() * 20) + (side == TransactionType.BUY ? -10 : 10);
+                orders[p][i] = new LimitOrder(trader, stock, 1 + random.nextInt(500), side, OrderBook.toPrice(priceTicks));
+            }
+        }
+        
+        CountDownLatch settled = new CountDownLatch(shardCount * orders[0].length);
+        long[] tradeCount = new long[1]; // Settlement thread only
+        EventLoop<Runnable> settlement = new EventLoop<>("settlement", RING_CAPACITY, Runnable::run);
+        MatchingEngine engine = new MatchingEngine(shardCount, RING_CAPACITY, command -> {
+            Order order = command.getOrder();
+            OrderBook book = books.get(command.getSymbol());
+            long limitTicks = OrderBook.toTicks(((LimitOrder) order).getLimitPrice());
+            List<Trade> trades = book.match(order, limitTicks);
+            if (order.isActive()) {
+                book.rest(order, limitTicks);
+            }
+            settlement.submit(() -> {
+                tradeCount[0] += trades.size();
+                settled.countDown();
+            });
+        });
+        for (Stock stock : stocks) {
+            engine.register(stock.getSymbol());
+        }
+        settlement.start();
+        engine.start();
+        
+        Thread[] producers = new Thread[shardCount];
+        long start = System.nanoTime();
+        for (int p = 0; p < shardCount; p++) {
+            Order[] batch = orders[p];
+            producers[p] = new Thread(() -> {
+                for (Order order : batch) {
+                    engine.submit(Command.place(order));
+                }
+            });
+            producers[p].start();
+        }
+        settled.await();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        engine.shutdown();
+        settlement.shutdown();
+        if (tradeCount[0] == 0) {
+            throw new IllegalStateException("No trades matched");
+        }
+        return shardCount * orders[0].length / seconds;
+    }
+}
@@ -0,0 +1,238 @@
+package book;
+
+import enums.TransactionType;
+import model.Order;
+import model.Stock;
+import model.StopLossOrder;
+import model.Trade;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+// Price-time priority limit order book for one symbol.
+//
+// Bids and asks are sorted maps of price levels (best price first), each
+// level a FIFO queue. Prices are whole ticks (cents) so levels compare
+// exactly. An order-ID index points straight at each resting order's queue
+// node, so cancels do not search. Sell stops wait in a separate map keyed by
+// stop price until the market trades through them.
+//
+// Not thread-safe: one thread owns a book at a time.
+public class OrderBook {
+    public static final long TICKS_PER_UNIT = 100;
+    
+    private final Stock stock;
+    private final TreeMap<Long, PriceLevel> bids;
+    private final TreeMap<Long, PriceLevel> asks;
+    private final Map<String, PriceLevel.Node> restingIndex; // orderId -> queue node
+    private final TreeMap<Long, Map<String, StopLossOrder>> sellStops; // stop price -> orders in arrival order
+    private final Map<String, Long> stopIndex; // orderId -> stop price
+    
+    public OrderBook(Stock stock) {
+        this.stock = stock;
+        this.bids = new TreeMap<>(Collections.reverseOrder());
+        this.asks = new TreeMap<>();
+        this.restingIndex = new HashMap<>();
+        this.sellStops = new TreeMap<>();
+        this.stopIndex = new HashMap<>();
+    }
+    
+    public static long toTicks(double price) {
+        return Math.round(price * TICKS_PER_UNIT);
+    }
+    
+    public static double toPrice(long ticks) {
+        return (double) ticks / TICKS_PER_UNIT;
+    }
+    
+    // Cross an incoming order against the opposite side, best price first and
+    // oldest first within a price, while prices are within limitTicks. Fills
+    // happen at the resting order's price. Returns the trades in fill order.
+    public List<Trade> match(Order taker, long limitTicks) {
+        boolean buy = taker.getTransactionType() == TransactionType.BUY;
+        TreeMap<Long, PriceLevel> opposite = buy ? asks : bids;
+        List<Trade> trades = new ArrayList<>(2);
+        
+        while (taker.getRemainingQuantity() > 0 && !opposite.isEmpty()) {
+            PriceLevel level = opposite.firstEntry().getValue();
+            long priceTicks = level.getPriceTicks();
+            if (buy ? priceTicks > limitTicks : priceTicks < limitTicks) {
+                break;
+            }
+            double price = toPrice(priceTicks);
+            
+            while (taker.getRemainingQuantity() > 0 && !level.isEmpty()) {
+                PriceLevel.Node maker = level.head();
+                Order makerOrder = maker.order;
+                int quantity = Math.min(taker.getRemainingQuantity(), makerOrder.getRemainingQuantity());
+                
+                taker.fill(quantity, price);
+                makerOrder.fill(quantity, price);
+                level.reduce(quantity);
+                trades.add(buy
+                    ? new Trade(stock, taker, makerOrder, TransactionType.BUY, quantity, price)
+                    : new Trade(stock, makerOrder, taker, TransactionType.SELL, quantity, price));
+                
+                if (makerOrder.getRemainingQuantity() == 0) {
+                    level.remove(maker);
+                    restingIndex.remove(makerOrder.getOrderId());
+                }
+            }
+            if (level.isEmpty()) {
+                opposite.pollFirstEntry();
+            }
+        }
+        return trades;
+    }
+    
+    // Place the unfilled remainder of an order in the queue at its price
+    public void rest(Order order, long priceTicks) {
+        if (restingIndex.containsKey(order.getOrderId())) {
+            throw new IllegalStateException("Order already resting: " + order.getOrderId());
+        }
+        TreeMap<Long, PriceLevel> side = order.getTransactionType() == TransactionType.BUY ? bids : asks;
+        PriceLevel level = side.computeIfAbsent(priceTicks, PriceLevel::new);
+        restingIndex.put(order.getOrderId(), level.append(order));
+    }
+    
+    // Remove a resting order or pending stop. Returns it, or null if unknown.
+    public Order cancel(String orderId) {
+        PriceLevel.Node node = restingIndex.remove(orderId);
+        if (node != null) {
+            PriceLevel level = node.level;
+            level.remove(node);
+            if (level.isEmpty()) {
+                sideOf(node.order).remove(level.getPriceTicks());
+            }
+            return node.order;
+        }
+        
+        Long stopTicks = stopIndex.remove(orderId);
+        if (stopTicks != null) {
+            Map<String, StopLossOrder> atPrice = sellStops.get(stopTicks);
+            StopLossOrder stop = atPrice.remove(orderId);
+            if (atPrice.isEmpty()) {
+                sellStops.remove(stopTicks);
+            }
+            return stop;
+        }
+        return null;
+    }
+    
+    // Take every resting order on one side that is marketable against a
+    // reference price (bids at or above it, asks at or below it), in priority order
+    public List<Order> removeMarketable(TransactionType side, long referenceTicks) {
+        boolean buy = side == TransactionType.BUY;
+        TreeMap<Long, PriceLevel> levels = buy ? bids : asks;
+        List<Order> taken = new ArrayList<>();
+        
+        while (!levels.isEmpty()) {
+            PriceLevel level = levels.firstEntry().getValue();
+            if (buy ? level.getPriceTicks() < referenceTicks : level.getPriceTicks() > referenceTicks) {
+                break;
+            }
+            for (PriceLevel.Node node = level.head(); node != null; node = node.next) {
+                taken.add(node.order);
+                restingIndex.remove(node.order.getOrderId());
+            }
+            levels.pollFirstEntry();
+        }
+        return taken;
+    }
+    
+    // Park a stop-loss until the price falls to its stop
+    public void addStop(StopLossOrder order) {
+        long stopTicks = toTicks(order.getStopPrice());
+        sellStops.computeIfAbsent(stopTicks, ticks -> new LinkedHashMap<>()).put(order.getOrderId(), order);
+        stopIndex.put(order.getOrderId(), stopTicks);
+    }
+    
+    // Remove and return every stop at or above the given price, highest stop first
+    public List<StopLossOrder> triggerStops(long priceTicks) {
+        NavigableMap<Long, Map<String, StopLossOrder>> triggered = sellStops.tailMap(priceTicks, true);
+        if (triggered.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<StopLossOrder> result = new ArrayList<>();
+        for (Map<String, StopLossOrder> atPrice : triggered.descendingMap().values()) {
+            for (StopLossOrder stop : atPrice.values()) {
+                result.add(stop);
+                stopIndex.remove(stop.getOrderId());
+            }
+        }
+        triggered.clear();
+        return result;
+    }
+    
+    public boolean contains(String orderId) {
+        return restingIndex.containsKey(orderId) || stopIndex.containsKey(orderId);
+    }
+    
+    // Best bid price, or NaN when there are no bids
+    public double getBestBid() {
+        return bids.isEmpty() ? Double.NaN : toPrice(bids.firstKey());
+    }
+    
+    // Best ask price, or NaN when there are no asks
+    public double getBestAsk() {
+        return asks.isEmpty() ? Double.NaN : toPrice(asks.firstKey());
+    }
+    
+    // Up to maxLevels price levels per side, best first
+    public List<PriceLevel> getBidLevels(int maxLevels) {
+        return firstLevels(bids, maxLevels);
+    }
+    
+    public List<PriceLevel> getAskLevels(int maxLevels) {
+        return firstLevels(asks, maxLevels);
+    }
+    
+    public int getRestingOrderCount() {
+        return restingIndex.size();
+    }
+    
+    public int getStopOrderCount() {
+        return stopIndex.size();
+    }
+    
+    // Resting orders in priority order (bids, then asks), then pending stops
+    public List<Order> getOpenOrders() {
+        List<Order> orders = new ArrayList<>(restingIndex.size() + stopIndex.size());
+        for (TreeMap<Long, PriceLevel> side : Arrays.asList(bids, asks)) {
+            for (PriceLevel level : side.values()) {
+                for (PriceLevel.Node node = level.head(); node != null; node = node.next) {
+                    orders.add(node.order);
+                }
+            }
+        }
+        for (Map<String, StopLossOrder> atPrice : sellStops.descendingMap().values()) {
+            orders.addAll(atPrice.values());
+        }
+        return orders;
+    }
+    
+    public Stock getStock() {
+        return stock;
+    }
+    
+    private TreeMap<Long, PriceLevel> sideOf(Order order) {
+        return order.getTransactionType() == TransactionType.BUY ? bids : asks;
+    }
+    
+    private static List<PriceLevel> firstLevels(TreeMap<Long, PriceLevel> side, int maxLevels) {
+        List<PriceLevel> levels = new ArrayList<>(Math.min(maxLevels, side.size()));
+        for (PriceLevel level : side.values()) {
+            if (levels.size() == maxLevels) {
+                break;
+            }
+            levels.add(level);
+        }
+        return levels;
+    }
+}
@@ -0,0 +1,100 @@
+package book;
+
+import model.Order;
+
+// All resting orders at one price, in arrival order. The queue is an
+// intrusive doubly linked list so a cancel unlinks its node in O(1).
+public class PriceLevel {
+    private final long priceTicks;
+    private Node head;
+    private Node tail;
+    private int orderCount;
+    private long totalQuantity;  // Remaining quantity across all orders at this price
+    
+    public static final class Node {
+        final Order order;
+        final PriceLevel level;
+        Node prev;
+        Node next;
+        
+        Node(Order order, PriceLevel level) {
+            this.order = order;
+            this.level = level;
+        }
+        
+        public Order getOrder() {
+            return order;
+        }
+    }
+    
+    public PriceLevel(long priceTicks) {
+        this.priceTicks = priceTicks;
+    }
+    
+    // Append an order at the back of the queue
+    Node append(Order order) {
+        Node node = new Node(order, this);
+        if (tail == null) {
+            head = node;
+        } else {
+            tail.next = node;
+            node.prev = tail;
+        }
+        tail = node;
+        orderCount++;
+        totalQuantity += order.getRemainingQuantity();
+        return node;
+    }
+    
+    // Unlink an order, wherever it is in the queue
+    void remove(Node node) {
+        if (node.prev == null) {
+            head = node.next;
+        } else {
+            node.prev.next = node.next;
+        }
+        if (node.next == null) {
+            tail = node.prev;
+        } else {
+            node.next.prev = node.prev;
+        }
+        node.prev = null;
+        node.next = null;
+        orderCount--;
+        totalQuantity -= node.order.getRemainingQuantity();
+    }
+    
+    // Account for a partial fill of an order that stays in the queue
+    void reduce(int quantity) {
+        totalQuantity -= quantity;
+    }
+    
+    Node head() {
+        return head;
+    }
+    
+    public boolean isEmpty() {
+        return head == null;
+    }
+    
+    public long getPriceTicks() {
+        return priceTicks;
+    }
+    
+    public double getPrice() {
+        return OrderBook.toPrice(priceTicks);
+    }
+    
+    public int getOrderCount() {
+        return orderCount;
+    }
+    
+    public long getTotalQuantity() {
+        return totalQuantity;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("$%.2f x %d (%d orders)", getPrice(), totalQuantity, orderCount);
+    }
+}
@@ -0,0 +1,97 @@
+package engine;
+
+import book.OrderBook;
+import model.Order;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+// A request for a symbol's matching thread: place or cancel an order, apply a
+// price tick, or read the book. The completion finishes once every effect of
+// the command has been settled.
+public class Command {
+    public enum Type {
+        PLACE, CANCEL, PRICE_TICK, INSPECT
+    }
+    
+    private final Type type;
+    private final String symbol;
+    private final Order order;
+    private final String orderId;
+    private final double price;
+    private final Consumer<OrderBook> inspector;
+    private final CompletableFuture<Void> completion;
+    private RuntimeException failure;
+    
+    private Command(Type type, String symbol, Order order, String orderId, double price,
+                    Consumer<OrderBook> inspector) {
+        this.type = type;
+        this.symbol = symbol;
+        this.order = order;
+        this.orderId = orderId;
+        this.price = price;
+        this.inspector = inspector;
+        this.completion = new CompletableFuture<>();
+    }
+    
+    public static Command place(Order order) {
+        return new Command(Type.PLACE, order.getStock().getSymbol(), order, order.getOrderId(), 0, null);
+    }
+    
+    public static Command cancel(String symbol, String orderId) {
+        return new Command(Type.CANCEL, symbol, null, orderId, 0, null);
+    }
+    
+    public static Command priceTick(String symbol, double price) {
+        return new Command(Type.PRICE_TICK, symbol, null, null, price, null);
+    }
+    
+    // Run a read-only function against the book on its owning thread
+    public static Command inspect(String symbol, Consumer<OrderBook> inspector) {
+        return new Command(Type.INSPECT, symbol, null, null, 0, inspector);
+    }
+    
+    // Remember why handling failed; finish() then reports it
+    public void setFailure(RuntimeException failure) {
+        this.failure = failure;
+    }
+    
+    public void finish() {
+        if (failure == null) {
+            completion.complete(null);
+        } else {
+            completion.completeExceptionally(failure);
+        }
+    }
+    
+    public void fail(Throwable error) {
+        completion.completeExceptionally(error);
+    }
+    
+    public Type getType() {
+        return type;
+    }
+    
+    public String getSymbol() {
+        return symbol;
+    }
+    
+    public Order getOrder() {
+        return order;
+    }
+    
+    public String getOrderId() {
+        return orderId;
+    }
+    
+    public double getPrice() {
+        return price;
+    }
+    
+    public Consumer<OrderBook> getInspector() {
+        return inspector;
+    }
+    
+    public CompletableFuture<Void> getCompletion() {
+        return completion;
+    }
+}
@@ -0,0 +1,115 @@
+package engine;
+
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+// A thread that drains one RingBuffer and hands each item to a handler, in
+// the order the items were published. Everything the handler touches is
+// owned by this thread, so it needs no locks.
+//
+// When the ring is empty the thread spins briefly, then parks; producers
+// unpark it only when it has actually gone to sleep. A full ring makes
+// producers wait, which is the backpressure.
+public class EventLoop<T> {
+    private static final int SPIN_TRIES = 1_000;
+    private static final long PARK_NANOS = 100_000;
+    
+    private final RingBuffer<T> ring;
+    private final Consumer<T> handler;
+    private final Runnable onIdle;  // Runs whenever the ring drains, e.g. to group-commit
+    private final Thread thread;
+    private volatile boolean running;
+    private volatile boolean sleeping;
+    
+    public EventLoop(String name, int capacity, Consumer<T> handler) {
+        this(name, capacity, handler, null);
+    }
+    
+    public EventLoop(String name, int capacity, Consumer<T> handler, Runnable onIdle) {
+        this.ring = new RingBuffer<>(capacity);
+        this.handler = handler;
+        this.onIdle = onIdle;
+        this.thread = new Thread(this::run, name);
+        this.thread.setDaemon(true);
+    }
+    
+    public void start() {
+        running = true;
+        thread.start();
+    }
+    
+    // Stop after draining what is already queued
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(thread);
+    }
+    
+    public void submit(T item) {
+        if (Thread.currentThread() == thread) {
+            throw new IllegalStateException("Event loop cannot submit to itself: " + thread.getName());
+        }
+        int tries = 0;
+        while (!ring.offer(item)) {
+            // Ring is full: spin, then yield, until the consumer catches up
+            if (++tries >= SPIN_TRIES) {
+                Thread.yield();
+            }
+        }
+        if (sleeping) {
+            LockSupport.unpark(thread);
+        }
+    }
+    
+    public boolean isOwnerThread() {
+        return Thread.currentThread() == thread;
+    }
+    
+    public String getName() {
+        return thread.getName();
+    }
+    
+    private void run() {
+        int idle = 0;
+        boolean busy = false;
+        while (running || !ring.isEmpty()) {
+            T item = ring.poll();
+            if (item == null) {
+                if (busy) {
+                    busy = false;
+                    runIdleHook();
+                }
+                if (++idle >= SPIN_TRIES) {  // Below this, just poll again
+                    sleeping = true;
+                    if (ring.isEmpty() && running) {
+                        LockSupport.parkNanos(this, PARK_NANOS);
+                    }
+                    sleeping = false;
+                    idle = 0;
+                }
+                continue;
+            }
+            idle = 0;
+            busy = true;
+            try {
+                handler.accept(item);
+            } catch (RuntimeException e) {
+                // Handlers report failures through their own callbacks; keep the loop alive
+                System.err.println("❌ " + thread.getName() + " failed: " + e);
+            }
+        }
+        if (busy) {
+            runIdleHook();
+        }
+    }
+    
+    private void runIdleHook() {
+        if (onIdle == null) {
+            return;
+        }
+        try {
+            onIdle.run();
+        } catch (RuntimeException e) {
+            System.err.println("❌ " + thread.getName() + " idle hook failed: " + e);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package engine;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+// Routes commands to single-writer matching shards.
+//
+// Every symbol is owned by exactly one shard thread, assigned round-robin at
+// registration, and all commands for it go through that shard's ring. Books
+// are therefore mutated by one thread only and symbols on different shards
+// never contend, so throughput grows with the number of shards until the
+// cores run out.
+public class MatchingEngine {
+    private final EventLoop<Command>[] shards;
+    private final Map<String, EventLoop<Command>> symbolShards;
+    private int nextShard;
+    
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public MatchingEngine(int shardCount, int ringCapacity, Consumer<Command> handler) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Shard count must be positive");
+        }
+        this.shards = new EventLoop[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new EventLoop<>("matching-" + i, ringCapacity, handler);
+        }
+        this.symbolShards = new ConcurrentHashMap<>();
+    }
+    
+    public void start() {
+        for (EventLoop<Command> shard : shards) {
+            shard.start();
+        }
+    }
+    
+    public void shutdown() {
+        for (EventLoop<Command> shard : shards) {
+            shard.shutdown();
+        }
+    }
+    
+    // Give a symbol to the next shard in turn; re-registering keeps its shard
+    public synchronized void register(String symbol) {
+        if (!symbolShards.containsKey(symbol)) {
+            symbolShards.put(symbol, shards[nextShard]);
+            nextShard = (nextShard + 1) % shards.length;
+        }
+    }
+    
+    public void submit(Command command) {
+        EventLoop<Command> shard = symbolShards.get(command.getSymbol());
+        if (shard == null) {
+            throw new IllegalArgumentException("Stock not found: " + command.getSymbol());
+        }
+        shard.submit(command);
+    }
+    
+    public int getShardCount() {
+        return shards.length;
+    }
+}
@@ -0,0 +1,80 @@
+package engine;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Bounded lock-free queue for many producers and one consumer.
+//
+// Each slot carries a sequence number saying whose turn it is: producers
+// claim a position with one CAS on the tail, write the item, then publish it
+// by advancing the slot's sequence; the single consumer reads in order
+// without any atomic read-modify-write. Capacity is rounded up to a power of
+// two so positions map to slots with a mask.
+public class RingBuffer<T> {
+    private final Object[] items;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail; // Next position a producer will claim
+    private long head;             // Next position to consume; consumer thread only
+    
+    public RingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.items = new Object[size];
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        this.mask = size - 1;
+        this.tail = new AtomicLong();
+    }
+    
+    // Enqueue an item; returns false if the ring is full
+    public boolean offer(T item) {
+        if (item == null) {
+            throw new IllegalArgumentException("Item cannot be null");
+        }
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long sequence = sequences.get(index);
+            if (sequence == position) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    items[index] = item;
+                    sequences.set(index, position + 1); // Publish to the consumer
+                    return true;
+                }
+            } else if (sequence < position) {
+                return false; // Slot still holds an item from the previous lap
+            }
+            // Otherwise another producer claimed this position first; retry
+        }
+    }
+    
+    // Dequeue the oldest item, or null if none is published yet. Consumer thread only.
+    @SuppressWarnings("unchecked")
+    public T poll() {
+        int index = (int) head & mask;
+        if (sequences.get(index) != head + 1) {
+            return null;
+        }
+        T item = (T) items[index];
+        items[index] = null;
+        sequences.set(index, head + items.length); // Hand the slot to the next lap's producer
+        head++;
+        return item;
+    }
+    
+    public boolean isEmpty() {
+        return sequences.get((int) head & mask) != head + 1;
+    }
+    
+    public int capacity() {
+        return items.length;
+    }
+}
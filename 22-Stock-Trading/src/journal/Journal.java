@@ -0,0 +1,216 @@
+package journal;
+
+import enums.OrderType;
+import enums.TransactionType;
+import model.LimitOrder;
+import model.Order;
+import model.StopLossOrder;
+import model.Trade;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+// Append-only binary log of exchange commands and the trades they produced.
+//
+// A record is [length:int][crc32:int][sequence:long][type:byte][payload],
+// where length and checksum cover everything after the header. Records are
+// encoded into one direct buffer and reach the file in a single FileChannel
+// write per batch; flush() is the group-commit point and can also force the
+// data to disk. A crash can tear the last record, which JournalReader detects
+// and recovery cuts off.
+//
+// Not thread-safe: the exchange writes it from its settlement thread only.
+public class Journal implements Closeable {
+    static final int HEADER_BYTES = 8;
+    static final int MAX_RECORD_BYTES = 4096;
+    static final int MAX_STRING_BYTES = 1024;
+    private static final int BUFFER_BYTES = 1 << 20;
+    
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final CRC32 crc;
+    private final boolean sync;
+    private long lastSequence;
+    
+    // Open for appending after the given valid length, dropping any torn tail
+    public Journal(Path file, long validLength, long lastSequence, boolean sync) {
+        try {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            channel.truncate(validLength);
+            channel.position(validLength);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open journal " + file, e);
+        }
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        this.crc = new CRC32();
+        this.sync = sync;
+        this.lastSequence = lastSequence;
+    }
+    
+    public long appendRegisterStock(String symbol, String name, double price) {
+        int start = begin(RecordType.REGISTER_STOCK);
+        putString(symbol);
+        putString(name);
+        buffer.putDouble(price);
+        return end(start);
+    }
+    
+    public long appendRegisterTrader(String traderId, String name, double balance) {
+        int start = begin(RecordType.REGISTER_TRADER);
+        putString(traderId);
+        putString(name);
+        buffer.putDouble(balance);
+        return end(start);
+    }
+    
+    public long appendPlace(Order order, double reservedCash) {
+        int start = begin(RecordType.PLACE);
+        putString(order.getOrderId());
+        buffer.put((byte) order.getOrderType().ordinal());
+        buffer.put((byte) order.getTransactionType().ordinal());
+        putString(order.getTrader().getTraderId());
+        putString(order.getStock().getSymbol());
+        buffer.putInt(order.getQuantity());
+        buffer.putDouble(orderPrice(order));
+        buffer.putDouble(reservedCash);
+        return end(start);
+    }
+    
+    public long appendCancel(String symbol, String orderId) {
+        int start = begin(RecordType.CANCEL);
+        putString(symbol);
+        putString(orderId);
+        return end(start);
+    }
+    
+    public long appendPriceTick(String symbol, double price) {
+        int start = begin(RecordType.PRICE_TICK);
+        putString(symbol);
+        buffer.putDouble(price);
+        return end(start);
+    }
+    
+    public long appendTrade(Trade trade) {
+        int start = begin(RecordType.TRADE);
+        putString(trade.getStock().getSymbol());
+        putString(trade.getBuyOrder() == null ? null : trade.getBuyOrder().getOrderId());
+        putString(trade.getSellOrder() == null ? null : trade.getSellOrder().getOrderId());
+        buffer.put((byte) trade.getAggressorSide().ordinal());
+        buffer.putInt(trade.getQuantity());
+        buffer.putDouble(trade.getPrice());
+        return end(start);
+    }
+    
+    // Write everything buffered; forces to disk when opened with sync
+    public void flush() {
+        writeBuffer();
+        if (sync) {
+            try {
+                channel.force(false);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot sync journal", e);
+            }
+        }
+    }
+    
+    public boolean hasUnflushed() {
+        return buffer.position() > 0;
+    }
+    
+    public long getLastSequence() {
+        return lastSequence;
+    }
+    
+    // File length once buffered records are flushed
+    public long position() {
+        try {
+            return channel.position() + buffer.position();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read journal position", e);
+        }
+    }
+    
+    @Override
+    public void close() {
+        flush();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot close journal", e);
+        }
+    }
+    
+    // Limit or stop price, 0 for market orders
+    static double orderPrice(Order order) {
+        if (order instanceof LimitOrder) {
+            return ((LimitOrder) order).getLimitPrice();
+        }
+        if (order instanceof StopLossOrder) {
+            return ((StopLossOrder) order).getStopPrice();
+        }
+        return 0;
+    }
+    
+    static OrderType orderType(byte ordinal) {
+        return OrderType.values()[ordinal];
+    }
+    
+    static TransactionType side(byte ordinal) {
+        return TransactionType.values()[ordinal];
+    }
+    
+    private int begin(RecordType type) {
+        if (buffer.remaining() < MAX_RECORD_BYTES) {
+            writeBuffer();
+        }
+        int start = buffer.position();
+        buffer.position(start + HEADER_BYTES);
+        buffer.putLong(lastSequence + 1);
+        buffer.put(type.getCode());
+        return start;
+    }
+    
+    // Fill in length and checksum once the payload is in place
+    private long end(int start) {
+        int end = buffer.position();
+        ByteBuffer body = buffer.duplicate();
+        body.position(start + HEADER_BYTES).limit(end);
+        crc.reset();
+        crc.update(body);
+        buffer.putInt(start, end - start - HEADER_BYTES);
+        buffer.putInt(start + 4, (int) crc.getValue());
+        return ++lastSequence;
+    }
+    
+    private void putString(String value) {
+        if (value == null) {
+            buffer.putShort((short) -1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("Value too long for journal: " + value.substring(0, 32) + "...");
+        }
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+    
+    private void writeBuffer() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write journal", e);
+        } finally {
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package journal;
+
+import enums.OrderType;
+import enums.TransactionType;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+// Reads journal records in order from a file offset. Reading stops at the end
+// of the file or at the first record that is torn, fails its checksum or
+// breaks the sequence; getValidLength() is then where appending may resume.
+public class JournalReader implements Closeable {
+    private static final int BUFFER_BYTES = 1 << 20;
+    
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final CRC32 crc;
+    private long validLength;   // File offset just past the last good record
+    private long lastSequence;
+    private boolean finished;
+    
+    public JournalReader(Path file, long offset, long lastSequence) {
+        try {
+            this.channel = Files.exists(file) ? FileChannel.open(file, StandardOpenOption.READ) : null;
+            if (channel != null) {
+                channel.position(offset);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open journal " + file, e);
+        }
+        this.buffer = ByteBuffer.allocate(BUFFER_BYTES);
+        this.buffer.flip();
+        this.crc = new CRC32();
+        this.validLength = offset;
+        this.lastSequence = lastSequence;
+        this.finished = channel == null;
+    }
+    
+    // Next good record, or null once the readable journal is exhausted
+    public JournalRecord next() {
+        if (finished) {
+            return null;
+        }
+        if (!fill(Journal.HEADER_BYTES)) {
+            return stop();
+        }
+        int length = buffer.getInt(buffer.position());
+        int checksum = buffer.getInt(buffer.position() + 4);
+        if (length < 9 || length > Journal.MAX_RECORD_BYTES || !fill(Journal.HEADER_BYTES + length)) {
+            return stop();
+        }
+        
+        ByteBuffer body = buffer.duplicate();
+        body.position(buffer.position() + Journal.HEADER_BYTES).limit(buffer.position() + Journal.HEADER_BYTES + length);
+        crc.reset();
+        crc.update(body.duplicate());
+        if ((int) crc.getValue() != checksum) {
+            return stop();
+        }
+        
+        JournalRecord record;
+        try {
+            record = decode(body);
+        } catch (RuntimeException e) {
+            return stop(); // Checksum matched but the payload does not parse
+        }
+        if (record == null || record.getSequence() != lastSequence + 1) {
+            return stop();
+        }
+        buffer.position(buffer.position() + Journal.HEADER_BYTES + length);
+        validLength += Journal.HEADER_BYTES + length;
+        lastSequence = record.getSequence();
+        return record;
+    }
+    
+    public long getValidLength() {
+        return validLength;
+    }
+    
+    public long getLastSequence() {
+        return lastSequence;
+    }
+    
+    @Override
+    public void close() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot close journal", e);
+            }
+        }
+    }
+    
+    private JournalRecord stop() {
+        finished = true;
+        return null;
+    }
+    
+    // Make sure the buffer holds at least the given number of unread bytes
+    private boolean fill(int bytes) {
+        if (buffer.remaining() >= bytes) {
+            return true;
+        }
+        buffer.compact();
+        try {
+            while (buffer.position() < bytes) {
+                if (channel.read(buffer) < 0) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read journal", e);
+        } finally {
+            buffer.flip();
+        }
+        return buffer.remaining() >= bytes;
+    }
+    
+    private static JournalRecord decode(ByteBuffer body) {
+        long sequence = body.getLong();
+        RecordType type = RecordType.fromCode(body.get());
+        if (type == null) {
+            return null;
+        }
+        switch (type) {
+            case REGISTER_STOCK: {
+                String symbol = getString(body);
+                String name = getString(body);
+                return new JournalRecord(sequence, type, symbol, name, null, null, null, null, 0,
+                    body.getDouble(), 0, null, null);
+            }
+            case REGISTER_TRADER: {
+                String traderId = getString(body);
+                String name = getString(body);
+                return new JournalRecord(sequence, type, null, name, traderId, null, null, null, 0,
+                    body.getDouble(), 0, null, null);
+            }
+            case PLACE: {
+                String orderId = getString(body);
+                OrderType orderType = Journal.orderType(body.get());
+                TransactionType side = Journal.side(body.get());
+                String traderId = getString(body);
+                String symbol = getString(body);
+                int quantity = body.getInt();
+                double price = body.getDouble();
+                return new JournalRecord(sequence, type, symbol, null, traderId, orderId, orderType, side,
+                    quantity, price, body.getDouble(), null, null);
+            }
+            case CANCEL: {
+                String symbol = getString(body);
+                return new JournalRecord(sequence, type, symbol, null, null, getString(body), null, null, 0,
+                    0, 0, null, null);
+            }
+            case PRICE_TICK: {
+                String symbol = getString(body);
+                return new JournalRecord(sequence, type, symbol, null, null, null, null, null, 0,
+                    body.getDouble(), 0, null, null);
+            }
+            case TRADE: {
+                String symbol = getString(body);
+                String buyOrderId = getString(body);
+                String sellOrderId = getString(body);
+                TransactionType side = Journal.side(body.get());
+                int quantity = body.getInt();
+                return new JournalRecord(sequence, type, symbol, null, null, null, null, side, quantity,
+                    body.getDouble(), 0, buyOrderId, sellOrderId);
+            }
+            default:
+                return null;
+        }
+    }
+    
+    private static String getString(ByteBuffer body) {
+        short length = body.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        body.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,105 @@
+package journal;
+
+import enums.OrderType;
+import enums.TransactionType;
+
+// One decoded journal entry. Which fields are set depends on the type:
+//   REGISTER_STOCK  symbol, name, price
+//   REGISTER_TRADER traderId, name, price (opening balance)
+//   PLACE           orderId, orderType, side, traderId, symbol, quantity,
+//                   price (limit or stop), reservedCash
+//   CANCEL          symbol, orderId
+//   PRICE_TICK      symbol, price
+//   TRADE           symbol, buyOrderId, sellOrderId (null for the exchange),
+//                   side (aggressor), quantity, price
+public class JournalRecord {
+    private final long sequence;
+    private final RecordType type;
+    private final String symbol;
+    private final String name;
+    private final String traderId;
+    private final String orderId;
+    private final OrderType orderType;
+    private final TransactionType side;
+    private final int quantity;
+    private final double price;
+    private final double reservedCash;
+    private final String buyOrderId;
+    private final String sellOrderId;
+    
+    JournalRecord(long sequence, RecordType type, String symbol, String name, String traderId,
+                  String orderId, OrderType orderType, TransactionType side, int quantity,
+                  double price, double reservedCash, String buyOrderId, String sellOrderId) {
+        this.sequence = sequence;
+        this.type = type;
+        this.symbol = symbol;
+        this.name = name;
+        this.traderId = traderId;
+        this.orderId = orderId;
+        this.orderType = orderType;
+        this.side = side;
+        this.quantity = quantity;
+        this.price = price;
+        this.reservedCash = reservedCash;
+        this.buyOrderId = buyOrderId;
+        this.sellOrderId = sellOrderId;
+    }
+    
+    public long getSequence() {
+        return sequence;
+    }
+    
+    public RecordType getType() {
+        return type;
+    }
+    
+    public String getSymbol() {
+        return symbol;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public String getTraderId() {
+        return traderId;
+    }
+    
+    public String getOrderId() {
+        return orderId;
+    }
+    
+    public OrderType getOrderType() {
+        return orderType;
+    }
+    
+    public TransactionType getSide() {
+        return side;
+    }
+    
+    public int getQuantity() {
+        return quantity;
+    }
+    
+    public double getPrice() {
+        return price;
+    }
+    
+    public double getReservedCash() {
+        return reservedCash;
+    }
+    
+    public String getBuyOrderId() {
+        return buyOrderId;
+    }
+    
+    public String getSellOrderId() {
+        return sellOrderId;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("#%d %s %s %s", sequence, type, symbol == null ? "" : symbol,
+            orderId == null ? "" : orderId);
+    }
+}
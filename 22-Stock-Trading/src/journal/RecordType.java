@@ -0,0 +1,30 @@
+package journal;
+
+// Kinds of journal record. Codes are written to disk, so never renumber them.
+public enum RecordType {
+    REGISTER_STOCK(1),
+    REGISTER_TRADER(2),
+    PLACE(3),
+    CANCEL(4),
+    PRICE_TICK(5),
+    TRADE(6);
+    
+    private final byte code;
+    
+    RecordType(int code) {
+        this.code = (byte) code;
+    }
+    
+    public byte getCode() {
+        return code;
+    }
+    
+    public static RecordType fromCode(byte code) {
+        for (RecordType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,320 @@
+package journal;
+
+import enums.OrderType;
+import enums.TransactionType;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Exchange state as of one journal sequence number: stock prices, trader
+// cash and holdings with their reservations, and every open order in book
+// priority order. Recovery loads the latest snapshot and replays the journal
+// from journalOffset. Transaction histories are not included; the journal is
+// their record.
+public class Snapshot {
+    private static final int MAGIC = 0x534E4150; // "SNAP"
+    private static final int VERSION = 1;
+    
+    private final long sequence;
+    private final long journalOffset;
+    private final List<StockState> stocks;
+    private final List<TraderState> traders;
+    private final List<OrderState> orders;
+    
+    public Snapshot(long sequence, long journalOffset) {
+        this.sequence = sequence;
+        this.journalOffset = journalOffset;
+        this.stocks = new ArrayList<>();
+        this.traders = new ArrayList<>();
+        this.orders = new ArrayList<>();
+    }
+    
+    public static class StockState {
+        private final String symbol;
+        private final String name;
+        private final double currentPrice;
+        private final double previousPrice;
+        private final long volume;
+        
+        public StockState(String symbol, String name, double currentPrice, double previousPrice, long volume) {
+            this.symbol = symbol;
+            this.name = name;
+            this.currentPrice = currentPrice;
+            this.previousPrice = previousPrice;
+            this.volume = volume;
+        }
+        
+        public String getSymbol() {
+            return symbol;
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public double getCurrentPrice() {
+            return currentPrice;
+        }
+        
+        public double getPreviousPrice() {
+            return previousPrice;
+        }
+        
+        public long getVolume() {
+            return volume;
+        }
+    }
+    
+    public static class TraderState {
+        private final String traderId;
+        private final String name;
+        private final double balance;
+        private final double reservedBalance;
+        private final Map<String, double[]> holdings; // symbol -> {quantity, total invested}
+        private final Map<String, Integer> reservedShares;
+        
+        public TraderState(String traderId, String name, double balance, double reservedBalance) {
+            this.traderId = traderId;
+            this.name = name;
+            this.balance = balance;
+            this.reservedBalance = reservedBalance;
+            this.holdings = new LinkedHashMap<>();
+            this.reservedShares = new LinkedHashMap<>();
+        }
+        
+        public void addHolding(String symbol, int quantity, double totalInvested) {
+            holdings.put(symbol, new double[] {quantity, totalInvested});
+        }
+        
+        public void addReservedShares(String symbol, int quantity) {
+            reservedShares.put(symbol, quantity);
+        }
+        
+        public String getTraderId() {
+            return traderId;
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public double getBalance() {
+            return balance;
+        }
+        
+        public double getReservedBalance() {
+            return reservedBalance;
+        }
+        
+        public Map<String, double[]> getHoldings() {
+            return holdings;
+        }
+        
+        public Map<String, Integer> getReservedShares() {
+            return reservedShares;
+        }
+    }
+    
+    public static class OrderState {
+        private final String orderId;
+        private final OrderType orderType;
+        private final TransactionType side;
+        private final String traderId;
+        private final String symbol;
+        private final int quantity;
+        private final int filledQuantity;
+        private final double executionPrice;
+        private final double price;         // Limit or stop price
+        private final double reservedCash;  // Cash still held for a buy, NaN for sells
+        
+        public OrderState(String orderId, OrderType orderType, TransactionType side, String traderId, String symbol,
+                          int quantity, int filledQuantity, double executionPrice, double price, double reservedCash) {
+            this.orderId = orderId;
+            this.orderType = orderType;
+            this.side = side;
+            this.traderId = traderId;
+            this.symbol = symbol;
+            this.quantity = quantity;
+            this.filledQuantity = filledQuantity;
+            this.executionPrice = executionPrice;
+            this.price = price;
+            this.reservedCash = reservedCash;
+        }
+        
+        public String getOrderId() {
+            return orderId;
+        }
+        
+        public OrderType getOrderType() {
+            return orderType;
+        }
+        
+        public TransactionType getSide() {
+            return side;
+        }
+        
+        public String getTraderId() {
+            return traderId;
+        }
+        
+        public String getSymbol() {
+            return symbol;
+        }
+        
+        public int getQuantity() {
+            return quantity;
+        }
+        
+        public int getFilledQuantity() {
+            return filledQuantity;
+        }
+        
+        public double getExecutionPrice() {
+            return executionPrice;
+        }
+        
+        public double getPrice() {
+            return price;
+        }
+        
+        public double getReservedCash() {
+            return reservedCash;
+        }
+    }
+    
+    public void addStock(StockState stock) {
+        stocks.add(stock);
+    }
+    
+    public void addTrader(TraderState trader) {
+        traders.add(trader);
+    }
+    
+    // Orders must be added in book priority order so restoring them keeps it
+    public void addOrder(OrderState order) {
+        orders.add(order);
+    }
+    
+    // Write to a temporary file, then move it into place so a crash never leaves half a snapshot
+    public void write(Path file) {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(sequence);
+            out.writeLong(journalOffset);
+            
+            out.writeInt(stocks.size());
+            for (StockState stock : stocks) {
+                out.writeUTF(stock.symbol);
+                out.writeUTF(stock.name);
+                out.writeDouble(stock.currentPrice);
+                out.writeDouble(stock.previousPrice);
+                out.writeLong(stock.volume);
+            }
+            
+            out.writeInt(traders.size());
+            for (TraderState trader : traders) {
+                out.writeUTF(trader.traderId);
+                out.writeUTF(trader.name);
+                out.writeDouble(trader.balance);
+                out.writeDouble(trader.reservedBalance);
+                out.writeInt(trader.holdings.size());
+                for (Map.Entry<String, double[]> holding : trader.holdings.entrySet()) {
+                    out.writeUTF(holding.getKey());
+                    out.writeInt((int) holding.getValue()[0]);
+                    out.writeDouble(holding.getValue()[1]);
+                }
+                out.writeInt(trader.reservedShares.size());
+                for (Map.Entry<String, Integer> reserved : trader.reservedShares.entrySet()) {
+                    out.writeUTF(reserved.getKey());
+                    out.writeInt(reserved.getValue());
+                }
+            }
+            
+            out.writeInt(orders.size());
+            for (OrderState order : orders) {
+                out.writeUTF(order.orderId);
+                out.writeByte(order.orderType.ordinal());
+                out.writeByte(order.side.ordinal());
+                out.writeUTF(order.traderId);
+                out.writeUTF(order.symbol);
+                out.writeInt(order.quantity);
+                out.writeInt(order.filledQuantity);
+                out.writeDouble(order.executionPrice);
+                out.writeDouble(order.price);
+                out.writeDouble(order.reservedCash);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write snapshot " + file, e);
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot install snapshot " + file, e);
+        }
+    }
+    
+    public static Snapshot read(Path file) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IllegalStateException("Not a snapshot file: " + file);
+            }
+            Snapshot snapshot = new Snapshot(in.readLong(), in.readLong());
+            
+            for (int i = in.readInt(); i > 0; i--) {
+                snapshot.addStock(new StockState(in.readUTF(), in.readUTF(), in.readDouble(), in.readDouble(), in.readLong()));
+            }
+            
+            for (int i = in.readInt(); i > 0; i--) {
+                TraderState trader = new TraderState(in.readUTF(), in.readUTF(), in.readDouble(), in.readDouble());
+                for (int h = in.readInt(); h > 0; h--) {
+                    trader.addHolding(in.readUTF(), in.readInt(), in.readDouble());
+                }
+                for (int r = in.readInt(); r > 0; r--) {
+                    trader.addReservedShares(in.readUTF(), in.readInt());
+                }
+                snapshot.addTrader(trader);
+            }
+            
+            for (int i = in.readInt(); i > 0; i--) {
+                snapshot.addOrder(new OrderState(in.readUTF(), Journal.orderType(in.readByte()),
+                    Journal.side(in.readByte()), in.readUTF(), in.readUTF(), in.readInt(), in.readInt(),
+                    in.readDouble(), in.readDouble(), in.readDouble()));
+            }
+            return snapshot;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read snapshot " + file, e);
+        }
+    }
+    
+    public long getSequence() {
+        return sequence;
+    }
+    
+    public long getJournalOffset() {
+        return journalOffset;
+    }
+    
+    public List<StockState> getStocks() {
+        return stocks;
+    }
+    
+    public List<TraderState> getTraders() {
+        return traders;
+    }
+    
+    public List<OrderState> getOrders() {
+        return orders;
+    }
+}
@@ -0,0 +1,63 @@
+package marketdata;
+
+// Open/high/low/close and traded volume over one time interval
+public class Bar {
+    private final long startMillis;
+    private final long intervalMillis;
+    private final double open;
+    private final double high;
+    private final double low;
+    private final double close;
+    private final long volume;
+    private final int tickCount;
+    
+    public Bar(long startMillis, long intervalMillis, double open, double high, double low, double close,
+               long volume, int tickCount) {
+        this.startMillis = startMillis;
+        this.intervalMillis = intervalMillis;
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.close = close;
+        this.volume = volume;
+        this.tickCount = tickCount;
+    }
+    
+    public long getStartMillis() {
+        return startMillis;
+    }
+    
+    public long getIntervalMillis() {
+        return intervalMillis;
+    }
+    
+    public double getOpen() {
+        return open;
+    }
+    
+    public double getHigh() {
+        return high;
+    }
+    
+    public double getLow() {
+        return low;
+    }
+    
+    public double getClose() {
+        return close;
+    }
+    
+    public long getVolume() {
+        return volume;
+    }
+    
+    public int getTickCount() {
+        return tickCount;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("O $%.2f H $%.2f L $%.2f C $%.2f V %d (%d ticks)",
+            open, high, low, close, volume, tickCount);
+    }
+}
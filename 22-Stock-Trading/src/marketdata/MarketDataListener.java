@@ -0,0 +1,7 @@
+package marketdata;
+
+// Receives market data on a publisher delivery thread. A listener that falls
+// behind gets the latest snapshot per symbol, not every update.
+public interface MarketDataListener {
+    void onMarketData(MarketSnapshot snapshot);
+}
@@ -0,0 +1,188 @@
+package marketdata;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Fans market snapshots out to subscribers without ever blocking the publisher.
+//
+// Each subscription keeps only the latest undelivered snapshot per symbol
+// plus a queue of symbols waiting to be delivered. Publishing replaces the
+// pending snapshot (conflation) and schedules the subscription on a delivery
+// thread if it is not already scheduled. A slow listener therefore holds one
+// delivery thread and at most one snapshot per symbol; it never delays the
+// publisher or other subscriptions.
+//
+// A price-change subscription is offered a symbol's snapshot only when its
+// last price differs from the last one offered, so book-only updates cost
+// it nothing.
+public class MarketDataPublisher {
+    private static final int MAX_DELIVERIES_PER_TURN = 64;
+    
+    private final Map<String, MarketSnapshot> latest; // symbol -> last published snapshot
+    private final List<Subscription> subscriptions;
+    private final ExecutorService deliveryThreads;
+    private final AtomicLong undelivered; // Symbols queued across all subscriptions
+    private final Object drained;
+    
+    public MarketDataPublisher() {
+        this.latest = new ConcurrentHashMap<>();
+        this.subscriptions = new CopyOnWriteArrayList<>();
+        this.deliveryThreads = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "market-data");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.undelivered = new AtomicLong();
+        this.drained = new Object();
+    }
+    
+    public class Subscription {
+        private final String symbol; // null for every symbol
+        private final MarketDataListener listener;
+        private final boolean priceChangesOnly;
+        private final Map<String, MarketSnapshot> pending;
+        private final Queue<String> ready;
+        private final AtomicBoolean scheduled;
+        private final AtomicLong delivered;
+        private final AtomicLong conflated;
+        private final Map<String, Double> lastOfferedPrice; // Only for price-change subscriptions
+        private volatile boolean cancelled;
+        
+        private Subscription(String symbol, MarketDataListener listener, boolean priceChangesOnly) {
+            this.symbol = symbol;
+            this.listener = listener;
+            this.priceChangesOnly = priceChangesOnly;
+            this.lastOfferedPrice = priceChangesOnly ? new ConcurrentHashMap<>() : null;
+            this.pending = new ConcurrentHashMap<>();
+            this.ready = new ConcurrentLinkedQueue<>();
+            this.scheduled = new AtomicBoolean();
+            this.delivered = new AtomicLong();
+            this.conflated = new AtomicLong();
+        }
+        
+        private void offer(MarketSnapshot snapshot) {
+            if (priceChangesOnly) {
+                Double last = lastOfferedPrice.put(snapshot.getSymbol(), snapshot.getLastPrice());
+                if (last != null && last == snapshot.getLastPrice()) {
+                    return;
+                }
+            }
+            if (pending.put(snapshot.getSymbol(), snapshot) == null) {
+                undelivered.incrementAndGet();
+                ready.add(snapshot.getSymbol());
+            } else {
+                conflated.incrementAndGet(); // Replaced a snapshot the listener had not seen yet
+            }
+            if (scheduled.compareAndSet(false, true)) {
+                deliveryThreads.execute(this::deliver);
+            }
+        }
+        
+        // Deliver a bounded batch, then hand the thread back if more is waiting
+        private void deliver() {
+            for (int i = 0; i < MAX_DELIVERIES_PER_TURN; i++) {
+                String next = ready.poll();
+                if (next == null) {
+                    break;
+                }
+                MarketSnapshot snapshot = pending.remove(next);
+                try {
+                    if (!cancelled) {
+                        listener.onMarketData(snapshot);
+                        delivered.incrementAndGet();
+                    }
+                } catch (RuntimeException e) {
+                    System.err.println("❌ Market data listener failed: " + e);
+                } finally {
+                    if (undelivered.decrementAndGet() == 0) {
+                        synchronized (drained) {
+                            drained.notifyAll();
+                        }
+                    }
+                }
+            }
+            scheduled.set(false);
+            if (!ready.isEmpty() && scheduled.compareAndSet(false, true)) {
+                deliveryThreads.execute(this::deliver);
+            }
+        }
+        
+        public void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+        }
+        
+        public long getDeliveredCount() {
+            return delivered.get();
+        }
+        
+        // Snapshots replaced before this listener saw them
+        public long getConflatedCount() {
+            return conflated.get();
+        }
+    }
+    
+    // Receive snapshots of every symbol
+    public Subscription subscribe(MarketDataListener listener) {
+        return add(new Subscription(null, listener, false));
+    }
+    
+    // Receive snapshots of one symbol; starts with its latest snapshot, if any
+    public Subscription subscribe(String symbol, MarketDataListener listener) {
+        return add(new Subscription(symbol, listener, false));
+    }
+    
+    // Receive a symbol's snapshots only when its last price has moved
+    public Subscription subscribePriceChanges(String symbol, MarketDataListener listener) {
+        return add(new Subscription(symbol, listener, true));
+    }
+    
+    private Subscription add(Subscription subscription) {
+        String symbol = subscription.symbol;
+        subscriptions.add(subscription);
+        if (symbol != null && latest.containsKey(symbol)) {
+            subscription.offer(latest.get(symbol));
+        }
+        return subscription;
+    }
+    
+    public void publish(MarketSnapshot snapshot) {
+        latest.put(snapshot.getSymbol(), snapshot);
+        for (Subscription subscription : subscriptions) {
+            if (subscription.symbol == null || subscription.symbol.equals(snapshot.getSymbol())) {
+                subscription.offer(snapshot);
+            }
+        }
+    }
+    
+    // Last published snapshot of a symbol, or null before the first one
+    public MarketSnapshot getLatest(String symbol) {
+        return latest.get(symbol);
+    }
+    
+    public boolean hasSubscribers() {
+        return !subscriptions.isEmpty();
+    }
+    
+    // Wait until no subscription has snapshots left to deliver
+    public void flush() {
+        synchronized (drained) {
+            while (undelivered.get() > 0) {
+                try {
+                    drained.wait(10);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
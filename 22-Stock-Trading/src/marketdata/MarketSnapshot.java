@@ -0,0 +1,106 @@
+package marketdata;
+
+// Immutable view of one symbol: last and previous reference price, traded
+// volume, and the top price levels on each side of the book (best first).
+// The sequence number increases with every snapshot of the symbol.
+public class MarketSnapshot {
+    private final String symbol;
+    private final long sequence;
+    private final long timeMillis;
+    private final double lastPrice;
+    private final double previousPrice;
+    private final long volume;
+    private final double[] bidPrices;
+    private final long[] bidSizes;
+    private final double[] askPrices;
+    private final long[] askSizes;
+    
+    public MarketSnapshot(String symbol, long sequence, long timeMillis, double lastPrice, double previousPrice,
+                          long volume, double[] bidPrices, long[] bidSizes, double[] askPrices, long[] askSizes) {
+        this.symbol = symbol;
+        this.sequence = sequence;
+        this.timeMillis = timeMillis;
+        this.lastPrice = lastPrice;
+        this.previousPrice = previousPrice;
+        this.volume = volume;
+        this.bidPrices = bidPrices;
+        this.bidSizes = bidSizes;
+        this.askPrices = askPrices;
+        this.askSizes = askSizes;
+    }
+    
+    public String getSymbol() {
+        return symbol;
+    }
+    
+    public long getSequence() {
+        return sequence;
+    }
+    
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+    
+    public double getLastPrice() {
+        return lastPrice;
+    }
+    
+    public double getPreviousPrice() {
+        return previousPrice;
+    }
+    
+    public long getVolume() {
+        return volume;
+    }
+    
+    // Best bid price, or NaN when there are no bids
+    public double getBestBid() {
+        return bidPrices.length == 0 ? Double.NaN : bidPrices[0];
+    }
+    
+    public long getBestBidSize() {
+        return bidSizes.length == 0 ? 0 : bidSizes[0];
+    }
+    
+    // Best ask price, or NaN when there are no asks
+    public double getBestAsk() {
+        return askPrices.length == 0 ? Double.NaN : askPrices[0];
+    }
+    
+    public long getBestAskSize() {
+        return askSizes.length == 0 ? 0 : askSizes[0];
+    }
+    
+    public int getBidDepth() {
+        return bidPrices.length;
+    }
+    
+    public int getAskDepth() {
+        return askPrices.length;
+    }
+    
+    public double getBidPrice(int level) {
+        return bidPrices[level];
+    }
+    
+    public long getBidSize(int level) {
+        return bidSizes[level];
+    }
+    
+    public double getAskPrice(int level) {
+        return askPrices[level];
+    }
+    
+    public long getAskSize(int level) {
+        return askSizes[level];
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%s #%d last $%.2f | bid %s x %d / ask %s x %d | depth %d/%d",
+            symbol, sequence, lastPrice,
+            bidPrices.length == 0 ? "-" : String.format("$%.2f", bidPrices[0]), getBestBidSize(),
+            askPrices.length == 0 ? "-" : String.format("$%.2f", askPrices[0]), getBestAskSize(),
+            bidPrices.length, askPrices.length);
+    }
+}
@@ -0,0 +1,175 @@
+package marketdata;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Price history of one symbol in chunked primitive arrays.
+//
+// Each tick is a timestamp, a price and a traded quantity (0 for reference
+// price updates), stored column-wise in fixed-size chunks, so appending never
+// copies earlier ticks and nothing is boxed. Once the history exceeds its
+// retention limit the oldest chunk is dropped whole.
+//
+// Written by the symbol's matching thread and read from anywhere; the
+// methods synchronize, which is uncontended in practice.
+public class TickHistory {
+    private static final int CHUNK_SHIFT = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT; // Ticks per chunk
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    public static final int DEFAULT_MAX_TICKS = 1 << 20;
+    
+    private final int maxChunks;
+    private long[][] times;
+    private double[][] prices;
+    private long[][] quantities;
+    private int firstChunk;  // Index in the chunk arrays of the oldest retained chunk
+    private int chunkCount;
+    private long firstTick;  // Absolute number of the oldest retained tick
+    private long size;       // Absolute number of ticks ever appended
+    
+    public TickHistory() {
+        this(DEFAULT_MAX_TICKS);
+    }
+    
+    public TickHistory(int maxTicks) {
+        if (maxTicks < CHUNK_SIZE) {
+            throw new IllegalArgumentException("Tick history must hold at least " + CHUNK_SIZE + " ticks");
+        }
+        this.maxChunks = (maxTicks + CHUNK_SIZE - 1) / CHUNK_SIZE + 1;
+        this.times = new long[4][];
+        this.prices = new double[4][];
+        this.quantities = new long[4][];
+    }
+    
+    public synchronized void append(long timeMillis, double price, long quantity) {
+        int offset = (int) (size & CHUNK_MASK);
+        if (offset == 0) {
+            addChunk();
+        }
+        int chunk = (firstChunk + chunkCount - 1) % times.length;
+        times[chunk][offset] = timeMillis;
+        prices[chunk][offset] = price;
+        quantities[chunk][offset] = quantity;
+        size++;
+    }
+    
+    // Ticks currently retained
+    public synchronized int size() {
+        return (int) (size - firstTick);
+    }
+    
+    // Total ticks ever appended, including those dropped by retention
+    public synchronized long totalTicks() {
+        return size;
+    }
+    
+    public synchronized double lastPrice() {
+        if (size == firstTick) {
+            return Double.NaN;
+        }
+        return priceAt(size - 1);
+    }
+    
+    // The most recent prices, oldest first
+    public synchronized double[] recentPrices(int maxTicks) {
+        int count = (int) Math.min(maxTicks, size - firstTick);
+        double[] result = new double[count];
+        long start = size - count;
+        for (int i = 0; i < count; i++) {
+            result[i] = priceAt(start + i);
+        }
+        return result;
+    }
+    
+    // OHLCV bars over the retained ticks, aligned to multiples of the interval
+    public synchronized List<Bar> bars(long intervalMillis) {
+        if (intervalMillis <= 0) {
+            throw new IllegalArgumentException("Bar interval must be positive");
+        }
+        List<Bar> bars = new ArrayList<>();
+        long barStart = Long.MIN_VALUE;
+        double open = 0, high = 0, low = 0, close = 0;
+        long volume = 0;
+        int tickCount = 0;
+        for (long tick = firstTick; tick < size; tick++) {
+            int chunk = chunkOf(tick);
+            int offset = (int) (tick & CHUNK_MASK);
+            long start = Math.floorDiv(times[chunk][offset], intervalMillis) * intervalMillis;
+            double price = prices[chunk][offset];
+            if (start != barStart) {
+                if (tickCount > 0) {
+                    bars.add(new Bar(barStart, intervalMillis, open, high, low, close, volume, tickCount));
+                }
+                barStart = start;
+                open = high = low = price;
+                volume = 0;
+                tickCount = 0;
+            }
+            high = Math.max(high, price);
+            low = Math.min(low, price);
+            close = price;
+            volume += quantities[chunk][offset];
+            tickCount++;
+        }
+        if (tickCount > 0) {
+            bars.add(new Bar(barStart, intervalMillis, open, high, low, close, volume, tickCount));
+        }
+        return bars;
+    }
+    
+    // Bytes held by the chunk arrays
+    public synchronized long estimatedBytes() {
+        return (long) chunkCount * CHUNK_SIZE * (Long.BYTES + Double.BYTES + Long.BYTES);
+    }
+    
+    private double priceAt(long tick) {
+        return prices[chunkOf(tick)][(int) (tick & CHUNK_MASK)];
+    }
+    
+    private int chunkOf(long tick) {
+        int relative = (int) ((tick - firstTick) >> CHUNK_SHIFT);
+        return (firstChunk + relative) % times.length;
+    }
+    
+    private void addChunk() {
+        if (chunkCount == maxChunks) {
+            // Retention: recycle the oldest chunk as the new one
+            int oldest = firstChunk;
+            firstChunk = (firstChunk + 1) % times.length;
+            firstTick += CHUNK_SIZE;
+            chunkCount--;
+            int slot = (firstChunk + chunkCount) % times.length;
+            times[slot] = times[oldest];
+            prices[slot] = prices[oldest];
+            quantities[slot] = quantities[oldest];
+            chunkCount++;
+            return;
+        }
+        if (chunkCount == times.length) {
+            grow();
+        }
+        int slot = (firstChunk + chunkCount) % times.length;
+        times[slot] = new long[CHUNK_SIZE];
+        prices[slot] = new double[CHUNK_SIZE];
+        quantities[slot] = new long[CHUNK_SIZE];
+        chunkCount++;
+    }
+    
+    // Double the chunk table, unrolling it so the oldest chunk is first
+    private void grow() {
+        int capacity = Math.min(times.length * 2, maxChunks);
+        long[][] newTimes = new long[capacity][];
+        double[][] newPrices = new double[capacity][];
+        long[][] newQuantities = new long[capacity][];
+        for (int i = 0; i < chunkCount; i++) {
+            int slot = (firstChunk + i) % times.length;
+            newTimes[i] = times[slot];
+            newPrices[i] = prices[slot];
+            newQuantities[i] = quantities[slot];
+        }
+        times = newTimes;
+        prices = newPrices;
+        quantities = newQuantities;
+        firstChunk = 0;
+    }
+}
@@ -5,12 +5,14 @@ public class Holding {
     private int quantity;
     private double averagePurchasePrice;
     private double totalInvested;
+    private double markPrice; // Price the portfolio's running totals value this holding at
     
     public Holding(Stock stock, int quantity, double purchasePrice) {
         this.stock = stock;
         this.quantity = quantity;
         this.averagePurchasePrice = purchasePrice;
         this.totalInvested = quantity * purchasePrice;
+        this.markPrice = purchasePrice;
     }
     
     public void addShares(int quantity, double purchasePrice) {
@@ -35,6 +37,13 @@ public class Holding {
         }
     }
     
+    // Revalue at a new price; returns the change in market value
+    double mark(double price) {
+        double change = quantity * (price - markPrice);
+        markPrice = price;
+        return change;
+    }
+    
     public double getCurrentValue() {
         return quantity * stock.getCurrentPrice();
     }
@@ -65,6 +74,10 @@ public class Holding {
         return totalInvested;
     }
     
+    public double getMarkPrice() {
+        return markPrice;
+    }
+    
     @Override
     public String toString() {
         return String.format("%s: %d shares @ avg $%.2f (Current: $%.2f, P/L: $%.2f [%.2f%%])",
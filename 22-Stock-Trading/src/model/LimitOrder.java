@@ -12,6 +12,12 @@ public class LimitOrder extends Order {
         this.limitPrice = limitPrice;
     }
     
+    public LimitOrder(String orderId, Trader trader, Stock stock, int quantity, 
+                      TransactionType transactionType, double limitPrice) {
+        super(orderId, trader, stock, quantity, OrderType.LIMIT, transactionType);
+        this.limitPrice = limitPrice;
+    }
+    
     @Override
     public boolean canExecute() {
         double currentPrice = stock.getCurrentPrice();
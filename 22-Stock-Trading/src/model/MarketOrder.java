@@ -9,6 +9,10 @@ public class MarketOrder extends Order {
         super(trader, stock, quantity, OrderType.MARKET, transactionType);
     }
     
+    public MarketOrder(String orderId, Trader trader, Stock stock, int quantity, TransactionType transactionType) {
+        super(orderId, trader, stock, quantity, OrderType.MARKET, transactionType);
+    }
+    
     @Override
     public boolean canExecute() {
         // Market orders always execute immediately at current price
@@ -4,9 +4,10 @@ import enums.OrderType;
 import enums.OrderStatus;
 import enums.TransactionType;
 import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public abstract class Order {
-    private static int orderCounter = 1;
+    private static final AtomicInteger orderCounter = new AtomicInteger(1);
     
     protected final String orderId;
     protected final Trader trader;
@@ -16,11 +17,27 @@ public abstract class Order {
     protected final TransactionType transactionType;
     protected OrderStatus status;
     protected final LocalDateTime timestamp;
-    protected double executionPrice;
+    protected double executionPrice;  // Average fill price once anything has filled
+    protected int filledQuantity;
     
     public Order(Trader trader, Stock stock, int quantity, OrderType orderType, 
                  TransactionType transactionType) {
-        this.orderId = "ORD-" + String.format("%06d", orderCounter++);
+        this("ORD-" + String.format("%06d", orderCounter.getAndIncrement()),
+            trader, stock, quantity, orderType, transactionType);
+    }
+    
+    // Recreate an order under its original ID (journal replay, snapshots);
+    // new orders are numbered after it
+    protected Order(String orderId, Trader trader, Stock stock, int quantity, OrderType orderType, 
+                    TransactionType transactionType) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        int number = sequenceNumber(orderId);
+        if (number >= 0) {
+            orderCounter.accumulateAndGet(number + 1, Math::max);
+        }
+        this.orderId = orderId;
         this.trader = trader;
         this.stock = stock;
         this.quantity = quantity;
@@ -31,13 +48,39 @@ public abstract class Order {
         this.executionPrice = 0;
     }
     
+    private static int sequenceNumber(String orderId) {
+        if (!orderId.startsWith("ORD-")) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(orderId.substring(4));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+    
     public abstract boolean canExecute();
     
     public void execute(double price) {
         this.executionPrice = price;
+        this.filledQuantity = quantity;
         this.status = OrderStatus.EXECUTED;
     }
     
+    // Record a (possibly partial) fill; the execution price becomes the average
+    public void fill(int fillQuantity, double price) {
+        if (fillQuantity <= 0 || fillQuantity > getRemainingQuantity()) {
+            throw new IllegalArgumentException("Invalid fill quantity: " + fillQuantity);
+        }
+        this.executionPrice = (executionPrice * filledQuantity + price * fillQuantity) / (filledQuantity + fillQuantity);
+        this.filledQuantity += fillQuantity;
+        this.status = filledQuantity == quantity ? OrderStatus.EXECUTED : OrderStatus.PARTIALLY_FILLED;
+    }
+    
+    public boolean isActive() {
+        return status == OrderStatus.PENDING || status == OrderStatus.PARTIALLY_FILLED;
+    }
+    
     public void cancel() {
         this.status = OrderStatus.CANCELLED;
     }
@@ -63,6 +106,14 @@ public abstract class Order {
         return quantity;
     }
     
+    public int getFilledQuantity() {
+        return filledQuantity;
+    }
+    
+    public int getRemainingQuantity() {
+        return quantity - filledQuantity;
+    }
+    
     public OrderType getOrderType() {
         return orderType;
     }
@@ -1,27 +1,46 @@
 package model;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Collection;
 
+// Holdings plus running totals of cost basis and market value, so the
+// valuation getters are O(1) however many holdings there are. Market value
+// follows the mark price of each holding: a new position is marked at its
+// purchase price, and the exchange re-marks holders of a symbol on every
+// price tick (see markToMarket).
+//
+// Only an exchange's risk engine keeps the marks current, so a portfolio is
+// valued from the running total only once the engine has taken it over
+// (startMarkToMarket). Until then it is valued at each stock's current price.
 public class Portfolio {
     private final Map<String, Holding> holdings; // symbol -> Holding
+    private final Map<String, Integer> reservedShares; // symbol -> shares held for open sell orders
+    private double totalInvested; // Running cost basis of all holdings
+    private double marketValue;   // Running sum of quantity x mark price
+    private boolean markedToMarket; // Marks kept current by an exchange; value from marketValue
     
     public Portfolio() {
         this.holdings = new HashMap<>();
+        this.reservedShares = new HashMap<>();
     }
     
-    public void addStock(Stock stock, int quantity, double purchasePrice) {
+    public synchronized void addStock(Stock stock, int quantity, double purchasePrice) {
         String symbol = stock.getSymbol();
         
-        if (holdings.containsKey(symbol)) {
-            holdings.get(symbol).addShares(quantity, purchasePrice);
+        Holding holding = holdings.get(symbol);
+        if (holding != null) {
+            holding.addShares(quantity, purchasePrice);
         } else {
-            holdings.put(symbol, new Holding(stock, quantity, purchasePrice));
+            holding = new Holding(stock, quantity, purchasePrice);
+            holdings.put(symbol, holding);
         }
+        totalInvested += quantity * purchasePrice;
+        marketValue += quantity * holding.getMarkPrice();
     }
     
-    public void removeStock(Stock stock, int quantity) {
+    public synchronized void removeStock(Stock stock, int quantity) {
         String symbol = stock.getSymbol();
         
         if (!holdings.containsKey(symbol)) {
@@ -34,15 +53,41 @@ public class Portfolio {
             throw new IllegalArgumentException("Insufficient shares to sell");
         }
         
+        double investedBefore = holding.getTotalInvested();
         holding.removeShares(quantity);
+        totalInvested -= investedBefore - holding.getTotalInvested();
+        marketValue -= quantity * holding.getMarkPrice();
         
         // Remove holding if no shares left
         if (holding.getQuantity() == 0) {
             holdings.remove(symbol);
+            if (holdings.isEmpty()) {
+                totalInvested = 0; // Drop floating-point residue of the running totals
+                marketValue = 0;
+            }
+        }
+    }
+    
+    // Revalue one holding at a new price; O(1), a no-op if the symbol is not held
+    public synchronized void markToMarket(String symbol, double price) {
+        Holding holding = holdings.get(symbol);
+        if (holding != null) {
+            marketValue += holding.mark(price);
         }
     }
     
-    public boolean hasStock(Stock stock, int quantity) {
+    // Same, for a caller that already has this portfolio's holding in hand
+    public synchronized void markToMarket(Holding holding, double price) {
+        marketValue += holding.mark(price);
+    }
+    
+    // Called by the risk engine once it has marked every holding and will
+    // re-mark them on each price tick
+    public synchronized void startMarkToMarket() {
+        markedToMarket = true;
+    }
+    
+    public synchronized boolean hasStock(Stock stock, int quantity) {
         String symbol = stock.getSymbol();
         if (!holdings.containsKey(symbol)) {
             return false;
@@ -50,43 +95,68 @@ public class Portfolio {
         return holdings.get(symbol).getQuantity() >= quantity;
     }
     
-    public Holding getHolding(Stock stock) {
+    // Hold shares for an open sell order so they cannot be sold twice
+    public synchronized void reserveShares(Stock stock, int quantity) {
+        if (getAvailableShares(stock) < quantity) {
+            throw new IllegalArgumentException("Insufficient shares to sell");
+        }
+        reservedShares.merge(stock.getSymbol(), quantity, Integer::sum);
+    }
+    
+    public synchronized void releaseShares(Stock stock, int quantity) {
+        reservedShares.computeIfPresent(stock.getSymbol(), (symbol, held) -> held > quantity ? held - quantity : null);
+    }
+    
+    // Shares owned and not already committed to open sell orders
+    public synchronized int getAvailableShares(Stock stock) {
+        Holding holding = holdings.get(stock.getSymbol());
+        int owned = holding == null ? 0 : holding.getQuantity();
+        return owned - reservedShares.getOrDefault(stock.getSymbol(), 0);
+    }
+    
+    // Shares held for open sell orders, by symbol
+    public synchronized Map<String, Integer> getReservedShares() {
+        return new HashMap<>(reservedShares);
+    }
+    
+    public synchronized Holding getHolding(Stock stock) {
         return holdings.get(stock.getSymbol());
     }
     
-    public double getTotalValue() {
-        return holdings.values().stream()
-            .mapToDouble(Holding::getCurrentValue)
-            .sum();
+    // Holdings at their mark prices, or at current prices if no exchange marks them
+    public synchronized double getTotalValue() {
+        if (markedToMarket) {
+            return marketValue;
+        }
+        double value = 0;
+        for (Holding holding : holdings.values()) {
+            value += holding.getCurrentValue();
+        }
+        return value;
     }
     
-    public double getTotalInvested() {
-        return holdings.values().stream()
-            .mapToDouble(Holding::getTotalInvested)
-            .sum();
+    public synchronized double getTotalInvested() {
+        return totalInvested;
     }
     
-    public double getTotalProfitLoss() {
-        return holdings.values().stream()
-            .mapToDouble(Holding::calculateProfitLoss)
-            .sum();
+    public synchronized double getTotalProfitLoss() {
+        return getTotalValue() - totalInvested;
     }
     
-    public double getTotalProfitLossPercent() {
-        double invested = getTotalInvested();
-        if (invested == 0) return 0;
-        return (getTotalProfitLoss() / invested) * 100;
+    public synchronized double getTotalProfitLossPercent() {
+        if (totalInvested == 0) return 0;
+        return (getTotalProfitLoss() / totalInvested) * 100;
     }
     
-    public Collection<Holding> getAllHoldings() {
-        return holdings.values();
+    public synchronized Collection<Holding> getAllHoldings() {
+        return new ArrayList<>(holdings.values());
     }
     
-    public boolean isEmpty() {
+    public synchronized boolean isEmpty() {
         return holdings.isEmpty();
     }
     
-    public void displayPortfolio() {
+    public synchronized void displayPortfolio() {
         if (holdings.isEmpty()) {
             System.out.println("   Portfolio is empty");
             return;
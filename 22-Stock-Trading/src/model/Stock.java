@@ -1,40 +1,63 @@
 package model;
 
+import marketdata.TickHistory;
 import observer.Subject;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.function.LongSupplier;
 
 public class Stock extends Subject {
     private final String symbol;
     private final String name;
-    private double currentPrice;
-    private double previousPrice;
-    private long volume;
-    private final List<Double> priceHistory;
+    private volatile double currentPrice;  // Written by the symbol's matching thread
+    private volatile double previousPrice;
+    private volatile long volume;          // Written by the symbol's matching thread
+    private final TickHistory tickHistory; // Reference prices and trades, as primitives
+    private final LongSupplier clock;      // Timestamps ticks; simulated in backtests
     
     public Stock(String symbol, String name, double initialPrice) {
+        this(symbol, name, initialPrice, new TickHistory(), System::currentTimeMillis);
+    }
+    
+    public Stock(String symbol, String name, double initialPrice, TickHistory tickHistory, LongSupplier clock) {
         this.symbol = symbol;
         this.name = name;
         this.currentPrice = initialPrice;
         this.previousPrice = initialPrice;
         this.volume = 0;
-        this.priceHistory = new ArrayList<>();
-        this.priceHistory.add(initialPrice);
+        this.tickHistory = tickHistory;
+        this.clock = clock;
+        this.tickHistory.append(clock.getAsLong(), initialPrice, 0);
     }
     
     public void updatePrice(double newPrice) {
-        this.previousPrice = this.currentPrice;
-        this.currentPrice = newPrice;
-        this.priceHistory.add(newPrice);
+        double oldPrice = currentPrice;
+        applyPrice(newPrice);
         
         // Notify observers of price change
-        notifyPriceUpdate(this, previousPrice, newPrice);
+        notifyPriceUpdate(this, oldPrice, newPrice);
+    }
+    
+    // Record a new price without notifying observers; the exchange matches
+    // against it at once and notifies them through its market-data feed
+    public void applyPrice(double newPrice) {
+        this.previousPrice = this.currentPrice;
+        this.currentPrice = newPrice;
+        this.tickHistory.append(clock.getAsLong(), newPrice, 0);
+    }
+    
+    public void publishPriceUpdate(double oldPrice, double newPrice) {
+        notifyPriceUpdate(this, oldPrice, newPrice);
     }
     
     public void incrementVolume(long quantity) {
         this.volume += quantity;
     }
     
+    // Record a trade: adds to volume and to the tick history
+    public void recordTrade(double price, long quantity) {
+        this.volume += quantity;
+        this.tickHistory.append(clock.getAsLong(), price, quantity);
+    }
+    
     public double getPriceChange() {
         return currentPrice - previousPrice;
     }
@@ -65,8 +88,13 @@ public class Stock extends Subject {
         return volume;
     }
     
-    public List<Double> getPriceHistory() {
-        return new ArrayList<>(priceHistory);
+    // The most recent prices (reference updates and trades), oldest first
+    public double[] getRecentPrices(int maxTicks) {
+        return tickHistory.recentPrices(maxTicks);
+    }
+    
+    public TickHistory getTickHistory() {
+        return tickHistory;
     }
     
     @Override
@@ -11,6 +11,11 @@ public class StopLossOrder extends Order {
         this.stopPrice = stopPrice;
     }
     
+    public StopLossOrder(String orderId, Trader trader, Stock stock, int quantity, double stopPrice) {
+        super(orderId, trader, stock, quantity, OrderType.STOP_LOSS, TransactionType.SELL);
+        this.stopPrice = stopPrice;
+    }
+    
     @Override
     public boolean canExecute() {
         // Stop-loss triggers when price drops to or below stop price
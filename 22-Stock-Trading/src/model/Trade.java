@@ -0,0 +1,66 @@
+package model;
+
+import enums.TransactionType;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class Trade {
+    private static final AtomicLong tradeCounter = new AtomicLong(1);
+    
+    private final long tradeId;
+    private final Stock stock;
+    private final Order buyOrder;   // Null when the exchange sold at the reference price
+    private final Order sellOrder;  // Null when the exchange bought at the reference price
+    private final TransactionType aggressorSide;  // Side of the incoming order that crossed the book
+    private final int quantity;
+    private final double price;
+    
+    public Trade(Stock stock, Order buyOrder, Order sellOrder, TransactionType aggressorSide,
+                 int quantity, double price) {
+        this.tradeId = tradeCounter.getAndIncrement();
+        this.stock = stock;
+        this.buyOrder = buyOrder;
+        this.sellOrder = sellOrder;
+        this.aggressorSide = aggressorSide;
+        this.quantity = quantity;
+        this.price = price;
+    }
+    
+    // Getters
+    public long getTradeId() {
+        return tradeId;
+    }
+    
+    public Stock getStock() {
+        return stock;
+    }
+    
+    public Order getBuyOrder() {
+        return buyOrder;
+    }
+    
+    public Order getSellOrder() {
+        return sellOrder;
+    }
+    
+    public TransactionType getAggressorSide() {
+        return aggressorSide;
+    }
+    
+    public int getQuantity() {
+        return quantity;
+    }
+    
+    public double getPrice() {
+        return price;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("Trade[#%d, %d shares of %s @ $%.2f, %s -> %s]",
+            tradeId, quantity, stock.getSymbol(), price, partyName(sellOrder), partyName(buyOrder));
+    }
+    
+    private static String partyName(Order order) {
+        return order == null ? "Exchange" : order.getTrader().getName();
+    }
+}
@@ -5,10 +5,13 @@ import strategy.TradingStrategy;
 import java.util.ArrayList;
 import java.util.List;
 
+// Balance and history are updated by the exchange's settlement stage while
+// order entry reserves cash from caller threads, so both lock the trader
 public class Trader {
     private final String traderId;
     private final String name;
     private double balance;
+    private double reservedBalance; // Cash held for open buy orders
     private final Portfolio portfolio;
     private final List<Transaction> transactionHistory;
     private TradingStrategy tradingStrategy;
@@ -21,18 +24,33 @@ public class Trader {
         this.transactionHistory = new ArrayList<>();
     }
     
-    public void addBalance(double amount) {
+    public synchronized void addBalance(double amount) {
         this.balance += amount;
     }
     
-    public void deductBalance(double amount) {
+    public synchronized void deductBalance(double amount) {
         if (amount > balance) {
             throw new IllegalArgumentException("Insufficient balance");
         }
         this.balance -= amount;
     }
     
-    public void addTransaction(Transaction transaction) {
+    // Hold cash for an open buy order so later fills always settle
+    public synchronized void reserveBalance(double amount) {
+        if (amount > getAvailableBalance()) {
+            throw new IllegalArgumentException("Insufficient balance");
+        }
+        this.reservedBalance += amount;
+    }
+    
+    public synchronized void releaseBalance(double amount) {
+        this.reservedBalance -= amount;
+        if (reservedBalance < 1e-9) {
+            reservedBalance = 0; // Absorb floating-point residue from partial releases
+        }
+    }
+    
+    public synchronized void addTransaction(Transaction transaction) {
         transactionHistory.add(transaction);
     }
     
@@ -53,15 +71,23 @@ public class Trader {
         return name;
     }
     
-    public double getBalance() {
+    public synchronized double getBalance() {
         return balance;
     }
     
+    public synchronized double getReservedBalance() {
+        return reservedBalance;
+    }
+    
+    public synchronized double getAvailableBalance() {
+        return balance - reservedBalance;
+    }
+    
     public Portfolio getPortfolio() {
         return portfolio;
     }
     
-    public List<Transaction> getTransactionHistory() {
+    public synchronized List<Transaction> getTransactionHistory() {
         return new ArrayList<>(transactionHistory);
     }
     
@@ -3,9 +3,10 @@ package model;
 import enums.TransactionType;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class Transaction {
-    private static int transactionCounter = 1;
+    private static final AtomicInteger transactionCounter = new AtomicInteger(1);
     
     private final String transactionId;
     private final TransactionType type;
@@ -16,7 +17,7 @@ public class Transaction {
     private final LocalDateTime timestamp;
     
     public Transaction(TransactionType type, Stock stock, int quantity, double price) {
-        this.transactionId = "TXN-" + String.format("%06d", transactionCounter++);
+        this.transactionId = "TXN-" + String.format("%06d", transactionCounter.getAndIncrement());
         this.type = type;
         this.stock = stock;
         this.quantity = quantity;
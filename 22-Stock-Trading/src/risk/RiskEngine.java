@@ -0,0 +1,149 @@
+package risk;
+
+import enums.TransactionType;
+import model.Holding;
+import model.Portfolio;
+import model.Stock;
+import model.Trader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Incremental valuation and exposure for an exchange.
+//
+// A reverse index from symbol to the traders holding it means a price tick
+// re-marks only those portfolios, each in O(1), and moves the firm-wide
+// totals by shares x price change. Fills adjust the same totals by their
+// deltas, so nothing is ever recomputed by walking holdings. The exchange
+// calls the update methods from its settlement stage (or inline when it is
+// not live); dashboards read the getters from any thread.
+//
+// The pre-trade check reads only these running totals and the trader's
+// O(1) portfolio value, so it costs the same however large the book is.
+// It runs under the trader's lock, which makes the trader limits exact; the
+// firm-wide symbol limit is checked against the latest totals, so orders
+// from different traders racing for the last headroom can overshoot it by
+// what they have in flight.
+public class RiskEngine {
+    private final Map<String, SymbolExposure> exposures; // symbol -> firm position
+    private volatile double firmMarketValue;
+    private volatile double firmCostBasis;
+    private volatile RiskLimits limits;
+    
+    public RiskEngine() {
+        this.exposures = new ConcurrentHashMap<>();
+        this.limits = RiskLimits.NONE;
+    }
+    
+    public void registerSymbol(String symbol, double price) {
+        exposures.putIfAbsent(symbol, new SymbolExposure(symbol, price));
+    }
+    
+    // Index and value positions a trader already holds when it joins the
+    // exchange; from then on the portfolio is valued at its marks. Like the
+    // other updates it must run on the settlement stage.
+    public void registerTrader(Trader trader) {
+        Portfolio portfolio = trader.getPortfolio();
+        for (Holding holding : portfolio.getAllHoldings()) {
+            onPositionChanged(trader, holding.getStock(), holding.getQuantity(), holding.getTotalInvested());
+        }
+        portfolio.startMarkToMarket();
+    }
+    
+    // A tick: re-mark the symbol's holders and the firm totals
+    public void onPrice(String symbol, double price) {
+        SymbolExposure exposure = exposure(symbol);
+        firmMarketValue += exposure.mark(price);
+        exposure.markHolders(price);
+    }
+    
+    // A fill changed a trader's position by shareDelta shares and costDelta of
+    // cost basis; marks the holding at the symbol's price and indexes the
+    // trader as a holder when the position opens or closes
+    public void onPositionChanged(Trader trader, Stock stock, long shareDelta, double costDelta) {
+        SymbolExposure exposure = exposure(stock.getSymbol());
+        firmMarketValue += exposure.changePosition(shareDelta, costDelta);
+        firmCostBasis += costDelta;
+        Portfolio portfolio = trader.getPortfolio();
+        Holding holding = portfolio.getHolding(stock);
+        if (holding == null) {
+            exposure.removeHolder(trader);
+            return;
+        }
+        if (holding.getQuantity() == shareDelta) {
+            exposure.addHolder(trader, holding); // The fill opened the position
+        }
+        portfolio.markToMarket(holding, exposure.getMarkPrice());
+    }
+    
+    // Cash set aside for an open buy, and released as it fills, expires or is cancelled
+    public void holdBuy(String symbol, double amount) {
+        exposure(symbol).holdBuy(amount);
+    }
+    
+    public void releaseBuy(String symbol, double amount) {
+        exposure(symbol).releaseBuy(amount);
+    }
+    
+    // Check an order's notional against the limits. Returns why it breaches
+    // one, or null if it passes. Call with the trader's lock held.
+    public String check(Trader trader, Stock stock, TransactionType side, double notional) {
+        RiskLimits current = limits;
+        if (notional > current.getMaxOrderNotional()) {
+            return String.format("Order notional $%.2f exceeds the $%.2f order limit",
+                notional, current.getMaxOrderNotional());
+        }
+        if (side == TransactionType.SELL) {
+            return null; // Reduces exposure
+        }
+        double traderExposure = trader.getPortfolio().getTotalValue() + trader.getReservedBalance() + notional;
+        if (traderExposure > current.getMaxTraderExposure()) {
+            return String.format("Trader exposure would reach $%.2f, over the $%.2f trader limit",
+                traderExposure, current.getMaxTraderExposure());
+        }
+        double symbolExposure = exposure(stock.getSymbol()).getExposure() + notional;
+        if (symbolExposure > current.getMaxSymbolExposure()) {
+            return String.format("Firm exposure in %s would reach $%.2f, over the $%.2f symbol limit",
+                stock.getSymbol(), symbolExposure, current.getMaxSymbolExposure());
+        }
+        return null;
+    }
+    
+    private SymbolExposure exposure(String symbol) {
+        SymbolExposure exposure = exposures.get(symbol);
+        if (exposure == null) {
+            throw new IllegalArgumentException("Stock not found: " + symbol);
+        }
+        return exposure;
+    }
+    
+    public void setLimits(RiskLimits limits) {
+        this.limits = limits;
+    }
+    
+    public RiskLimits getLimits() {
+        return limits;
+    }
+    
+    // All firm positions at their mark prices
+    public double getFirmMarketValue() {
+        return firmMarketValue;
+    }
+    
+    public double getFirmCostBasis() {
+        return firmCostBasis;
+    }
+    
+    public double getFirmUnrealizedProfitLoss() {
+        return firmMarketValue - firmCostBasis;
+    }
+    
+    public SymbolExposure getExposure(String symbol) {
+        return exposures.get(symbol);
+    }
+    
+    public Collection<SymbolExposure> getExposures() {
+        return new ArrayList<>(exposures.values());
+    }
+}
@@ -0,0 +1,40 @@
+package risk;
+
+// Pre-trade limits, in dollars of notional. Exposure counts positions at
+// their mark prices plus cash held for open buy orders; the system is long
+// only, so sells never add to it.
+public class RiskLimits {
+    public static final RiskLimits NONE = new RiskLimits(Double.POSITIVE_INFINITY,
+        Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY);
+    
+    private final double maxOrderNotional;  // One order, price x quantity
+    private final double maxTraderExposure; // One trader across all symbols
+    private final double maxSymbolExposure; // The whole firm in one symbol
+    
+    public RiskLimits(double maxOrderNotional, double maxTraderExposure, double maxSymbolExposure) {
+        if (maxOrderNotional <= 0 || maxTraderExposure <= 0 || maxSymbolExposure <= 0) {
+            throw new IllegalArgumentException("Risk limits must be positive");
+        }
+        this.maxOrderNotional = maxOrderNotional;
+        this.maxTraderExposure = maxTraderExposure;
+        this.maxSymbolExposure = maxSymbolExposure;
+    }
+    
+    public double getMaxOrderNotional() {
+        return maxOrderNotional;
+    }
+    
+    public double getMaxTraderExposure() {
+        return maxTraderExposure;
+    }
+    
+    public double getMaxSymbolExposure() {
+        return maxSymbolExposure;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("RiskLimits[order $%.2f, trader $%.2f, symbol $%.2f]",
+            maxOrderNotional, maxTraderExposure, maxSymbolExposure);
+    }
+}
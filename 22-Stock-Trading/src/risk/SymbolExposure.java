@@ -0,0 +1,142 @@
+package risk;
+
+import model.Holding;
+import model.Trader;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.DoubleAdder;
+
+// The firm's position in one symbol and the traders holding it. Positions,
+// cost basis and mark price change only on the exchange's settlement thread;
+// pending buys also grow on order entry. Readers see each field's latest value.
+//
+// The holders are the reverse index a tick walks: parallel arrays of each
+// holder and its holding, so re-marking touches no maps. A slot map finds a
+// holder's entry when its position closes; removal swaps the last entry into
+// the gap. Fills that only resize a position leave the index alone.
+public class SymbolExposure {
+    private final String symbol;
+    private Trader[] holders;
+    private Holding[] holdings;
+    private volatile int holderCount;
+    private final Map<Trader, Integer> slots; // holder -> index in the arrays
+    private final DoubleAdder pendingBuys;    // Cash held for open buys in this symbol
+    private volatile long shares;
+    private volatile double costBasis;
+    private volatile double markPrice;
+    
+    SymbolExposure(String symbol, double markPrice) {
+        this.symbol = symbol;
+        this.holders = new Trader[4];
+        this.holdings = new Holding[4];
+        this.slots = new HashMap<>();
+        this.pendingBuys = new DoubleAdder();
+        this.markPrice = markPrice;
+    }
+    
+    // A trader opened a position
+    void addHolder(Trader trader, Holding holding) {
+        if (holderCount == holders.length) {
+            holders = Arrays.copyOf(holders, holderCount * 2);
+            holdings = Arrays.copyOf(holdings, holderCount * 2);
+        }
+        holders[holderCount] = trader;
+        holdings[holderCount] = holding;
+        slots.put(trader, holderCount);
+        holderCount++;
+    }
+    
+    // A trader closed its position
+    void removeHolder(Trader trader) {
+        Integer slot = slots.remove(trader);
+        if (slot == null) {
+            return;
+        }
+        int last = holderCount - 1;
+        if (slot != last) {
+            holders[slot] = holders[last];
+            holdings[slot] = holdings[last];
+            slots.put(holders[slot], slot);
+        }
+        holders[last] = null;
+        holdings[last] = null;
+        holderCount = last;
+    }
+    
+    // Re-mark every holder's holding at the price
+    void markHolders(double price) {
+        for (int i = 0; i < holderCount; i++) {
+            holders[i].getPortfolio().markToMarket(holdings[i], price);
+        }
+    }
+    
+    void holdBuy(double amount) {
+        pendingBuys.add(amount);
+    }
+    
+    void releaseBuy(double amount) {
+        pendingBuys.add(-amount);
+    }
+    
+    // Returns the change in market value
+    double changePosition(long shareDelta, double costDelta) {
+        shares += shareDelta;
+        costBasis += costDelta;
+        if (shares == 0) {
+            costBasis = 0; // Drop floating-point residue
+        }
+        return shareDelta * markPrice;
+    }
+    
+    // Returns the change in market value
+    double mark(double price) {
+        double change = shares * (price - markPrice);
+        markPrice = price;
+        return change;
+    }
+    
+    public String getSymbol() {
+        return symbol;
+    }
+    
+    public long getShares() {
+        return shares;
+    }
+    
+    public double getMarkPrice() {
+        return markPrice;
+    }
+    
+    public double getMarketValue() {
+        return shares * markPrice;
+    }
+    
+    public double getCostBasis() {
+        return costBasis;
+    }
+    
+    public double getUnrealizedProfitLoss() {
+        return getMarketValue() - costBasis;
+    }
+    
+    public double getPendingBuyNotional() {
+        return Math.max(0, pendingBuys.sum());
+    }
+    
+    // Market value plus open buys: what counts against the symbol limit
+    public double getExposure() {
+        return getMarketValue() + getPendingBuyNotional();
+    }
+    
+    public int getHolderCount() {
+        return holderCount;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%s: %,d shares @ $%.2f = $%.2f (cost $%.2f, P/L $%.2f), open buys $%.2f, %d holders",
+            symbol, shares, markPrice, getMarketValue(), costBasis, getUnrealizedProfitLoss(),
+            getPendingBuyNotional(), holderCount);
+    }
+}
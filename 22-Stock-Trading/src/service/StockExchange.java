@@ -1,185 +1,1014 @@
 package service;
 
+import book.OrderBook;
+import book.PriceLevel;
+import engine.Command;
+import engine.EventLoop;
+import engine.MatchingEngine;
+import journal.Journal;
+import journal.JournalReader;
+import journal.JournalRecord;
+import journal.Snapshot;
+import marketdata.MarketDataPublisher;
+import marketdata.MarketSnapshot;
 import model.*;
 import enums.*;
 import observer.*;
+import risk.RiskEngine;
+import risk.RiskLimits;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+// Order entry validates and reserves funds on the caller's thread, then hands
+// a command to the matching shard that owns the symbol. Shards only touch
+// their own books and orders; every change to traders (cash, portfolios,
+// history) and every notification is queued, in order, to one settlement
+// thread. The blocking methods wait for settlement so callers see the
+// outcome; the submit* methods return a future instead.
+//
+// With a journal enabled, the settlement thread also appends each command and
+// its trades in the order it applies them, and commands complete only once
+// their records are flushed. Snapshots plus that journal rebuild the
+// exchange: recover() after a crash, replay() to step through a day offline.
+//
+// After each command the owning shard captures a market snapshot (prices,
+// volume, top of book and depth) that settlement hands to the market-data
+// publisher. Price observers on a stock are fed from a conflating
+// subscription on delivery threads, so a slow observer never holds up
+// matching or settlement.
+//
+// Settlement also keeps a RiskEngine current: fills and ticks update running
+// valuations of the traders involved and the firm's exposure, and order
+// entry checks risk limits against those totals in O(1).
 public class StockExchange extends Subject {
+    private static final int RING_CAPACITY = 1 << 14;
+    private static final int RECENT_HISTORY = 10_000; // Executed orders and trades kept in memory; the journal has them all
+    private static final int MAX_UNFLUSHED_COMMANDS = 1024;
+    private static final String JOURNAL_FILE = "journal.bin";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".bin";
+    private static final int SNAPSHOTS_KEPT = 2; // Besides the start-of-journal snapshot
+    private static final int MARKET_DEPTH = 5;   // Price levels per side in market snapshots
     private static StockExchange instance;
     
     private final Map<String, Stock> stocks; // symbol -> Stock
     private final Map<String, Trader> traders; // traderId -> Trader
-    private final List<Order> pendingOrders;
-    private final List<Order> executedOrders;
+    private final Map<String, OrderBook> orderBooks; // symbol -> book, mutated only by its shard
+    private final Map<String, OrderBook> openOrders; // orderId -> book holding the order, for O(1) cancel
+    private final Map<String, Double> reservedCash; // orderId -> cash still held for an open buy
+    private final Deque<Order> recentExecutedOrders;
+    private final Deque<Trade> recentTrades;
+    private volatile long executedOrderCount;
+    private volatile long tradeCount;
+    private final MatchingEngine matchingEngine;
+    private final EventLoop<Runnable> settlement;
+    private final MarketDataPublisher marketData;
+    private final RiskEngine risk;
+    private final AtomicLong marketDataSequence;
+    private final ReadWriteLock entryGate; // Order entry shares it; snapshots take it exclusively
+    private volatile boolean live;         // False while replaying: commands run inline on the caller
+    private volatile boolean quiet;
+    
+    // Journal state; after setup only the settlement thread (or a replaying caller) uses it
+    private volatile Journal journal;
+    private Path journalDirectory;
+    private int snapshotInterval;
+    private int commandsSinceSnapshot;
+    private final List<Command> awaitingFlush;
+    private final AtomicBoolean snapshotPending;
+    private ExecutorService snapshotExecutor;
+    private Deque<Trade> replayedTrades;   // Trades regenerated by replay, checked against the journal
+    private long lastReplayedSequence;
+    private long journalValidLength;
     
     private StockExchange() {
-        this.stocks = new HashMap<>();
-        this.traders = new HashMap<>();
-        this.pendingOrders = new ArrayList<>();
-        this.executedOrders = new ArrayList<>();
+        // Leave a core for the settlement stage when there is one to spare
+        this(Math.max(1, Runtime.getRuntime().availableProcessors() - 1), RING_CAPACITY);
+    }
+    
+    private StockExchange(int shards, int ringCapacity) {
+        this.stocks = new ConcurrentHashMap<>();
+        this.traders = new ConcurrentHashMap<>();
+        this.orderBooks = new ConcurrentHashMap<>();
+        this.openOrders = new ConcurrentHashMap<>();
+        this.reservedCash = new ConcurrentHashMap<>();
+        this.recentExecutedOrders = new ArrayDeque<>();
+        this.recentTrades = new ArrayDeque<>();
+        this.marketData = new MarketDataPublisher();
+        this.risk = new RiskEngine();
+        this.marketDataSequence = new AtomicLong();
+        this.entryGate = new ReentrantReadWriteLock();
+        this.awaitingFlush = new ArrayList<>();
+        this.snapshotPending = new AtomicBoolean();
+        this.matchingEngine = new MatchingEngine(shards, ringCapacity, this::handle);
+        this.settlement = new EventLoop<>("settlement", ringCapacity, Runnable::run, this::flushJournal);
     }
     
     public static synchronized StockExchange getInstance() {
         if (instance == null) {
             instance = new StockExchange();
+            instance.goLive();
         }
         return instance;
     }
     
+    // Rebuild the exchange after a restart from the latest snapshot and the
+    // journal after it, then keep journaling to the same directory
+    public static synchronized StockExchange recover(Path directory, int snapshotEvery) {
+        if (instance != null) {
+            throw new IllegalStateException("Exchange is already running; recover before first use");
+        }
+        StockExchange exchange = new StockExchange();
+        exchange.quiet = true;
+        exchange.restore(directory, latestSnapshot(directory), Long.MAX_VALUE);
+        exchange.quiet = false;
+        exchange.goLive();
+        exchange.openJournal(directory, snapshotEvery, exchange.journalValidLength, exchange.lastReplayedSequence);
+        instance = exchange;
+        return exchange;
+    }
+    
+    // Rebuild a standalone copy of a journaled exchange from the start of its
+    // journal up to a sequence number, at full speed on the calling thread.
+    // The copy is quiet and unjournaled; commands sent to it run inline.
+    public static StockExchange replay(Path directory, long untilSequence) {
+        StockExchange exchange = new StockExchange();
+        exchange.quiet = true;
+        exchange.restore(directory, earliestSnapshot(directory), untilSequence);
+        return exchange;
+    }
+    
+    // A private, quiet, unjournaled exchange for simulations such as
+    // backtests. It never starts its threads: every command matches and
+    // settles inline on the caller, so one thread must own it.
+    public static StockExchange simulation() {
+        StockExchange exchange = new StockExchange(1, 2);
+        exchange.quiet = true;
+        return exchange;
+    }
+    
+    // Turn per-order console output on or off (off for load tests)
+    public void setQuiet(boolean quiet) {
+        this.quiet = quiet;
+    }
+    
+    private void goLive() {
+        for (Stock stock : stocks.values()) {
+            subscribePriceObservers(stock);
+        }
+        settlement.start();
+        matchingEngine.start();
+        live = true;
+    }
+    
     // Register stock
     public void registerStock(Stock stock) {
-        stocks.put(stock.getSymbol(), stock);
-        System.out.println("✅ Stock registered: " + stock);
+        entryGate.readLock().lock();
+        try {
+            stocks.put(stock.getSymbol(), stock);
+            orderBooks.put(stock.getSymbol(), new OrderBook(stock));
+            risk.registerSymbol(stock.getSymbol(), stock.getCurrentPrice());
+            matchingEngine.register(stock.getSymbol());
+            if (live) {
+                subscribePriceObservers(stock);
+            }
+            log("✅ Stock registered: %s", stock);
+            record(j -> j.appendRegisterStock(stock.getSymbol(), stock.getName(), stock.getCurrentPrice()));
+        } finally {
+            entryGate.readLock().unlock();
+        }
     }
     
-    // Register trader
+    // Register trader. The risk engine's totals belong to the settlement
+    // stage, so when live the trader's positions are indexed there
     public void registerTrader(Trader trader) {
-        traders.put(trader.getTraderId(), trader);
-        System.out.println("✅ Trader registered: " + trader);
+        CompletableFuture<Void> indexed = new CompletableFuture<>();
+        entryGate.readLock().lock();
+        try {
+            traders.put(trader.getTraderId(), trader);
+            if (live) {
+                settlement.submit(() -> {
+                    try {
+                        risk.registerTrader(trader);
+                        indexed.complete(null);
+                    } catch (RuntimeException e) {
+                        indexed.completeExceptionally(e);
+                    }
+                });
+            } else {
+                risk.registerTrader(trader);
+                indexed.complete(null);
+            }
+            log("✅ Trader registered: %s", trader);
+            record(j -> j.appendRegisterTrader(trader.getTraderId(), trader.getName(), trader.getBalance()));
+        } finally {
+            entryGate.readLock().unlock();
+        }
+        await(indexed);
     }
     
-    // Update stock price
+    // Update stock price and wait until the fills it causes have settled and
+    // price observers have been told
     public void updateStockPrice(String symbol, double newPrice) {
-        Stock stock = stocks.get(symbol);
-        if (stock == null) {
+        await(submitPriceUpdate(symbol, newPrice));
+        marketData.flush();
+    }
+    
+    public CompletableFuture<Void> submitPriceUpdate(String symbol, double newPrice) {
+        if (!stocks.containsKey(symbol)) {
             throw new IllegalArgumentException("Stock not found: " + symbol);
         }
-        
-        stock.updatePrice(newPrice);
-        
-        // Check and execute pending orders
-        matchOrders();
+        entryGate.readLock().lock();
+        try {
+            return submit(Command.priceTick(symbol, newPrice));
+        } finally {
+            entryGate.readLock().unlock();
+        }
     }
     
-    // Place order
-    public synchronized Order placeOrder(Order order) {
-        System.out.println("\n📋 Placing order: " + order);
-        
-        // Validate order
-        if (!validateOrder(order)) {
-            order.reject();
-            System.out.println("❌ Order REJECTED: " + order);
-            return order;
-        }
+    // Place order and wait until it has matched and settled
+    public Order placeOrder(Order order) {
+        return await(submitOrder(order));
+    }
+    
+    public CompletableFuture<Order> submitOrder(Order order) {
+        log("\n📋 Placing order: %s", order);
         
-        // If market order, execute immediately
-        if (order instanceof MarketOrder) {
-            executeOrder(order);
-        } else {
-            // Add to pending orders
-            pendingOrders.add(order);
-            System.out.println("⏳ Order added to pending queue");
-            
-            // Try to match immediately
-            if (order.canExecute()) {
-                executeOrder(order);
+        entryGate.readLock().lock();
+        try {
+            // Validate and reserve together so concurrent orders cannot share the same cash or shares
+            Trader trader = order.getTrader();
+            synchronized (trader) {
+                if (!validateOrder(order)) {
+                    order.reject();
+                    log("❌ Order REJECTED: %s", order);
+                    return CompletableFuture.completedFuture(order);
+                }
+                reserve(order, reservationPrice(order) * order.getQuantity());
             }
+            return submit(Command.place(order)).thenApply(done -> order);
+        } finally {
+            entryGate.readLock().unlock();
         }
-        
-        return order;
     }
     
-    // Validate order
+    // Validate order against cash and shares not already held for open
+    // orders, then against the risk limits; every check is O(1)
     private boolean validateOrder(Order order) {
         Trader trader = order.getTrader();
         Stock stock = order.getStock();
         int quantity = order.getQuantity();
+        double cost = reservationPrice(order) * quantity;
         
         if (order.getTransactionType() == TransactionType.BUY) {
-            double cost = stock.getCurrentPrice() * quantity;
-            if (trader.getBalance() < cost) {
-                System.out.println("❌ Insufficient balance: Required $" + 
+            if (trader.getAvailableBalance() < cost) {
+                log("❌ Insufficient balance: Required $" + 
                     String.format("%.2f", cost) + ", Available $" + 
-                    String.format("%.2f", trader.getBalance()));
+                    String.format("%.2f", trader.getAvailableBalance()));
                 return false;
             }
         } else { // SELL
-            if (!trader.getPortfolio().hasStock(stock, quantity)) {
-                System.out.println("❌ Insufficient shares to sell");
+            if (trader.getPortfolio().getAvailableShares(stock) < quantity) {
+                log("❌ Insufficient shares to sell");
                 return false;
             }
         }
         
+        String breach = risk.check(trader, stock, order.getTransactionType(), cost);
+        if (breach != null) {
+            log("❌ Risk check failed: %s", breach);
+            return false;
+        }
         return true;
     }
     
-    // Execute order
-    private void executeOrder(Order order) {
+    // Hold the cash or shares an order may need, so every later fill settles
+    private void reserve(Order order, double amount) {
+        if (order.getTransactionType() == TransactionType.BUY) {
+            order.getTrader().reserveBalance(amount);
+            reservedCash.put(order.getOrderId(), amount);
+            risk.holdBuy(order.getStock().getSymbol(), amount);
+        } else {
+            order.getTrader().getPortfolio().reserveShares(order.getStock(), order.getQuantity());
+        }
+    }
+    
+    // Worst price a buy can pay: its limit, or the reference price for market
+    // orders; also the notional a sell is risk-checked at
+    private static double reservationPrice(Order order) {
+        if (order instanceof LimitOrder) {
+            return ((LimitOrder) order).getLimitPrice();
+        }
+        return order.getStock().getCurrentPrice();
+    }
+    
+    private CompletableFuture<Void> submit(Command command) {
+        if (live) {
+            matchingEngine.submit(command);
+        } else {
+            handle(command);
+        }
+        return command.getCompletion();
+    }
+    
+    private <T> T await(CompletableFuture<T> future) {
+        if (settlement.isOwnerThread()) {
+            throw new IllegalStateException("Blocking exchange calls are not allowed from the settlement thread");
+        }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+    
+    // Runs on the shard that owns the command's symbol. Effects on traders are
+    // collected in order and handed to the settlement stage as one batch,
+    // which journals the command, applies them and then completes it.
+    private void handle(Command command) {
+        List<Runnable> effects = new ArrayList<>();
+        try {
+            switch (command.getType()) {
+                case PLACE:
+                    execute(command.getOrder(), effects);
+                    break;
+                case CANCEL:
+                    cancel(command.getSymbol(), command.getOrderId(), effects);
+                    break;
+                case PRICE_TICK:
+                    applyPrice(command.getSymbol(), command.getPrice(), effects);
+                    break;
+                case INSPECT:
+                    command.getInspector().accept(orderBooks.get(command.getSymbol()));
+                    break;
+            }
+        } catch (RuntimeException e) {
+            command.setFailure(e);
+        }
+        if (live && command.getType() != Command.Type.INSPECT) {
+            MarketSnapshot snapshot = captureMarket(orderBooks.get(command.getSymbol()));
+            effects.add(() -> marketData.publish(snapshot));
+        }
+        toSettlement(() -> {
+            journalCommand(command);
+            for (Runnable effect : effects) {
+                effect.run();
+            }
+            finish(command);
+        });
+    }
+    
+    private void toSettlement(Runnable batch) {
+        if (live) {
+            settlement.submit(batch);
+        } else {
+            batch.run();
+        }
+    }
+    
+    private void execute(Order order, List<Runnable> effects) {
+        OrderBook book = orderBooks.get(order.getStock().getSymbol());
+        long referenceTicks = OrderBook.toTicks(order.getStock().getCurrentPrice());
+        
+        if (order instanceof StopLossOrder) {
+            if (order.canExecute()) {
+                executeAgainstBook(book, order, referenceTicks, effects);
+            } else {
+                book.addStop((StopLossOrder) order);
+                openOrders.put(order.getOrderId(), book);
+                effects.add(() -> log("⏳ Stop-loss armed in order book"));
+            }
+            return;
+        }
+        
+        if (order instanceof LimitOrder) {
+            long limitTicks = OrderBook.toTicks(((LimitOrder) order).getLimitPrice());
+            settleTrades(book.match(order, limitTicks), effects);
+            if (!order.isActive()) {
+                return;
+            }
+            if (order.canExecute()) {
+                // Marketable against the reference price: the exchange fills the rest
+                fillFromExchange(order, order.getStock().getCurrentPrice(), effects);
+            } else {
+                book.rest(order, limitTicks);
+                openOrders.put(order.getOrderId(), book);
+                effects.add(() -> log("⏳ Order added to order book"));
+            }
+            return;
+        }
+        
+        // Market order
+        executeAgainstBook(book, order, referenceTicks, effects);
+    }
+    
+    // Move the price, fill resting orders it has reached, then fire stops
+    private void applyPrice(String symbol, double newPrice, List<Runnable> effects) {
+        Stock stock = stocks.get(symbol);
+        stock.applyPrice(newPrice);
+        effects.add(() -> risk.onPrice(symbol, newPrice));
+        
+        OrderBook book = orderBooks.get(symbol);
+        long priceTicks = OrderBook.toTicks(newPrice);
+        for (TransactionType side : TransactionType.values()) {
+            for (Order order : book.removeMarketable(side, priceTicks)) {
+                fillFromExchange(order, newPrice, effects);
+            }
+        }
+        for (StopLossOrder stop : book.triggerStops(priceTicks)) {
+            openOrders.remove(stop.getOrderId());
+            effects.add(() -> {
+                log("⚠️  Stop-loss %s triggered at $%.2f", stop.getOrderId(), newPrice);
+                notifyStopLossTriggered(stock, newPrice);
+            });
+            executeAgainstBook(book, stop, priceTicks, effects);
+        }
+    }
+    
+    // Cross an order against the book up to the reference price; the exchange
+    // fills whatever the book cannot at that price
+    private void executeAgainstBook(OrderBook book, Order order, long referenceTicks, List<Runnable> effects) {
+        settleTrades(book.match(order, referenceTicks), effects);
+        if (order.isActive()) {
+            fillFromExchange(order, OrderBook.toPrice(referenceTicks), effects);
+        }
+    }
+    
+    // Fill an order's remaining quantity against the exchange at the given price
+    private void fillFromExchange(Order order, double price, List<Runnable> effects) {
+        int quantity = order.getRemainingQuantity();
+        order.fill(quantity, price);
+        Trade trade = order.getTransactionType() == TransactionType.BUY
+            ? new Trade(order.getStock(), order, null, TransactionType.BUY, quantity, price)
+            : new Trade(order.getStock(), null, order, TransactionType.SELL, quantity, price);
+        settleTrades(Collections.singletonList(trade), effects);
+    }
+    
+    // Queue settlement of a batch of trades. Which orders the batch completes
+    // is decided here on the shard, since the orders keep changing after the
+    // batch is queued.
+    private void settleTrades(List<Trade> newTrades, List<Runnable> effects) {
+        if (newTrades.isEmpty()) {
+            return;
+        }
+        Set<Order> completed = new LinkedHashSet<>();
+        for (Trade trade : newTrades) {
+            trade.getStock().recordTrade(trade.getPrice(), trade.getQuantity());
+            for (Order order : Arrays.asList(trade.getBuyOrder(), trade.getSellOrder())) {
+                if (order != null && order.getRemainingQuantity() == 0 && completed.add(order)) {
+                    openOrders.remove(order.getOrderId());
+                }
+            }
+        }
+        effects.add(() -> applyTrades(newTrades, completed));
+    }
+    
+    // Settlement stage: move cash and shares for each trade, then close out completed orders
+    private void applyTrades(List<Trade> newTrades, Set<Order> completed) {
+        for (Trade trade : newTrades) {
+            if (trade.getBuyOrder() != null) {
+                settle(trade.getBuyOrder(), trade.getQuantity(), trade.getPrice());
+            }
+            if (trade.getSellOrder() != null) {
+                settle(trade.getSellOrder(), trade.getQuantity(), trade.getPrice());
+            }
+            remember(recentTrades, trade);
+            tradeCount++;
+            if (journal != null) {
+                journal.appendTrade(trade);
+            }
+            if (replayedTrades != null) {
+                replayedTrades.add(trade);
+            }
+        }
+        
+        for (Order order : completed) {
+            // Release whatever a buy reserved beyond what it actually paid
+            Double held = reservedCash.remove(order.getOrderId());
+            if (held != null) {
+                order.getTrader().releaseBalance(held);
+                risk.releaseBuy(order.getStock().getSymbol(), held);
+            }
+            remember(recentExecutedOrders, order);
+            executedOrderCount++;
+            notifyOrderExecuted(order);
+        }
+    }
+    
+    // Apply one side of a fill to its trader
+    private void settle(Order order, int quantity, double price) {
         Trader trader = order.getTrader();
         Stock stock = order.getStock();
-        int quantity = order.getQuantity();
-        double price = stock.getCurrentPrice();
+        Portfolio portfolio = trader.getPortfolio();
+        double amount = price * quantity;
         
-        try {
-            if (order.getTransactionType() == TransactionType.BUY) {
-                // Buy stocks
-                double cost = price * quantity;
-                trader.deductBalance(cost);
-                trader.getPortfolio().addStock(stock, quantity, price);
-                
-                System.out.printf("✅ BUY EXECUTED: %d shares of %s at $%.2f (Total: $%.2f)\n",
-                    quantity, stock.getSymbol(), price, cost);
-            } else {
-                // Sell stocks
-                trader.getPortfolio().removeStock(stock, quantity);
-                double proceeds = price * quantity;
-                trader.addBalance(proceeds);
-                
-                System.out.printf("✅ SELL EXECUTED: %d shares of %s at $%.2f (Total: $%.2f)\n",
-                    quantity, stock.getSymbol(), price, proceeds);
+        // Release and debit under one lock so order entry never sees the released amount as spare
+        if (order.getTransactionType() == TransactionType.BUY) {
+            synchronized (trader) {
+                Double held = reservedCash.get(order.getOrderId());
+                double release = Math.min(held, reservationPrice(order) * quantity);
+                trader.releaseBalance(release);
+                reservedCash.put(order.getOrderId(), held - release);
+                trader.deductBalance(amount);
+                risk.releaseBuy(stock.getSymbol(), release);
             }
+            portfolio.addStock(stock, quantity, price);
+            risk.onPositionChanged(trader, stock, quantity, amount);
             
-            // Update order status
-            order.execute(price);
-            
-            // Record transaction
-            Transaction transaction = new Transaction(
-                order.getTransactionType(), stock, quantity, price);
-            trader.addTransaction(transaction);
-            
-            // Update stock volume
-            stock.incrementVolume(quantity);
-            
-            // Move to executed orders
-            pendingOrders.remove(order);
-            executedOrders.add(order);
-            
-            // Notify observers
-            notifyOrderExecuted(order);
+            log("✅ BUY EXECUTED: %d shares of %s at $%.2f (Total: $%.2f)",
+                quantity, stock.getSymbol(), price, amount);
+        } else {
+            double costReleased;
+            synchronized (portfolio) {
+                double investedBefore = portfolio.getTotalInvested();
+                portfolio.releaseShares(stock, quantity);
+                portfolio.removeStock(stock, quantity);
+                costReleased = investedBefore - portfolio.getTotalInvested();
+            }
+            trader.addBalance(amount);
+            risk.onPositionChanged(trader, stock, -quantity, -costReleased);
             
-        } catch (Exception e) {
-            System.out.println("❌ Order execution failed: " + e.getMessage());
-            order.reject();
+            log("✅ SELL EXECUTED: %d shares of %s at $%.2f (Total: $%.2f)",
+                quantity, stock.getSymbol(), price, amount);
         }
+        
+        // Record transaction
+        trader.addTransaction(new Transaction(order.getTransactionType(), stock, quantity, price));
     }
     
-    // Match pending orders
-    private void matchOrders() {
-        List<Order> toExecute = new ArrayList<>();
+    // Cancel order and wait until its reservation is released
+    public void cancelOrder(String orderId) {
+        OrderBook book = openOrders.get(orderId);
+        if (book == null) {
+            log("❌ Order not found: " + orderId);
+            return;
+        }
+        CompletableFuture<Void> done;
+        entryGate.readLock().lock();
+        try {
+            done = submit(Command.cancel(book.getStock().getSymbol(), orderId));
+        } finally {
+            entryGate.readLock().unlock();
+        }
+        await(done);
+    }
+    
+    private void cancel(String symbol, String orderId, List<Runnable> effects) {
+        Order order = orderBooks.get(symbol).cancel(orderId);
+        if (order == null) {
+            // Filled or cancelled while the command was queued
+            effects.add(() -> log("❌ Order not found: " + orderId));
+            return;
+        }
+        openOrders.remove(orderId);
+        order.cancel();
+        int remaining = order.getRemainingQuantity();
         
-        for (Order order : pendingOrders) {
-            if (order.canExecute() && validateOrder(order)) {
-                toExecute.add(order);
+        effects.add(() -> {
+            if (order.getTransactionType() == TransactionType.BUY) {
+                Double held = reservedCash.remove(orderId);
+                if (held != null) {
+                    order.getTrader().releaseBalance(held);
+                    risk.releaseBuy(symbol, held);
+                }
+            } else {
+                order.getTrader().getPortfolio().releaseShares(order.getStock(), remaining);
             }
+            log("✅ Order cancelled: " + orderId);
+        });
+    }
+    
+    // ==================== Risk ====================
+    
+    // Limits apply to orders entered from now on
+    public void setRiskLimits(RiskLimits limits) {
+        risk.setLimits(limits);
+    }
+    
+    // Running valuations and exposure, for dashboards
+    public RiskEngine getRiskEngine() {
+        return risk;
+    }
+    
+    // ==================== Market data ====================
+    
+    // Top of book and depth as of now; runs on the symbol's shard
+    private MarketSnapshot captureMarket(OrderBook book) {
+        List<PriceLevel> bids = book.getBidLevels(MARKET_DEPTH);
+        List<PriceLevel> asks = book.getAskLevels(MARKET_DEPTH);
+        double[] bidPrices = new double[bids.size()];
+        long[] bidSizes = new long[bids.size()];
+        for (int i = 0; i < bids.size(); i++) {
+            bidPrices[i] = bids.get(i).getPrice();
+            bidSizes[i] = bids.get(i).getTotalQuantity();
         }
-        
-        for (Order order : toExecute) {
-            executeOrder(order);
+        double[] askPrices = new double[asks.size()];
+        long[] askSizes = new long[asks.size()];
+        for (int i = 0; i < asks.size(); i++) {
+            askPrices[i] = asks.get(i).getPrice();
+            askSizes[i] = asks.get(i).getTotalQuantity();
         }
+        Stock stock = book.getStock();
+        return new MarketSnapshot(stock.getSymbol(), marketDataSequence.incrementAndGet(), System.currentTimeMillis(),
+            stock.getCurrentPrice(), stock.getPreviousPrice(), stock.getVolume(),
+            bidPrices, bidSizes, askPrices, askSizes);
     }
     
-    // Cancel order
-    public void cancelOrder(String orderId) {
-        for (Order order : pendingOrders) {
-            if (order.getOrderId().equals(orderId)) {
-                order.cancel();
-                pendingOrders.remove(order);
-                System.out.println("✅ Order cancelled: " + orderId);
+    // Feed a stock's own observers from a conflating subscription: they hear
+    // about the latest price change, never block the exchange, and may skip
+    // intermediate prices if they fall behind
+    private void subscribePriceObservers(Stock stock) {
+        double[] lastNotified = {stock.getCurrentPrice()};
+        marketData.subscribePriceChanges(stock.getSymbol(), snapshot -> {
+            if (snapshot.getLastPrice() != lastNotified[0]) {
+                stock.publishPriceUpdate(lastNotified[0], snapshot.getLastPrice());
+                lastNotified[0] = snapshot.getLastPrice();
+            }
+        });
+    }
+    
+    public MarketDataPublisher getMarketData() {
+        return marketData;
+    }
+    
+    // Latest published top of book and depth for a symbol, or null before any activity
+    public MarketSnapshot getMarketSnapshot(String symbol) {
+        return marketData.getLatest(symbol);
+    }
+    
+    // ==================== Journal ====================
+    
+    // Start journaling to an empty directory: snapshot the current state as
+    // the start of the journal, then append every command from here on.
+    // snapshotEvery is how many commands to journal between snapshots.
+    public void enableJournal(Path directory, int snapshotEvery) {
+        if (!live) {
+            throw new IllegalStateException("Replayed exchanges cannot journal");
+        }
+        try {
+            Files.createDirectories(directory);
+            if (Files.exists(directory.resolve(JOURNAL_FILE))) {
+                throw new IllegalStateException("Journal already exists in " + directory + "; recover from it instead");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create journal directory " + directory, e);
+        }
+        openJournal(directory, snapshotEvery, 0, 0);
+        takeSnapshot();
+    }
+    
+    private void openJournal(Path directory, int snapshotEvery, long validLength, long lastSequence) {
+        if (snapshotEvery <= 0) {
+            throw new IllegalArgumentException("Snapshot interval must be positive");
+        }
+        entryGate.writeLock().lock();
+        try {
+            quiesce();
+            this.journalDirectory = directory;
+            this.snapshotInterval = snapshotEvery;
+            this.snapshotExecutor = Executors.newSingleThreadExecutor(task -> {
+                Thread thread = new Thread(task, "snapshot");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.journal = new Journal(directory.resolve(JOURNAL_FILE), validLength, lastSequence, true);
+        } finally {
+            entryGate.writeLock().unlock();
+        }
+    }
+    
+    // Write a snapshot of the whole exchange. Order entry is held off while
+    // the shards and settlement drain, so the snapshot is a consistent cut at
+    // one journal sequence number.
+    public void takeSnapshot() {
+        if (journal == null) {
+            throw new IllegalStateException("Journal is not enabled");
+        }
+        entryGate.writeLock().lock();
+        try {
+            long[] position = quiesce();
+            Snapshot snapshot = captureSnapshot(position[0], position[1]);
+            snapshot.write(journalDirectory.resolve(snapshotName(position[0])));
+            pruneSnapshots();
+        } finally {
+            snapshotPending.set(false);
+            entryGate.writeLock().unlock();
+        }
+    }
+    
+    // Wait for every shard and the settlement stage to finish queued work and
+    // flush the journal. Returns {last sequence, journal length}.
+    private long[] quiesce() {
+        for (String symbol : orderBooks.keySet()) {
+            await(submit(Command.inspect(symbol, book -> { })));
+        }
+        CompletableFuture<long[]> position = new CompletableFuture<>();
+        settlement.submit(() -> {
+            flushJournal();
+            commandsSinceSnapshot = 0;
+            position.complete(journal == null ? new long[2] : new long[] {journal.getLastSequence(), journal.position()});
+        });
+        return await(position);
+    }
+    
+    private Snapshot captureSnapshot(long sequence, long journalOffset) {
+        Snapshot snapshot = new Snapshot(sequence, journalOffset);
+        for (Stock stock : stocks.values()) {
+            snapshot.addStock(new Snapshot.StockState(stock.getSymbol(), stock.getName(),
+                stock.getCurrentPrice(), stock.getPreviousPrice(), stock.getVolume()));
+        }
+        for (Trader trader : traders.values()) {
+            Snapshot.TraderState state = new Snapshot.TraderState(trader.getTraderId(), trader.getName(),
+                trader.getBalance(), trader.getReservedBalance());
+            for (Holding holding : trader.getPortfolio().getAllHoldings()) {
+                state.addHolding(holding.getStock().getSymbol(), holding.getQuantity(), holding.getTotalInvested());
+            }
+            trader.getPortfolio().getReservedShares().forEach(state::addReservedShares);
+            snapshot.addTrader(state);
+        }
+        for (OrderBook book : orderBooks.values()) {
+            for (Order order : book.getOpenOrders()) {
+                snapshot.addOrder(new Snapshot.OrderState(order.getOrderId(), order.getOrderType(),
+                    order.getTransactionType(), order.getTrader().getTraderId(), order.getStock().getSymbol(),
+                    order.getQuantity(), order.getFilledQuantity(), order.getExecutionPrice(),
+                    orderPrice(order), reservedCash.getOrDefault(order.getOrderId(), Double.NaN)));
+            }
+        }
+        return snapshot;
+    }
+    
+    // Keep the start-of-journal snapshot for full replays plus the newest few
+    private void pruneSnapshots() {
+        List<Path> snapshots = listSnapshots(journalDirectory);
+        for (int i = 1; i < snapshots.size() - SNAPSHOTS_KEPT; i++) {
+            try {
+                Files.deleteIfExists(snapshots.get(i));
+            } catch (IOException e) {
+                log("⚠️  Could not delete old snapshot " + snapshots.get(i) + ": " + e.getMessage());
+            }
+        }
+    }
+    
+    // Queue a registration record behind everything already in settlement
+    private void record(Consumer<Journal> append) {
+        if (live && journal != null) {
+            settlement.submit(() -> append.accept(journal));
+        }
+    }
+    
+    private void journalCommand(Command command) {
+        if (journal == null) {
+            return;
+        }
+        switch (command.getType()) {
+            case PLACE:
+                Order order = command.getOrder();
+                journal.appendPlace(order, reservedCash.getOrDefault(order.getOrderId(), Double.NaN));
+                break;
+            case CANCEL:
+                journal.appendCancel(command.getSymbol(), command.getOrderId());
+                break;
+            case PRICE_TICK:
+                journal.appendPriceTick(command.getSymbol(), command.getPrice());
+                break;
+            default:
                 return;
+        }
+        commandsSinceSnapshot++;
+    }
+    
+    // With a journal, a command completes only after its records are flushed
+    private void finish(Command command) {
+        if (journal == null) {
+            command.finish();
+            return;
+        }
+        awaitingFlush.add(command);
+        if (awaitingFlush.size() >= MAX_UNFLUSHED_COMMANDS) {
+            flushJournal();
+        }
+    }
+    
+    // Group commit, run by the settlement thread whenever its queue drains
+    private void flushJournal() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.flush();
+            for (Command command : awaitingFlush) {
+                command.finish();
+            }
+        } catch (RuntimeException e) {
+            for (Command command : awaitingFlush) {
+                command.fail(e);
+            }
+        }
+        awaitingFlush.clear();
+        
+        if (commandsSinceSnapshot >= snapshotInterval && snapshotPending.compareAndSet(false, true)) {
+            snapshotExecutor.execute(this::takeSnapshot);
+        }
+    }
+    
+    // Load a snapshot, then re-run the journal after it up to untilSequence
+    private void restore(Path directory, Path snapshotFile, long untilSequence) {
+        Snapshot snapshot = Snapshot.read(snapshotFile);
+        restoreSnapshot(snapshot);
+        
+        replayedTrades = new ArrayDeque<>();
+        try (JournalReader reader = new JournalReader(directory.resolve(JOURNAL_FILE),
+                snapshot.getJournalOffset(), snapshot.getSequence())) {
+            JournalRecord record;
+            while (reader.getLastSequence() < untilSequence && (record = reader.next()) != null) {
+                applyRecord(record);
+            }
+            lastReplayedSequence = reader.getLastSequence();
+            journalValidLength = reader.getValidLength();
+        } finally {
+            replayedTrades = null;
+        }
+    }
+    
+    private void restoreSnapshot(Snapshot snapshot) {
+        for (Snapshot.StockState state : snapshot.getStocks()) {
+            Stock stock = new Stock(state.getSymbol(), state.getName(), state.getPreviousPrice());
+            if (state.getCurrentPrice() != state.getPreviousPrice()) {
+                stock.applyPrice(state.getCurrentPrice());
+            }
+            stock.incrementVolume(state.getVolume());
+            registerStock(stock);
+        }
+        for (Snapshot.TraderState state : snapshot.getTraders()) {
+            Trader trader = new Trader(state.getTraderId(), state.getName(), state.getBalance());
+            state.getHoldings().forEach((symbol, holding) -> trader.getPortfolio().addStock(
+                stocks.get(symbol), (int) holding[0], holding[1] / holding[0]));
+            state.getReservedShares().forEach((symbol, quantity) ->
+                trader.getPortfolio().reserveShares(stocks.get(symbol), quantity));
+            if (state.getReservedBalance() > 0) {
+                trader.reserveBalance(state.getReservedBalance());
+            }
+            registerTrader(trader);
+        }
+        for (Snapshot.OrderState state : snapshot.getOrders()) {
+            Order order = newOrder(state.getOrderId(), state.getOrderType(), state.getSide(),
+                traders.get(state.getTraderId()), stocks.get(state.getSymbol()), state.getQuantity(), state.getPrice());
+            if (state.getFilledQuantity() > 0) {
+                order.fill(state.getFilledQuantity(), state.getExecutionPrice());
+            }
+            OrderBook book = orderBooks.get(state.getSymbol());
+            if (order instanceof StopLossOrder) {
+                book.addStop((StopLossOrder) order);
+            } else {
+                book.rest(order, OrderBook.toTicks(state.getPrice()));
+            }
+            openOrders.put(order.getOrderId(), book);
+            if (!Double.isNaN(state.getReservedCash())) {
+                reservedCash.put(order.getOrderId(), state.getReservedCash());
+                risk.holdBuy(state.getSymbol(), state.getReservedCash());
+            }
+        }
+    }
+    
+    // Apply one journal record; commands run inline exactly as they did live
+    private void applyRecord(JournalRecord record) {
+        switch (record.getType()) {
+            case REGISTER_STOCK:
+                registerStock(new Stock(record.getSymbol(), record.getName(), record.getPrice()));
+                break;
+            case REGISTER_TRADER:
+                registerTrader(new Trader(record.getTraderId(), record.getName(), record.getPrice()));
+                break;
+            case PLACE:
+                replayedTrades.clear();
+                Order order = newOrder(record.getOrderId(), record.getOrderType(), record.getSide(),
+                    traders.get(record.getTraderId()), stocks.get(record.getSymbol()), record.getQuantity(), record.getPrice());
+                reserve(order, record.getReservedCash());
+                submit(Command.place(order));
+                break;
+            case CANCEL:
+                replayedTrades.clear();
+                submit(Command.cancel(record.getSymbol(), record.getOrderId()));
+                break;
+            case PRICE_TICK:
+                replayedTrades.clear();
+                submit(Command.priceTick(record.getSymbol(), record.getPrice()));
+                break;
+            case TRADE:
+                verifyTrade(record);
+                break;
+        }
+    }
+    
+    // A journaled trade must match the next trade the replay produced
+    private void verifyTrade(JournalRecord record) {
+        Trade trade = replayedTrades.poll();
+        boolean matches = trade != null
+            && trade.getQuantity() == record.getQuantity()
+            && trade.getPrice() == record.getPrice()
+            && Objects.equals(orderIdOf(trade.getBuyOrder()), record.getBuyOrderId())
+            && Objects.equals(orderIdOf(trade.getSellOrder()), record.getSellOrderId());
+        if (!matches) {
+            throw new IllegalStateException("Replay diverged from the journal at record #" + record.getSequence() +
+                ": expected " + record.getQuantity() + " @ $" + record.getPrice() + ", replay produced " + trade);
+        }
+    }
+    
+    private static String orderIdOf(Order order) {
+        return order == null ? null : order.getOrderId();
+    }
+    
+    private static Order newOrder(String orderId, OrderType orderType, TransactionType side, Trader trader,
+                                  Stock stock, int quantity, double price) {
+        if (trader == null || stock == null) {
+            throw new IllegalStateException("Journal refers to an unknown trader or stock for order " + orderId);
+        }
+        switch (orderType) {
+            case LIMIT:
+                return new LimitOrder(orderId, trader, stock, quantity, side, price);
+            case STOP_LOSS:
+                return new StopLossOrder(orderId, trader, stock, quantity, price);
+            default:
+                return new MarketOrder(orderId, trader, stock, quantity, side);
+        }
+    }
+    
+    // Limit or stop price, 0 for market orders
+    private static double orderPrice(Order order) {
+        if (order instanceof LimitOrder) {
+            return ((LimitOrder) order).getLimitPrice();
+        }
+        if (order instanceof StopLossOrder) {
+            return ((StopLossOrder) order).getStopPrice();
+        }
+        return 0;
+    }
+    
+    private static String snapshotName(long sequence) {
+        return String.format("%s%019d%s", SNAPSHOT_PREFIX, sequence, SNAPSHOT_SUFFIX);
+    }
+    
+    // Snapshot files, oldest first (names sort by sequence)
+    private static List<Path> listSnapshots(Path directory) {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                .filter(file -> file.getFileName().toString().startsWith(SNAPSHOT_PREFIX)
+                    && file.getFileName().toString().endsWith(SNAPSHOT_SUFFIX))
+                .sorted()
+                .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list snapshots in " + directory, e);
+        }
+    }
+    
+    private static Path earliestSnapshot(Path directory) {
+        List<Path> snapshots = listSnapshots(directory);
+        if (snapshots.isEmpty()) {
+            throw new IllegalStateException("No snapshot in " + directory);
+        }
+        return snapshots.get(0);
+    }
+    
+    private static Path latestSnapshot(Path directory) {
+        List<Path> snapshots = listSnapshots(directory);
+        if (snapshots.isEmpty()) {
+            throw new IllegalStateException("No snapshot in " + directory);
+        }
+        return snapshots.get(snapshots.size() - 1);
+    }
+    
+    private static <T> void remember(Deque<T> recent, T item) {
+        synchronized (recent) {
+            if (recent.size() == RECENT_HISTORY) {
+                recent.pollFirst();
             }
+            recent.addLast(item);
+        }
+    }
+    
+    // Console output; formatting is skipped entirely when quiet
+    private void log(String format, Object... args) {
+        if (!quiet) {
+            System.out.println(args.length == 0 ? format : String.format(format, args));
         }
-        System.out.println("❌ Order not found: " + orderId);
     }
     
     // Get stock
@@ -204,25 +1033,89 @@ public class StockExchange extends Subject {
         }
         
         System.out.println("\n👥 Active Traders: " + traders.size());
-        System.out.println("📋 Pending Orders: " + pendingOrders.size());
-        System.out.println("✅ Executed Orders: " + executedOrders.size());
+        System.out.println("📋 Pending Orders: " + openOrders.size());
+        System.out.println("✅ Executed Orders: " + executedOrderCount);
+        System.out.println("🤝 Trades: " + tradeCount);
         
         System.out.println("========================================\n");
     }
     
     // Display pending orders
     public void displayPendingOrders() {
-        if (pendingOrders.isEmpty()) {
+        if (openOrders.isEmpty()) {
             System.out.println("No pending orders");
             return;
         }
         
         System.out.println("\n⏳ Pending Orders:");
-        for (Order order : pendingOrders) {
-            System.out.println("   " + order);
+        for (String symbol : orderBooks.keySet()) {
+            List<Order> orders = new ArrayList<>();
+            await(submit(Command.inspect(symbol, book -> orders.addAll(book.getOpenOrders()))));
+            for (Order order : orders) {
+                System.out.println("   " + order);
+            }
         }
     }
     
+    // Display the top price levels on each side of a symbol's book
+    public void displayOrderBook(String symbol, int levels) {
+        OrderBook book = getOrderBook(symbol);
+        
+        // Render on the owning shard, print here
+        List<String> lines = new ArrayList<>();
+        await(submit(Command.inspect(symbol, owned -> {
+            List<PriceLevel> asks = owned.getAskLevels(levels);
+            for (int i = asks.size() - 1; i >= 0; i--) {
+                lines.add("   ASK " + asks.get(i));
+            }
+            for (PriceLevel bid : owned.getBidLevels(levels)) {
+                lines.add("   BID " + bid);
+            }
+            if (owned.getStopOrderCount() > 0) {
+                lines.add("   Stops armed: " + owned.getStopOrderCount());
+            }
+        })));
+        
+        System.out.println("\n📖 Order Book: " + symbol + " (reference $" + 
+            String.format("%.2f", book.getStock().getCurrentPrice()) + ")");
+        for (String line : lines) {
+            System.out.println(line);
+        }
+    }
+    
+    // The book is owned by its matching shard; only read it while the exchange is idle
+    public OrderBook getOrderBook(String symbol) {
+        OrderBook book = orderBooks.get(symbol);
+        if (book == null) {
+            throw new IllegalArgumentException("Stock not found: " + symbol);
+        }
+        return book;
+    }
+    
+    // The most recent trades, oldest first; the journal keeps the full record
+    public List<Trade> getTrades() {
+        synchronized (recentTrades) {
+            return new ArrayList<>(recentTrades);
+        }
+    }
+    
+    public long getTradeCount() {
+        return tradeCount;
+    }
+    
+    public Trader getTrader(String traderId) {
+        return traders.get(traderId);
+    }
+    
+    // Last journal record applied by recover() or replay()
+    public long getLastReplayedSequence() {
+        return lastReplayedSequence;
+    }
+    
+    public int getMatchingShardCount() {
+        return matchingEngine.getShardCount();
+    }
+    
     public Collection<Stock> getAllStocks() {
         return stocks.values();
     }
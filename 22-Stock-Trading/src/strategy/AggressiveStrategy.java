@@ -4,24 +4,38 @@ import model.Stock;
 import model.Holding;
 
 public class AggressiveStrategy implements TradingStrategy {
+    private final double momentumPercent;
+    private final double takeProfitPercent;
+    private final double stopLossPercent;
+    
+    public AggressiveStrategy() {
+        this(2.0, 5.0, 3.0);
+    }
+    
+    // Thresholds in percent, e.g. for parameter sweeps in backtests
+    public AggressiveStrategy(double momentumPercent, double takeProfitPercent, double stopLossPercent) {
+        this.momentumPercent = momentumPercent;
+        this.takeProfitPercent = takeProfitPercent;
+        this.stopLossPercent = stopLossPercent;
+    }
     
     @Override
     public boolean shouldBuy(Stock stock, double availableBalance) {
-        // Buy if price increased by 2% or more (momentum trading)
+        // Buy if price increased by more than the momentum threshold, 2% by default (momentum trading)
         double priceChange = stock.getPriceChangePercent();
         
         // Also check if we have enough balance for at least 1 share
         boolean canAfford = availableBalance >= stock.getCurrentPrice();
         
-        return canAfford && priceChange > 2.0;
+        return canAfford && priceChange > momentumPercent;
     }
     
     @Override
     public boolean shouldSell(Stock stock, Holding holding) {
-        // Sell if profit > 5% OR loss > 3% (quick exits)
+        // Sell if profit > 5% OR loss > 3% by default (quick exits)
         double profitPercent = holding.getProfitLossPercent();
         
-        return profitPercent > 5.0 || profitPercent < -3.0;
+        return profitPercent > takeProfitPercent || profitPercent < -stopLossPercent;
     }
     
     @Override
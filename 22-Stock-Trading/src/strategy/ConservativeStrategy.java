@@ -4,25 +4,39 @@ import model.Stock;
 import model.Holding;
 
 public class ConservativeStrategy implements TradingStrategy {
+    private final double dipPercent;
+    private final double takeProfitPercent;
+    private final double stopLossPercent;
+    
+    public ConservativeStrategy() {
+        this(3.0, 10.0, 5.0);
+    }
+    
+    // Thresholds in percent, e.g. for parameter sweeps in backtests
+    public ConservativeStrategy(double dipPercent, double takeProfitPercent, double stopLossPercent) {
+        this.dipPercent = dipPercent;
+        this.takeProfitPercent = takeProfitPercent;
+        this.stopLossPercent = stopLossPercent;
+    }
     
     @Override
     public boolean shouldBuy(Stock stock, double availableBalance) {
-        // Buy if price decreased by 3% or more (buy the dip)
+        // Buy if price decreased by more than the dip threshold, 3% by default (buy the dip)
         double priceChange = stock.getPriceChangePercent();
         
         // Check if we have enough balance
         boolean canAfford = availableBalance >= stock.getCurrentPrice();
         
-        return canAfford && priceChange < -3.0;
+        return canAfford && priceChange < -dipPercent;
     }
     
     @Override
     public boolean shouldSell(Stock stock, Holding holding) {
         // Sell only if profit > 10% (hold for bigger gains)
-        // Or if loss > 5% (cut losses)
+        // Or if loss > 5% (cut losses); both thresholds are defaults
         double profitPercent = holding.getProfitLossPercent();
         
-        return profitPercent > 10.0 || profitPercent < -5.0;
+        return profitPercent > takeProfitPercent || profitPercent < -stopLossPercent;
     }
     
     @Override
@@ -4,24 +4,38 @@ import model.Stock;
 import model.Holding;
 
 public class DayTradingStrategy implements TradingStrategy {
+    private final double momentumPercent;
+    private final double takeProfitPercent;
+    private final double stopLossPercent;
+    
+    public DayTradingStrategy() {
+        this(1.0, 2.0, 2.0);
+    }
+    
+    // Thresholds in percent, e.g. for parameter sweeps in backtests
+    public DayTradingStrategy(double momentumPercent, double takeProfitPercent, double stopLossPercent) {
+        this.momentumPercent = momentumPercent;
+        this.takeProfitPercent = takeProfitPercent;
+        this.stopLossPercent = stopLossPercent;
+    }
     
     @Override
     public boolean shouldBuy(Stock stock, double availableBalance) {
-        // Buy on any positive momentum (> 1%)
+        // Buy on any positive momentum (> 1% by default)
         double priceChange = stock.getPriceChangePercent();
         
         boolean canAfford = availableBalance >= stock.getCurrentPrice();
         
-        return canAfford && priceChange > 1.0;
+        return canAfford && priceChange > momentumPercent;
     }
     
     @Override
     public boolean shouldSell(Stock stock, Holding holding) {
-        // Sell quickly on any profit (> 2%) or small loss (< -2%)
+        // Sell quickly on any profit (> 2% by default) or small loss (< -2%)
         // Day traders close positions quickly
         double profitPercent = holding.getProfitLossPercent();
         
-        return profitPercent > 2.0 || profitPercent < -2.0;
+        return profitPercent > takeProfitPercent || profitPercent < -stopLossPercent;
     }
     
     @Override
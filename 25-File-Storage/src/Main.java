@@ -2,9 +2,20 @@ import model.*;
 import service.*;
 import enums.*;
 import observer.*;
+import storage.ChunkStore;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
 
 public class Main {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         System.out.println("========================================");
         System.out.println("  ☁️  FILE STORAGE SYSTEM DEMO ☁️");
         System.out.println("========================================\n");
@@ -195,9 +206,7 @@ public class Main {
         Folder archive = storage.createFolder(alice, "Archive", aliceRoot);
         
         System.out.println("📦 Moving file to Archive...");
-        file2.setParent(archive);
-        archive.addItem(file2);
-        aliceRoot.removeItem(file2);
+        storage.moveItem(alice, file2, archive);
         System.out.println("   New path: " + file2.getPath());
         
         System.out.println("\n🗑️  Deleting file...");
@@ -226,6 +235,184 @@ public class Main {
                 item.getOwner().getName());
         }
         
+        // ====================
+        // SCENARIO 10: Chunk Deduplication
+        // ====================
+        System.out.println("\n========================================");
+        System.out.println("  SCENARIO 10: CHUNK DEDUPLICATION");
+        System.out.println("========================================\n");
+        
+        ChunkStore chunks = storage.getChunkStore();
+        StringBuilder csv = new StringBuilder("date,region,product,units,revenue\n");
+        for (int i = 0; i < 12_000; i++) {
+            csv.append(String.format("2026-%02d-%02d,region-%d,product-%d,%d,%d.%02d\n",
+                i % 12 + 1, i % 28 + 1, i % 7, i % 97, i % 500, i * 37 % 10_000, i % 100));
+        }
+        String dataset = csv.toString();
+        
+        long written = chunks.getChunksWritten();
+        File sales = storage.uploadFile(alice, "sales.csv", dataset, dataset.length(), documents);
+        System.out.printf("   %d chunks written (avg %s)\n",
+            chunks.getChunksWritten() - written, formatBytes(dataset.length() / sales.getManifest().getChunkCount()));
+        
+        System.out.println("\n✏️  Alice inserts one row in the middle:");
+        int middle = dataset.indexOf('\n', dataset.length() / 2) + 1;
+        String edited = dataset.substring(0, middle) + "2026-06-15,region-9,product-new,1,9.99\n"
+            + dataset.substring(middle);
+        written = chunks.getChunksWritten();
+        storage.modifyFile(alice, sales, edited);
+        System.out.printf("   %d of %d chunks written, the rest shared with v1\n",
+            chunks.getChunksWritten() - written, sales.getManifest().getChunkCount());
+        
+        System.out.println("\n📤 Charlie uploads an identical copy:");
+        written = chunks.getChunksWritten();
+        File copy = storage.uploadFile(charlie, "sales_copy.csv", edited, edited.length(),
+            storage.getRootFolder(charlie));
+        System.out.printf("   %d chunks written\n", chunks.getChunksWritten() - written);
+        
+        System.out.println("\n🗑️  Charlie deletes the copy, Alice keeps hers:");
+        storage.deleteFile(charlie, copy);
+        storage.collectGarbage();
+        System.out.println("   Alice's file intact: " + sales.getContent().equals(edited));
+        System.out.println("\n📊 " + chunks);
+        
+        // ====================
+        // SCENARIO 11: Streaming Upload & Download
+        // ====================
+        System.out.println("\n========================================");
+        System.out.println("  SCENARIO 11: STREAMING UPLOAD & DOWNLOAD");
+        System.out.println("========================================\n");
+        
+        byte[] backup = new byte[8 * 1024 * 1024];
+        new Random(7).nextBytes(backup);
+        Path source = Files.createTempFile("backup", ".tar");
+        Path target = Files.createTempFile("backup-download", ".tar");
+        Files.write(source, backup);
+        
+        System.out.println("📤 Charlie streams an 8 MB file from disk:");
+        File backupFile;
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ)) {
+            backupFile = storage.uploadFile(charlie, "backup.tar", in, storage.getRootFolder(charlie));
+        }
+        
+        System.out.println("\n📥 Zero-copy download to a file:");
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.WRITE)) {
+            storage.downloadFile(charlie, backupFile, out);
+        }
+        System.out.println("   Identical to the original: " + Arrays.equals(Files.readAllBytes(target), backup));
+        
+        System.out.println("\n⏯️  Download interrupted after 3 MB, then resumed:");
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        storage.downloadFile(charlie, backupFile, 0, 3 * 1024 * 1024, Channels.newChannel(received));
+        storage.downloadFile(charlie, backupFile, received.size(), Long.MAX_VALUE, Channels.newChannel(received));
+        System.out.println("   Resumed download intact: " + Arrays.equals(received.toByteArray(), backup));
+        Files.delete(source);
+        Files.delete(target);
+        
+        System.out.printf("\n❌ Bob streams a 300 MB upload with %s free:\n", bob.getAvailableStorageDisplay());
+        try {
+            storage.uploadFile(bob, "huge.iso", patternStream(300L * 1024 * 1024), bobRoot);
+        } catch (IllegalStateException e) {
+            System.out.println("   Error: " + e.getMessage());
+            System.out.println("   Bob's storage unchanged: " + bob.getUsedStorageDisplay());
+            System.out.println("   ✅ Quota enforced while streaming!");
+        }
+        storage.collectGarbage();
+        
+        // ====================
+        // SCENARIO 12: Folder Totals & Path Lookup
+        // ====================
+        System.out.println("\n========================================");
+        System.out.println("  SCENARIO 12: FOLDER TOTALS & PATH LOOKUP");
+        System.out.println("========================================\n");
+        
+        System.out.printf("📊 Alice's root: %s in %d files, %d folders\n",
+            formatBytes(aliceRoot.getSize()), aliceRoot.getTotalFileCount(), aliceRoot.getTotalFolderCount());
+        System.out.printf("   Documents: %s, Archive: %s\n",
+            formatBytes(documents.getSize()), formatBytes(archive.getSize()));
+        
+        System.out.println("\n🔍 Find by path /root/Documents/Work/project.docx:");
+        System.out.println("   " + storage.findByPath(alice, "/root/Documents/Work/project.docx"));
+        
+        System.out.println("\n📦 Moving the whole Work folder into Archive...");
+        storage.moveItem(alice, work, archive);
+        System.out.printf("   Documents: %s, Archive: %s, root unchanged: %s\n",
+            formatBytes(documents.getSize()), formatBytes(archive.getSize()), formatBytes(aliceRoot.getSize()));
+        System.out.println("   Old path: " + storage.findByPath(alice, "/root/Documents/Work/project.docx"));
+        System.out.println("   New path: " + storage.findByPath(alice, "/root/Archive/Work/project.docx"));
+        
+        System.out.println("\n❌ Moving Archive into its own subfolder:");
+        try {
+            storage.moveItem(alice, archive, work);
+        } catch (IllegalArgumentException e) {
+            System.out.println("   Error: " + e.getMessage());
+        }
+        
+        // ====================
+        // SCENARIO 13: Inherited Folder Sharing
+        // ====================
+        System.out.println("\n========================================");
+        System.out.println("  SCENARIO 13: INHERITED FOLDER SHARING");
+        System.out.println("========================================\n");
+        
+        System.out.println("Charlie is a VIEWER of /root/Documents, so files below it are readable");
+        System.out.println("(the second check is answered from the decision cache):");
+        storage.downloadFile(charlie, personalDoc);
+        storage.downloadFile(charlie, personalDoc);
+        
+        System.out.println("\n❌ project.docx moved out of Documents in Scenario 12:");
+        try {
+            storage.downloadFile(charlie, workDoc);
+        } catch (SecurityException e) {
+            System.out.println("   Error: " + e.getMessage());
+        }
+        
+        System.out.println("\n🚫 Alice revokes Charlie's access to Documents:");
+        storage.revokeAccess(alice, documents, charlie);
+        try {
+            storage.downloadFile(charlie, personalDoc);
+        } catch (SecurityException e) {
+            System.out.println("   Error: " + e.getMessage());
+            System.out.println("   ✅ Revocation applies to the whole folder!");
+        }
+        System.out.printf("\n📊 Permission decision cache: %d hits, %d misses\n",
+            storage.getAcl().getCacheHits(), storage.getAcl().getCacheMisses());
+        
+        // ====================
+        // SCENARIO 14: Version History
+        // ====================
+        System.out.println("\n========================================");
+        System.out.println("  SCENARIO 14: VERSION HISTORY");
+        System.out.println("========================================\n");
+        
+        StringBuilder journalText = new StringBuilder();
+        Random journalRandom = new Random(14);
+        while (journalText.length() < 200 * 1024) {
+            journalText.append("entry ").append(journalRandom.nextLong()).append('\n');
+        }
+        File journal = storage.uploadFile(alice, "journal.txt", journalText.toString(),
+            journalText.length(), personal);
+        System.out.println("✏️  Alice appends 14 entries, one version each:");
+        for (int i = 1; i <= 14; i++) {
+            journalText.append("day ").append(i).append(": ").append(journalRandom.nextLong()).append('\n');
+            journal.updateContent(journalText.toString(), alice);
+        }
+        VersionHistory history = journal.getHistory();
+        System.out.printf("   Kept v%d..v%d (%s), %d snapshots + %d deltas, %s retained\n",
+            history.getVersions().get(0).getVersionNumber(), journal.getLatestVersion().getVersionNumber(),
+            history.getPolicy(), history.getSnapshotCount(), history.size() - history.getSnapshotCount(),
+            formatBytes(history.getRetainedBytes()));
+        System.out.println("   v3 evicted: " + (journal.getVersion(3) == null));
+        
+        System.out.printf("\n⏮️  Restoring v12 (snapshot + %d deltas)...\n", history.getChainLength(12));
+        journal.restoreVersion(12);
+        System.out.println("   Content ends with: " + journal.getContent().substring(
+            journal.getContent().lastIndexOf("day ")).trim());
+        
+        journal.setRetentionPolicy(RetentionPolicy.keepLast(10).withMaxBytes(202 * 1024));
+        System.out.printf("\n✂️  Capped at 202 KB of history: %d versions kept, %s retained\n",
+            history.size(), formatBytes(history.getRetainedBytes()));
+        
         // ====================
         // Final Summary
         // ====================
@@ -258,6 +445,37 @@ public class Main {
         System.out.println("✓ File operations (move, delete)");
         System.out.println("✓ Permission-based access control");
         System.out.println("✓ Observer notifications");
+        System.out.println("✓ Content-defined chunking with deduplicated storage");
+        System.out.println("✓ Streaming NIO upload/download with resumable ranges");
+        System.out.println("✓ O(1) folder totals and indexed path lookup");
+        System.out.println("✓ Indexed ACLs with folder inheritance and a decision cache");
+        System.out.println("✓ Delta-compressed version history with retention policies");
+    }
+    
+    // A stream of length bytes that repeats a 1 MB random block, generated as read
+    private static InputStream patternStream(long length) {
+        byte[] block = new byte[1024 * 1024];
+        new Random(11).nextBytes(block);
+        return new InputStream() {
+            private long position;
+            
+            @Override
+            public int read() {
+                return position < length ? block[(int) (position++ % block.length)] & 0xFF : -1;
+            }
+            
+            @Override
+            public int read(byte[] buffer, int offset, int count) {
+                if (position >= length) {
+                    return -1;
+                }
+                int start = (int) (position % block.length);
+                int n = (int) Math.min(Math.min(count, block.length - start), length - position);
+                System.arraycopy(block, start, buffer, offset, n);
+                position += n;
+                return n;
+            }
+        };
     }
     
     private static String formatBytes(long bytes) {
@@ -0,0 +1,193 @@
+package benchmark;
+
+import enums.Permission;
+import enums.StoragePlan;
+import index.AclIndex;
+import model.File;
+import model.FileSystemItem;
+import model.Folder;
+import model.SharedAccess;
+import model.User;
+import storage.ChunkStore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+/**
+ * Shares items of a large tree with many users and compares permission checks
+ * against the previous scan of one global grant list, which only saw direct
+ * grants. Checks are measured cold (random user and file, so the decision
+ * cache misses and ancestry is walked) and hot (a working set that fits the
+ * cache, as when a client keeps reading the same files). Also measures share
+ * and revoke, and "shared with me" listings.
+ *
+ * JMH is not available in this source-only tree, so this is a plain
+ * warm-up-then-measure harness; results are consumed to defeat dead-code
+ * elimination.
+ *
+ * Usage: java benchmark.AclBenchmark [users] [grants]
+ */
+public class AclBenchmark {
+    private static final int QUERIES = 20_000;
+    private static final int HOT_PAIRS = 1_000;
+    private static final Permission[] PERMISSIONS = Permission.values();
+    
+    public static void main(String[] args) {
+        int userCount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int grantCount = args.length > 1 ? Integer.parseInt(args[1]) : 50_000;
+        Random random = new Random(42);
+        long sink = 0;
+        
+        User owner = new User("B000", "Owner", "owner@example.com", StoragePlan.BUSINESS);
+        User[] users = new User[userCount];
+        for (int i = 0; i < userCount; i++) {
+            users[i] = new User("B" + (i + 1), "User" + i, "user" + i + "@example.com", StoragePlan.FREE);
+        }
+        
+        ChunkStore store = ChunkStore.temporary();
+        Folder root = new Folder("root", owner, null);
+        List<Folder> folders = new ArrayList<>();
+        List<File> files = new ArrayList<>();
+        build(root, owner, store, folders, files, 10, 4, 20);
+        System.out.printf("Tree: %,d folders, %,d files; %,d users, %,d grants%n%n",
+            folders.size(), files.size(), userCount, grantCount);
+        
+        AclIndex acl = new AclIndex();
+        List<SharedAccess> grantList = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < grantCount; i++) {
+            FileSystemItem item = random.nextInt(4) == 0
+                ? folders.get(random.nextInt(folders.size()))
+                : files.get(random.nextInt(files.size()));
+            SharedAccess access = new SharedAccess(item, users[random.nextInt(userCount)],
+                PERMISSIONS[1 + random.nextInt(2)], owner);
+            acl.grant(access);
+            grantList.add(access);
+        }
+        System.out.printf("%-30s %,.0f grants/s%n", "share (index both ways)", grantCount / ((System.nanoTime() - start) / 1e9));
+        
+        User[] hotUsers = new User[HOT_PAIRS];
+        File[] hotFiles = new File[HOT_PAIRS];
+        for (int i = 0; i < HOT_PAIRS; i++) {
+            SharedAccess access = grantList.get(random.nextInt(grantList.size()));
+            hotUsers[i] = access.getSharedWith();
+            hotFiles[i] = access.getItem().isFile()
+                ? (File) access.getItem()
+                : files.get(random.nextInt(files.size()));
+        }
+        
+        for (int round = 0; round < 2; round++) {
+            boolean print = round == 1;
+            long[] latencies = new long[QUERIES];
+            
+            for (int q = 0; q < 500; q++) {
+                User user = users[random.nextInt(userCount)];
+                File file = files.get(random.nextInt(files.size()));
+                long t0 = System.nanoTime();
+                sink += scanList(grantList, user, file) ? 1 : 0;
+                latencies[q] = System.nanoTime() - t0;
+            }
+            if (print) {
+                printLatencies("check, scan grant list", Arrays.copyOf(latencies, 500));
+            }
+            
+            for (int q = 0; q < QUERIES; q++) {
+                User user = users[random.nextInt(userCount)];
+                File file = files.get(random.nextInt(files.size()));
+                long t0 = System.nanoTime();
+                sink += acl.isAllowed(user, file, Permission.VIEWER) ? 1 : 0;
+                latencies[q] = System.nanoTime() - t0;
+            }
+            if (print) {
+                printLatencies("check, index cold (inherited)", latencies);
+            }
+            
+            long hits = acl.getCacheHits();
+            for (int q = 0; q < QUERIES; q++) {
+                int pair = random.nextInt(HOT_PAIRS);
+                long t0 = System.nanoTime();
+                sink += acl.isAllowed(hotUsers[pair], hotFiles[pair], Permission.VIEWER) ? 1 : 0;
+                latencies[q] = System.nanoTime() - t0;
+            }
+            if (print) {
+                printLatencies("check, index hot working set", latencies);
+                System.out.printf("  (cache hit rate %.1f%%)%n", 100.0 * (acl.getCacheHits() - hits) / QUERIES);
+            }
+            
+            for (int q = 0; q < 200; q++) {
+                User user = users[random.nextInt(userCount)];
+                long t0 = System.nanoTime();
+                sink += grantList.stream().filter(sa -> sa.getSharedWith().equals(user)).collect(Collectors.toList()).size();
+                latencies[q] = System.nanoTime() - t0;
+            }
+            if (print) {
+                printLatencies("shared with me, scan", Arrays.copyOf(latencies, 200));
+            }
+            for (int q = 0; q < QUERIES; q++) {
+                User user = users[random.nextInt(userCount)];
+                long t0 = System.nanoTime();
+                sink += acl.getSharedWith(user).size();
+                latencies[q] = System.nanoTime() - t0;
+            }
+            if (print) {
+                printLatencies("shared with me, index", latencies);
+            }
+            
+            for (int q = 0; q < QUERIES; q++) {
+                SharedAccess access = grantList.get(random.nextInt(grantList.size()));
+                long t0 = System.nanoTime();
+                acl.revoke(access.getItem(), access.getSharedWith());
+                acl.grant(access);
+                latencies[q] = System.nanoTime() - t0;
+            }
+            if (print) {
+                printLatencies("revoke + re-share", latencies);
+            }
+        }
+        System.out.println("(sink " + sink + ")");
+    }
+    
+    private static void build(Folder folder, User owner, ChunkStore store, List<Folder> folders,
+                              List<File> files, int fanout, int depth, int filesPerFolder) {
+        folders.add(folder);
+        for (int i = 0; i < filesPerFolder; i++) {
+            File file = new File("f" + i, owner, folder, store, "", 1024);
+            folder.addItem(file);
+            files.add(file);
+        }
+        if (depth == 0) {
+            return;
+        }
+        for (int i = 0; i < fanout; i++) {
+            Folder child = new Folder("d" + i, owner, folder);
+            folder.addItem(child);
+            build(child, owner, store, folders, files, fanout, depth - 1, filesPerFolder);
+        }
+    }
+    
+    /**
+     * The check as it was: first direct grant to the user in one global list.
+     */
+    private static boolean scanList(List<SharedAccess> grants, User user, FileSystemItem item) {
+        if (item.getOwner().equals(user)) {
+            return true;
+        }
+        for (SharedAccess sa : grants) {
+            if (sa.getItem().equals(item) && sa.getSharedWith().equals(user)) {
+                return sa.getPermission().canRead();
+            }
+        }
+        return false;
+    }
+    
+    private static void printLatencies(String label, long[] latencies) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        System.out.printf("%-30s p50 %9.2f µs | p99 %9.2f µs%n", label,
+            sorted[sorted.length / 2] / 1e3,
+            sorted[(int) (sorted.length * 0.99)] / 1e3);
+    }
+}
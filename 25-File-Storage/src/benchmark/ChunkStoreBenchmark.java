@@ -0,0 +1,129 @@
+package benchmark;
+
+import storage.ChunkManifest;
+import storage.ChunkStore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Uploads a large file and a series of edited versions of it to a ChunkStore
+ * and reports upload throughput, bytes actually written per version and the
+ * overall dedup ratio, against keeping a full copy of every version.
+ *
+ * Each version applies a few random inserts, deletes and overwrites, so later
+ * content shifts relative to the previous version, which is the case fixed-size
+ * chunking handles badly. Chunks go to a temporary directory removed on exit.
+ *
+ * JMH is not available in this source-only tree, so this is a plain
+ * warm-up-then-measure harness.
+ *
+ * Usage: java benchmark.ChunkStoreBenchmark [fileMB] [versions] [editsPerVersion]
+ */
+public class ChunkStoreBenchmark {
+    
+    public static void main(String[] args) {
+        int fileMB = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int versionCount = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int editsPerVersion = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        Random random = new Random(42);
+        
+        byte[] content = new byte[fileMB << 20];
+        random.nextBytes(content);
+        
+        // Warm up hashing and chunking on a throwaway store
+        ChunkStore warmup = ChunkStore.temporary();
+        for (int i = 0; i < 3; i++) {
+            warmup.release(warmup.write(content, 0, Math.min(content.length, 16 << 20)));
+            warmup.gc();
+        }
+        
+        ChunkStore store = ChunkStore.temporary();
+        List<ChunkManifest> versions = new ArrayList<>();
+        
+        long start = System.nanoTime();
+        versions.add(store.write(content));
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Initial upload: %,d MB in %.2f s (%.0f MB/s), %,d chunks, avg %,d bytes%n",
+            fileMB, seconds, fileMB / seconds, store.getChunkCount(), store.getPhysicalBytes() / store.getChunkCount());
+        
+        long editedBytes = 0;
+        long editedWritten = 0;
+        long editNanos = 0;
+        for (int v = 1; v < versionCount; v++) {
+            content = edit(content, random, editsPerVersion);
+            long physicalBefore = store.getPhysicalBytes();
+            start = System.nanoTime();
+            versions.add(store.write(content));
+            editNanos += System.nanoTime() - start;
+            editedBytes += content.length;
+            editedWritten += store.getPhysicalBytes() - physicalBefore;
+        }
+        double editSeconds = editNanos / 1e9;
+        System.out.printf("Edited uploads: %d versions x %d edits, %.0f MB/s, %,d KB written per version (%.2f%% of file)%n",
+            versionCount - 1, editsPerVersion, (editedBytes >> 20) / editSeconds,
+            editedWritten / (versionCount - 1) >> 10, 100.0 * editedWritten / editedBytes);
+        
+        long physicalBefore = store.getPhysicalBytes();
+        start = System.nanoTime();
+        ChunkManifest duplicate = store.write(content);
+        seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Identical upload: %.0f MB/s, %,d bytes written%n",
+            (content.length >> 20) / seconds, store.getPhysicalBytes() - physicalBefore);
+        
+        System.out.printf("%nLogical bytes:  %,8d MB (full copy per version)%n", store.getLogicalBytes() >> 20);
+        System.out.printf("Physical bytes: %,8d MB in %,d chunks%n", store.getPhysicalBytes() >> 20, store.getChunkCount());
+        System.out.printf("Dedup ratio:    %8.2fx%n", store.getDedupRatio());
+        
+        // Drop all but the newest version and reclaim the rest
+        store.release(duplicate);
+        for (int v = 0; v < versions.size() - 1; v++) {
+            store.release(versions.get(v));
+        }
+        start = System.nanoTime();
+        long freed = store.gc();
+        System.out.printf("%nGC after dropping %d versions: freed %,d MB in %.1f ms, %,d MB left%n",
+            versions.size() - 1, freed >> 20, (System.nanoTime() - start) / 1e6, store.getPhysicalBytes() >> 20);
+        
+        start = System.nanoTime();
+        byte[] restored = store.read(versions.get(versions.size() - 1));
+        seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Read back newest version: %.0f MB/s, intact: %b%n",
+            (restored.length >> 20) / seconds, Arrays.equals(restored, content));
+    }
+    
+    /**
+     * Apply random inserts, deletes and overwrites of up to 256 bytes.
+     */
+    private static byte[] edit(byte[] content, Random random, int edits) {
+        for (int e = 0; e < edits; e++) {
+            int at = random.nextInt(content.length - 256);
+            int length = 1 + random.nextInt(256);
+            byte[] next;
+            switch (e % 3) {
+                case 0:
+                    next = new byte[content.length + length];
+                    System.arraycopy(content, 0, next, 0, at);
+                    for (int i = 0; i < length; i++) {
+                        next[at + i] = (byte) random.nextInt();
+                    }
+                    System.arraycopy(content, at, next, at + length, content.length - at);
+                    break;
+                case 1:
+                    next = new byte[content.length - length];
+                    System.arraycopy(content, 0, next, 0, at);
+                    System.arraycopy(content, at + length, next, at, content.length - at - length);
+                    break;
+                default:
+                    next = content.clone();
+                    for (int i = 0; i < length; i++) {
+                        next[at + i] = (byte) random.nextInt();
+                    }
+            }
+            content = next;
+        }
+        return content;
+    }
+}
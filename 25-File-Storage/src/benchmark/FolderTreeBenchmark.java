@@ -0,0 +1,243 @@
+package benchmark;
+
+import enums.StoragePlan;
+import index.PathIndex;
+import model.File;
+import model.FileSystemItem;
+import model.Folder;
+import model.User;
+import storage.ChunkStore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Builds a tree of about 1M items and compares the incremental folder totals,
+ * child-name index and path index against what they replace: a recursive
+ * walk for folder sizes, a scan of the children for a name and a walk from
+ * the root for a path. Also measures uploads and moves deep in the tree,
+ * which now pay for propagating totals up the parent chain.
+ *
+ * Files are created empty, so no chunk is written; declared sizes drive the
+ * totals. Run with a large heap, e.g. java -Xmx3g benchmark.FolderTreeBenchmark
+ *
+ * JMH is not available in this source-only tree, so this is a plain
+ * warm-up-then-measure harness; results are consumed to defeat dead-code
+ * elimination.
+ *
+ * Usage: java benchmark.FolderTreeBenchmark [fanout] [depth] [filesPerFolder]
+ */
+public class FolderTreeBenchmark {
+    private static final int QUERIES = 10_000;
+    private static final int WIDE_FOLDER_FILES = 10_000;
+    
+    public static void main(String[] args) {
+        int fanout = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int filesPerFolder = args.length > 2 ? Integer.parseInt(args[2]) : 89;
+        Random random = new Random(42);
+        long sink = 0;
+        
+        User owner = new User("B001", "Bench", "bench@example.com", StoragePlan.BUSINESS);
+        ChunkStore store = ChunkStore.temporary();
+        PathIndex paths = new PathIndex();
+        Folder root = new Folder("root", owner, null);
+        paths.add(root);
+        
+        long start = System.nanoTime();
+        build(root, owner, store, paths, random, fanout, depth, filesPerFolder);
+        Folder wide = new Folder("wide", owner, root);
+        root.addItem(wide);
+        paths.add(wide);
+        build(wide, owner, store, paths, random, 0, 0, WIDE_FOLDER_FILES);
+        Folder moveTarget = new Folder("moved", owner, root);
+        root.addItem(moveTarget);
+        paths.add(moveTarget);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        int itemCount = root.getTotalFileCount() + root.getTotalFolderCount();
+        System.out.printf("Built %,d items (%,d folders, depth %d) in %.1f s, %,d paths indexed%n%n",
+            itemCount, root.getTotalFolderCount(), depth + 1, seconds, paths.size());
+        
+        List<String> samplePaths = new ArrayList<>();
+        List<File> sampleFiles = new ArrayList<>();
+        collectSamples(root, random, samplePaths, sampleFiles, 2_000);
+        
+        for (int round = 0; round < 2; round++) {
+            long[] latencies = new long[QUERIES];
+            boolean print = round == 1;
+            
+            for (int q = 0; q < 20; q++) {
+                long t0 = System.nanoTime();
+                sink += recursiveSize(root);
+                latencies[q] = System.nanoTime() - t0;
+            }
+            if (print) {
+                printLatencies("root size, recursive walk", Arrays.copyOf(latencies, 20));
+            }
+            for (int q = 0; q < QUERIES; q++) {
+                long t0 = System.nanoTime();
+                sink += root.getSize();
+                latencies[q] = System.nanoTime() - t0;
+            }
+            if (print) {
+                printLatencies("root size, incremental", latencies);
+                System.out.printf("  (totals agree: %b)%n", recursiveSize(root) == root.getSize());
+            }
+            
+            for (int q = 0; q < QUERIES; q++) {
+                String name = "f" + random.nextInt(WIDE_FOLDER_FILES);
+                long t0 = System.nanoTime();
+                sink += scanByName(wide, name) != null ? 1 : 0;
+                latencies[q] = System.nanoTime() - t0;
+            }
+            if (print) {
+                printLatencies("name in 10k folder, scan", latencies);
+            }
+            for (int q = 0; q < QUERIES; q++) {
+                String name = "f" + random.nextInt(WIDE_FOLDER_FILES);
+                long t0 = System.nanoTime();
+                sink += wide.findByName(name) != null ? 1 : 0;
+                latencies[q] = System.nanoTime() - t0;
+            }
+            if (print) {
+                printLatencies("name in 10k folder, index", latencies);
+            }
+            
+            for (int q = 0; q < QUERIES; q++) {
+                String path = samplePaths.get(random.nextInt(samplePaths.size()));
+                long t0 = System.nanoTime();
+                sink += walk(root, path) != null ? 1 : 0;
+                latencies[q] = System.nanoTime() - t0;
+            }
+            if (print) {
+                printLatencies("path, walk via name index", latencies);
+            }
+            for (int q = 0; q < QUERIES; q++) {
+                String path = samplePaths.get(random.nextInt(samplePaths.size()));
+                long t0 = System.nanoTime();
+                sink += paths.find(owner, path) != null ? 1 : 0;
+                latencies[q] = System.nanoTime() - t0;
+            }
+            if (print) {
+                printLatencies("path, global index", latencies);
+            }
+            
+            for (int q = 0; q < QUERIES; q++) {
+                File file = sampleFiles.get(random.nextInt(sampleFiles.size()));
+                Folder parent = file.getParent();
+                long t0 = System.nanoTime();
+                paths.remove(file);
+                parent.removeItem(file);
+                parent.addItem(file);
+                paths.add(file);
+                latencies[q] = System.nanoTime() - t0;
+            }
+            if (print) {
+                printLatencies("delete + re-add leaf file", latencies);
+            }
+            
+            for (int q = 0; q < 200; q++) {
+                Folder folder = sampleFiles.get(random.nextInt(sampleFiles.size())).getParent();
+                Folder from = folder.getParent();
+                long t0 = System.nanoTime();
+                paths.remove(folder);
+                moveTarget.addItem(folder);
+                paths.add(folder);
+                latencies[q] = System.nanoTime() - t0;
+                paths.remove(folder);
+                from.addItem(folder);
+                paths.add(folder);
+            }
+            if (print) {
+                printLatencies("move leaf folder (" + (filesPerFolder + 1) + " items)", Arrays.copyOf(latencies, 200));
+            }
+        }
+        System.out.printf("Root still totals %,d bytes in %,d files%n", root.getSize(), root.getTotalFileCount());
+        System.out.println("(sink " + sink + ")");
+    }
+    
+    private static void build(Folder folder, User owner, ChunkStore store, PathIndex paths, Random random,
+                              int fanout, int depth, int filesPerFolder) {
+        for (int i = 0; i < filesPerFolder; i++) {
+            File file = new File("f" + i, owner, folder, store, "", 1 + random.nextInt(1 << 20));
+            folder.addItem(file);
+            paths.add(file);
+        }
+        if (depth == 0) {
+            return;
+        }
+        for (int i = 0; i < fanout; i++) {
+            Folder child = new Folder("d" + i, owner, folder);
+            folder.addItem(child);
+            paths.add(child);
+            build(child, owner, store, paths, random, fanout, depth - 1, filesPerFolder);
+        }
+    }
+    
+    /**
+     * Random file paths from the deepest level, where lookups cost most.
+     */
+    private static void collectSamples(Folder root, Random random, List<String> samplePaths,
+                                       List<File> sampleFiles, int count) {
+        while (sampleFiles.size() < count) {
+            Folder folder = root;
+            while (!folder.getFolders().isEmpty()) {
+                List<Folder> subfolders = folder.getFolders();
+                Folder next = subfolders.get(random.nextInt(subfolders.size()));
+                if (next.getName().equals("wide") || next.getName().equals("moved")) {
+                    continue;
+                }
+                folder = next;
+            }
+            List<File> files = folder.getFiles();
+            File file = files.get(random.nextInt(files.size()));
+            sampleFiles.add(file);
+            samplePaths.add(file.getPath());
+        }
+    }
+    
+    /**
+     * Folder size the way it was computed before: summing the whole subtree.
+     */
+    private static long recursiveSize(FileSystemItem item) {
+        if (item.isFile()) {
+            return item.getSize();
+        }
+        long size = 0;
+        for (FileSystemItem child : ((Folder) item).getChildren()) {
+            size += recursiveSize(child);
+        }
+        return size;
+    }
+    
+    /**
+     * Name lookup the way it was done before: a scan of the children.
+     */
+    private static FileSystemItem scanByName(Folder folder, String name) {
+        for (FileSystemItem item : folder.getChildren()) {
+            if (item.getName().equals(name)) {
+                return item;
+            }
+        }
+        return null;
+    }
+    
+    private static FileSystemItem walk(Folder root, String path) {
+        String[] parts = path.split("/");
+        FileSystemItem item = root;
+        for (int i = 2; i < parts.length && item != null; i++) {
+            item = item.isFolder() ? ((Folder) item).findByName(parts[i]) : null;
+        }
+        return item;
+    }
+    
+    private static void printLatencies(String label, long[] latencies) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        System.out.printf("%-32s p50 %10.2f µs | p99 %10.2f µs%n", label,
+            sorted[sorted.length / 2] / 1e3,
+            sorted[(int) (sorted.length * 0.99)] / 1e3);
+    }
+}
@@ -0,0 +1,178 @@
+package benchmark;
+
+import storage.ChunkManifest;
+import storage.ChunkStore;
+import storage.ChunkWriter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Streams a large file from disk into a ChunkStore through one fixed-size
+ * direct buffer, the way FileStorageService streaming uploads do, then reads
+ * it back with zero-copy transferTo and with a buffered copy, and measures
+ * random ranged reads.
+ *
+ * The file is larger than the heap this is meant to run with, which shows
+ * uploads and downloads never hold the content in memory:
+ * java -Xmx64m benchmark.StreamingBenchmark
+ *
+ * JMH is not available in this source-only tree, so this is a plain
+ * warm-up-then-measure harness.
+ *
+ * Usage: java benchmark.StreamingBenchmark [fileMB] [rangeKB]
+ */
+public class StreamingBenchmark {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int RANGE_READS = 2_000;
+    
+    public static void main(String[] args) throws IOException {
+        int fileMB = args.length > 0 ? Integer.parseInt(args[0]) : 512;
+        int rangeKB = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        Random random = new Random(42);
+        
+        Path source = Files.createTempFile("stream-source", ".bin");
+        Path target = Files.createTempFile("stream-target", ".bin");
+        try {
+            writeRandomFile(source, fileMB, random);
+            System.out.printf("Max heap %,d MB, file %,d MB%n%n", Runtime.getRuntime().maxMemory() >> 20, fileMB);
+            
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            ChunkStore store = ChunkStore.temporary();
+            ChunkManifest manifest = null;
+            for (int round = 0; round < 2; round++) {
+                if (manifest != null) {
+                    store.release(manifest);
+                    store.gc();
+                }
+                long start = System.nanoTime();
+                ChunkWriter writer = store.newWriter();
+                try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ)) {
+                    buffer.clear();
+                    while (in.read(buffer) >= 0) {
+                        buffer.flip();
+                        writer.write(buffer);
+                        buffer.clear();
+                    }
+                }
+                manifest = writer.finish();
+                double seconds = (System.nanoTime() - start) / 1e9;
+                if (round == 1) {
+                    System.out.printf("%-28s %7.0f MB/s (%,d chunks)%n", "streaming upload", fileMB / seconds,
+                        manifest.getChunkCount());
+                }
+            }
+            
+            for (int round = 0; round < 2; round++) {
+                long start = System.nanoTime();
+                try (FileChannel out = FileChannel.open(target, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING)) {
+                    store.transferTo(manifest, 0, Long.MAX_VALUE, out);
+                }
+                double zeroCopy = (System.nanoTime() - start) / 1e9;
+                
+                start = System.nanoTime();
+                try (FileChannel out = FileChannel.open(target, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING)) {
+                    for (int i = 0; i < manifest.getChunkCount(); i++) {
+                        out.write(ByteBuffer.wrap(store.read(manifest.getChunk(i))));
+                    }
+                }
+                double copied = (System.nanoTime() - start) / 1e9;
+                if (round == 1) {
+                    System.out.printf("%-28s %7.0f MB/s%n", "download, transferTo", fileMB / zeroCopy);
+                    System.out.printf("%-28s %7.0f MB/s%n", "download, read + write", fileMB / copied);
+                }
+            }
+            System.out.println("Round trip intact: " + sameContent(source, target));
+            
+            long rangeBytes = rangeKB * 1024L;
+            long[] latencies = new long[RANGE_READS];
+            CountingChannel sink = new CountingChannel();
+            for (int round = 0; round < 2; round++) {
+                for (int i = 0; i < RANGE_READS; i++) {
+                    long offset = (long) (random.nextDouble() * (manifest.getSize() - rangeBytes));
+                    long start = System.nanoTime();
+                    store.transferTo(manifest, offset, rangeBytes, sink);
+                    latencies[i] = System.nanoTime() - start;
+                }
+            }
+            Arrays.sort(latencies);
+            System.out.printf("%-28s p50 %8.2f µs | p99 %8.2f µs%n", rangeKB + " KB ranged read",
+                latencies[RANGE_READS / 2] / 1e3, latencies[(int) (RANGE_READS * 0.99)] / 1e3);
+            System.out.println("(sink " + sink.count + ")");
+        } finally {
+            Files.deleteIfExists(source);
+            Files.deleteIfExists(target);
+        }
+    }
+    
+    private static void writeRandomFile(Path path, int megabytes, Random random) throws IOException {
+        byte[] block = new byte[1 << 20];
+        try (FileChannel out = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            for (int i = 0; i < megabytes; i++) {
+                random.nextBytes(block);
+                out.write(ByteBuffer.wrap(block));
+            }
+        }
+    }
+    
+    private static boolean sameContent(Path a, Path b) throws IOException {
+        if (Files.size(a) != Files.size(b)) {
+            return false;
+        }
+        byte[] left = new byte[1 << 16];
+        byte[] right = new byte[1 << 16];
+        try (InputStream inA = Files.newInputStream(a); InputStream inB = Files.newInputStream(b)) {
+            int n;
+            while ((n = inA.read(left)) > 0) {
+                int filled = 0;
+                while (filled < n) {
+                    int r = inB.read(right, filled, n - filled);
+                    if (r < 0) {
+                        return false;
+                    }
+                    filled += r;
+                }
+                for (int i = 0; i < n; i++) {
+                    if (left[i] != right[i]) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Discards what it is sent, so ranged reads measure the store alone.
+     */
+    private static final class CountingChannel implements WritableByteChannel {
+        long count;
+        
+        @Override
+        public int write(ByteBuffer source) {
+            int n = source.remaining();
+            source.position(source.limit());
+            count += n;
+            return n;
+        }
+        
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+        
+        @Override
+        public void close() {
+        }
+    }
+}
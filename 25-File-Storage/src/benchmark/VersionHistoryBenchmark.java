@@ -0,0 +1,201 @@
+package benchmark;
+
+import enums.StoragePlan;
+import model.FileVersion;
+import model.RetentionPolicy;
+import model.User;
+import model.VersionHistory;
+import storage.ChunkManifest;
+import storage.ChunkStore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.BiConsumer;
+
+/**
+ * Records many versions of a large file, each a small edit of the last, and
+ * compares the delta-compressed history against keeping a full chunk
+ * manifest per version: heap held by the history, the cost of adding a
+ * version (diffing it against the previous one) and of restoring a random
+ * one. Then records a long run of small versions with a large retention
+ * limit and compares the ring buffer's eviction and lookup by number against
+ * the list the file kept before, which evicted with remove(0) and found a
+ * version by scanning.
+ *
+ * Heap is measured as the difference in used memory after System.gc(), so it
+ * is approximate; it covers the manifests and deltas, not the chunk index the
+ * store keeps either way. Run with a large heap, e.g.
+ * java -Xmx3g benchmark.VersionHistoryBenchmark
+ *
+ * JMH is not available in this source-only tree, so this is a plain
+ * warm-up-then-measure harness; results are consumed to defeat dead-code
+ * elimination.
+ *
+ * Usage: java benchmark.VersionHistoryBenchmark [fileMB] [versions]
+ */
+public class VersionHistoryBenchmark {
+    private static final int QUERIES = 10_000;
+    private static final int SMALL_VERSIONS = 200_000;
+    private static final int SMALL_RETAINED = 5_000;
+    
+    public static void main(String[] args) {
+        int fileMB = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int versionCount = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        Random random = new Random(42);
+        long sink = 0;
+        
+        User user = new User("B001", "Bench", "bench@example.com", StoragePlan.BUSINESS);
+        ChunkStore store = ChunkStore.temporary();
+        int fileSize = fileMB << 20;
+        
+        // Warm up the diff, then record the versions without keeping them
+        // elsewhere, so the heap they take is the history's own
+        RetentionPolicy keepAll = RetentionPolicy.keepLast(versionCount);
+        long[] latencies = new long[versionCount];
+        VersionHistory history = null;
+        long start = 0;
+        for (int round = 0; round < 2; round++) {
+            if (history != null) {
+                history.clear();
+                history = null;
+            }
+            VersionHistory recording = new VersionHistory(store, keepAll);
+            start = System.nanoTime();
+            writeVersions(store, fileSize, versionCount, (v, manifest) -> {
+                long t0 = System.nanoTime();
+                recording.add(manifest, fileSize, user);
+                latencies[v] = System.nanoTime() - t0;
+            });
+            history = recording;
+        }
+        System.out.printf("Recorded %d versions of a %d MB file (%,d chunks each) in %.1f s, %,d MB on disk%n%n",
+            versionCount, fileMB, history.getManifest(1).getChunkCount(),
+            (System.nanoTime() - start) / 1e9, store.getPhysicalBytes() >> 20);
+        
+        long historyOnly = usedHeap();
+        List<ChunkManifest> manifests = new ArrayList<>(versionCount);
+        writeVersions(store, fileSize, versionCount, (v, manifest) -> manifests.add(manifest));
+        long both = usedHeap();
+        
+        for (int round = 0; round < 2; round++) {
+            long[] restores = new long[QUERIES];
+            for (int q = 0; q < QUERIES; q++) {
+                int version = 1 + random.nextInt(versionCount);
+                long t0 = System.nanoTime();
+                sink += history.getManifest(version).getChunkCount();
+                restores[q] = System.nanoTime() - t0;
+            }
+            if (round == 1) {
+                printLatencies("add version (diff)", latencies);
+                printLatencies("restore random version", restores);
+            }
+        }
+        boolean intact = true;
+        for (int v = 1; v <= versionCount; v++) {
+            intact &= history.getManifest(v).getChunks().equals(manifests.get(v - 1).getChunks());
+        }
+        System.out.println("  (every version rebuilds exactly: " + intact + ")");
+        
+        int snapshots = history.getSnapshotCount();
+        history.clear();
+        history = null;
+        long historyHeap = both - usedHeap();
+        long fullHeap = both - historyOnly;
+        sink += manifests.size();
+        System.out.printf("%-32s %,12d bytes%n", "heap, full manifest per version", fullHeap);
+        System.out.printf("%-32s %,12d bytes (%d snapshots, %.1fx smaller)%n", "heap, delta history",
+            historyHeap, snapshots, (double) fullHeap / Math.max(1, historyHeap));
+        
+        System.out.printf("%n%,d small versions, keeping the last %,d:%n", SMALL_VERSIONS, SMALL_RETAINED);
+        ChunkManifest small = store.write(new byte[64]);
+        for (int round = 0; round < 2; round++) {
+            boolean print = round == 1;
+            
+            List<FileVersion> list = new ArrayList<>();
+            VersionHistory scratch = new VersionHistory(store, RetentionPolicy.keepLast(1));
+            long t0 = System.nanoTime();
+            for (int v = 1; v <= SMALL_VERSIONS; v++) {
+                list.add(new FileVersion(v, scratch, 64, user));
+                if (list.size() > SMALL_RETAINED) {
+                    list.remove(0);
+                }
+            }
+            double listAdd = (System.nanoTime() - t0) / (double) SMALL_VERSIONS;
+            
+            VersionHistory ring = new VersionHistory(store, RetentionPolicy.keepLast(SMALL_RETAINED));
+            t0 = System.nanoTime();
+            for (int v = 1; v <= SMALL_VERSIONS; v++) {
+                store.retain(small);
+                ring.add(small, 64, user);
+            }
+            double ringAdd = (System.nanoTime() - t0) / (double) SMALL_VERSIONS;
+            
+            long[] scans = new long[QUERIES];
+            long[] lookups = new long[QUERIES];
+            int oldest = SMALL_VERSIONS - SMALL_RETAINED + 1;
+            for (int q = 0; q < QUERIES; q++) {
+                int version = oldest + random.nextInt(SMALL_RETAINED);
+                long t1 = System.nanoTime();
+                sink += scan(list, version).getVersionNumber();
+                scans[q] = System.nanoTime() - t1;
+                t1 = System.nanoTime();
+                sink += ring.get(version).getVersionNumber();
+                lookups[q] = System.nanoTime() - t1;
+            }
+            if (print) {
+                System.out.printf("%-32s %10.2f µs%n", "add + evict, list remove(0)", listAdd / 1e3);
+                System.out.printf("%-32s %10.2f µs%n", "add + evict, ring", ringAdd / 1e3);
+                printLatencies("get by number, list scan", scans);
+                printLatencies("get by number, ring index", lookups);
+            }
+            ring.clear();
+        }
+        System.out.println("(sink " + sink + ")");
+    }
+    
+    /**
+     * Writes a file of random bytes, then versions of it that each overwrite
+     * a few hundred bytes somewhere, as an editor save would. The same seed
+     * always yields the same versions.
+     */
+    private static void writeVersions(ChunkStore store, int fileSize, int versionCount,
+                                      BiConsumer<Integer, ChunkManifest> sink) {
+        Random random = new Random(7);
+        byte[] data = new byte[fileSize];
+        random.nextBytes(data);
+        for (int v = 0; v < versionCount; v++) {
+            int at = random.nextInt(data.length - 256);
+            for (int i = 0; i < 256; i++) {
+                data[at + i] = (byte) random.nextInt();
+            }
+            sink.accept(v, store.write(data));
+        }
+    }
+    
+    private static FileVersion scan(List<FileVersion> versions, int versionNumber) {
+        for (FileVersion v : versions) {
+            if (v.getVersionNumber() == versionNumber) {
+                return v;
+            }
+        }
+        return null;
+    }
+    
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+    
+    private static void printLatencies(String label, long[] latencies) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        System.out.printf("%-32s p50 %10.2f µs | p99 %10.2f µs%n", label,
+            sorted[sorted.length / 2] / 1e3,
+            sorted[(int) (sorted.length * 0.99)] / 1e3);
+    }
+}
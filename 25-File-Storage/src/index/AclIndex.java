@@ -0,0 +1,194 @@
+package index;
+
+import enums.Permission;
+import model.FileSystemItem;
+import model.SharedAccess;
+import model.User;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Sharing grants indexed both ways: by item (then user) to evaluate access,
+// and by user for "shared with me". A grant on a folder applies to
+// everything below it, so the effective permission is the strongest grant
+// found on the item or any ancestor: O(depth) hash lookups.
+//
+// Decisions are kept in a small LRU cache, making repeated checks O(1). A
+// share or revoke only invalidates the affected user's decisions, by bumping
+// a per-user generation; a move changes inheritance for everyone and bumps
+// the tree generation. Stale entries are recomputed on next use.
+public class AclIndex {
+    private static final int CACHE_CAPACITY = 4096;
+    
+    private final Map<FileSystemItem, Map<User, SharedAccess>> byItem;
+    private final Map<User, Grants> byUser;
+    private final Map<DecisionKey, Decision> decisions;
+    private long treeGeneration;
+    private long cacheHits;
+    private long cacheMisses;
+    
+    // A user's direct grants, in the order they were shared
+    private static final class Grants {
+        final Map<FileSystemItem, SharedAccess> items = new LinkedHashMap<>();
+        int generation;
+    }
+    
+    private static final class DecisionKey {
+        final User user;
+        final FileSystemItem item;
+        
+        DecisionKey(User user, FileSystemItem item) {
+            this.user = user;
+            this.item = item;
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (!(obj instanceof DecisionKey)) return false;
+            DecisionKey key = (DecisionKey) obj;
+            return user.equals(key.user) && item.equals(key.item);
+        }
+        
+        @Override
+        public int hashCode() {
+            return 31 * user.hashCode() + item.hashCode();
+        }
+    }
+    
+    private static final class Decision {
+        final Permission permission;  // null when there is no access
+        final int userGeneration;
+        final long treeGeneration;
+        
+        Decision(Permission permission, int userGeneration, long treeGeneration) {
+            this.permission = permission;
+            this.userGeneration = userGeneration;
+            this.treeGeneration = treeGeneration;
+        }
+    }
+    
+    public AclIndex() {
+        this.byItem = new HashMap<>();
+        this.byUser = new HashMap<>();
+        this.decisions = new LinkedHashMap<DecisionKey, Decision>(CACHE_CAPACITY * 4 / 3 + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<DecisionKey, Decision> eldest) {
+                return size() > CACHE_CAPACITY;
+            }
+        };
+    }
+    
+    // Add a grant, replacing any earlier grant of the same item to the same user
+    public void grant(SharedAccess access) {
+        byItem.computeIfAbsent(access.getItem(), item -> new HashMap<>())
+            .put(access.getSharedWith(), access);
+        Grants grants = byUser.computeIfAbsent(access.getSharedWith(), user -> new Grants());
+        grants.items.put(access.getItem(), access);
+        grants.generation++;
+    }
+    
+    // Remove a user's direct grant on an item. Returns it, or null if none.
+    public SharedAccess revoke(FileSystemItem item, User user) {
+        Map<User, SharedAccess> grantees = byItem.get(item);
+        if (grantees == null) {
+            return null;
+        }
+        SharedAccess removed = grantees.remove(user);
+        if (grantees.isEmpty()) {
+            byItem.remove(item);
+        }
+        if (removed != null) {
+            Grants grants = byUser.get(user);
+            grants.items.remove(item);
+            grants.generation++;
+        }
+        return removed;
+    }
+    
+    // Drop every grant on an item that is being deleted
+    public void removeItem(FileSystemItem item) {
+        Map<User, SharedAccess> grantees = byItem.remove(item);
+        if (grantees != null) {
+            for (User user : grantees.keySet()) {
+                Grants grants = byUser.get(user);
+                grants.items.remove(item);
+                grants.generation++;
+            }
+        }
+    }
+    
+    // An item moved, so inherited grants may have changed for anyone
+    public void onTreeChanged() {
+        treeGeneration++;
+    }
+    
+    public boolean isAllowed(User user, FileSystemItem item, Permission required) {
+        Permission effective = getEffectivePermission(user, item);
+        if (effective == null) {
+            return false;
+        }
+        switch (required) {
+            case VIEWER:
+                return effective.canRead();
+            case EDITOR:
+                return effective.canWrite();
+            default:
+                return effective.canDelete();
+        }
+    }
+    
+    // The strongest permission a user holds on an item, directly or through
+    // a folder above it; OWNER for the item's owner, null for no access
+    public Permission getEffectivePermission(User user, FileSystemItem item) {
+        if (item.getOwner().equals(user)) {
+            return Permission.OWNER;
+        }
+        Grants grants = byUser.get(user);
+        if (grants == null || grants.items.isEmpty()) {
+            return null;
+        }
+        
+        DecisionKey key = new DecisionKey(user, item);
+        Decision cached = decisions.get(key);
+        if (cached != null && cached.userGeneration == grants.generation
+                && cached.treeGeneration == treeGeneration) {
+            cacheHits++;
+            return cached.permission;
+        }
+        cacheMisses++;
+        
+        // Permission constants are declared strongest first
+        Permission strongest = null;
+        for (FileSystemItem at = item; at != null; at = at.getParent()) {
+            SharedAccess access = grants.items.get(at);
+            if (access != null && (strongest == null
+                    || access.getPermission().ordinal() < strongest.ordinal())) {
+                strongest = access.getPermission();
+            }
+        }
+        decisions.put(key, new Decision(strongest, grants.generation, treeGeneration));
+        return strongest;
+    }
+    
+    // Items shared directly with a user, in the order they were shared
+    public List<SharedAccess> getSharedWith(User user) {
+        Grants grants = byUser.get(user);
+        return grants == null ? new ArrayList<>() : new ArrayList<>(grants.items.values());
+    }
+    
+    public List<SharedAccess> getGrants(FileSystemItem item) {
+        Map<User, SharedAccess> grantees = byItem.get(item);
+        return grantees == null ? new ArrayList<>() : new ArrayList<>(grantees.values());
+    }
+    
+    public long getCacheHits() {
+        return cacheHits;
+    }
+    
+    public long getCacheMisses() {
+        return cacheMisses;
+    }
+}
@@ -0,0 +1,74 @@
+package index;
+
+import model.FileSystemItem;
+import model.Folder;
+import model.User;
+import java.util.HashMap;
+import java.util.Map;
+
+// Full path -> item, one table per tree (keyed by the owner of the tree's
+// root, since every user's tree starts at "/root"). A lookup is one hash of
+// the path string, O(depth), instead of a walk from the root.
+//
+// The service keeps it current: items are added when created, removed when
+// deleted, and removed then re-added around a move or rename, which re-keys
+// the whole subtree of a moved folder.
+public class PathIndex {
+    private final Map<User, Map<String, FileSystemItem>> trees;
+    
+    public PathIndex() {
+        this.trees = new HashMap<>();
+    }
+    
+    // Index an item and, for a folder, everything below it
+    public void add(FileSystemItem item) {
+        Map<String, FileSystemItem> paths = trees.computeIfAbsent(rootOf(item).getOwner(), owner -> new HashMap<>());
+        addSubtree(paths, item, item.getPath());
+    }
+    
+    public void remove(FileSystemItem item) {
+        Map<String, FileSystemItem> paths = trees.get(rootOf(item).getOwner());
+        if (paths != null) {
+            removeSubtree(paths, item, item.getPath());
+        }
+    }
+    
+    public FileSystemItem find(User treeOwner, String path) {
+        Map<String, FileSystemItem> paths = trees.get(treeOwner);
+        return paths == null ? null : paths.get(path);
+    }
+    
+    public int size() {
+        int size = 0;
+        for (Map<String, FileSystemItem> paths : trees.values()) {
+            size += paths.size();
+        }
+        return size;
+    }
+    
+    private static void addSubtree(Map<String, FileSystemItem> paths, FileSystemItem item, String path) {
+        paths.put(path, item);
+        if (item.isFolder()) {
+            for (FileSystemItem child : ((Folder) item).getChildren()) {
+                addSubtree(paths, child, path + "/" + child.getName());
+            }
+        }
+    }
+    
+    private static void removeSubtree(Map<String, FileSystemItem> paths, FileSystemItem item, String path) {
+        paths.remove(path, item);
+        if (item.isFolder()) {
+            for (FileSystemItem child : ((Folder) item).getChildren()) {
+                removeSubtree(paths, child, path + "/" + child.getName());
+            }
+        }
+    }
+    
+    private static FileSystemItem rootOf(FileSystemItem item) {
+        FileSystemItem root = item;
+        while (root.getParent() != null) {
+            root = root.getParent();
+        }
+        return root;
+    }
+}
@@ -1,25 +1,38 @@
 package model;
 
 import enums.FileType;
-import java.util.ArrayList;
+import storage.ChunkManifest;
+import storage.ChunkStore;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
+// Content lives in the ChunkStore: the file and each of its versions hold a
+// chunk manifest, and each holds its own reference on the chunks. Versions
+// are kept delta-compressed in a VersionHistory.
 public class File extends FileSystemItem {
-    private String content;
-    private final long size;
+    private final ChunkStore store;
+    private ChunkManifest content;
+    private long size;
     private final FileType type;
-    private final List<FileVersion> versions;
-    private static final int MAX_VERSIONS = 10;
+    private final VersionHistory versions;
     
-    public File(String name, User owner, Folder parent, String content, long size) {
+    public File(String name, User owner, Folder parent, ChunkStore store, String content, long size) {
+        this(name, owner, parent, store, store.write(content.getBytes(StandardCharsets.UTF_8)), size);
+    }
+    
+    // Content already in the store (e.g. streamed in); the file takes over
+    // the manifest's reference
+    public File(String name, User owner, Folder parent, ChunkStore store, ChunkManifest manifest, long size) {
         super(name, owner, parent);
-        this.content = content;
+        this.store = store;
         this.size = size;
         this.type = FileType.fromFileName(name);
-        this.versions = new ArrayList<>();
+        this.versions = new VersionHistory(store, RetentionPolicy.DEFAULT);
         
         // Create initial version
-        addVersion(content, owner);
+        versions.add(manifest, size, owner);
+        this.content = manifest;
+        store.retain(manifest);
     }
     
     @Override
@@ -32,46 +45,75 @@ public class File extends FileSystemItem {
         return true;
     }
     
+    // Only chunks not already stored hit the disk
     public void updateContent(String newContent, User modifiedBy) {
-        this.content = newContent;
-        this.updateModifiedDate();
-        addVersion(newContent, modifiedBy);
+        updateContent(store.write(newContent.getBytes(StandardCharsets.UTF_8)), size, modifiedBy);
     }
     
-    private void addVersion(String content, User modifiedBy) {
-        int versionNumber = versions.size() + 1;
-        FileVersion version = new FileVersion(versionNumber, content, size, modifiedBy);
-        versions.add(version);
-        
-        // Keep only last MAX_VERSIONS
-        if (versions.size() > MAX_VERSIONS) {
-            versions.remove(0);
+    // Record stored content as the next version; takes over the manifest's reference
+    public void updateContent(ChunkManifest manifest, long newSize, User modifiedBy) {
+        if (parent != null && parent.findByName(name) == this) {
+            parent.adjust(newSize - size, 0, 0);
         }
+        this.size = newSize;
+        versions.add(manifest, newSize, modifiedBy);
+        setContent(manifest);
+        this.updateModifiedDate();
     }
     
+    // The restored version's size counts again, against folder totals and
+    // the owner's quota, as when the content was written
     public void restoreVersion(int versionNumber) {
         FileVersion version = getVersion(versionNumber);
         if (version != null) {
-            this.content = version.getContent();
+            long delta = version.getSize() - size;
+            if (delta > 0 && !owner.canUpload(delta)) {
+                throw new IllegalStateException(String.format(
+                    "Insufficient storage to restore v%d. Available: %s",
+                    versionNumber, owner.getAvailableStorageDisplay()));
+            }
+            if (parent != null && parent.findByName(name) == this) {
+                parent.adjust(delta, 0, 0);
+            }
+            owner.updateUsedStorage(delta);
+            this.size = version.getSize();
+            setContent(versions.getManifest(versionNumber));
             this.updateModifiedDate();
         }
     }
     
+    private void setContent(ChunkManifest manifest) {
+        store.retain(manifest);
+        store.release(content);
+        this.content = manifest;
+    }
+    
+    // Drop this file's references to its chunks, on delete. Chunks no other
+    // file shares are reclaimed by the store's next gc().
+    public void discardContent() {
+        store.release(content);
+        content = ChunkManifest.EMPTY;
+        versions.clear();
+    }
+    
+    public void setRetentionPolicy(RetentionPolicy policy) {
+        versions.setPolicy(policy);
+    }
+    
     public FileVersion getVersion(int versionNumber) {
-        for (FileVersion v : versions) {
-            if (v.getVersionNumber() == versionNumber) {
-                return v;
-            }
-        }
-        return null;
+        return versions.get(versionNumber);
     }
     
     public FileVersion getLatestVersion() {
-        return versions.isEmpty() ? null : versions.get(versions.size() - 1);
+        return versions.getLatest();
     }
     
     // Getters
     public String getContent() {
+        return new String(store.read(content), StandardCharsets.UTF_8);
+    }
+    
+    public ChunkManifest getManifest() {
         return content;
     }
     
@@ -80,7 +122,11 @@ public class File extends FileSystemItem {
     }
     
     public List<FileVersion> getVersions() {
-        return new ArrayList<>(versions);
+        return versions.getVersions();
+    }
+    
+    public VersionHistory getHistory() {
+        return versions;
     }
     
     public int getVersionCount() {
@@ -28,6 +28,9 @@ public abstract class FileSystemItem {
     }
     
     public void setName(String name) {
+        if (parent != null) {
+            parent.renameChild(this, name);
+        }
         this.name = name;
         this.modifiedDate = LocalDateTime.now();
     }
@@ -1,18 +1,20 @@
 package model;
 
+import storage.ChunkManifest;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
 public class FileVersion {
     private final int versionNumber;
-    private final String content;
+    private final VersionHistory history;
     private final long size;
     private final User modifiedBy;
     private final LocalDateTime modifiedDate;
     
-    public FileVersion(int versionNumber, String content, long size, User modifiedBy) {
+    public FileVersion(int versionNumber, VersionHistory history, long size, User modifiedBy) {
         this.versionNumber = versionNumber;
-        this.content = content;
+        this.history = history;
         this.size = size;
         this.modifiedBy = modifiedBy;
         this.modifiedDate = LocalDateTime.now();
@@ -23,8 +25,13 @@ public class FileVersion {
         return versionNumber;
     }
     
+    // Content is rebuilt from the history; fails once the version is evicted
     public String getContent() {
-        return content;
+        return new String(history.readContent(versionNumber), StandardCharsets.UTF_8);
+    }
+    
+    public ChunkManifest getManifest() {
+        return history.getManifest(versionNumber);
     }
     
     public long getSize() {
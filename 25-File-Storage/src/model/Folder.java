@@ -1,22 +1,29 @@
 package model;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
+// Children are indexed by name, so lookups, adds and removes do not scan.
+// Each folder also keeps byte and item totals for its whole subtree; every
+// change applies its delta to the folder and each ancestor, so getSize() on
+// any folder, the root included, is O(1) and updates cost O(depth).
 public class Folder extends FileSystemItem {
-    private final List<FileSystemItem> children;
+    private final Map<String, FileSystemItem> children; // name -> item, in insertion order
+    private long totalSize;   // bytes in all files below this folder
+    private int fileCount;    // files below this folder, at any depth
+    private int folderCount;  // folders below this folder, at any depth
     
     public Folder(String name, User owner, Folder parent) {
         super(name, owner, parent);
-        this.children = new ArrayList<>();
+        this.children = new LinkedHashMap<>();
     }
     
     @Override
     public long getSize() {
-        return children.stream()
-            .mapToLong(FileSystemItem::getSize)
-            .sum();
+        return totalSize;
     }
     
     @Override
@@ -24,44 +31,100 @@ public class Folder extends FileSystemItem {
         return false;
     }
     
+    // Add an item, taking it out of its previous folder first if it is in one
     public void addItem(FileSystemItem item) {
-        if (!children.contains(item)) {
-            children.add(item);
-            item.setParent(this);
-            updateModifiedDate();
+        FileSystemItem existing = children.get(item.getName());
+        if (item.equals(existing)) {
+            return;
         }
+        if (existing != null) {
+            throw new IllegalArgumentException(
+                String.format("An item named '%s' already exists in %s", item.getName(), getPath()));
+        }
+        if (item.isFolder() && isWithin((Folder) item)) {
+            throw new IllegalArgumentException(
+                String.format("Cannot move %s into its own subtree %s", item.getPath(), getPath()));
+        }
+        
+        Folder previous = item.getParent();
+        if (previous != null && previous != this) {
+            previous.removeItem(item);
+        }
+        children.put(item.getName(), item);
+        item.setParent(this);
+        applyDelta(item, 1);
+        updateModifiedDate();
     }
     
     public void removeItem(FileSystemItem item) {
-        children.remove(item);
+        if (item.equals(children.get(item.getName()))) {
+            children.remove(item.getName());
+            applyDelta(item, -1);
+        }
         updateModifiedDate();
     }
     
+    // Re-key a child whose name is about to change
+    void renameChild(FileSystemItem item, String newName) {
+        if (!item.equals(children.get(item.getName()))) {
+            return;
+        }
+        if (children.containsKey(newName)) {
+            throw new IllegalArgumentException(
+                String.format("An item named '%s' already exists in %s", newName, getPath()));
+        }
+        children.remove(item.getName());
+        children.put(newName, item);
+    }
+    
+    // Add or subtract an item's totals here and in every ancestor
+    private void applyDelta(FileSystemItem item, int sign) {
+        if (item.isFile()) {
+            adjust(sign * item.getSize(), sign, 0);
+        } else {
+            Folder folder = (Folder) item;
+            adjust(sign * folder.totalSize, sign * folder.fileCount, sign * (folder.folderCount + 1));
+        }
+    }
+    
+    void adjust(long sizeDelta, int fileDelta, int folderDelta) {
+        for (Folder folder = this; folder != null; folder = folder.parent) {
+            folder.totalSize += sizeDelta;
+            folder.fileCount += fileDelta;
+            folder.folderCount += folderDelta;
+        }
+    }
+    
+    // True if this folder is the given folder or lies below it
+    private boolean isWithin(Folder ancestor) {
+        for (Folder folder = this; folder != null; folder = folder.parent) {
+            if (folder == ancestor) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
     public List<FileSystemItem> getChildren() {
-        return new ArrayList<>(children);
+        return new ArrayList<>(children.values());
     }
     
     public List<File> getFiles() {
-        return children.stream()
+        return children.values().stream()
             .filter(FileSystemItem::isFile)
             .map(item -> (File) item)
             .collect(Collectors.toList());
     }
     
     public List<Folder> getFolders() {
-        return children.stream()
+        return children.values().stream()
             .filter(FileSystemItem::isFolder)
             .map(item -> (Folder) item)
             .collect(Collectors.toList());
     }
     
     public FileSystemItem findByName(String name) {
-        for (FileSystemItem item : children) {
-            if (item.getName().equals(name)) {
-                return item;
-            }
-        }
-        return null;
+        return children.get(name);
     }
     
     public boolean isEmpty() {
@@ -72,6 +135,14 @@ public class Folder extends FileSystemItem {
         return children.size();
     }
     
+    public int getTotalFileCount() {
+        return fileCount;
+    }
+    
+    public int getTotalFolderCount() {
+        return folderCount;
+    }
+    
     public void listContents(int depth) {
         StringBuilder indentBuilder = new StringBuilder();
         for (int i = 0; i < depth; i++) {
@@ -80,11 +151,11 @@ public class Folder extends FileSystemItem {
         String indent = indentBuilder.toString();
         System.out.println(indent + "📁 " + name + "/");
         
-        for (FileSystemItem item : children) {
+        for (FileSystemItem item : children.values()) {
             if (item.isFolder()) {
                 ((Folder) item).listContents(depth + 1);
             } else {
-                System.out.println(indent + "  📄 " + item.getName() + 
+                System.out.println(indent + "  📄 " + item.getName() +
                     " (" + formatBytes(item.getSize()) + ")");
             }
         }
@@ -0,0 +1,63 @@
+package model;
+
+import java.time.Duration;
+
+// How much version history a file keeps. A version is evicted, oldest first,
+// once there are more than maxVersions, it is older than maxAge, or the
+// history's bytes exceed maxBytes. The newest version is always kept.
+//
+// History bytes count the oldest retained version in full plus what each
+// later version added over its predecessor (its new chunks), which is what
+// the history actually costs in storage.
+public class RetentionPolicy {
+    public static final RetentionPolicy DEFAULT = keepLast(10);
+    
+    private final int maxVersions;
+    private final Duration maxAge;   // null for no age limit
+    private final long maxBytes;
+    
+    public RetentionPolicy(int maxVersions, Duration maxAge, long maxBytes) {
+        if (maxVersions < 1) {
+            throw new IllegalArgumentException("Must keep at least one version: " + maxVersions);
+        }
+        if (maxAge != null && maxAge.isNegative()) {
+            throw new IllegalArgumentException("Negative maximum age: " + maxAge);
+        }
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("Negative byte limit: " + maxBytes);
+        }
+        this.maxVersions = maxVersions;
+        this.maxAge = maxAge;
+        this.maxBytes = maxBytes;
+    }
+    
+    public static RetentionPolicy keepLast(int versions) {
+        return new RetentionPolicy(versions, null, Long.MAX_VALUE);
+    }
+    
+    public RetentionPolicy withMaxAge(Duration age) {
+        return new RetentionPolicy(maxVersions, age, maxBytes);
+    }
+    
+    public RetentionPolicy withMaxBytes(long bytes) {
+        return new RetentionPolicy(maxVersions, maxAge, bytes);
+    }
+    
+    public int getMaxVersions() {
+        return maxVersions;
+    }
+    
+    public Duration getMaxAge() {
+        return maxAge;
+    }
+    
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("RetentionPolicy[%d versions, age %s, %s bytes]", maxVersions,
+            maxAge == null ? "unlimited" : maxAge, maxBytes == Long.MAX_VALUE ? "unlimited" : String.valueOf(maxBytes));
+    }
+}
@@ -0,0 +1,238 @@
+package model;
+
+import storage.ChunkManifest;
+import storage.ChunkStore;
+import storage.ManifestDelta;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// A file's versions, oldest first, in a ring buffer. Version numbers are
+// consecutive, so a version's slot is computed rather than searched for,
+// and evicting the oldest just advances the head: both O(1).
+//
+// Every snapshotInterval-th version stores its full chunk manifest; the ones
+// in between store a ManifestDelta from their predecessor. Restoring any
+// version costs one snapshot plus at most snapshotInterval - 1 deltas. The
+// oldest retained version is always a snapshot: evicting a snapshot turns
+// its successor into one.
+//
+// Each retained version holds one reference to each of its chunks, released
+// when it is evicted.
+public class VersionHistory {
+    public static final int DEFAULT_SNAPSHOT_INTERVAL = 8;
+    
+    private final ChunkStore store;
+    private final int snapshotInterval;
+    private RetentionPolicy policy;
+    private Entry[] ring;
+    private int head;                // slot of the oldest retained version
+    private int count;
+    private int nextVersionNumber;
+    private long retainedBytes;      // sum of the retained versions' addedBytes
+    private ChunkManifest latest;    // newest version, kept whole to diff against
+    
+    private static final class Entry {
+        final FileVersion version;
+        long addedBytes;             // bytes of chunks new in this version, all for the oldest
+        ChunkManifest snapshot;      // set for snapshots
+        ManifestDelta delta;         // otherwise, from the previous version
+        int chainLength;             // deltas back to the nearest snapshot
+        
+        Entry(FileVersion version, long addedBytes) {
+            this.version = version;
+            this.addedBytes = addedBytes;
+        }
+    }
+    
+    public VersionHistory(ChunkStore store, RetentionPolicy policy) {
+        this(store, policy, DEFAULT_SNAPSHOT_INTERVAL);
+    }
+    
+    public VersionHistory(ChunkStore store, RetentionPolicy policy, int snapshotInterval) {
+        if (snapshotInterval < 1) {
+            throw new IllegalArgumentException("Snapshot interval must be positive: " + snapshotInterval);
+        }
+        this.store = store;
+        this.policy = policy;
+        this.snapshotInterval = snapshotInterval;
+        this.ring = new Entry[Math.min(policy.getMaxVersions(), 15) + 1];  // room for one over the limit
+        this.nextVersionNumber = 1;
+    }
+    
+    // Record content as the next version, taking over the manifest's
+    // reference, then evict whatever the retention policy no longer allows
+    public FileVersion add(ChunkManifest manifest, long size, User modifiedBy) {
+        FileVersion version = new FileVersion(nextVersionNumber++, this, size, modifiedBy);
+        Entry previous = count == 0 ? null : ring[slot(count - 1)];
+        Entry entry;
+        if (previous == null) {
+            entry = new Entry(version, manifest.getSize());
+            entry.snapshot = manifest;
+        } else {
+            ManifestDelta delta = ManifestDelta.between(latest, manifest);
+            entry = new Entry(version, delta.getInsertedBytes());
+            if (previous.chainLength + 1 >= snapshotInterval) {
+                entry.snapshot = manifest;
+            } else {
+                entry.delta = delta;
+                entry.chainLength = previous.chainLength + 1;
+            }
+        }
+        
+        if (count == ring.length) {
+            grow();
+        }
+        ring[slot(count)] = entry;
+        count++;
+        retainedBytes += entry.addedBytes;
+        latest = manifest;
+        applyRetention();
+        return version;
+    }
+    
+    // Evict versions the policy no longer allows, e.g. ones that have aged
+    // out since the last add. The newest version is always kept.
+    public void applyRetention() {
+        LocalDateTime cutoff = policy.getMaxAge() == null ? null : LocalDateTime.now().minus(policy.getMaxAge());
+        while (count > 1 && (count > policy.getMaxVersions()
+                || retainedBytes > policy.getMaxBytes()
+                || (cutoff != null && ring[head].version.getModifiedDate().isBefore(cutoff)))) {
+            evictOldest();
+        }
+    }
+    
+    private void evictOldest() {
+        Entry oldest = ring[head];
+        if (count > 1) {
+            Entry next = ring[slot(1)];
+            if (next.delta != null) {
+                // Rebase the successor and shorten the chains that lead to it
+                int shortenedBy = next.chainLength;
+                next.snapshot = next.delta.applyTo(oldest.snapshot);
+                next.delta = null;
+                next.chainLength = 0;
+                for (int i = 2; i < count && ring[slot(i)].delta != null; i++) {
+                    ring[slot(i)].chainLength -= shortenedBy;
+                }
+            }
+            // The successor becomes the oldest, so all of its chunks now count
+            retainedBytes += next.snapshot.getSize() - next.addedBytes;
+            next.addedBytes = next.snapshot.getSize();
+        }
+        store.release(oldest.snapshot);
+        retainedBytes -= oldest.addedBytes;
+        ring[head] = null;
+        head = (head + 1) % ring.length;
+        count--;
+    }
+    
+    public void setPolicy(RetentionPolicy policy) {
+        this.policy = policy;
+        applyRetention();
+    }
+    
+    // Version by number in O(1), or null if it was evicted or never existed
+    public FileVersion get(int versionNumber) {
+        int index = indexOf(versionNumber);
+        return index < 0 ? null : ring[slot(index)].version;
+    }
+    
+    public FileVersion getLatest() {
+        return count == 0 ? null : ring[slot(count - 1)].version;
+    }
+    
+    // Rebuild a version's manifest from its snapshot and the deltas after it
+    public ChunkManifest getManifest(int versionNumber) {
+        int index = indexOf(versionNumber);
+        if (index < 0) {
+            throw new IllegalStateException("Version " + versionNumber + " is no longer retained");
+        }
+        if (index == count - 1) {
+            return latest;
+        }
+        int base = index - ring[slot(index)].chainLength;
+        ChunkManifest manifest = ring[slot(base)].snapshot;
+        for (int i = base + 1; i <= index; i++) {
+            manifest = ring[slot(i)].delta.applyTo(manifest);
+        }
+        return manifest;
+    }
+    
+    byte[] readContent(int versionNumber) {
+        return store.read(getManifest(versionNumber));
+    }
+    
+    // Deltas applied to restore a version, at most snapshotInterval - 1
+    public int getChainLength(int versionNumber) {
+        int index = indexOf(versionNumber);
+        return index < 0 || index == count - 1 ? 0 : ring[slot(index)].chainLength;
+    }
+    
+    // Release every version's chunks, e.g. when the file is deleted
+    public void clear() {
+        ChunkManifest manifest = null;
+        for (int i = 0; i < count; i++) {
+            Entry entry = ring[slot(i)];
+            manifest = entry.snapshot != null ? entry.snapshot : entry.delta.applyTo(manifest);
+            store.release(manifest);
+            ring[slot(i)] = null;
+        }
+        head = 0;
+        count = 0;
+        retainedBytes = 0;
+        latest = null;
+    }
+    
+    public List<FileVersion> getVersions() {
+        List<FileVersion> versions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            versions.add(ring[slot(i)].version);
+        }
+        return versions;
+    }
+    
+    public int size() {
+        return count;
+    }
+    
+    public int getSnapshotCount() {
+        int snapshots = 0;
+        for (int i = 0; i < count; i++) {
+            if (ring[slot(i)].snapshot != null) {
+                snapshots++;
+            }
+        }
+        return snapshots;
+    }
+    
+    public long getRetainedBytes() {
+        return retainedBytes;
+    }
+    
+    public RetentionPolicy getPolicy() {
+        return policy;
+    }
+    
+    private int indexOf(int versionNumber) {
+        if (count == 0) {
+            return -1;
+        }
+        int index = versionNumber - ring[head].version.getVersionNumber();
+        return index >= 0 && index < count ? index : -1;
+    }
+    
+    private int slot(int index) {
+        int slot = head + index;
+        return slot < ring.length ? slot : slot - ring.length;
+    }
+    
+    private void grow() {
+        Entry[] grown = new Entry[ring.length * 2];
+        for (int i = 0; i < count; i++) {
+            grown[i] = ring[slot(i)];
+        }
+        ring = grown;
+        head = 0;
+    }
+}
@@ -3,24 +3,44 @@ package service;
 import model.*;
 import enums.*;
 import observer.*;
+import index.AclIndex;
+import index.PathIndex;
+import storage.ChunkManifest;
+import storage.ChunkStore;
+import storage.ChunkWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.*;
 import java.util.stream.Collectors;
 
 public class FileStorageService {
     private static FileStorageService instance;
+    private static final int TRANSFER_BUFFER_SIZE = 64 * 1024;
     
     private final Map<String, User> users;
     private final Map<String, FileSystemItem> items;
-    private final List<SharedAccess> sharedAccesses;
+    private final AclIndex acl;
     private final List<StorageObserver> observers;
     private final Map<User, Folder> rootFolders;
+    private final PathIndex pathIndex;
+    private final ChunkStore chunkStore;
+    private final ThreadLocal<ByteBuffer> transferBuffer; // per uploading thread, so uploads can overlap
     
     private FileStorageService() {
         this.users = new HashMap<>();
         this.items = new HashMap<>();
-        this.sharedAccesses = new ArrayList<>();
+        this.acl = new AclIndex();
         this.observers = new ArrayList<>();
         this.rootFolders = new HashMap<>();
+        this.pathIndex = new PathIndex();
+        this.chunkStore = ChunkStore.temporary();
+        this.transferBuffer = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(TRANSFER_BUFFER_SIZE));
     }
     
     public static synchronized FileStorageService getInstance() {
@@ -38,6 +58,7 @@ public class FileStorageService {
         Folder root = new Folder("root", user, null);
         rootFolders.put(user, root);
         items.put(root.getId(), root);
+        pathIndex.add(root);
         
         System.out.println("✅ User registered: " + user);
     }
@@ -54,15 +75,36 @@ public class FileStorageService {
                 String.format("Insufficient storage. Available: %s, Required: %s",
                     user.getAvailableStorageDisplay(), formatBytes(size)));
         }
+        checkNameFree(folder, fileName);
         
         // Create file
-        File file = new File(fileName, user, folder, content, size);
+        File file = new File(fileName, user, folder, chunkStore, content, size);
+        return addFile(user, file, folder);
+    }
+    
+    // Streaming upload: bytes pass through a fixed-size direct buffer into
+    // the chunk store as they arrive, and quota is checked per buffer, so the
+    // file never has to fit in memory and an over-quota upload stops early.
+    public File uploadFile(User user, String fileName, ReadableByteChannel source, Folder folder) {
+        checkNameFree(folder, fileName);
+        ChunkManifest manifest = receive(user, 0, source);
+        File file = new File(fileName, user, folder, chunkStore, manifest, manifest.getSize());
+        return addFile(user, file, folder);
+    }
+    
+    public File uploadFile(User user, String fileName, InputStream source, Folder folder) {
+        return uploadFile(user, fileName, Channels.newChannel(source), folder);
+    }
+    
+    private File addFile(User user, File file, Folder folder) {
+        long size = file.getSize();
         items.put(file.getId(), file);
         
         // Add to folder
         if (folder != null) {
             folder.addItem(file);
         }
+        pathIndex.add(file);
         
         // Update user storage
         user.updateUsedStorage(size);
@@ -74,11 +116,41 @@ public class FileStorageService {
         }
         
         System.out.printf("✅ File uploaded: %s (%s) to %s\n",
-            fileName, formatBytes(size), folder != null ? folder.getPath() : "/");
+            file.getName(), formatBytes(size), folder != null ? folder.getPath() : "/");
         
         return file;
     }
     
+    // Chunk a stream into the store, failing as soon as the owner's quota
+    // would be exceeded. replacedBytes is the size of the content being
+    // overwritten, which is freed when the new content lands.
+    private ChunkManifest receive(User owner, long replacedBytes, ReadableByteChannel source) {
+        ChunkWriter writer = chunkStore.newWriter();
+        ByteBuffer buffer = transferBuffer.get();
+        try {
+            long received = 0;
+            buffer.clear();
+            while (source.read(buffer) >= 0) {
+                buffer.flip();
+                received += buffer.remaining();
+                if (!owner.canUpload(received - replacedBytes)) {
+                    throw new IllegalStateException(
+                        String.format("Insufficient storage. Available: %s, exceeded after %s",
+                            owner.getAvailableStorageDisplay(), formatBytes(received)));
+                }
+                writer.write(buffer);
+                buffer.clear();
+            }
+            return writer.finish();
+        } catch (IOException e) {
+            writer.abort();
+            throw new UncheckedIOException("Upload failed", e);
+        } catch (RuntimeException e) {
+            writer.abort();
+            throw e;
+        }
+    }
+    
     public String downloadFile(User user, File file) {
         // Check permission
         if (!hasPermission(user, file, Permission.VIEWER)) {
@@ -89,6 +161,43 @@ public class FileStorageService {
         return file.getContent();
     }
     
+    // Streaming download of the whole file
+    public long downloadFile(User user, File file, WritableByteChannel target) {
+        return downloadFile(user, file, 0, Long.MAX_VALUE, target);
+    }
+    
+    public long downloadFile(User user, File file, OutputStream target) {
+        return downloadFile(user, file, Channels.newChannel(target));
+    }
+    
+    // Ranged download: up to length bytes starting at offset, so an
+    // interrupted download resumes from the bytes already received. Chunk
+    // files are sent with FileChannel.transferTo (zero-copy to files and
+    // sockets). Returns the bytes sent.
+    public long downloadFile(User user, File file, long offset, long length, WritableByteChannel target) {
+        // Check permission
+        if (!hasPermission(user, file, Permission.VIEWER)) {
+            throw new SecurityException("No permission to download this file");
+        }
+        
+        ChunkManifest manifest = file.getManifest();
+        if (offset < 0 || offset > manifest.getSize()) {
+            throw new IllegalArgumentException(
+                String.format("Offset %d outside %s (%d bytes)", offset, file.getName(), manifest.getSize()));
+        }
+        
+        long sent;
+        try {
+            sent = chunkStore.transferTo(manifest, offset, length, target);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Download failed: " + file.getName(), e);
+        }
+        
+        System.out.printf("📥 Downloaded: %s by %s (%s from offset %d)\n",
+            file.getName(), user.getName(), formatBytes(sent), offset);
+        return sent;
+    }
+    
     public void deleteFile(User user, File file) {
         // Only owner can delete
         if (!file.getOwner().equals(user)) {
@@ -96,6 +205,7 @@ public class FileStorageService {
         }
         
         // Remove from parent folder
+        pathIndex.remove(file);
         if (file.getParent() != null) {
             file.getParent().removeItem(file);
         }
@@ -103,11 +213,12 @@ public class FileStorageService {
         // Update user storage
         user.updateUsedStorage(-file.getSize());
         
-        // Remove from items
+        // Remove from items and drop its chunk references
         items.remove(file.getId());
+        file.discardContent();
         
         // Remove shared accesses
-        sharedAccesses.removeIf(sa -> sa.getItem().equals(file));
+        acl.removeItem(file);
         
         // Notify observers
         notifyFileDeleted(file);
@@ -117,12 +228,14 @@ public class FileStorageService {
     
     // Folder Operations
     public Folder createFolder(User user, String folderName, Folder parent) {
+        checkNameFree(parent, folderName);
         Folder folder = new Folder(folderName, user, parent);
         items.put(folder.getId(), folder);
         
         if (parent != null) {
             parent.addItem(folder);
         }
+        pathIndex.add(folder);
         
         System.out.printf("📁 Created folder: %s\n", folder.getPath());
         return folder;
@@ -132,6 +245,68 @@ public class FileStorageService {
         return rootFolders.get(user);
     }
     
+    // Move a file or folder (with its subtree) into another folder of the
+    // owner's own tree, where its bytes keep counting against the owner's
+    // quota. Folder sizes are adjusted along both parent chains; a moved
+    // folder's subtree is re-keyed in the path index.
+    public void moveItem(User user, FileSystemItem item, Folder target) {
+        if (!item.getOwner().equals(user)) {
+            throw new SecurityException("Only owner can move items");
+        }
+        if (!treeOwner(target).equals(user)) {
+            throw new SecurityException("Items can only be moved within the owner's own folders");
+        }
+        checkNameFree(target, item.getName());
+        
+        pathIndex.remove(item);
+        try {
+            target.addItem(item);
+        } finally {
+            pathIndex.add(item);
+            acl.onTreeChanged();
+        }
+        
+        System.out.printf("📦 Moved: %s to %s\n", item.getName(), target.getPath());
+    }
+    
+    public void renameItem(User user, FileSystemItem item, String newName) {
+        if (!item.getOwner().equals(user)) {
+            throw new SecurityException("Only owner can rename items");
+        }
+        String oldName = item.getName();
+        
+        pathIndex.remove(item);
+        try {
+            item.setName(newName);
+        } finally {
+            pathIndex.add(item);
+        }
+        
+        System.out.printf("🏷️  Renamed: %s to %s\n", oldName, newName);
+    }
+    
+    // Look up an item by full path (e.g. "/root/Documents/report.pdf") in a
+    // user's tree. Returns null if there is none.
+    public FileSystemItem findByPath(User user, String path) {
+        return pathIndex.find(user, path);
+    }
+    
+    // Owner of the tree an item is in: the owner of its root folder
+    private static User treeOwner(FileSystemItem item) {
+        FileSystemItem root = item;
+        while (root.getParent() != null) {
+            root = root.getParent();
+        }
+        return root.getOwner();
+    }
+    
+    private void checkNameFree(Folder folder, String name) {
+        if (folder != null && folder.findByName(name) != null) {
+            throw new IllegalArgumentException(
+                String.format("An item named '%s' already exists in %s", name, folder.getPath()));
+        }
+    }
+    
     // Sharing
     public void shareItem(User owner, FileSystemItem item, User sharedWith, Permission permission) {
         // Only owner can share
@@ -140,7 +315,7 @@ public class FileStorageService {
         }
         
         SharedAccess access = new SharedAccess(item, sharedWith, permission, owner);
-        sharedAccesses.add(access);
+        acl.grant(access);
         
         // Notify observers
         notifyFileShared(item, sharedWith, permission);
@@ -154,34 +329,14 @@ public class FileStorageService {
             throw new SecurityException("Only owner can revoke access");
         }
         
-        sharedAccesses.removeIf(sa -> 
-            sa.getItem().equals(item) && sa.getSharedWith().equals(user));
+        acl.revoke(item, user);
         
         System.out.printf("🚫 Revoked access: %s from %s\n", item.getName(), user.getName());
     }
     
+    // Owner, or a grant on the item or any folder above it
     private boolean hasPermission(User user, FileSystemItem item, Permission minPermission) {
-        // Owner has all permissions
-        if (item.getOwner().equals(user)) {
-            return true;
-        }
-        
-        // Check shared access
-        for (SharedAccess sa : sharedAccesses) {
-            if (sa.getItem().equals(item) && sa.getSharedWith().equals(user)) {
-                // Check if permission level is sufficient
-                Permission userPerm = sa.getPermission();
-                if (minPermission == Permission.VIEWER) {
-                    return userPerm.canRead();
-                } else if (minPermission == Permission.EDITOR) {
-                    return userPerm.canWrite();
-                } else if (minPermission == Permission.OWNER) {
-                    return userPerm.canDelete();
-                }
-            }
-        }
-        
-        return false;
+        return acl.isAllowed(user, item, minPermission);
     }
     
     // File Modification
@@ -200,6 +355,30 @@ public class FileStorageService {
             file.getName(), user.getName(), file.getVersionCount());
     }
     
+    // Streaming modification: the new content becomes the next version once
+    // the stream ends; quota is checked against the owner as bytes arrive
+    public void modifyFile(User user, File file, ReadableByteChannel source) {
+        // Check write permission
+        if (!hasPermission(user, file, Permission.EDITOR)) {
+            throw new SecurityException("No permission to modify this file");
+        }
+        
+        User owner = file.getOwner();
+        ChunkManifest manifest = receive(owner, file.getSize(), source);
+        owner.updateUsedStorage(manifest.getSize() - file.getSize());
+        file.updateContent(manifest, manifest.getSize(), user);
+        
+        // Notify observers
+        notifyFileModified(file, user);
+        
+        System.out.printf("✏️  Modified: %s by %s (now v%d)\n",
+            file.getName(), user.getName(), file.getVersionCount());
+    }
+    
+    public void modifyFile(User user, File file, InputStream source) {
+        modifyFile(user, file, Channels.newChannel(source));
+    }
+    
     // Search
     public List<File> searchByName(String query) {
         return items.values().stream()
@@ -226,8 +405,7 @@ public class FileStorageService {
     }
     
     public List<FileSystemItem> getSharedWithUser(User user) {
-        return sharedAccesses.stream()
-            .filter(sa -> sa.getSharedWith().equals(user))
+        return acl.getSharedWith(user).stream()
             .map(SharedAccess::getItem)
             .collect(Collectors.toList());
     }
@@ -267,8 +445,23 @@ public class FileStorageService {
         }
     }
     
+    // Chunk storage
+    public long collectGarbage() {
+        long freed = chunkStore.gc();
+        System.out.printf("♻️  Garbage collected: %s of unreferenced chunks\n", formatBytes(freed));
+        return freed;
+    }
+    
     // Getters
     public User getUser(String userId) {
         return users.get(userId);
     }
+    
+    public AclIndex getAcl() {
+        return acl;
+    }
+    
+    public ChunkStore getChunkStore() {
+        return chunkStore;
+    }
 }
@@ -0,0 +1,65 @@
+package storage;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+// The ordered list of chunks that make up one piece of content. Immutable;
+// reference counts live in the ChunkStore, not here.
+public final class ChunkManifest {
+    public static final ChunkManifest EMPTY = new ChunkManifest(new ChunkRef[0]);
+    
+    private final ChunkRef[] chunks;
+    private final long[] offsets;  // content offset where each chunk starts
+    private final long size;
+    
+    ChunkManifest(ChunkRef[] chunks) {
+        this.chunks = chunks;
+        this.offsets = new long[chunks.length];
+        long total = 0;
+        for (int i = 0; i < chunks.length; i++) {
+            offsets[i] = total;
+            total += chunks[i].getLength();
+        }
+        this.size = total;
+    }
+    
+    public ChunkRef getChunk(int index) {
+        return chunks[index];
+    }
+    
+    void copyChunks(int from, ChunkRef[] target, int at, int count) {
+        System.arraycopy(chunks, from, target, at, count);
+    }
+    
+    public long getOffset(int index) {
+        return offsets[index];
+    }
+    
+    // Index of the chunk holding the byte at position, by binary search
+    public int chunkIndexAt(long position) {
+        if (position < 0 || position >= size) {
+            throw new IllegalArgumentException("Position " + position + " outside content of " + size + " bytes");
+        }
+        int index = Arrays.binarySearch(offsets, position);
+        return index >= 0 ? index : -index - 2;
+    }
+    
+    public int getChunkCount() {
+        return chunks.length;
+    }
+    
+    public List<ChunkRef> getChunks() {
+        return Collections.unmodifiableList(Arrays.asList(chunks));
+    }
+    
+    // Content length in bytes
+    public long getSize() {
+        return size;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("Manifest[%d chunks, %d bytes]", chunks.length, size);
+    }
+}
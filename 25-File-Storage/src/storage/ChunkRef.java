@@ -0,0 +1,37 @@
+package storage;
+
+// One stored chunk: its SHA-256 digest (hex) and length in bytes
+public final class ChunkRef {
+    private final String digest;
+    private final int length;
+    
+    ChunkRef(String digest, int length) {
+        this.digest = digest;
+        this.length = length;
+    }
+    
+    public String getDigest() {
+        return digest;
+    }
+    
+    public int getLength() {
+        return length;
+    }
+    
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+        return digest.equals(((ChunkRef) obj).digest);
+    }
+    
+    @Override
+    public int hashCode() {
+        return digest.hashCode();
+    }
+    
+    @Override
+    public String toString() {
+        return digest.substring(0, 12) + " (" + length + " bytes)";
+    }
+}
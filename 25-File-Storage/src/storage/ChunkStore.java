@@ -0,0 +1,341 @@
+package storage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+// Content-addressed chunk storage on local disk.
+//
+// Content is cut into chunks by the Chunker and each distinct chunk is
+// written once, to a file named by its SHA-256 digest (dir/ab/cdef...), with
+// a reference count held in memory. Writing content whose chunks are already
+// stored only bumps their counts, so an edited upload writes just the chunks
+// the edit touched and identical uploads write nothing.
+//
+// A chunk whose count drops to zero stays on disk until gc(); content that
+// comes back in the meantime (an undo, a re-upload) is revived without a write.
+public class ChunkStore {
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    
+    private final Path directory;
+    private final Chunker chunker;
+    private final Map<String, Entry> index;  // digest -> stored chunk
+    private final Set<String> garbage;       // digests with no references left
+    private final boolean[] prefixCreated;   // which dir/xx subdirectories exist
+    private long logicalBytes;               // bytes passed to write()
+    private long physicalBytes;              // bytes in chunk files on disk
+    private long chunksWritten;
+    private long chunksDeduplicated;
+    
+    private static final class Entry {
+        final int length;
+        int refCount;
+        
+        Entry(int length) {
+            this.length = length;
+        }
+    }
+    
+    public ChunkStore(Path directory) {
+        this(directory, new Chunker());
+    }
+    
+    public ChunkStore(Path directory, Chunker chunker) {
+        this.directory = directory;
+        this.chunker = chunker;
+        this.index = new HashMap<>();
+        this.garbage = new HashSet<>();
+        this.prefixCreated = new boolean[256];
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create chunk directory " + directory, e);
+        }
+    }
+    
+    // A store in a fresh temporary directory that is deleted when the JVM exits
+    public static ChunkStore temporary() {
+        try {
+            Path directory = Files.createTempDirectory("file-storage-chunks");
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> deleteRecursively(directory)));
+            return new ChunkStore(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create temporary chunk directory", e);
+        }
+    }
+    
+    public ChunkManifest write(byte[] data) {
+        return write(data, 0, data.length);
+    }
+    
+    // Chunk and store content. The returned manifest holds one reference to
+    // each of its chunks, owned by the caller until release().
+    public ChunkManifest write(byte[] data, int offset, int length) {
+        MessageDigest sha256 = newDigest();
+        List<ChunkRef> chunks = new ArrayList<>(length / chunker.getAvgSize() + 1);
+        int position = offset;
+        int end = offset + length;
+        while (position < end) {
+            int chunkLength = chunker.nextChunkLength(data, position, end - position);
+            chunks.add(put(sha256, data, position, chunkLength));
+            position += chunkLength;
+        }
+        return new ChunkManifest(chunks.toArray(new ChunkRef[0]));
+    }
+    
+    // Chunk content that arrives in pieces, e.g. from a stream
+    public ChunkWriter newWriter() {
+        return new ChunkWriter(this);
+    }
+    
+    // Store a single chunk the caller has already cut, taking one reference
+    public ChunkRef put(byte[] data, int offset, int length) {
+        return put(newDigest(), data, offset, length);
+    }
+    
+    ChunkRef put(MessageDigest sha256, byte[] data, int offset, int length) {
+        sha256.update(data, offset, length);
+        String digest = toHex(sha256.digest());
+        
+        synchronized (this) {
+            logicalBytes += length;
+            Entry entry = index.get(digest);
+            if (entry != null) {
+                if (entry.refCount++ == 0) {
+                    garbage.remove(digest);
+                }
+                chunksDeduplicated++;
+            } else {
+                writeChunkFile(digest, data, offset, length);
+                entry = new Entry(length);
+                entry.refCount = 1;
+                index.put(digest, entry);
+                physicalBytes += length;
+                chunksWritten++;
+            }
+        }
+        return new ChunkRef(digest, length);
+    }
+    
+    // Take another reference to every chunk of a manifest
+    public synchronized void retain(ChunkManifest manifest) {
+        for (int i = 0; i < manifest.getChunkCount(); i++) {
+            entryOf(manifest.getChunk(i)).refCount++;
+        }
+    }
+    
+    // Drop one reference to every chunk of a manifest. Unreferenced chunks
+    // are removed from disk by the next gc().
+    public synchronized void release(ChunkManifest manifest) {
+        for (int i = 0; i < manifest.getChunkCount(); i++) {
+            ChunkRef chunk = manifest.getChunk(i);
+            Entry entry = entryOf(chunk);
+            if (entry.refCount <= 0) {
+                throw new IllegalStateException("Chunk released more often than retained: " + chunk);
+            }
+            if (--entry.refCount == 0) {
+                garbage.add(chunk.getDigest());
+            }
+        }
+    }
+    
+    // Delete every unreferenced chunk. Returns the bytes freed.
+    public synchronized long gc() {
+        long freed = 0;
+        for (String digest : garbage) {
+            Entry entry = index.remove(digest);
+            try {
+                Files.deleteIfExists(pathOf(digest));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot delete chunk " + digest, e);
+            }
+            physicalBytes -= entry.length;
+            freed += entry.length;
+        }
+        garbage.clear();
+        return freed;
+    }
+    
+    public byte[] read(ChunkRef chunk) {
+        try {
+            return Files.readAllBytes(getPath(chunk));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read chunk " + chunk, e);
+        }
+    }
+    
+    // Reassemble a whole manifest in memory
+    public byte[] read(ChunkManifest manifest) {
+        if (manifest.getSize() > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Content too large for one array: " + manifest.getSize() + " bytes");
+        }
+        byte[] content = new byte[(int) manifest.getSize()];
+        ByteBuffer buffer = ByteBuffer.wrap(content);
+        for (int i = 0; i < manifest.getChunkCount(); i++) {
+            ChunkRef chunk = manifest.getChunk(i);
+            try (FileChannel channel = FileChannel.open(getPath(chunk), StandardOpenOption.READ)) {
+                buffer.limit(buffer.position() + chunk.getLength());
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer) < 0) {
+                        throw new IllegalStateException("Chunk file truncated: " + chunk);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read chunk " + chunk, e);
+            }
+        }
+        return content;
+    }
+    
+    // Copy count bytes of content starting at position to a channel, chunk
+    // file by chunk file with FileChannel.transferTo, which the OS performs
+    // without copying through the JVM when the target is a file or socket.
+    // Returns the bytes transferred, less than count at end of content.
+    public long transferTo(ChunkManifest manifest, long position, long count, WritableByteChannel target)
+            throws IOException {
+        if (count < 0) {
+            throw new IllegalArgumentException("Negative byte count: " + count);
+        }
+        if (position == manifest.getSize() || count == 0) {
+            return 0;
+        }
+        long transferred = 0;
+        for (int i = manifest.chunkIndexAt(position); i < manifest.getChunkCount() && transferred < count; i++) {
+            ChunkRef chunk = manifest.getChunk(i);
+            long from = Math.max(0, position - manifest.getOffset(i));
+            long to = from + Math.min(chunk.getLength() - from, count - transferred);
+            try (FileChannel channel = FileChannel.open(getPath(chunk), StandardOpenOption.READ)) {
+                for (long at = from; at < to; ) {
+                    long sent = channel.transferTo(at, to - at, target);
+                    if (sent == 0 && at >= channel.size()) {
+                        throw new IllegalStateException("Chunk file truncated: " + chunk);
+                    }
+                    at += sent;
+                }
+            }
+            transferred += to - from;
+        }
+        return transferred;
+    }
+    
+    public Path getPath(ChunkRef chunk) {
+        return pathOf(chunk.getDigest());
+    }
+    
+    private Path pathOf(String digest) {
+        return directory.resolve(digest.substring(0, 2)).resolve(digest.substring(2));
+    }
+    
+    private void writeChunkFile(String digest, byte[] data, int offset, int length) {
+        int prefix = Integer.parseInt(digest.substring(0, 2), 16);
+        Path path = pathOf(digest);
+        try {
+            if (!prefixCreated[prefix]) {
+                Files.createDirectories(path.getParent());
+                prefixCreated[prefix] = true;
+            }
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.wrap(data, offset, length);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write chunk " + digest, e);
+        }
+    }
+    
+    private Entry entryOf(ChunkRef chunk) {
+        Entry entry = index.get(chunk.getDigest());
+        if (entry == null) {
+            throw new IllegalStateException("Unknown chunk: " + chunk);
+        }
+        return entry;
+    }
+    
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    // Lower-case hex of a digest (Java 8 compatible)
+    private static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0xF];
+        }
+        return new String(chars);
+    }
+    
+    private static void deleteRecursively(Path directory) {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            // Best effort at shutdown
+        }
+    }
+    
+    // Statistics
+    public Chunker getChunker() {
+        return chunker;
+    }
+    
+    public Path getDirectory() {
+        return directory;
+    }
+    
+    public synchronized int getChunkCount() {
+        return index.size();
+    }
+    
+    public synchronized int getGarbageChunkCount() {
+        return garbage.size();
+    }
+    
+    public synchronized long getLogicalBytes() {
+        return logicalBytes;
+    }
+    
+    public synchronized long getPhysicalBytes() {
+        return physicalBytes;
+    }
+    
+    public synchronized long getChunksWritten() {
+        return chunksWritten;
+    }
+    
+    public synchronized long getChunksDeduplicated() {
+        return chunksDeduplicated;
+    }
+    
+    // Bytes written by callers per byte stored on disk
+    public synchronized double getDedupRatio() {
+        return physicalBytes == 0 ? 1.0 : (double) logicalBytes / physicalBytes;
+    }
+    
+    @Override
+    public synchronized String toString() {
+        return String.format("ChunkStore[%d chunks, %d bytes on disk, dedup %.2fx]",
+            index.size(), physicalBytes, getDedupRatio());
+    }
+}
@@ -0,0 +1,87 @@
+package storage;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+
+// Chunks content that arrives in pieces, storing each chunk as soon as its
+// boundary is known, so memory stays at a fixed window however large the
+// content. Cut points match ChunkStore.write() on the same bytes: the window
+// is cut only once it holds at least one maximum-size chunk, or at finish().
+//
+// Single use and not thread-safe. Every writer must end in finish() or abort().
+public class ChunkWriter {
+    private final ChunkStore store;
+    private final Chunker chunker;
+    private final MessageDigest sha256;
+    private final byte[] window;           // two maximum-size chunks
+    private int pending;                   // bytes in the window not yet stored
+    private final List<ChunkRef> chunks;
+    private long bytesWritten;
+    private boolean done;
+    
+    ChunkWriter(ChunkStore store) {
+        this.store = store;
+        this.chunker = store.getChunker();
+        this.sha256 = ChunkStore.newDigest();
+        this.window = new byte[2 * chunker.getMaxSize()];
+        this.chunks = new ArrayList<>();
+    }
+    
+    // Consume every remaining byte of the buffer
+    public void write(ByteBuffer source) {
+        ensureOpen();
+        while (source.hasRemaining()) {
+            int length = Math.min(source.remaining(), window.length - pending);
+            source.get(window, pending, length);
+            pending += length;
+            bytesWritten += length;
+            if (pending == window.length) {
+                cut(false);
+            }
+        }
+    }
+    
+    public void write(byte[] data, int offset, int length) {
+        write(ByteBuffer.wrap(data, offset, length));
+    }
+    
+    // Store the tail and return the manifest, which holds one reference to
+    // each chunk, owned by the caller
+    public ChunkManifest finish() {
+        ensureOpen();
+        cut(true);
+        done = true;
+        return new ChunkManifest(chunks.toArray(new ChunkRef[0]));
+    }
+    
+    // Give up, releasing the chunks stored so far
+    public void abort() {
+        if (!done) {
+            done = true;
+            store.release(new ChunkManifest(chunks.toArray(new ChunkRef[0])));
+        }
+    }
+    
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+    
+    private void cut(boolean end) {
+        int position = 0;
+        while (pending - position >= chunker.getMaxSize() || (end && position < pending)) {
+            int length = chunker.nextChunkLength(window, position, pending - position);
+            chunks.add(store.put(sha256, window, position, length));
+            position += length;
+        }
+        System.arraycopy(window, position, window, 0, pending - position);
+        pending -= position;
+    }
+    
+    private void ensureOpen() {
+        if (done) {
+            throw new IllegalStateException("Chunk writer already finished");
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package storage;
+
+import java.util.SplittableRandom;
+
+// Content-defined chunking with a Gear rolling hash (the FastCDC scheme).
+//
+// A cut point falls where the hash of the last 64 bytes matches a mask, so
+// boundaries follow the content rather than fixed offsets: an insert or
+// delete only changes the chunks around it, and every later chunk still
+// lines up with the previous version. Below the average size a stricter mask
+// is used and above it a looser one, which keeps chunk sizes near the average.
+//
+// Stateless and thread-safe.
+public class Chunker {
+    public static final int DEFAULT_MIN_SIZE = 2 * 1024;
+    public static final int DEFAULT_AVG_SIZE = 8 * 1024;
+    public static final int DEFAULT_MAX_SIZE = 64 * 1024;
+    
+    private static final long[] GEAR = new long[256];
+    
+    static {
+        // Fixed seed: cut points must be identical across runs and stores
+        SplittableRandom random = new SplittableRandom(0x5EED_C0DE_CDC1L);
+        for (int i = 0; i < GEAR.length; i++) {
+            GEAR[i] = random.nextLong();
+        }
+    }
+    
+    private final int minSize;
+    private final int avgSize;
+    private final int maxSize;
+    private final long strictMask;
+    private final long looseMask;
+    
+    public Chunker() {
+        this(DEFAULT_MIN_SIZE, DEFAULT_AVG_SIZE, DEFAULT_MAX_SIZE);
+    }
+    
+    public Chunker(int minSize, int avgSize, int maxSize) {
+        if (Integer.bitCount(avgSize) != 1 || avgSize < 64) {
+            throw new IllegalArgumentException("Average chunk size must be a power of two >= 64: " + avgSize);
+        }
+        if (minSize <= 0 || minSize >= avgSize || maxSize <= avgSize) {
+            throw new IllegalArgumentException(String.format(
+                "Chunk sizes must satisfy 0 < min < avg < max: %d, %d, %d", minSize, avgSize, maxSize));
+        }
+        this.minSize = minSize;
+        this.avgSize = avgSize;
+        this.maxSize = maxSize;
+        
+        // Masks test the high bits, which depend on the last 64 bytes hashed
+        int bits = Integer.numberOfTrailingZeros(avgSize);
+        this.strictMask = -1L << (64 - (bits + 1));
+        this.looseMask = -1L << (64 - (bits - 1));
+    }
+    
+    // Length of the chunk that starts at offset, out of length available bytes.
+    // The result only depends on the first maxSize bytes, so a streaming caller
+    // must supply at least maxSize bytes unless it has reached end of input;
+    // with fewer and no cut point found, the whole remainder is one chunk.
+    public int nextChunkLength(byte[] data, int offset, int length) {
+        if (length <= minSize) {
+            return length;
+        }
+        int end = Math.min(length, maxSize);
+        int normal = Math.min(end, avgSize);
+        long hash = 0;
+        int i = minSize;
+        
+        for (; i < normal; i++) {
+            hash = (hash << 1) + GEAR[data[offset + i] & 0xFF];
+            if ((hash & strictMask) == 0) {
+                return i + 1;
+            }
+        }
+        for (; i < end; i++) {
+            hash = (hash << 1) + GEAR[data[offset + i] & 0xFF];
+            if ((hash & looseMask) == 0) {
+                return i + 1;
+            }
+        }
+        return end;
+    }
+    
+    public int getMinSize() {
+        return minSize;
+    }
+    
+    public int getAvgSize() {
+        return avgSize;
+    }
+    
+    public int getMaxSize() {
+        return maxSize;
+    }
+}
@@ -0,0 +1,119 @@
+package storage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// The difference between two manifests, as a list of operations that
+// rebuild the target from the base: copy a run of the base's chunks, or
+// insert chunks the base does not have. Content-defined chunking keeps
+// unchanged regions on identical chunks, so a small edit to a large file is
+// a handful of operations instead of a full chunk list.
+//
+// Chunk bytes are not copied here; inserted chunks are already in the store.
+public final class ManifestDelta {
+    private final int[] ops;           // pairs: (base start, count) or (-1, count of inserted)
+    private final ChunkRef[] inserted;
+    private final int targetChunkCount;
+    private final long insertedBytes;
+    
+    private ManifestDelta(int[] ops, ChunkRef[] inserted, int targetChunkCount) {
+        this.ops = ops;
+        this.inserted = inserted;
+        this.targetChunkCount = targetChunkCount;
+        long bytes = 0;
+        for (ChunkRef chunk : inserted) {
+            bytes += chunk.getLength();
+        }
+        this.insertedBytes = bytes;
+    }
+    
+    // O(base + target): index the base's chunks, then take each target chunk
+    // from the base where possible, extending the current copy run when the
+    // chunk follows the previous one
+    public static ManifestDelta between(ChunkManifest base, ChunkManifest target) {
+        Map<ChunkRef, Integer> positions = new HashMap<>(base.getChunkCount() * 4 / 3 + 1);
+        for (int i = base.getChunkCount() - 1; i >= 0; i--) {
+            positions.put(base.getChunk(i), i);  // first occurrence wins
+        }
+        
+        int[] ops = new int[8];
+        int opCount = 0;
+        List<ChunkRef> inserted = new ArrayList<>();
+        int runStart = -1;
+        int runLength = 0;
+        
+        for (int i = 0; i < target.getChunkCount(); i++) {
+            ChunkRef chunk = target.getChunk(i);
+            Integer position = positions.get(chunk);
+            int from = position == null ? -1 : position;
+            boolean continuesRun = runLength > 0 && (runStart == -1
+                ? from == -1
+                : from == runStart + runLength);
+            if (continuesRun) {
+                runLength++;
+            } else {
+                if (runLength > 0) {
+                    ops = append(ops, opCount++, runStart, runLength);
+                }
+                runStart = from;
+                runLength = 1;
+            }
+            if (from == -1) {
+                inserted.add(chunk);
+            }
+        }
+        if (runLength > 0) {
+            ops = append(ops, opCount++, runStart, runLength);
+        }
+        return new ManifestDelta(Arrays.copyOf(ops, opCount * 2),
+            inserted.toArray(new ChunkRef[0]), target.getChunkCount());
+    }
+    
+    public ChunkManifest applyTo(ChunkManifest base) {
+        ChunkRef[] chunks = new ChunkRef[targetChunkCount];
+        int at = 0;
+        int next = 0;
+        for (int op = 0; op < ops.length; op += 2) {
+            int start = ops[op];
+            int count = ops[op + 1];
+            if (start == -1) {
+                System.arraycopy(inserted, next, chunks, at, count);
+                next += count;
+            } else {
+                base.copyChunks(start, chunks, at, count);
+            }
+            at += count;
+        }
+        return new ChunkManifest(chunks);
+    }
+    
+    public int getOperationCount() {
+        return ops.length / 2;
+    }
+    
+    public int getInsertedChunkCount() {
+        return inserted.length;
+    }
+    
+    // Bytes of chunks the target has and the base does not
+    public long getInsertedBytes() {
+        return insertedBytes;
+    }
+    
+    private static int[] append(int[] ops, int opIndex, int start, int count) {
+        if (opIndex * 2 + 2 > ops.length) {
+            ops = Arrays.copyOf(ops, ops.length * 2);
+        }
+        ops[opIndex * 2] = start;
+        ops[opIndex * 2 + 1] = count;
+        return ops;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("Delta[%d ops, %d new chunks, %d bytes]", getOperationCount(), inserted.length, insertedBytes);
+    }
+}
@@ -1,6 +1,11 @@
 import service.URLShortenerService;
 import model.URL;
+import analytics.ClickStats;
+import store.URLStore;
 import strategy.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 
 public class Main {
@@ -54,6 +59,8 @@ public class Main {
         
         System.out.println("\nTotal clicks: " + url1.getClicks());
         
+        service.refreshHotCache();
+        
         // Scenario 5: Analytics Display
         System.out.println("\n========================================");
         System.out.println("  SCENARIO 5: Analytics");
@@ -61,6 +68,10 @@ public class Main {
         
         service.printAnalytics(shortCode1);
         
+        ClickStats stats = service.getClickStats(shortCode1);
+        System.out.println("Rolling clicks in the last hour: " + stats.getClicksLastHour());
+        System.out.println("Approximate unique visitors: " + stats.getUniqueVisitors());
+        
         // Scenario 6: URL with Expiration
         System.out.println("\n========================================");
         System.out.println("  SCENARIO 6: URL Expiration");
@@ -159,6 +170,27 @@ public class Main {
         
         service.cleanupExpiredURLs();
         
+        // Scenario 13: Persistent Store
+        System.out.println("\n========================================");
+        System.out.println("  SCENARIO 13: Persistent Store");
+        System.out.println("========================================\n");
+        
+        try {
+            Path storeDir = Files.createTempDirectory("url-store");
+            service.enablePersistence(storeDir);
+            URL persisted = service.shortenURL("https://docs.example.com/persistent/page", "user5");
+            service.closePersistence();
+            
+            System.out.println("Reopening store from " + storeDir);
+            try (URLStore reopened = new URLStore(storeDir)) {
+                URL restored = reopened.findByShortCode(persisted.getShortCode());
+                System.out.println("Restored: " + restored);
+                System.out.println("Dedup lookup: " + reopened.findShortCode(persisted.getLongURL()));
+            }
+        } catch (IOException e) {
+            System.out.println("Persistence demo failed: " + e.getMessage());
+        }
+        
         // Final Statistics
         System.out.println("\n========================================");
         System.out.println("  FINAL STATISTICS");
@@ -181,13 +213,16 @@ public class Main {
         System.out.println("✓ Multiple shortening strategies");
         System.out.println("✓ Custom alias support");
         System.out.println("✓ URL redirection");
-        System.out.println("✓ Analytics tracking (clicks, referrers)");
+        System.out.println("✓ Allocation-free redirect fast path with hot-URL cache");
+        System.out.println("✓ Asynchronous click analytics pipeline");
+        System.out.println("✓ Streaming analytics (rolling counters, top-K referrers, HyperLogLog uniques)");
         System.out.println("✓ URL expiration management");
         System.out.println("✓ Duplicate URL handling");
         System.out.println("✓ Invalid URL validation");
         System.out.println("✓ URL deletion");
         System.out.println("✓ User URL management");
-        System.out.println("✓ Expired URL cleanup");
+        System.out.println("✓ Expired URL cleanup via expiry index");
+        System.out.println("✓ Persistent store with memory-mapped indexes");
         System.out.println("✓ System statistics");
     }
 }
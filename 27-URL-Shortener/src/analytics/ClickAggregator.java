@@ -0,0 +1,35 @@
+package analytics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Click sink that folds every click into per-code {@link ClickStats}
+ * instead of retaining raw events.
+ */
+public class ClickAggregator implements ClickSink {
+    private static final int TOP_K_CAPACITY = 32;
+    private static final int RECENT_CLICKS = 10;
+    
+    private final Map<String, ClickStats> stats;
+    
+    public ClickAggregator() {
+        this.stats = new ConcurrentHashMap<>();
+    }
+    
+    public void register(String shortCode) {
+        stats.computeIfAbsent(shortCode, code -> new ClickStats(code, TOP_K_CAPACITY, RECENT_CLICKS));
+    }
+    
+    @Override
+    public void onClick(String shortCode, long timestampMillis, String referrer, String userAgent, String ipAddress) {
+        ClickStats codeStats = stats.get(shortCode);
+        if (codeStats != null) {
+            codeStats.record(timestampMillis, referrer, userAgent, ipAddress);
+        }
+    }
+    
+    public ClickStats getStats(String shortCode) {
+        return stats.get(shortCode);
+    }
+}
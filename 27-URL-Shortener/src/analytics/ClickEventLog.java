@@ -0,0 +1,365 @@
+package analytics;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UTFDataFormatException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Optional raw click log in a compact binary format.
+ * 
+ * Strings (short codes, referrers, user agents) are dictionary-encoded: the
+ * first occurrence is written inline and later ones as a varint id. IPv4
+ * addresses are packed into four bytes. Record layout:
+ * 
+ *   varint deltaMillis | str shortCode | str referrer | str userAgent | ip
+ * 
+ * where str is varint (id + 1) for a known id, or 0 followed by a marker byte:
+ * null, a new dictionary entry, or a literal once the dictionary is full. Text
+ * is written as a varint byte length and UTF-8 bytes, clipped to
+ * MAX_STRING_CHARS. ip is a marker byte followed by 4 bytes or text.
+ * 
+ * Each record is encoded into a scratch buffer and written with one call; its
+ * new strings join the dictionary only once that write succeeds. After a failed
+ * write the log refuses further records, so a torn record can only be last.
+ * 
+ * Opening an existing log appends to it. The file is scanned once to restore
+ * the dictionary and last timestamp the new records are encoded against, and
+ * a torn final record left by a crash is truncated away. Replay likewise
+ * stops at a torn final record.
+ */
+public class ClickEventLog implements ClickSink, Closeable {
+    private static final int NOT_IPV4 = -1;
+    private static final byte IP_NONE = 0;
+    private static final byte IP_V4 = 1;
+    private static final byte IP_TEXT = 2;
+    private static final byte STR_NULL = 0;
+    private static final byte STR_NEW = 1;
+    private static final byte STR_LITERAL = 2;
+    private static final int MAX_DICTIONARY_SIZE = 1 << 16;
+    private static final int MAX_STRING_CHARS = 8 * 1024;
+    private static final int MAX_STRING_BYTES = MAX_STRING_CHARS * 3;
+    
+    private final DataOutputStream out;
+    private final Map<String, Integer> dictionary;
+    private final Map<String, Integer> pendingStrings;  // New in the record being encoded
+    private final ByteArrayOutputStream recordBuffer;
+    private final DataOutputStream record;
+    private long lastTimestamp;
+    private boolean failed;
+    
+    public ClickEventLog(Path file) throws IOException {
+        this.dictionary = new HashMap<>();
+        this.pendingStrings = new LinkedHashMap<>();
+        this.recordBuffer = new ByteArrayOutputStream(256);
+        this.record = new DataOutputStream(recordBuffer);
+        if (Files.exists(file)) {
+            Scan scan = scan(file, null);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.truncate(scan.validLength);
+            }
+            for (Map.Entry<Integer, String> entry : scan.dictionary.entrySet()) {
+                dictionary.put(entry.getValue(), entry.getKey());
+            }
+            this.lastTimestamp = scan.lastTimestamp;
+        }
+        this.out = new DataOutputStream(new BufferedOutputStream(
+            Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND), 64 * 1024));
+    }
+    
+    @Override
+    public void onClick(String shortCode, long timestampMillis, String referrer, String userAgent, String ipAddress) {
+        if (failed) {
+            throw new IllegalStateException("Click log is unusable after a failed write");
+        }
+        recordBuffer.reset();
+        pendingStrings.clear();
+        try {
+            writeVarLong(record, zigZag(timestampMillis - lastTimestamp));
+            writeString(shortCode);
+            writeString(referrer);
+            writeString(userAgent);
+            writeIp(ipAddress);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);  // Not reached: the scratch buffer never fails
+        }
+        
+        try {
+            recordBuffer.writeTo(out);
+        } catch (IOException e) {
+            failed = true;
+            throw new UncheckedIOException(e);
+        }
+        dictionary.putAll(pendingStrings);
+        lastTimestamp = timestampMillis;
+    }
+    
+    @Override
+    public void onBatchEnd() {
+        if (failed) {
+            return;
+        }
+        try {
+            out.flush();
+        } catch (IOException e) {
+            failed = true;
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+    
+    private void writeString(String value) throws IOException {
+        if (value == null) {
+            writeVarLong(record, 0);
+            record.writeByte(STR_NULL);
+            return;
+        }
+        value = clip(value);
+        Integer id = dictionary.get(value);
+        if (id == null) {
+            id = pendingStrings.get(value);
+        }
+        if (id != null) {
+            writeVarLong(record, id + 1L);
+            return;
+        }
+        writeVarLong(record, 0);
+        int nextId = dictionary.size() + pendingStrings.size();
+        if (nextId < MAX_DICTIONARY_SIZE) {
+            pendingStrings.put(value, nextId);
+            record.writeByte(STR_NEW);
+        } else {
+            record.writeByte(STR_LITERAL);
+        }
+        writeText(record, value);
+    }
+    
+    private void writeIp(String ipAddress) throws IOException {
+        if (ipAddress == null) {
+            record.writeByte(IP_NONE);
+            return;
+        }
+        int packed = packIPv4(ipAddress);
+        if (packed != NOT_IPV4 || "255.255.255.255".equals(ipAddress)) {
+            record.writeByte(IP_V4);
+            record.writeInt(packed);
+        } else {
+            record.writeByte(IP_TEXT);
+            writeText(record, clip(ipAddress));
+        }
+    }
+    
+    // Cuts overlong values, never between the two halves of a surrogate pair
+    private static String clip(String value) {
+        if (value.length() <= MAX_STRING_CHARS) {
+            return value;
+        }
+        int end = MAX_STRING_CHARS;
+        if (Character.isHighSurrogate(value.charAt(end - 1))) {
+            end--;
+        }
+        return value.substring(0, end);
+    }
+    
+    private static void writeText(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.write(bytes);
+    }
+    
+    private static String readText(DataInputStream in) throws IOException {
+        long length = readVarLong(in);
+        if (length < 0 || length > MAX_STRING_BYTES) {
+            throw new UTFDataFormatException("Text length out of range: " + length);
+        }
+        byte[] bytes = new byte[(int) length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Replays a log file into the given sink.
+     * 
+     * @return number of events replayed
+     */
+    public static long replay(Path file, ClickSink sink) throws IOException {
+        long events = scan(file, sink).events;
+        sink.onBatchEnd();
+        return events;
+    }
+    
+    private static final class Scan {
+        final Map<Integer, String> dictionary = new HashMap<>();
+        long validLength;     // bytes up to the end of the last complete record
+        long lastTimestamp;
+        long events;
+    }
+    
+    // Reads complete records, passing them to the sink if there is one, and
+    // stops at end of file or at a torn final record
+    private static Scan scan(Path file, ClickSink sink) throws IOException {
+        Scan scan = new Scan();
+        try (CountingInputStream counter = new CountingInputStream(
+                new BufferedInputStream(Files.newInputStream(file), 64 * 1024));
+             DataInputStream in = new DataInputStream(counter)) {
+            long timestamp = 0;
+            while (true) {
+                String shortCode;
+                String referrer;
+                String userAgent;
+                String ip;
+                int knownStrings = scan.dictionary.size();
+                try {
+                    timestamp += unZigZag(readVarLong(in));
+                    shortCode = readString(in, scan.dictionary);
+                    referrer = readString(in, scan.dictionary);
+                    userAgent = readString(in, scan.dictionary);
+                    ip = readIp(in);
+                } catch (EOFException | UTFDataFormatException e) {
+                    // Strings first seen in the torn record are truncated with it
+                    while (scan.dictionary.size() > knownStrings) {
+                        scan.dictionary.remove(scan.dictionary.size() - 1);
+                    }
+                    break;
+                }
+                scan.validLength = counter.count;
+                scan.lastTimestamp = timestamp;
+                scan.events++;
+                if (sink != null) {
+                    sink.onClick(shortCode, timestamp, referrer, userAgent, ip);
+                }
+            }
+        }
+        return scan;
+    }
+    
+    private static final class CountingInputStream extends FilterInputStream {
+        long count;
+        
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+        
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+        
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+    }
+    
+    private static String readString(DataInputStream in, Map<Integer, String> dictionary) throws IOException {
+        long ref = readVarLong(in);
+        if (ref > 0) {
+            return dictionary.get((int) (ref - 1));
+        }
+        byte marker = in.readByte();
+        if (marker == STR_NULL) {
+            return null;
+        }
+        String value = readText(in);
+        if (marker == STR_NEW) {
+            dictionary.put(dictionary.size(), value);
+        }
+        return value;
+    }
+    
+    private static String readIp(DataInputStream in) throws IOException {
+        byte kind = in.readByte();
+        if (kind == IP_NONE) {
+            return null;
+        }
+        if (kind == IP_V4) {
+            int packed = in.readInt();
+            return ((packed >>> 24) & 0xFF) + "." + ((packed >>> 16) & 0xFF) + "."
+                + ((packed >>> 8) & 0xFF) + "." + (packed & 0xFF);
+        }
+        return readText(in);
+    }
+    
+    // Returns -1 when the address is not a dotted IPv4 quad
+    private static int packIPv4(String ip) {
+        int result = 0;
+        int octet = 0;
+        int octets = 0;
+        int digits = 0;
+        for (int i = 0; i <= ip.length(); i++) {
+            char c = i < ip.length() ? ip.charAt(i) : '.';
+            if (c == '.') {
+                if (digits == 0 || octet > 255) {
+                    return NOT_IPV4;
+                }
+                result = (result << 8) | octet;
+                octets++;
+                octet = 0;
+                digits = 0;
+            } else if (c >= '0' && c <= '9' && digits < 3) {
+                octet = octet * 10 + (c - '0');
+                digits++;
+            } else {
+                return NOT_IPV4;
+            }
+        }
+        return octets == 4 ? result : NOT_IPV4;
+    }
+    
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+    
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+    
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+    
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package analytics;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hands click events off the redirect thread.
+ * 
+ * Producers copy the click fields into a pre-allocated ring slot (no allocation)
+ * and a single daemon consumer drains published slots into the registered sinks.
+ * When the ring is full the click is dropped and counted rather than blocking a redirect.
+ * A sink that throws is reported and counted per event; the other sinks, the
+ * consumer thread and readers calling drain() carry on.
+ */
+public class ClickPipeline {
+    private static final long IDLE_PARK_NANOS = 1_000_000L;
+    
+    private final Slot[] ring;
+    private final int mask;
+    private final AtomicLong claimed;
+    private volatile long consumed;
+    private final LongAdder dropped;
+    private final AtomicLong sinkFailures;
+    private final List<ClickSink> sinks;
+    private final Thread consumer;
+    private volatile boolean running;
+    
+    private static final class Slot {
+        volatile long sequence = -1;
+        String shortCode;
+        long timestampMillis;
+        String referrer;
+        String userAgent;
+        String ipAddress;
+    }
+    
+    public ClickPipeline(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.ring = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            ring[i] = new Slot();
+        }
+        this.mask = size - 1;
+        this.claimed = new AtomicLong();
+        this.consumed = 0;
+        this.dropped = new LongAdder();
+        this.sinkFailures = new AtomicLong();
+        this.sinks = new CopyOnWriteArrayList<>();
+        this.running = true;
+        this.consumer = new Thread(this::consumeLoop, "click-pipeline");
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+    }
+    
+    public void addSink(ClickSink sink) {
+        sinks.add(sink);
+    }
+    
+    public boolean publish(String shortCode, long timestampMillis, String referrer, String userAgent, String ipAddress) {
+        long seq;
+        do {
+            seq = claimed.get();
+            if (seq - consumed >= ring.length) {
+                dropped.increment();
+                return false;
+            }
+        } while (!claimed.compareAndSet(seq, seq + 1));
+        
+        Slot slot = ring[(int) (seq & mask)];
+        slot.shortCode = shortCode;
+        slot.timestampMillis = timestampMillis;
+        slot.referrer = referrer;
+        slot.userAgent = userAgent;
+        slot.ipAddress = ipAddress;
+        slot.sequence = seq;
+        return true;
+    }
+    
+    /**
+     * Drains every published event into the sinks. Called by the consumer thread
+     * and by readers that need analytics to be up to date.
+     */
+    public synchronized int drain() {
+        int drained = 0;
+        long next = consumed;
+        while (true) {
+            Slot slot = ring[(int) (next & mask)];
+            if (slot.sequence != next) {
+                break;
+            }
+            for (ClickSink sink : sinks) {
+                try {
+                    sink.onClick(slot.shortCode, slot.timestampMillis, slot.referrer, slot.userAgent, slot.ipAddress);
+                } catch (RuntimeException e) {
+                    reportFailure(sink, e);
+                }
+            }
+            slot.shortCode = null;
+            slot.referrer = null;
+            slot.userAgent = null;
+            slot.ipAddress = null;
+            next++;
+            consumed = next;
+            drained++;
+        }
+        if (drained > 0) {
+            for (ClickSink sink : sinks) {
+                try {
+                    sink.onBatchEnd();
+                } catch (RuntimeException e) {
+                    reportFailure(sink, e);
+                }
+            }
+        }
+        return drained;
+    }
+    
+    // Logged on the 1st, 2nd, 4th, 8th... failure so a broken sink cannot flood the log
+    private void reportFailure(ClickSink sink, RuntimeException e) {
+        long failures = sinkFailures.incrementAndGet();
+        if (Long.bitCount(failures) == 1) {
+            System.err.println("Click sink " + sink.getClass().getSimpleName() + " failed (" + failures
+                + " failures so far): " + e);
+        }
+    }
+    
+    private void consumeLoop() {
+        while (running) {
+            if (drain() == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        drain();
+    }
+    
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+    
+    public long getSinkFailureCount() {
+        return sinkFailures.get();
+    }
+    
+    public long getPendingCount() {
+        return claimed.get() - consumed;
+    }
+    
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(consumer);
+    }
+}
@@ -0,0 +1,9 @@
+package analytics;
+
+public interface ClickSink {
+    void onClick(String shortCode, long timestampMillis, String referrer, String userAgent, String ipAddress);
+    
+    // Called after each drained batch so sinks can flush buffered work
+    default void onBatchEnd() {
+    }
+}
@@ -0,0 +1,112 @@
+package analytics;
+
+import model.Analytics;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded-memory click aggregates for one short code: rolling counters,
+ * approximate top referrers/user agents, unique visitor estimate and the
+ * last few clicks.
+ */
+public class ClickStats {
+    private static final long MINUTE = 60_000L;
+    private static final long HOUR = 60 * MINUTE;
+    private static final long DAY = 24 * HOUR;
+    private static final String DIRECT = "direct";
+    private static final String UNKNOWN = "unknown";
+    
+    private final String shortCode;
+    private final AtomicLong totalClicks;
+    private final RollingCounter lastHourByMinute;
+    private final RollingCounter lastDayByHour;
+    private final RollingCounter lastMonthByDay;
+    private final SpaceSavingTopK referrers;
+    private final SpaceSavingTopK userAgents;
+    private final HyperLogLog uniqueIps;
+    private final Analytics[] recent;
+    private int recentHead;
+    private int recentSize;
+    
+    public ClickStats(String shortCode, int topKCapacity, int recentCapacity) {
+        this.shortCode = shortCode;
+        this.totalClicks = new AtomicLong();
+        this.lastHourByMinute = new RollingCounter(MINUTE, 60);
+        this.lastDayByHour = new RollingCounter(HOUR, 24);
+        this.lastMonthByDay = new RollingCounter(DAY, 30);
+        this.referrers = new SpaceSavingTopK(topKCapacity);
+        this.userAgents = new SpaceSavingTopK(topKCapacity);
+        this.uniqueIps = new HyperLogLog();
+        this.recent = new Analytics[recentCapacity];
+    }
+    
+    void record(long timestampMillis, String referrer, String userAgent, String ipAddress) {
+        totalClicks.incrementAndGet();
+        lastHourByMinute.add(timestampMillis);
+        lastDayByHour.add(timestampMillis);
+        lastMonthByDay.add(timestampMillis);
+        referrers.offer(referrer != null ? referrer : DIRECT);
+        userAgents.offer(userAgent != null ? userAgent : UNKNOWN);
+        if (ipAddress != null) {
+            uniqueIps.add(ipAddress);
+        }
+        
+        LocalDateTime timestamp = LocalDateTime.ofInstant(Instant.ofEpochMilli(timestampMillis), ZoneId.systemDefault());
+        synchronized (recent) {
+            recent[recentHead] = new Analytics(shortCode, timestamp, referrer, userAgent, ipAddress);
+            recentHead = (recentHead + 1) % recent.length;
+            if (recentSize < recent.length) {
+                recentSize++;
+            }
+        }
+    }
+    
+    public String getShortCode() {
+        return shortCode;
+    }
+    
+    public long getTotalClicks() {
+        return totalClicks.get();
+    }
+    
+    public long getClicksLastHour() {
+        return lastHourByMinute.sum(System.currentTimeMillis());
+    }
+    
+    public long getClicksLastDay() {
+        return lastDayByHour.sum(System.currentTimeMillis());
+    }
+    
+    public long getClicksLast30Days() {
+        return lastMonthByDay.sum(System.currentTimeMillis());
+    }
+    
+    public List<SpaceSavingTopK.Counter> getTopReferrers(int k) {
+        return referrers.top(k);
+    }
+    
+    public List<SpaceSavingTopK.Counter> getTopUserAgents(int k) {
+        return userAgents.top(k);
+    }
+    
+    public long getUniqueVisitors() {
+        return uniqueIps.estimate();
+    }
+    
+    // Oldest first
+    public List<Analytics> getRecentClicks() {
+        synchronized (recent) {
+            List<Analytics> result = new ArrayList<>(recentSize);
+            int start = (recentHead - recentSize + recent.length) % recent.length;
+            for (int i = 0; i < recentSize; i++) {
+                result.add(recent[(start + i) % recent.length]);
+            }
+            return result;
+        }
+    }
+}
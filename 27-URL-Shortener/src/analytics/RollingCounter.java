@@ -0,0 +1,56 @@
+package analytics;
+
+/**
+ * Click count over a sliding window made of fixed-width time buckets.
+ * 
+ * A running window total is kept so that queries are O(1) amortized; buckets
+ * that fall out of the window are subtracted as time advances.
+ */
+public class RollingCounter {
+    private final long bucketMillis;
+    private final long[] counts;
+    private long headBucket;
+    private long windowTotal;
+    
+    public RollingCounter(long bucketMillis, int buckets) {
+        this.bucketMillis = bucketMillis;
+        this.counts = new long[buckets];
+        this.headBucket = -1;
+    }
+    
+    public synchronized void add(long timestampMillis) {
+        long bucket = timestampMillis / bucketMillis;
+        advance(bucket);
+        if (bucket <= headBucket - counts.length) {
+            return; // older than the window
+        }
+        counts[index(bucket)]++;
+        windowTotal++;
+    }
+    
+    public synchronized long sum(long nowMillis) {
+        advance(nowMillis / bucketMillis);
+        return windowTotal;
+    }
+    
+    private void advance(long bucket) {
+        if (bucket <= headBucket) {
+            return;
+        }
+        if (headBucket < 0 || bucket - headBucket >= counts.length) {
+            java.util.Arrays.fill(counts, 0);
+            windowTotal = 0;
+        } else {
+            for (long b = headBucket + 1; b <= bucket; b++) {
+                int i = index(b);
+                windowTotal -= counts[i];
+                counts[i] = 0;
+            }
+        }
+        headBucket = bucket;
+    }
+    
+    private int index(long bucket) {
+        return (int) (bucket % counts.length);
+    }
+}
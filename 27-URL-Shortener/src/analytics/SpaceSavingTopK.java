@@ -0,0 +1,91 @@
+package analytics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Approximate top-K heavy hitters using the Space-Saving algorithm.
+ * 
+ * Tracks at most {@code capacity} keys. When a new key arrives and the table is
+ * full, the key with the smallest count is replaced and inherits its count, so
+ * reported counts are upper bounds with error at most the evicted minimum.
+ */
+public class SpaceSavingTopK {
+    private final int capacity;
+    private final Map<String, Slot> slots;
+    
+    private static class Slot {
+        String key;
+        long count;
+        long error;
+    }
+    
+    public static class Counter {
+        private final String key;
+        private final long count;
+        private final long error;
+        
+        Counter(String key, long count, long error) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+        
+        public String getKey() {
+            return key;
+        }
+        
+        public long getCount() {
+            return count;
+        }
+        
+        public long getError() {
+            return error;
+        }
+    }
+    
+    public SpaceSavingTopK(int capacity) {
+        this.capacity = capacity;
+        this.slots = new HashMap<>(capacity * 2);
+    }
+    
+    public synchronized void offer(String key) {
+        Slot existing = slots.get(key);
+        if (existing != null) {
+            existing.count++;
+            return;
+        }
+        
+        if (slots.size() < capacity) {
+            Slot slot = new Slot();
+            slot.key = key;
+            slot.count = 1;
+            slots.put(key, slot);
+            return;
+        }
+        
+        // Replace the minimum; capacity is small so a linear scan is cheap
+        Slot min = null;
+        for (Slot slot : slots.values()) {
+            if (min == null || slot.count < min.count) {
+                min = slot;
+            }
+        }
+        slots.remove(min.key);
+        min.error = min.count;
+        min.count++;
+        min.key = key;
+        slots.put(key, min);
+    }
+    
+    public synchronized List<Counter> top(int k) {
+        List<Counter> result = new ArrayList<>(slots.size());
+        for (Slot slot : slots.values()) {
+            result.add(new Counter(slot.key, slot.count, slot.error));
+        }
+        result.sort((a, b) -> Long.compare(b.count, a.count));
+        return result.size() > k ? new ArrayList<>(result.subList(0, k)) : result;
+    }
+}
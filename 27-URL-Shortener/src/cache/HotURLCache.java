@@ -0,0 +1,123 @@
+package cache;
+
+import model.URL;
+
+import java.util.Collection;
+import java.util.PriorityQueue;
+
+/**
+ * Read-only snapshot of the most clicked URLs.
+ * 
+ * The snapshot is an immutable open-addressing table published through a volatile
+ * reference, so lookups take no locks and allocate nothing. Rebuilds and
+ * invalidations are serialized; each copies the table and swaps the reference.
+ */
+public class HotURLCache {
+    private final int capacity;
+    private volatile Snapshot snapshot;
+    
+    private static final class Snapshot {
+        final String[] keys;
+        final URL[] values;
+        final int mask;
+        
+        Snapshot(int tableSize) {
+            this.keys = new String[tableSize];
+            this.values = new URL[tableSize];
+            this.mask = tableSize - 1;
+        }
+        
+        void put(URL url) {
+            int i = spread(url.getShortCode().hashCode()) & mask;
+            while (keys[i] != null) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = url.getShortCode();
+            values[i] = url;
+        }
+        
+        URL get(String shortCode) {
+            int i = spread(shortCode.hashCode()) & mask;
+            String key;
+            while ((key = keys[i]) != null) {
+                if (key.equals(shortCode)) {
+                    return values[i];
+                }
+                i = (i + 1) & mask;
+            }
+            return null;
+        }
+    }
+    
+    public HotURLCache(int capacity) {
+        this.capacity = capacity;
+        this.snapshot = new Snapshot(tableSizeFor(0));
+    }
+    
+    public URL get(String shortCode) {
+        return snapshot.get(shortCode);
+    }
+    
+    /**
+     * Rebuilds the snapshot from the top-N URLs by click count.
+     * 
+     * Holds the same lock as invalidate, so an invalidation either lands after
+     * the new snapshot is published or its URL is already inactive when scanned.
+     */
+    public synchronized void rebuild(Collection<URL> urls) {
+        PriorityQueue<URL> topN = new PriorityQueue<>(capacity + 1,
+            (a, b) -> Integer.compare(a.getClicks(), b.getClicks()));
+        for (URL url : urls) {
+            if (!url.isActive()) {
+                continue;
+            }
+            topN.offer(url);
+            if (topN.size() > capacity) {
+                topN.poll();
+            }
+        }
+        
+        Snapshot next = new Snapshot(tableSizeFor(topN.size()));
+        for (URL url : topN) {
+            next.put(url);
+        }
+        snapshot = next;
+    }
+    
+    public synchronized void invalidate(String shortCode) {
+        Snapshot current = snapshot;
+        if (current.get(shortCode) == null) {
+            return;
+        }
+        Snapshot next = new Snapshot(current.keys.length);
+        for (URL url : current.values) {
+            if (url != null && !url.getShortCode().equals(shortCode)) {
+                next.put(url);
+            }
+        }
+        snapshot = next;
+    }
+    
+    public int size() {
+        int count = 0;
+        for (String key : snapshot.keys) {
+            if (key != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+    
+    // Keep the load factor at or below 0.5 so probe chains stay short
+    private static int tableSizeFor(int entries) {
+        int size = 2;
+        while (size < entries * 2) {
+            size <<= 1;
+        }
+        return size;
+    }
+}
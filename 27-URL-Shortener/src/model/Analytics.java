@@ -10,8 +10,12 @@ public class Analytics {
     private final String ipAddress;
     
     public Analytics(String shortCode, String referrer, String userAgent, String ipAddress) {
+        this(shortCode, LocalDateTime.now(), referrer, userAgent, ipAddress);
+    }
+    
+    public Analytics(String shortCode, LocalDateTime timestamp, String referrer, String userAgent, String ipAddress) {
         this.shortCode = shortCode;
-        this.timestamp = LocalDateTime.now();
+        this.timestamp = timestamp;
         this.referrer = referrer;
         this.userAgent = userAgent;
         this.ipAddress = ipAddress;
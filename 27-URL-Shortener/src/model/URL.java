@@ -2,28 +2,38 @@ package model;
 
 import enums.URLStatus;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class URL {
     private final String shortCode;
     private final String longURL;
     private final LocalDateTime createdAt;
     private LocalDateTime expiresAt;
+    private volatile long expiresAtMillis;
     private final String userId;
-    private int clicks;
-    private URLStatus status;
+    private final AtomicInteger clicks;
+    private volatile URLStatus status;
     
     public URL(String shortCode, String longURL, String userId) {
         this(shortCode, longURL, userId, null);
     }
     
     public URL(String shortCode, String longURL, String userId, LocalDateTime expiresAt) {
+        this(shortCode, longURL, userId, LocalDateTime.now(), expiresAt, URLStatus.ACTIVE);
+    }
+    
+    // Restores a previously persisted mapping
+    public URL(String shortCode, String longURL, String userId, LocalDateTime createdAt,
+               LocalDateTime expiresAt, URLStatus status) {
         this.shortCode = shortCode;
         this.longURL = longURL;
         this.userId = userId;
-        this.createdAt = LocalDateTime.now();
+        this.createdAt = createdAt;
         this.expiresAt = expiresAt;
-        this.clicks = 0;
-        this.status = URLStatus.ACTIVE;
+        this.expiresAtMillis = toEpochMillis(expiresAt);
+        this.clicks = new AtomicInteger();
+        this.status = status;
     }
     
     public String getShortCode() {
@@ -42,8 +52,15 @@ public class URL {
         return expiresAt;
     }
     
+    // Callers must reindex the URL; see URLShortenerService.updateExpiry
     public void setExpiresAt(LocalDateTime expiresAt) {
         this.expiresAt = expiresAt;
+        this.expiresAtMillis = toEpochMillis(expiresAt);
+    }
+    
+    // Epoch millis of expiry (Long.MAX_VALUE when the URL never expires)
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
     }
     
     public String getUserId() {
@@ -51,11 +68,11 @@ public class URL {
     }
     
     public int getClicks() {
-        return clicks;
+        return clicks.get();
     }
     
-    public synchronized void incrementClicks() {
-        this.clicks++;
+    public void incrementClicks() {
+        clicks.incrementAndGet();
     }
     
     public URLStatus getStatus() {
@@ -67,19 +84,27 @@ public class URL {
     }
     
     public boolean isExpired() {
-        if (expiresAt == null) {
-            return false;
-        }
-        return LocalDateTime.now().isAfter(expiresAt);
+        return isExpiredAt(System.currentTimeMillis());
+    }
+    
+    public boolean isExpiredAt(long nowMillis) {
+        return nowMillis > expiresAtMillis;
     }
     
     public boolean isActive() {
         return status == URLStatus.ACTIVE && !isExpired();
     }
     
+    private static long toEpochMillis(LocalDateTime time) {
+        if (time == null) {
+            return Long.MAX_VALUE;
+        }
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+    
     @Override
     public String toString() {
         return String.format("ShortURL[%s] -> %s (clicks: %d, status: %s)", 
-            shortCode, longURL, clicks, status);
+            shortCode, longURL, clicks.get(), status);
     }
 }
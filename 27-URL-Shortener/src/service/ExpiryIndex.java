@@ -0,0 +1,79 @@
+package service;
+
+import model.URL;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * URLs with an expiry, ordered by expiresAt so cleanup only touches due entries.
+ * 
+ * Each URL has at most one entry: adding a URL again replaces its entry, so
+ * an expiry moved earlier or later is honoured and no stale duplicates build
+ * up. Entries are still validated when they come due, so an expiry changed
+ * without re-adding the URL is re-queued at the new time instead of expired.
+ */
+public class ExpiryIndex {
+    private final TreeSet<Entry> queue;
+    private final Map<String, Entry> byShortCode;
+    private long sequence;
+    
+    private static final class Entry {
+        final long expiresAtMillis;
+        final long sequence;  // Orders entries with the same expiry
+        final URL url;
+        
+        Entry(long expiresAtMillis, long sequence, URL url) {
+            this.expiresAtMillis = expiresAtMillis;
+            this.sequence = sequence;
+            this.url = url;
+        }
+    }
+    
+    public ExpiryIndex() {
+        this.queue = new TreeSet<>((a, b) -> a.expiresAtMillis != b.expiresAtMillis
+            ? Long.compare(a.expiresAtMillis, b.expiresAtMillis)
+            : Long.compare(a.sequence, b.sequence));
+        this.byShortCode = new HashMap<>();
+    }
+    
+    /**
+     * Schedules the URL at its current expiry, replacing any earlier entry.
+     */
+    public synchronized void add(URL url) {
+        Entry previous = byShortCode.remove(url.getShortCode());
+        if (previous != null) {
+            queue.remove(previous);
+        }
+        long expiresAt = url.getExpiresAtMillis();
+        if (expiresAt != Long.MAX_VALUE) {
+            Entry entry = new Entry(expiresAt, sequence++, url);
+            queue.add(entry);
+            byShortCode.put(url.getShortCode(), entry);
+        }
+    }
+    
+    /**
+     * Removes and returns the URLs whose expiry is before nowMillis.
+     */
+    public synchronized List<URL> pollDue(long nowMillis) {
+        List<URL> due = new ArrayList<>();
+        while (!queue.isEmpty() && queue.first().expiresAtMillis < nowMillis) {
+            Entry entry = queue.pollFirst();
+            byShortCode.remove(entry.url.getShortCode(), entry);
+            if (entry.url.getExpiresAtMillis() != entry.expiresAtMillis) {
+                add(entry.url);
+                continue;
+            }
+            due.add(entry.url);
+        }
+        return due;
+    }
+    
+    public synchronized int size() {
+        return queue.size();
+    }
+}
@@ -3,9 +3,20 @@ package service;
 import model.URL;
 import model.Analytics;
 import enums.URLStatus;
+import analytics.ClickAggregator;
+import analytics.ClickEventLog;
+import analytics.ClickPipeline;
+import analytics.ClickSink;
+import analytics.ClickStats;
+import analytics.SpaceSavingTopK;
+import cache.HotURLCache;
+import store.Fingerprint;
+import store.URLStore;
 import strategy.ShorteningStrategy;
 import strategy.Base62CounterStrategy;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
@@ -15,18 +26,33 @@ public class URLShortenerService {
     private static URLShortenerService instance;
     
     private final Map<String, URL> shortToURL;
-    private final Map<String, String> longToShort;
-    private final Map<String, List<Analytics>> analytics;
+    private final Map<Long, String> fingerprintToShort;
+    private final Map<String, Set<String>> userCodes;
+    private final ClickAggregator clickAggregator;
+    private final HotURLCache hotCache;
+    private final ExpiryIndex expiryIndex;
+    private final ClickPipeline clickPipeline;
+    private volatile URLStore store;
     private ShorteningStrategy defaultStrategy;
     private static final int MAX_RETRIES = 5;
+    private static final int HOT_CACHE_SIZE = 1024;
+    private static final int HOT_CACHE_REFRESH_CLICKS = 10_000;
+    private static final long HOT_CACHE_REFRESH_MILLIS = 1_000;
+    private static final int CLICK_BUFFER_SIZE = 1 << 16;
     private static final Pattern URL_PATTERN = Pattern.compile(
         "^(https?://)?([\\w-]+\\.)+[\\w-]+(/[\\w-./?%&=]*)?$"
     );
     
     private URLShortenerService() {
         this.shortToURL = new ConcurrentHashMap<>();
-        this.longToShort = new ConcurrentHashMap<>();
-        this.analytics = new ConcurrentHashMap<>();
+        this.fingerprintToShort = new ConcurrentHashMap<>();
+        this.userCodes = new ConcurrentHashMap<>();
+        this.clickAggregator = new ClickAggregator();
+        this.hotCache = new HotURLCache(HOT_CACHE_SIZE);
+        this.expiryIndex = new ExpiryIndex();
+        this.clickPipeline = new ClickPipeline(CLICK_BUFFER_SIZE);
+        this.clickPipeline.addSink(clickAggregator);
+        this.clickPipeline.addSink(new HotCacheRefresher());
         this.defaultStrategy = new Base62CounterStrategy();
     }
     
@@ -38,7 +64,35 @@ public class URLShortenerService {
     }
     
     public void setDefaultStrategy(ShorteningStrategy strategy) {
-        this.defaultStrategy = strategy;
+        this.defaultStrategy = resumeCounter(strategy);
+    }
+    
+    /**
+     * Backs the service with a persistent store in the given directory. Mappings
+     * already in the store are loaded lazily on first access, and a counter
+     * strategy resumes past the codes it issued before.
+     */
+    public synchronized void enablePersistence(Path directory) throws IOException {
+        closePersistence();
+        this.store = new URLStore(directory);
+        this.defaultStrategy = resumeCounter(defaultStrategy);
+    }
+    
+    // A counter behind the store's high-water mark would only regenerate taken codes
+    private ShorteningStrategy resumeCounter(ShorteningStrategy strategy) {
+        URLStore currentStore = store;
+        if (currentStore != null && strategy instanceof Base62CounterStrategy
+                && ((Base62CounterStrategy) strategy).getCounter() < currentStore.getCodeCounter()) {
+            return new Base62CounterStrategy(currentStore.getCodeCounter());
+        }
+        return strategy;
+    }
+    
+    public synchronized void closePersistence() throws IOException {
+        if (store != null) {
+            store.close();
+            store = null;
+        }
     }
     
     public URL shortenURL(String longURL, String userId) {
@@ -56,28 +110,33 @@ public class URLShortenerService {
         }
         
         // Check if already shortened
-        if (longToShort.containsKey(longURL)) {
-            String existingCode = longToShort.get(longURL);
-            URL existingURL = shortToURL.get(existingCode);
-            if (existingURL.isActive()) {
-                System.out.println("URL already shortened: " + existingCode);
-                return existingURL;
-            }
+        URL existingURL = findByLongURL(longURL);
+        if (existingURL != null && existingURL.isActive()) {
+            System.out.println("URL already shortened: " + existingURL.getShortCode());
+            return existingURL;
         }
         
         // Use provided strategy or default
-        ShorteningStrategy strategyToUse = strategy != null ? strategy : defaultStrategy;
+        ShorteningStrategy strategyToUse = resumeCounter(strategy != null ? strategy : defaultStrategy);
         
         // Generate unique short code
         String shortCode = generateUniqueShortCode(longURL, strategyToUse);
+        URLStore currentStore = store;
+        if (strategyToUse instanceof Base62CounterStrategy && currentStore != null) {
+            // Raised before the mapping is written, so a crash can only leave a gap
+            currentStore.raiseCodeCounter(((Base62CounterStrategy) strategyToUse).getCounter());
+        }
         
         // Create URL object
         URL url = new URL(shortCode, longURL, userId, expiresAt);
         
         // Store mappings
+        persist(url);
         shortToURL.put(shortCode, url);
-        longToShort.put(longURL, shortCode);
-        analytics.put(shortCode, new ArrayList<>());
+        fingerprintToShort.put(Fingerprint.of(longURL), shortCode);
+        indexOwner(url);
+        clickAggregator.register(shortCode);
+        expiryIndex.add(url);
         
         System.out.println("✓ Shortened: " + longURL);
         System.out.println("  Short code: " + shortCode);
@@ -98,7 +157,7 @@ public class URLShortenerService {
             }
             
             // Check if available
-            if (!shortToURL.containsKey(shortCode)) {
+            if (findURL(shortCode) == null) {
                 return shortCode;
             }
             
@@ -113,74 +172,231 @@ public class URLShortenerService {
     }
     
     public String redirect(String shortCode, String referrer, String userAgent, String ipAddress) {
-        URL url = shortToURL.get(shortCode);
+        String longURL = resolve(shortCode, referrer, userAgent, ipAddress);
+        if (longURL != null) {
+            System.out.println("✓ Redirecting " + shortCode + " -> " + longURL);
+            return longURL;
+        }
         
+        URL url = findURL(shortCode);
         if (url == null) {
             System.out.println("❌ Short code not found: " + shortCode);
-            return null;
+        } else if (url.getStatus() == URLStatus.EXPIRED) {
+            System.out.println("❌ URL expired: " + shortCode);
+        } else {
+            System.out.println("❌ URL not active: " + shortCode + " (status: " + url.getStatus() + ")");
+        }
+        return null;
+    }
+    
+    /**
+     * Redirect hot path: resolves a short code without logging or allocating.
+     * Click analytics are handed off to the click pipeline.
+     * 
+     * @return the long URL, or null if the code is unknown, expired or inactive
+     */
+    public String resolve(String shortCode, String referrer, String userAgent, String ipAddress) {
+        URL url = hotCache.get(shortCode);
+        if (url == null) {
+            url = shortToURL.get(shortCode);
+            if (url == null && (url = loadFromStore(shortCode)) == null) {
+                return null;
+            }
         }
         
-        if (url.isExpired()) {
-            System.out.println("❌ URL expired: " + shortCode);
-            url.setStatus(URLStatus.EXPIRED);
+        long now = System.currentTimeMillis();
+        if (url.isExpiredAt(now)) {
+            expire(url);
             return null;
         }
         
         if (url.getStatus() != URLStatus.ACTIVE) {
-            System.out.println("❌ URL not active: " + shortCode + " (status: " + url.getStatus() + ")");
             return null;
         }
         
-        // Track analytics
-        Analytics analytic = new Analytics(shortCode, referrer, userAgent, ipAddress);
-        analytics.get(shortCode).add(analytic);
-        
-        // Increment click count
         url.incrementClicks();
-        
-        System.out.println("✓ Redirecting " + shortCode + " -> " + url.getLongURL());
+        clickPipeline.publish(shortCode, now, referrer, userAgent, ipAddress);
         
         return url.getLongURL();
     }
     
-    public boolean deleteURL(String shortCode) {
+    private boolean expire(URL url) {
+        if (url.getStatus() != URLStatus.ACTIVE) {
+            return false;
+        }
+        url.setStatus(URLStatus.EXPIRED);
+        hotCache.invalidate(url.getShortCode());
+        fingerprintToShort.remove(Fingerprint.of(url.getLongURL()), url.getShortCode());
+        persist(url);
+        return true;
+    }
+    
+    private URL findURL(String shortCode) {
         URL url = shortToURL.get(shortCode);
+        return url != null ? url : loadFromStore(shortCode);
+    }
+    
+    private URL findByLongURL(String longURL) {
+        String code = fingerprintToShort.get(Fingerprint.of(longURL));
+        if (code == null && store != null) {
+            try {
+                code = store.findShortCode(longURL);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to read URL store", e);
+            }
+        }
+        if (code == null) {
+            return null;
+        }
+        URL url = findURL(code);
+        // Fingerprints can collide; only a matching long URL counts as a duplicate
+        return url != null && url.getLongURL().equals(longURL) ? url : null;
+    }
+    
+    // Cold path: pulls a single mapping from the persistent store into memory
+    private URL loadFromStore(String shortCode) {
+        URLStore currentStore = store;
+        if (currentStore == null) {
+            return null;
+        }
+        try {
+            URL loaded = currentStore.findByShortCode(shortCode);
+            if (loaded == null) {
+                return null;
+            }
+            URL existing = shortToURL.putIfAbsent(shortCode, loaded);
+            if (existing != null) {
+                return existing;
+            }
+            if (loaded.getStatus() == URLStatus.ACTIVE) {
+                fingerprintToShort.putIfAbsent(Fingerprint.of(loaded.getLongURL()), shortCode);
+            }
+            indexOwner(loaded);
+            clickAggregator.register(shortCode);
+            expiryIndex.add(loaded);
+            return loaded;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read URL store", e);
+        }
+    }
+    
+    private void indexOwner(URL url) {
+        if (url.getUserId() != null) {
+            userCodes.computeIfAbsent(url.getUserId(), user -> ConcurrentHashMap.newKeySet())
+                .add(url.getShortCode());
+        }
+    }
+    
+    private void persist(URL url) {
+        URLStore currentStore = store;
+        if (currentStore == null) {
+            return;
+        }
+        try {
+            currentStore.save(url);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to persist URL: " + url.getShortCode(), e);
+        }
+    }
+    
+    /**
+     * Rebuilds the hot-URL snapshot from the current top codes by click count.
+     * The click pipeline also does this on its own as clicks arrive.
+     */
+    public void refreshHotCache() {
+        hotCache.rebuild(shortToURL.values());
+    }
+    
+    public boolean deleteURL(String shortCode) {
+        URL url = findURL(shortCode);
         if (url == null) {
             return false;
         }
         
         url.setStatus(URLStatus.DELETED);
-        longToShort.remove(url.getLongURL());
+        hotCache.invalidate(shortCode);
+        fingerprintToShort.remove(Fingerprint.of(url.getLongURL()), shortCode);
+        persist(url);
         System.out.println("✓ Deleted: " + shortCode);
         return true;
     }
     
+    /**
+     * Changes when a URL expires (null for never) and reindexes it, so moving
+     * the expiry earlier is honoured by cleanupExpiredURLs.
+     */
+    public boolean updateExpiry(String shortCode, LocalDateTime expiresAt) {
+        URL url = findURL(shortCode);
+        if (url == null || url.getStatus() != URLStatus.ACTIVE) {
+            return false;
+        }
+        
+        url.setExpiresAt(expiresAt);
+        expiryIndex.add(url);
+        persist(url);
+        System.out.println("✓ Expiry updated: " + shortCode + " -> " + (expiresAt != null ? expiresAt : "never"));
+        return true;
+    }
+    
     public URL getURL(String shortCode) {
-        return shortToURL.get(shortCode);
+        return findURL(shortCode);
     }
     
+    /**
+     * URLs a user created: those in memory from the per-user code index, plus
+     * persisted ones not loaded yet, read from the store's per-owner chain.
+     */
     public List<URL> getUserURLs(String userId) {
         List<URL> userURLs = new ArrayList<>();
-        for (URL url : shortToURL.values()) {
-            if (url.getUserId().equals(userId)) {
-                userURLs.add(url);
+        Set<String> codes = userCodes.getOrDefault(userId, Collections.emptySet());
+        for (String code : codes) {
+            userURLs.add(shortToURL.get(code));
+        }
+        URLStore currentStore = store;
+        if (currentStore != null) {
+            try {
+                for (URL stored : currentStore.findByOwner(userId)) {
+                    if (!codes.contains(stored.getShortCode())) {
+                        userURLs.add(stored);
+                    }
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to read URL store", e);
             }
         }
         return userURLs;
     }
     
+    /**
+     * Most recent clicks for a short code (bounded; older clicks only survive as aggregates).
+     */
     public List<Analytics> getAnalytics(String shortCode) {
-        return analytics.getOrDefault(shortCode, new ArrayList<>());
+        ClickStats stats = getClickStats(shortCode);
+        return stats != null ? stats.getRecentClicks() : new ArrayList<>();
+    }
+    
+    public ClickStats getClickStats(String shortCode) {
+        clickPipeline.drain();
+        return clickAggregator.getStats(shortCode);
+    }
+    
+    /**
+     * Additionally persists every raw click to a compact binary log.
+     */
+    public ClickEventLog enableClickLog(Path file) throws IOException {
+        ClickEventLog log = new ClickEventLog(file);
+        clickPipeline.addSink(log);
+        return log;
     }
     
     public void printAnalytics(String shortCode) {
-        URL url = shortToURL.get(shortCode);
+        URL url = findURL(shortCode);
         if (url == null) {
             System.out.println("URL not found");
             return;
         }
         
-        List<Analytics> analyticsData = analytics.get(shortCode);
+        ClickStats stats = getClickStats(shortCode);
         
         System.out.println("\n========== ANALYTICS ==========");
         System.out.println("Short Code: " + shortCode);
@@ -193,25 +409,26 @@ public class URLShortenerService {
             System.out.println("Expires: " + url.getExpiresAt());
         }
         
-        if (!analyticsData.isEmpty()) {
+        if (stats != null && stats.getTotalClicks() > 0) {
+            System.out.println("Clicks (last hour/day/30 days): " + stats.getClicksLastHour() + " / "
+                + stats.getClicksLastDay() + " / " + stats.getClicksLast30Days());
+            System.out.println("Unique Visitors (approx): " + stats.getUniqueVisitors());
+            
             System.out.println("\nRecent Clicks:");
-            int limit = Math.min(5, analyticsData.size());
-            for (int i = analyticsData.size() - limit; i < analyticsData.size(); i++) {
-                System.out.println("  " + analyticsData.get(i));
+            List<Analytics> recent = stats.getRecentClicks();
+            for (int i = Math.max(0, recent.size() - 5); i < recent.size(); i++) {
+                System.out.println("  " + recent.get(i));
             }
             
-            // Referrer stats
-            Map<String, Integer> referrerCounts = new HashMap<>();
-            for (Analytics a : analyticsData) {
-                String ref = a.getReferrer() != null ? a.getReferrer() : "direct";
-                referrerCounts.put(ref, referrerCounts.getOrDefault(ref, 0) + 1);
+            System.out.println("\nTop Referrers:");
+            for (SpaceSavingTopK.Counter counter : stats.getTopReferrers(3)) {
+                System.out.println("  " + counter.getKey() + ": " + counter.getCount() + " clicks");
             }
             
-            System.out.println("\nTop Referrers:");
-            referrerCounts.entrySet().stream()
-                .sorted((a, b) -> b.getValue().compareTo(a.getValue()))
-                .limit(3)
-                .forEach(e -> System.out.println("  " + e.getKey() + ": " + e.getValue() + " clicks"));
+            System.out.println("\nTop User Agents:");
+            for (SpaceSavingTopK.Counter counter : stats.getTopUserAgents(3)) {
+                System.out.println("  " + counter.getKey() + ": " + counter.getCount() + " clicks");
+            }
         }
         
         System.out.println("===============================\n");
@@ -239,9 +456,8 @@ public class URLShortenerService {
     
     public void cleanupExpiredURLs() {
         int cleaned = 0;
-        for (URL url : shortToURL.values()) {
-            if (url.isExpired() && url.getStatus() == URLStatus.ACTIVE) {
-                url.setStatus(URLStatus.EXPIRED);
+        for (URL url : expiryIndex.pollDue(System.currentTimeMillis())) {
+            if (expire(url)) {
                 cleaned++;
             }
         }
@@ -257,6 +473,42 @@ public class URLShortenerService {
             .filter(URL::isActive).count());
         System.out.println("Total Clicks: " + shortToURL.values().stream()
             .mapToInt(URL::getClicks).sum());
+        if (store != null) {
+            System.out.println("Persisted URLs: " + store.size());
+        }
+        System.out.println("Hot URLs Cached: " + hotCache.size());
+        System.out.println("Pending Expiries: " + expiryIndex.size());
+        System.out.println("Dropped Clicks: " + clickPipeline.getDroppedCount());
+        System.out.println("Click Sink Failures: " + clickPipeline.getSinkFailureCount());
         System.out.println("==================================\n");
     }
+    
+    /**
+     * Keeps the hot cache warm from the click pipeline's consumer thread, so
+     * redirects never pay for a rebuild. Rebuilds after HOT_CACHE_REFRESH_CLICKS
+     * clicks, or at the end of a batch once HOT_CACHE_REFRESH_MILLIS has passed.
+     */
+    private class HotCacheRefresher implements ClickSink {
+        private int clicksSinceRebuild;
+        private long lastRebuildMillis;
+        
+        @Override
+        public void onClick(String shortCode, long timestampMillis, String referrer, String userAgent,
+                            String ipAddress) {
+            clicksSinceRebuild++;
+        }
+        
+        @Override
+        public void onBatchEnd() {
+            if (clicksSinceRebuild == 0) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            if (clicksSinceRebuild >= HOT_CACHE_REFRESH_CLICKS || now - lastRebuildMillis >= HOT_CACHE_REFRESH_MILLIS) {
+                refreshHotCache();
+                clicksSinceRebuild = 0;
+                lastRebuildMillis = now;
+            }
+        }
+    }
 }
@@ -0,0 +1,28 @@
+package store;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 64-bit string fingerprint (FNV-1a over UTF-8 bytes plus a MurmurHash3 finalizer).
+ * Used as a compact key in place of full long-URL strings.
+ */
+public final class Fingerprint {
+    private Fingerprint() {
+    }
+    
+    public static long of(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        long h = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            h ^= (b & 0xFF);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        // 0 marks an empty index slot
+        return h == 0 ? 1 : h;
+    }
+}
@@ -0,0 +1,235 @@
+package store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.LongPredicate;
+
+/**
+ * Memory-mapped open-addressing hash table from a 64-bit key to a data file offset.
+ * 
+ * Layout: a 32-byte header (magic, capacity, used slots, indexed data length,
+ * a counter the owning store may use) followed by 16-byte slots of (key, offset). Key 0 marks an empty slot and
+ * offset -1 a removed entry. Keys are hashes, so callers pass a predicate that
+ * checks the record at a candidate offset; distinct records with colliding keys
+ * simply occupy separate slots.
+ */
+public class MappedHashIndex implements Closeable {
+    private static final int MAGIC = 0x55524C49; // "URLI"
+    private static final int HEADER_BYTES = 32;
+    private static final int SLOT_BYTES = 16;
+    private static final long REMOVED = -1L;
+    
+    private final Path file;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int capacity;
+    private int used;
+    
+    public MappedHashIndex(Path file, int initialCapacity) throws IOException {
+        this.file = file;
+        boolean exists = Files.exists(file) && Files.size(file) >= HEADER_BYTES;
+        if (exists) {
+            map(file);
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not an index file: " + file);
+            }
+            this.capacity = buffer.getInt(4);
+            this.used = buffer.getInt(8);
+        } else {
+            create(file, Integer.highestOneBit(Math.max(16, initialCapacity - 1)) << 1);
+        }
+    }
+    
+    private void create(Path target, int slots) throws IOException {
+        Files.deleteIfExists(target);
+        map(target);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) slots * SLOT_BYTES);
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, slots);
+        buffer.putInt(8, 0);
+        buffer.putLong(16, 0L);
+        buffer.putLong(24, 0L);
+        this.capacity = slots;
+        this.used = 0;
+    }
+    
+    private void map(Path target) throws IOException {
+        this.channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        if (channel.size() >= HEADER_BYTES) {
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        }
+    }
+    
+    public synchronized long get(long key, LongPredicate matches) {
+        int mask = capacity - 1;
+        int i = slotFor(key) & mask;
+        long slotKey;
+        while ((slotKey = keyAt(i)) != 0) {
+            if (slotKey == key) {
+                long offset = offsetAt(i);
+                if (offset != REMOVED && matches.test(offset)) {
+                    return offset;
+                }
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+    
+    /**
+     * Points the entry matching the key and predicate at a new offset, or inserts it.
+     */
+    public synchronized void put(long key, long offset, LongPredicate matches) throws IOException {
+        if ((used + 1) * 2L > capacity) {
+            resize(capacity * 2);
+        }
+        int mask = capacity - 1;
+        int i = slotFor(key) & mask;
+        int reusable = -1;
+        long slotKey;
+        while ((slotKey = keyAt(i)) != 0) {
+            if (slotKey == key) {
+                long existing = offsetAt(i);
+                if (existing == REMOVED) {
+                    if (reusable < 0) {
+                        reusable = i;
+                    }
+                } else if (matches.test(existing)) {
+                    setOffset(i, offset);
+                    return;
+                }
+            }
+            i = (i + 1) & mask;
+        }
+        if (reusable >= 0) {
+            setOffset(reusable, offset);
+            return;
+        }
+        buffer.putLong(slotPosition(i), key);
+        setOffset(i, offset);
+        used++;
+        buffer.putInt(8, used);
+    }
+    
+    public synchronized boolean remove(long key, LongPredicate matches) {
+        int mask = capacity - 1;
+        int i = slotFor(key) & mask;
+        long slotKey;
+        while ((slotKey = keyAt(i)) != 0) {
+            if (slotKey == key) {
+                long offset = offsetAt(i);
+                if (offset != REMOVED && matches.test(offset)) {
+                    setOffset(i, REMOVED);
+                    return true;
+                }
+            }
+            i = (i + 1) & mask;
+        }
+        return false;
+    }
+    
+    // Length of the data file that is fully reflected in this index
+    public synchronized long getIndexedDataLength() {
+        return buffer.getLong(16);
+    }
+    
+    public synchronized void setIndexedDataLength(long length) {
+        buffer.putLong(16, length);
+    }
+    
+    // A value persisted with the index for the owning store's own use
+    public synchronized long getCounter() {
+        return buffer.getLong(24);
+    }
+    
+    public synchronized void setCounter(long value) {
+        buffer.putLong(24, value);
+    }
+    
+    public synchronized int size() {
+        int live = 0;
+        for (int i = 0; i < capacity; i++) {
+            if (keyAt(i) != 0 && offsetAt(i) != REMOVED) {
+                live++;
+            }
+        }
+        return live;
+    }
+    
+    public synchronized long getMappedBytes() {
+        return HEADER_BYTES + (long) capacity * SLOT_BYTES;
+    }
+    
+    private void resize(int newCapacity) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        MappedByteBuffer old = buffer;
+        int oldCapacity = capacity;
+        long indexedLength = getIndexedDataLength();
+        long counter = getCounter();
+        FileChannel oldChannel = channel;
+        
+        create(temp, newCapacity);
+        int mask = newCapacity - 1;
+        for (int s = 0; s < oldCapacity; s++) {
+            long pos = HEADER_BYTES + (long) s * SLOT_BYTES;
+            long key = old.getLong((int) pos);
+            long offset = old.getLong((int) pos + 8);
+            if (key == 0 || offset == REMOVED) {
+                continue;
+            }
+            int i = slotFor(key) & mask;
+            while (keyAt(i) != 0) {
+                i = (i + 1) & mask;
+            }
+            buffer.putLong(slotPosition(i), key);
+            setOffset(i, offset);
+            used++;
+        }
+        buffer.putInt(8, used);
+        setIndexedDataLength(indexedLength);
+        setCounter(counter);
+        buffer.force();
+        oldChannel.close();
+        
+        channel.close();
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        map(file);
+    }
+    
+    public synchronized void force() {
+        buffer.force();
+    }
+    
+    @Override
+    public synchronized void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+    
+    private long keyAt(int slot) {
+        return buffer.getLong(slotPosition(slot));
+    }
+    
+    private long offsetAt(int slot) {
+        return buffer.getLong(slotPosition(slot) + 8);
+    }
+    
+    private void setOffset(int slot, long offset) {
+        buffer.putLong(slotPosition(slot) + 8, offset);
+    }
+    
+    private static int slotPosition(int slot) {
+        return HEADER_BYTES + slot * SLOT_BYTES;
+    }
+    
+    private static int slotFor(long key) {
+        return (int) (key ^ (key >>> 32));
+    }
+}
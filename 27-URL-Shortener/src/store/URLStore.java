@@ -0,0 +1,301 @@
+package store;
+
+import enums.URLStatus;
+import model.URL;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Persistent URL mapping store.
+ * 
+ * Every create or status change appends a record to an append-only data file.
+ * Three memory-mapped hash indexes point into it: short code -> latest record,
+ * long-URL fingerprint -> record (dedup), and owner -> owner's latest record.
+ * Each record links to its owner's previous record, so one owner's URLs are
+ * found by walking that chain instead of reading the whole file. Opening the store maps the
+ * indexes and only re-applies records written after the last indexed length,
+ * so restart cost is independent of how many URLs were ever stored.
+ * 
+ * The code index header also keeps a high-water mark for counter-generated
+ * short codes, so a counter strategy can resume past every code it issued.
+ * 
+ * Record layout:
+ *   int length | byte status | long createdAt | long expiresAt | long previousByOwner |
+ *   short codeLen | code | int urlLen | url | short userLen | user
+ */
+public class URLStore implements Closeable {
+    private static final String DATA_FILE = "urls.dat";
+    private static final String CODE_INDEX_FILE = "codes.idx";
+    private static final String DEDUP_INDEX_FILE = "dedup.idx";
+    private static final String OWNER_INDEX_FILE = "owners.idx";
+    private static final int INITIAL_INDEX_SLOTS = 1 << 16;
+    private static final long NO_EXPIRY = Long.MAX_VALUE;
+    private static final URLStatus[] STATUSES = URLStatus.values();
+    
+    private final FileChannel data;
+    private final MappedHashIndex codeIndex;
+    private final MappedHashIndex dedupIndex;
+    private final MappedHashIndex ownerIndex;
+    private long dataLength;
+    
+    public URLStore(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        this.data = FileChannel.open(directory.resolve(DATA_FILE), StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.codeIndex = new MappedHashIndex(directory.resolve(CODE_INDEX_FILE), INITIAL_INDEX_SLOTS);
+        this.dedupIndex = new MappedHashIndex(directory.resolve(DEDUP_INDEX_FILE), INITIAL_INDEX_SLOTS);
+        this.ownerIndex = new MappedHashIndex(directory.resolve(OWNER_INDEX_FILE), INITIAL_INDEX_SLOTS);
+        this.dataLength = data.size();
+        recoverTail();
+    }
+    
+    /**
+     * Indexes records appended after the indexes were last updated (e.g. after a
+     * crash between the data write and the index write) and drops a torn final record.
+     */
+    private void recoverTail() throws IOException {
+        long position = Math.min(codeIndex.getIndexedDataLength(),
+            Math.min(dedupIndex.getIndexedDataLength(), ownerIndex.getIndexedDataLength()));
+        while (position < dataLength) {
+            Record record = readRecord(position);
+            if (record == null) {
+                data.truncate(position);
+                dataLength = position;
+                break;
+            }
+            index(record, position);
+            position += Integer.BYTES + record.length;
+        }
+        markIndexed();
+    }
+    
+    public synchronized void save(URL url) throws IOException {
+        Record record = Record.of(url);
+        long offset = append(record);
+        index(record, offset);
+        markIndexed();
+    }
+    
+    public synchronized URL findByShortCode(String shortCode) throws IOException {
+        long offset = codeIndex.get(Fingerprint.of(shortCode), o -> shortCode.equals(readQuietly(o).shortCode));
+        return offset < 0 ? null : toURL(readRecord(offset));
+    }
+    
+    /**
+     * Short code of the active mapping for a long URL, or null.
+     */
+    public synchronized String findShortCode(String longURL) throws IOException {
+        long offset = dedupIndex.get(Fingerprint.of(longURL), o -> longURL.equals(readQuietly(o).longURL));
+        return offset < 0 ? null : readRecord(offset).shortCode;
+    }
+    
+    /**
+     * Latest state of every URL owned by a user, newest first. Reads only that
+     * user's records.
+     */
+    public synchronized List<URL> findByOwner(String userId) throws IOException {
+        String owner = userId != null ? userId : "";
+        List<URL> urls = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        long offset = ownerHead(owner);
+        while (offset >= 0) {
+            Record record = readQuietly(offset);
+            // A later status change of the same code was already seen
+            if (seen.add(record.shortCode)) {
+                urls.add(toURL(record));
+            }
+            offset = record.previousByOwner;
+        }
+        return urls;
+    }
+    
+    /**
+     * Next counter value a counter-based strategy may use without reissuing a stored code.
+     */
+    public synchronized long getCodeCounter() {
+        return codeIndex.getCounter();
+    }
+    
+    // Never lowered, so a strategy restarted from an older value cannot undo it
+    public synchronized void raiseCodeCounter(long next) {
+        if (next > codeIndex.getCounter()) {
+            codeIndex.setCounter(next);
+        }
+    }
+    
+    public synchronized int size() {
+        return codeIndex.size();
+    }
+    
+    public synchronized void sync() throws IOException {
+        data.force(false);
+        codeIndex.force();
+        dedupIndex.force();
+        ownerIndex.force();
+    }
+    
+    @Override
+    public synchronized void close() throws IOException {
+        sync();
+        codeIndex.close();
+        dedupIndex.close();
+        ownerIndex.close();
+        data.close();
+    }
+    
+    private void index(Record record, long offset) throws IOException {
+        codeIndex.put(Fingerprint.of(record.shortCode), offset,
+            o -> record.shortCode.equals(readQuietly(o).shortCode));
+        
+        long fingerprint = Fingerprint.of(record.longURL);
+        if (record.status == URLStatus.ACTIVE) {
+            dedupIndex.put(fingerprint, offset, o -> record.longURL.equals(readQuietly(o).longURL));
+        } else {
+            dedupIndex.remove(fingerprint, o -> record.shortCode.equals(readQuietly(o).shortCode));
+        }
+        
+        ownerIndex.put(Fingerprint.of(record.userId), offset, o -> record.userId.equals(readQuietly(o).userId));
+    }
+    
+    private long ownerHead(String owner) {
+        return ownerIndex.get(Fingerprint.of(owner), o -> owner.equals(readQuietly(o).userId));
+    }
+    
+    private void markIndexed() {
+        codeIndex.setIndexedDataLength(dataLength);
+        dedupIndex.setIndexedDataLength(dataLength);
+        ownerIndex.setIndexedDataLength(dataLength);
+    }
+    
+    private long append(Record record) throws IOException {
+        byte[] code = record.shortCode.getBytes(StandardCharsets.UTF_8);
+        byte[] longURL = record.longURL.getBytes(StandardCharsets.UTF_8);
+        byte[] user = record.userId.getBytes(StandardCharsets.UTF_8);
+        record.previousByOwner = ownerHead(record.userId);
+        int length = 1 + 8 + 8 + 8 + 2 + code.length + 4 + longURL.length + 2 + user.length;
+        record.length = length;
+        
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + length);
+        buffer.putInt(length);
+        buffer.put((byte) record.status.ordinal());
+        buffer.putLong(record.createdAtMillis);
+        buffer.putLong(record.expiresAtMillis);
+        buffer.putLong(record.previousByOwner);
+        buffer.putShort((short) code.length).put(code);
+        buffer.putInt(longURL.length).put(longURL);
+        buffer.putShort((short) user.length).put(user);
+        buffer.flip();
+        
+        long offset = dataLength;
+        while (buffer.hasRemaining()) {
+            dataLength += data.write(buffer, dataLength);
+        }
+        return offset;
+    }
+    
+    private Record readQuietly(long offset) {
+        try {
+            Record record = readRecord(offset);
+            if (record == null) {
+                throw new IllegalStateException("Corrupt record at offset " + offset);
+            }
+            return record;
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read record at offset " + offset, e);
+        }
+    }
+    
+    // Returns null if the record at offset is incomplete
+    private Record readRecord(long offset) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+        if (readFully(header, offset) < Integer.BYTES) {
+            return null;
+        }
+        int length = header.getInt(0);
+        if (length <= 0 || offset + Integer.BYTES + length > dataLength) {
+            return null;
+        }
+        ByteBuffer body = ByteBuffer.allocate(length);
+        readFully(body, offset + Integer.BYTES);
+        body.flip();
+        
+        Record record = new Record();
+        record.length = length;
+        record.status = STATUSES[body.get()];
+        record.createdAtMillis = body.getLong();
+        record.expiresAtMillis = body.getLong();
+        record.previousByOwner = body.getLong();
+        record.shortCode = readString(body, body.getShort());
+        record.longURL = readString(body, body.getInt());
+        record.userId = readString(body, body.getShort());
+        return record;
+    }
+    
+    private int readFully(ByteBuffer buffer, long position) throws IOException {
+        int total = 0;
+        while (buffer.hasRemaining()) {
+            int read = data.read(buffer, position + total);
+            if (read < 0) {
+                break;
+            }
+            total += read;
+        }
+        return total;
+    }
+    
+    private static String readString(ByteBuffer buffer, int length) {
+        String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+    
+    private static URL toURL(Record record) {
+        LocalDateTime expiresAt = record.expiresAtMillis == NO_EXPIRY ? null : toDateTime(record.expiresAtMillis);
+        return new URL(record.shortCode, record.longURL, record.userId.isEmpty() ? null : record.userId,
+            toDateTime(record.createdAtMillis), expiresAt, record.status);
+    }
+    
+    private static LocalDateTime toDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+    
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+    
+    private static class Record {
+        int length;
+        URLStatus status;
+        long createdAtMillis;
+        long expiresAtMillis;
+        long previousByOwner;        // -1 for the owner's first record
+        String shortCode;
+        String longURL;
+        String userId;
+        
+        static Record of(URL url) {
+            Record record = new Record();
+            record.status = url.getStatus();
+            record.createdAtMillis = toEpochMillis(url.getCreatedAt());
+            record.expiresAtMillis = url.getExpiresAtMillis();
+            record.shortCode = url.getShortCode();
+            record.longURL = url.getLongURL();
+            record.userId = url.getUserId() != null ? url.getUserId() : "";
+            return record;
+        }
+    }
+}
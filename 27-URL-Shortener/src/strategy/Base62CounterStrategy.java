@@ -12,6 +12,11 @@ public class Base62CounterStrategy implements ShorteningStrategy {
         this.counter = startCounter;
     }
     
+    // Value the next generated code will encode
+    public synchronized long getCounter() {
+        return counter;
+    }
+    
     @Override
     public synchronized String generateShortCode(String longURL) {
         long num = counter++;
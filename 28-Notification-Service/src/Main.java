@@ -1,8 +1,15 @@
+import dispatch.ChannelMetrics;
+import dispatch.DispatchConfig;
 import enums.*;
 import model.*;
 import observer.NotificationObserver;
 import service.NotificationService;
+import store.NotificationArchive;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
 
 /**
@@ -296,6 +303,85 @@ public class Main {
         }
         System.out.println();
         
+        // Scenario 15: Concurrent Dispatch Engine
+        System.out.println("========================================");
+        System.out.println("  SCENARIO 15: CONCURRENT DISPATCH ENGINE");
+        System.out.println("========================================\n");
+        
+        service.startDispatchEngine(new DispatchConfig()
+            .workers(NotificationChannel.EMAIL, 4)
+            .workers(NotificationChannel.SMS, 2));
+        
+        service.sendBulkNotifications(
+            allUsers,
+            "Flash Sale",
+            "50% off for the next hour",
+            NotificationChannel.IN_APP,
+            NotificationPriority.HIGH
+        );
+        service.queueNotification(service.createNotification(
+            "U001", "Receipt", "Thanks for your order", NotificationChannel.EMAIL, NotificationPriority.LOW));
+        
+        Map<NotificationChannel, ChannelMetrics> dispatchMetrics = service.getDispatchMetrics();
+        try {
+            service.stopDispatchEngine(10_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.out.println("\nPer-channel dispatch metrics:");
+        for (ChannelMetrics metrics : dispatchMetrics.values()) {
+            if (metrics.getSubmitted() > 0) {
+                System.out.println("  " + metrics);
+            }
+        }
+        System.out.println();
+        
+        // Scenario 16: Batched Campaign
+        System.out.println("========================================");
+        System.out.println("  SCENARIO 16: BATCHED CAMPAIGN");
+        System.out.println("========================================");
+        
+        List<String> campaignRecipients = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            campaignRecipients.add(allUsers.get(i % allUsers.size()));
+        }
+        campaignRecipients.add("U999");
+        service.sendCampaign(
+            campaignRecipients,
+            "Product Launch",
+            "Our new product is live!",
+            Arrays.asList(NotificationChannel.PUSH, NotificationChannel.EMAIL),
+            NotificationPriority.LOW
+        );
+        
+        // Scenario 17: Paged Inbox and Retention
+        System.out.println("========================================");
+        System.out.println("  SCENARIO 17: PAGED INBOX & RETENTION");
+        System.out.println("========================================\n");
+        
+        System.out.println("Alice's inbox, 3 per page:");
+        String cursor = null;
+        int pageNumber = 1;
+        do {
+            Page<Notification> page = service.getUserNotifications("U001", cursor, 3);
+            System.out.println("  Page " + pageNumber++ + ":");
+            for (Notification notif : page.getItems()) {
+                System.out.println("    " + notif.getNotificationId() + " - " + notif.getSubject());
+            }
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        
+        try {
+            Path archiveFile = Files.createTempFile("notifications", ".archive");
+            service.enableArchive(archiveFile);
+            service.applyRetention(Duration.ZERO);
+            long archived = NotificationArchive.scan(archiveFile, record -> { });
+            System.out.println("Archived records on disk: " + archived + " (" + Files.size(archiveFile) + " bytes)");
+        } catch (IOException e) {
+            System.out.println("❌ Archive failed: " + e.getMessage());
+        }
+        service.showNotificationStats();
+        
         // Final Summary
         System.out.println("========================================");
         System.out.println("  DEMO COMPLETED SUCCESSFULLY!");
@@ -309,12 +395,15 @@ public class Main {
         System.out.println("\n✅ Features Demonstrated:");
         System.out.println("  • Multi-channel delivery (Email, SMS, Push, In-App)");
         System.out.println("  • Priority-based queue (URGENT → HIGH → MEDIUM → LOW)");
-        System.out.println("  • Retry mechanism with failure handling");
+        System.out.println("  • Retry mechanism with jittered exponential backoff");
+        System.out.println("  • Concurrent per-channel dispatch with priority lanes");
         System.out.println("  • Template-based notifications with variables");
         System.out.println("  • Bulk notifications");
+        System.out.println("  • Batched campaigns coalesced by channel");
         System.out.println("  • User preferences and channel control");
         System.out.println("  • Analytics tracking (Observer pattern)");
-        System.out.println("  • Notification history");
+        System.out.println("  • Notification history with indexed, cursor-paged inbox");
+        System.out.println("  • Retention with on-disk archive");
         System.out.println("  • Statistics and success rate");
         System.out.println("  • Edge case handling");
         System.out.println("\n🎉 All scenarios executed successfully!");
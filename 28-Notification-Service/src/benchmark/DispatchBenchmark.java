@@ -0,0 +1,159 @@
+package benchmark;
+
+import dispatch.ChannelMetrics;
+import dispatch.DispatchConfig;
+import dispatch.DispatchEngine;
+import dispatch.DispatchListener;
+import dispatch.RetryPolicy;
+import enums.NotificationChannel;
+import enums.NotificationPriority;
+import model.Notification;
+import model.User;
+import strategy.NotificationSender;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares the single-threaded send loop with the concurrent dispatch engine
+ * using simulated slow providers (fixed latency plus a failure rate).
+ * 
+ * Usage: java benchmark.DispatchBenchmark [notifications]
+ */
+public class DispatchBenchmark {
+    
+    /**
+     * Sender that sleeps to emulate provider latency and fails a fraction of calls
+     */
+    static class SlowSender implements NotificationSender {
+        private final String name;
+        private final long latencyMillis;
+        private final double failureRate;
+        
+        SlowSender(String name, long latencyMillis, double failureRate) {
+            this.name = name;
+            this.latencyMillis = latencyMillis;
+            this.failureRate = failureRate;
+        }
+        
+        @Override
+        public boolean send(Notification notification) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            return ThreadLocalRandom.current().nextDouble() >= failureRate;
+        }
+        
+        @Override
+        public String getChannelName() {
+            return name;
+        }
+    }
+    
+    private static NotificationSender senderFor(NotificationChannel channel) {
+        switch (channel) {
+            case EMAIL:
+                return new SlowSender("EMAIL", 20, 0.10);
+            case SMS:
+                return new SlowSender("SMS", 50, 0.05);
+            case PUSH:
+                return new SlowSender("PUSH", 5, 0.15);
+            case IN_APP:
+                return new SlowSender("IN_APP", 1, 0.0);
+            default:
+                throw new IllegalArgumentException("Unsupported channel: " + channel);
+        }
+    }
+    
+    private static List<Notification> workload(int count) {
+        User user = new User("BENCH", "Bench", "bench@email.com", "555-0000");
+        user.setDeviceToken("bench-device");
+        NotificationChannel[] channels = {
+            NotificationChannel.EMAIL, NotificationChannel.SMS, NotificationChannel.PUSH, NotificationChannel.IN_APP
+        };
+        NotificationPriority[] priorities = NotificationPriority.values();
+        List<Notification> notifications = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            notifications.add(new Notification("B" + i, user, "Subject " + i, "Body " + i,
+                channels[i % channels.length], priorities[i % priorities.length]));
+        }
+        return notifications;
+    }
+    
+    private static double runSequential(List<Notification> notifications) {
+        long start = System.nanoTime();
+        for (Notification notification : notifications) {
+            NotificationSender sender = senderFor(notification.getChannel());
+            int attempts = 0;
+            while (!sender.send(notification) && attempts++ < 3) {
+                // immediate retry, as the original queue loop does
+            }
+        }
+        return (System.nanoTime() - start) / 1e9;
+    }
+    
+    private static double runEngine(List<Notification> notifications) throws InterruptedException {
+        DispatchConfig config = new DispatchConfig()
+            .workers(NotificationChannel.EMAIL, 16)
+            .workers(NotificationChannel.SMS, 32)
+            .workers(NotificationChannel.PUSH, 8)
+            .workers(NotificationChannel.IN_APP, 2)
+            .queueCapacity(notifications.size())
+            .retryPolicy(new RetryPolicy(10, 200));
+        AtomicInteger delivered = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        DispatchEngine engine = new DispatchEngine(config, DispatchBenchmark::senderFor, new DispatchListener() {
+            @Override
+            public void onDelivered(Notification notification) {
+                delivered.incrementAndGet();
+            }
+            
+            @Override
+            public void onRetryScheduled(Notification notification, long delayMillis) {
+            }
+            
+            @Override
+            public void onFailed(Notification notification) {
+                failed.incrementAndGet();
+            }
+        });
+        
+        long start = System.nanoTime();
+        engine.start();
+        for (Notification notification : notifications) {
+            engine.submit(notification);
+        }
+        engine.awaitIdle(600_000);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        
+        System.out.println("Engine delivered=" + delivered.get() + " failed=" + failed.get());
+        for (ChannelMetrics metrics : engine.getMetrics().values()) {
+            if (metrics.getSubmitted() > 0) {
+                System.out.println("  " + metrics);
+            }
+        }
+        engine.shutdown();
+        return seconds;
+    }
+    
+    public static void main(String[] args) throws InterruptedException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        System.out.println("Dispatch benchmark: " + count + " notifications across 4 channels\n");
+        
+        double engineSeconds = runEngine(workload(count));
+        System.out.println(String.format("Concurrent engine: %.2fs (%.0f notifications/s)%n",
+            engineSeconds, count / engineSeconds));
+        
+        // The sequential loop is slow by design; time a slice and extrapolate
+        int sample = Math.min(count, 200);
+        double sequentialSeconds = runSequential(workload(sample)) * count / sample;
+        System.out.println(String.format("Sequential loop:   %.2fs (%.0f notifications/s, extrapolated from %d)",
+            sequentialSeconds, count / sequentialSeconds, sample));
+        System.out.println(String.format("Speedup: %.1fx", sequentialSeconds / engineSeconds));
+    }
+}
@@ -0,0 +1,78 @@
+package benchmark;
+
+import model.CompiledTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compares the original replace-per-variable renderer with the compiled
+ * segment renderer on a 10-variable template.
+ * 
+ * JMH is not available in this source-only tree, so this is a plain
+ * warm-up-then-measure harness; results are consumed to defeat dead-code
+ * elimination.
+ * 
+ * Usage: java benchmark.TemplateBenchmark [iterations]
+ */
+public class TemplateBenchmark {
+    private static final String TEMPLATE =
+        "Hi {{firstName}} {{lastName}}, your order {{orderId}} placed on {{orderDate}} for {{amount}} " +
+        "has shipped via {{carrier}} (tracking {{trackingId}}). It will arrive at {{address}} by " +
+        "{{deliveryDate}}. Questions? Contact {{supportEmail}}.";
+    
+    // The original NotificationTemplate.render algorithm
+    private static String renderLegacy(String template, Map<String, String> variables) {
+        String result = template;
+        for (Map.Entry<String, String> entry : variables.entrySet()) {
+            String placeholder = "{{" + entry.getKey() + "}}";
+            result = result.replace(placeholder, entry.getValue());
+        }
+        return result;
+    }
+    
+    private static Map<String, String> variables() {
+        Map<String, String> variables = new HashMap<>();
+        variables.put("firstName", "Alice");
+        variables.put("lastName", "Smith");
+        variables.put("orderId", "ORD-123456");
+        variables.put("orderDate", "2024-05-01");
+        variables.put("amount", "$149.99");
+        variables.put("carrier", "UPS");
+        variables.put("trackingId", "1Z999AA10123456784");
+        variables.put("address", "42 Main Street, Springfield");
+        variables.put("deliveryDate", "2024-05-04");
+        variables.put("supportEmail", "help@example.com");
+        return variables;
+    }
+    
+    public static void main(String[] args) {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        Map<String, String> variables = variables();
+        CompiledTemplate compiled = CompiledTemplate.compile(TEMPLATE);
+        
+        if (!renderLegacy(TEMPLATE, variables).equals(compiled.render(variables))) {
+            throw new IllegalStateException("Renderers disagree");
+        }
+        
+        long sink = 0;
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                sink += renderLegacy(TEMPLATE, variables).length();
+            }
+            double legacyNs = (System.nanoTime() - start) / (double) iterations;
+            
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                sink += compiled.render(variables).length();
+            }
+            double compiledNs = (System.nanoTime() - start) / (double) iterations;
+            
+            String label = round < 2 ? "warm-up " + (round + 1) : "measured";
+            System.out.println(String.format("%-9s legacy: %7.1f ns/render  compiled: %7.1f ns/render  speedup: %.1fx",
+                label, legacyNs, compiledNs, legacyNs / compiledNs));
+        }
+        System.out.println("(checksum " + sink + ")");
+    }
+}
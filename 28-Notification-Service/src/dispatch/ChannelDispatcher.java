@@ -0,0 +1,179 @@
+package dispatch;
+
+import enums.NotificationChannel;
+import enums.NotificationPriority;
+import model.Notification;
+import strategy.NotificationSender;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, priority-laned queue and worker pool for a single channel.
+ * 
+ * Each priority has its own lane. Workers pick lanes by smooth weighted
+ * round-robin, so URGENT work is preferred but LOW work still gets a share
+ * of every cycle and cannot starve.
+ */
+class ChannelDispatcher {
+    private final NotificationChannel channel;
+    private final NotificationSender sender;
+    private final DispatchEngine engine;
+    private final ChannelMetrics metrics;
+    private final Queue<DispatchTask>[] lanes;
+    private final int[] schedule;
+    private final AtomicLong ticket;
+    private final AtomicInteger size;
+    private final int capacity;
+    private final Semaphore available;
+    private final List<Thread> workers;
+    private volatile boolean running;
+    
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    ChannelDispatcher(NotificationChannel channel, NotificationSender sender, DispatchEngine engine,
+                      DispatchConfig config) {
+        this.channel = channel;
+        this.sender = sender;
+        this.engine = engine;
+        this.metrics = new ChannelMetrics(channel);
+        NotificationPriority[] priorities = NotificationPriority.values();
+        this.lanes = new Queue[priorities.length];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.schedule = buildSchedule(config);
+        this.ticket = new AtomicLong();
+        this.size = new AtomicInteger();
+        this.capacity = config.getQueueCapacityPerChannel();
+        this.available = new Semaphore(0);
+        this.workers = new ArrayList<>();
+        for (int i = 0; i < config.getWorkers(channel); i++) {
+            Thread worker = new Thread(this::workerLoop, "dispatch-" + channel + "-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+        }
+    }
+    
+    /**
+     * Smooth weighted round-robin order of lane indexes (by priority value),
+     * e.g. weights 8/4/2/1 interleave lanes instead of emitting runs.
+     */
+    private static int[] buildSchedule(DispatchConfig config) {
+        NotificationPriority[] priorities = NotificationPriority.values();
+        int[] weights = new int[priorities.length];
+        int totalWeight = 0;
+        for (NotificationPriority priority : priorities) {
+            weights[priority.getValue()] = config.getLaneWeight(priority);
+            totalWeight += weights[priority.getValue()];
+        }
+        int[] order = new int[totalWeight];
+        int[] current = new int[weights.length];
+        for (int slot = 0; slot < totalWeight; slot++) {
+            int best = 0;
+            for (int lane = 0; lane < weights.length; lane++) {
+                current[lane] += weights[lane];
+                if (current[lane] > current[best]) {
+                    best = lane;
+                }
+            }
+            current[best] -= totalWeight;
+            order[slot] = best;
+        }
+        return order;
+    }
+    
+    void start() {
+        running = true;
+        for (Thread worker : workers) {
+            worker.start();
+        }
+    }
+    
+    boolean offer(DispatchTask task) {
+        int current;
+        do {
+            current = size.get();
+            if (current >= capacity) {
+                return false;
+            }
+        } while (!size.compareAndSet(current, current + 1));
+        
+        lanes[task.notification.getPriority().getValue()].offer(task);
+        available.release();
+        return true;
+    }
+    
+    private DispatchTask take() throws InterruptedException {
+        available.acquire();
+        // A permit guarantees an item in some lane; start at this ticket's lane
+        int start = schedule[(int) (ticket.getAndIncrement() % schedule.length)];
+        while (true) {
+            for (int i = 0; i < lanes.length; i++) {
+                DispatchTask task = lanes[(start + i) % lanes.length].poll();
+                if (task != null) {
+                    size.decrementAndGet();
+                    return task;
+                }
+            }
+            Thread.yield();  // Another worker's poll raced ahead; retry shortly
+        }
+    }
+    
+    private void workerLoop() {
+        while (running) {
+            DispatchTask task;
+            try {
+                task = take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            deliver(task);
+        }
+    }
+    
+    private void deliver(DispatchTask task) {
+        Notification notification = task.notification;
+        notification.markSending();
+        long start = System.nanoTime();
+        boolean success;
+        try {
+            success = sender.send(notification);
+        } catch (RuntimeException e) {
+            success = false;
+        }
+        long end = System.nanoTime();
+        
+        if (success) {
+            metrics.recordDelivered(end - start, end - task.firstSubmittedNanos);
+            engine.onDelivered(task);
+        } else {
+            metrics.recordAttemptFailed(end - start);
+            engine.onAttemptFailed(task, this);
+        }
+    }
+    
+    void shutdown() {
+        running = false;
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+    }
+    
+    NotificationChannel getChannel() {
+        return channel;
+    }
+    
+    ChannelMetrics getMetrics() {
+        return metrics;
+    }
+    
+    int getQueueSize() {
+        return size.get();
+    }
+}
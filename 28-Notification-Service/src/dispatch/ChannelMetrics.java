@@ -0,0 +1,104 @@
+package dispatch;
+
+import enums.NotificationChannel;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throughput and latency counters for one notification channel
+ */
+public class ChannelMetrics {
+    private final NotificationChannel channel;
+    private final long startNanos;
+    private final LongAdder submitted;
+    private final LongAdder delivered;
+    private final LongAdder failed;
+    private final LongAdder retried;
+    private final LongAdder rejected;
+    private final LatencyHistogram sendLatency;
+    private final LatencyHistogram endToEndLatency;
+    
+    public ChannelMetrics(NotificationChannel channel) {
+        this.channel = channel;
+        this.startNanos = System.nanoTime();
+        this.submitted = new LongAdder();
+        this.delivered = new LongAdder();
+        this.failed = new LongAdder();
+        this.retried = new LongAdder();
+        this.rejected = new LongAdder();
+        this.sendLatency = new LatencyHistogram();
+        this.endToEndLatency = new LatencyHistogram();
+    }
+    
+    void recordSubmitted() {
+        submitted.increment();
+    }
+    
+    void recordDelivered(long sendNanos, long endToEndNanos) {
+        delivered.increment();
+        sendLatency.record(sendNanos);
+        endToEndLatency.record(endToEndNanos);
+    }
+    
+    void recordAttemptFailed(long sendNanos) {
+        sendLatency.record(sendNanos);
+    }
+    
+    void recordFailed() {
+        failed.increment();
+    }
+    
+    void recordRetried() {
+        retried.increment();
+    }
+    
+    void recordRejected() {
+        rejected.increment();
+    }
+    
+    public NotificationChannel getChannel() {
+        return channel;
+    }
+    
+    public long getSubmitted() {
+        return submitted.sum();
+    }
+    
+    public long getDelivered() {
+        return delivered.sum();
+    }
+    
+    public long getFailed() {
+        return failed.sum();
+    }
+    
+    public long getRetried() {
+        return retried.sum();
+    }
+    
+    public long getRejected() {
+        return rejected.sum();
+    }
+    
+    public double getThroughputPerSecond() {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        return seconds <= 0 ? 0 : delivered.sum() / seconds;
+    }
+    
+    public LatencyHistogram getSendLatency() {
+        return sendLatency;
+    }
+    
+    public LatencyHistogram getEndToEndLatency() {
+        return endToEndLatency;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%-8s submitted=%d delivered=%d failed=%d retried=%d rejected=%d " +
+                "throughput=%.1f/s send p50=%.2fms p99=%.2fms e2e p99=%.2fms",
+                channel, getSubmitted(), getDelivered(), getFailed(), getRetried(), getRejected(),
+                getThroughputPerSecond(), sendLatency.getPercentileMillis(50),
+                sendLatency.getPercentileMillis(99), endToEndLatency.getPercentileMillis(99));
+    }
+}
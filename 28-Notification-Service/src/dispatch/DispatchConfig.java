@@ -0,0 +1,74 @@
+package dispatch;
+
+import enums.NotificationChannel;
+import enums.NotificationPriority;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Sizing for the dispatch engine: workers and queue capacity per channel,
+ * priority lane weights and retry policy
+ */
+public class DispatchConfig {
+    private final Map<NotificationChannel, Integer> workersPerChannel;
+    private final Map<NotificationPriority, Integer> laneWeights;
+    private int queueCapacityPerChannel;
+    private RetryPolicy retryPolicy;
+    
+    public DispatchConfig() {
+        this.workersPerChannel = new EnumMap<>(NotificationChannel.class);
+        this.laneWeights = new EnumMap<>(NotificationPriority.class);
+        for (NotificationChannel channel : NotificationChannel.values()) {
+            workersPerChannel.put(channel, 2);
+        }
+        laneWeights.put(NotificationPriority.URGENT, 8);
+        laneWeights.put(NotificationPriority.HIGH, 4);
+        laneWeights.put(NotificationPriority.MEDIUM, 2);
+        laneWeights.put(NotificationPriority.LOW, 1);
+        this.queueCapacityPerChannel = 10_000;
+        this.retryPolicy = RetryPolicy.defaultPolicy();
+    }
+    
+    public DispatchConfig workers(NotificationChannel channel, int workers) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("Workers must be at least 1");
+        }
+        workersPerChannel.put(channel, workers);
+        return this;
+    }
+    
+    public DispatchConfig laneWeight(NotificationPriority priority, int weight) {
+        if (weight < 1) {
+            throw new IllegalArgumentException("Lane weight must be at least 1");
+        }
+        laneWeights.put(priority, weight);
+        return this;
+    }
+    
+    public DispatchConfig queueCapacity(int capacity) {
+        this.queueCapacityPerChannel = capacity;
+        return this;
+    }
+    
+    public DispatchConfig retryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+        return this;
+    }
+    
+    public int getWorkers(NotificationChannel channel) {
+        return workersPerChannel.get(channel);
+    }
+    
+    public int getLaneWeight(NotificationPriority priority) {
+        return laneWeights.get(priority);
+    }
+    
+    public int getQueueCapacityPerChannel() {
+        return queueCapacityPerChannel;
+    }
+    
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+}
@@ -0,0 +1,180 @@
+package dispatch;
+
+import enums.NotificationChannel;
+import model.Notification;
+import strategy.NotificationSender;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Concurrent notification dispatch engine.
+ * 
+ * Each channel gets its own bounded, priority-laned queue and worker pool, so a
+ * slow provider on one channel never holds up another. Failed sends are retried
+ * on a timer with jittered exponential backoff instead of being re-queued at once.
+ */
+public class DispatchEngine {
+    private final Map<NotificationChannel, ChannelDispatcher> dispatchers;
+    private final Map<NotificationChannel, ChannelMetrics> metrics;
+    private final RetryPolicy retryPolicy;
+    private final DispatchListener listener;
+    private final ScheduledExecutorService retryTimer;
+    private final Object idleMonitor;
+    private int inFlight;
+    
+    public DispatchEngine(DispatchConfig config, Function<NotificationChannel, NotificationSender> senders,
+                          DispatchListener listener) {
+        this.dispatchers = new EnumMap<>(NotificationChannel.class);
+        this.metrics = new EnumMap<>(NotificationChannel.class);
+        this.retryPolicy = config.getRetryPolicy();
+        this.listener = listener;
+        this.idleMonitor = new Object();
+        this.retryTimer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "dispatch-retry-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        
+        for (NotificationChannel channel : NotificationChannel.values()) {
+            NotificationSender sender;
+            try {
+                sender = senders.apply(channel);
+            } catch (IllegalArgumentException e) {
+                continue; // channel has no sender
+            }
+            ChannelDispatcher dispatcher = new ChannelDispatcher(channel, sender, this, config);
+            dispatchers.put(channel, dispatcher);
+            metrics.put(channel, dispatcher.getMetrics());
+        }
+    }
+    
+    public void start() {
+        for (ChannelDispatcher dispatcher : dispatchers.values()) {
+            dispatcher.start();
+        }
+    }
+    
+    /**
+     * Enqueues a notification on its channel.
+     * 
+     * @return false if the channel queue is full
+     */
+    public boolean submit(Notification notification) {
+        ChannelDispatcher dispatcher = dispatchers.get(notification.getChannel());
+        if (dispatcher == null) {
+            throw new IllegalArgumentException("Unsupported channel: " + notification.getChannel());
+        }
+        
+        DispatchTask task = new DispatchTask(notification);
+        changeInFlight(1);
+        if (!dispatcher.offer(task)) {
+            changeInFlight(-1);
+            dispatcher.getMetrics().recordRejected();
+            return false;
+        }
+        dispatcher.getMetrics().recordSubmitted();
+        return true;
+    }
+    
+    /**
+     * Takes over a notification whose attempt already failed outside the engine
+     * (e.g. in a campaign batch) and retries it after the usual backoff.
+     * 
+     * @return false if the notification has no retries left or its channel is unsupported
+     */
+    public boolean submitRetry(Notification notification) {
+        ChannelDispatcher dispatcher = dispatchers.get(notification.getChannel());
+        if (dispatcher == null || !notification.canRetry()) {
+            return false;
+        }
+        changeInFlight(1);
+        dispatcher.getMetrics().recordSubmitted();
+        onAttemptFailed(new DispatchTask(notification), dispatcher);
+        return true;
+    }
+    
+    void onDelivered(DispatchTask task) {
+        try {
+            listener.onDelivered(task.notification);
+        } finally {
+            changeInFlight(-1);
+        }
+    }
+    
+    void onAttemptFailed(DispatchTask task, ChannelDispatcher dispatcher) {
+        Notification notification = task.notification;
+        if (!notification.canRetry()) {
+            dispatcher.getMetrics().recordFailed();
+            try {
+                listener.onFailed(notification);
+            } finally {
+                changeInFlight(-1);
+            }
+            return;
+        }
+        
+        notification.incrementRetry();
+        dispatcher.getMetrics().recordRetried();
+        long delay = retryPolicy.nextDelayMillis(notification.getRetryCount());
+        listener.onRetryScheduled(notification, delay);
+        scheduleRetry(task, dispatcher, delay);
+    }
+    
+    private void scheduleRetry(DispatchTask task, ChannelDispatcher dispatcher, long delayMillis) {
+        retryTimer.schedule(() -> {
+            if (!dispatcher.offer(task)) {
+                // Queue is full: back off again without spending a retry
+                scheduleRetry(task, dispatcher, retryPolicy.nextDelayMillis(task.notification.getRetryCount()));
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    private void changeInFlight(int delta) {
+        synchronized (idleMonitor) {
+            inFlight += delta;
+            if (inFlight == 0) {
+                idleMonitor.notifyAll();
+            }
+        }
+    }
+    
+    /**
+     * Blocks until every submitted notification has been delivered or has
+     * finally failed (including pending retries), or the timeout elapses.
+     */
+    public boolean awaitIdle(long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (idleMonitor) {
+            while (inFlight > 0) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                idleMonitor.wait(remaining);
+            }
+            return true;
+        }
+    }
+    
+    public void shutdown() {
+        retryTimer.shutdownNow();
+        for (ChannelDispatcher dispatcher : dispatchers.values()) {
+            dispatcher.shutdown();
+        }
+    }
+    
+    public Map<NotificationChannel, ChannelMetrics> getMetrics() {
+        return Collections.unmodifiableMap(metrics);
+    }
+    
+    public int getQueueSize(NotificationChannel channel) {
+        ChannelDispatcher dispatcher = dispatchers.get(channel);
+        return dispatcher != null ? dispatcher.getQueueSize() : 0;
+    }
+}
@@ -0,0 +1,12 @@
+package dispatch;
+
+import model.Notification;
+
+/**
+ * Receives final delivery outcomes from the dispatch engine
+ */
+public interface DispatchListener {
+    void onDelivered(Notification notification);
+    void onRetryScheduled(Notification notification, long delayMillis);
+    void onFailed(Notification notification);
+}
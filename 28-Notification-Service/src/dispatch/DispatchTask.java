@@ -0,0 +1,16 @@
+package dispatch;
+
+import model.Notification;
+
+/**
+ * A notification travelling through the dispatch engine
+ */
+class DispatchTask {
+    final Notification notification;
+    final long firstSubmittedNanos;
+    
+    DispatchTask(Notification notification) {
+        this.notification = notification;
+        this.firstSubmittedNanos = System.nanoTime();
+    }
+}
@@ -0,0 +1,55 @@
+package dispatch;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with power-of-two microsecond buckets.
+ * Percentiles are reported as the upper bound of the matching bucket.
+ */
+public class LatencyHistogram {
+    private static final int BUCKETS = 40;
+    
+    private final AtomicLongArray counts;
+    private final LongAdder total;
+    private final LongAdder sumMicros;
+    
+    public LatencyHistogram() {
+        this.counts = new AtomicLongArray(BUCKETS);
+        this.total = new LongAdder();
+        this.sumMicros = new LongAdder();
+    }
+    
+    public void record(long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        counts.incrementAndGet(bucket);
+        total.increment();
+        sumMicros.add(micros);
+    }
+    
+    public long getCount() {
+        return total.sum();
+    }
+    
+    public double getMeanMillis() {
+        long count = total.sum();
+        return count == 0 ? 0 : sumMicros.sum() / 1000.0 / count;
+    }
+    
+    public double getPercentileMillis(double percentile) {
+        long count = total.sum();
+        if (count == 0) {
+            return 0;
+        }
+        long target = (long) Math.ceil(count * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return (1L << i) / 1000.0;
+            }
+        }
+        return (1L << (BUCKETS - 1)) / 1000.0;
+    }
+}
@@ -0,0 +1,39 @@
+package dispatch;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Exponential backoff with jitter for failed notification deliveries
+ */
+public class RetryPolicy {
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    
+    public RetryPolicy(long baseDelayMillis, long maxDelayMillis) {
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+    }
+    
+    public static RetryPolicy defaultPolicy() {
+        return new RetryPolicy(100, 30_000);
+    }
+    
+    /**
+     * Delay before the given retry attempt (1-based): base * 2^(attempt-1), capped,
+     * with "equal jitter" so that retries from a burst of failures spread out.
+     */
+    public long nextDelayMillis(int attempt) {
+        int shift = Math.min(Math.max(attempt - 1, 0), 30);
+        long ceiling = Math.min(maxDelayMillis, baseDelayMillis << shift);
+        long half = ceiling / 2;
+        return half + ThreadLocalRandom.current().nextLong(ceiling - half + 1);
+    }
+    
+    public long getBaseDelayMillis() {
+        return baseDelayMillis;
+    }
+    
+    public long getMaxDelayMillis() {
+        return maxDelayMillis;
+    }
+}
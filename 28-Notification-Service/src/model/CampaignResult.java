@@ -0,0 +1,93 @@
+package model;
+
+import enums.NotificationChannel;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Aggregate outcome of a bulk campaign. Individual campaign notifications are
+ * not retained, only these counters.
+ */
+public class CampaignResult {
+    private final String campaignId;
+    private final Map<NotificationChannel, Long> deliveredByChannel;
+    private long recipients;
+    private long delivered;
+    private long failed;
+    private long handedOff;
+    private long skipped;
+    private long batches;
+    
+    public CampaignResult(String campaignId) {
+        this.campaignId = campaignId;
+        this.deliveredByChannel = new EnumMap<>(NotificationChannel.class);
+    }
+    
+    public void recordRecipient() {
+        recipients++;
+    }
+    
+    public void recordDelivered(NotificationChannel channel, long count) {
+        delivered += count;
+        deliveredByChannel.merge(channel, count, Long::sum);
+    }
+    
+    public void recordFailed(long count) {
+        failed += count;
+    }
+    
+    /**
+     * Counts failed sends passed to the dispatch engine, which retries them
+     * after the campaign returns; their final outcome is not counted here.
+     */
+    public void recordHandedOff(long count) {
+        handedOff += count;
+    }
+    
+    public void recordSkipped() {
+        skipped++;
+    }
+    
+    public void recordBatch() {
+        batches++;
+    }
+    
+    public String getCampaignId() {
+        return campaignId;
+    }
+    
+    public long getRecipients() {
+        return recipients;
+    }
+    
+    public long getDelivered() {
+        return delivered;
+    }
+    
+    public long getFailed() {
+        return failed;
+    }
+    
+    public long getHandedOff() {
+        return handedOff;
+    }
+    
+    public long getSkipped() {
+        return skipped;
+    }
+    
+    public long getBatches() {
+        return batches;
+    }
+    
+    public Map<NotificationChannel, Long> getDeliveredByChannel() {
+        return new EnumMap<>(deliveredByChannel);
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("Campaign %s: recipients=%d delivered=%d failed=%d handedOff=%d skipped=%d batches=%d %s",
+                campaignId, recipients, delivered, failed, handedOff, skipped, batches, deliveredByChannel);
+    }
+}
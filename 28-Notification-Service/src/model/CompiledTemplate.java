@@ -0,0 +1,94 @@
+package model;
+
+import java.util.*;
+
+/**
+ * A template string parsed once into alternating literal and variable segments.
+ * 
+ * For "Hi {{name}}, welcome to {{company}}!" the segments are
+ * literals ["Hi ", ", welcome to ", "!"] and variables ["name", "company"],
+ * with literal i always preceding variable i. Rendering appends the segments
+ * in a single pass into a builder sized from the previous render.
+ */
+public class CompiledTemplate {
+    private final String[] literals;
+    private final String[] variables;
+    private final int literalLength;
+    private volatile int sizeHint;
+    
+    private CompiledTemplate(String[] literals, String[] variables, int literalLength) {
+        this.literals = literals;
+        this.variables = variables;
+        this.literalLength = literalLength;
+        this.sizeHint = literalLength + 16 * variables.length;
+    }
+    
+    public static CompiledTemplate compile(String template) {
+        List<String> literals = new ArrayList<>();
+        List<String> variables = new ArrayList<>();
+        int literalLength = 0;
+        int position = 0;
+        int start;
+        while ((start = template.indexOf("{{", position)) != -1) {
+            int end = template.indexOf("}}", start + 2);
+            if (end == -1) {
+                break;
+            }
+            String literal = template.substring(position, start);
+            literals.add(literal);
+            literalLength += literal.length();
+            variables.add(template.substring(start + 2, end).trim());
+            position = end + 2;
+        }
+        String tail = template.substring(position);
+        literals.add(tail);
+        literalLength += tail.length();
+        return new CompiledTemplate(literals.toArray(new String[0]), variables.toArray(new String[0]), literalLength);
+    }
+    
+    /**
+     * Renders the template. Variables missing from the map are left as their
+     * {{placeholder}} text.
+     */
+    public String render(Map<String, String> values) {
+        return render(values, false);
+    }
+    
+    /**
+     * Renders the template, failing on the first variable missing from the map.
+     */
+    public String renderStrict(Map<String, String> values) {
+        return render(values, true);
+    }
+    
+    private String render(Map<String, String> values, boolean strict) {
+        if (variables.length == 0) {
+            return literals[0];
+        }
+        StringBuilder sb = new StringBuilder(sizeHint);
+        for (int i = 0; i < variables.length; i++) {
+            sb.append(literals[i]);
+            String value = values.get(variables[i]);
+            if (value != null) {
+                sb.append(value);
+            } else if (strict) {
+                throw new IllegalArgumentException("Missing template variable: " + variables[i]);
+            } else {
+                sb.append("{{").append(variables[i]).append("}}");
+            }
+        }
+        sb.append(literals[variables.length]);
+        if (sb.length() > sizeHint) {
+            sizeHint = sb.length();
+        }
+        return sb.toString();
+    }
+    
+    public List<String> getVariables() {
+        return Collections.unmodifiableList(Arrays.asList(variables));
+    }
+    
+    public int getLiteralLength() {
+        return literalLength;
+    }
+}
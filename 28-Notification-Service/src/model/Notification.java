@@ -1,6 +1,7 @@
 package model;
 
 import enums.*;
+import observer.StatusChangeListener;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -14,13 +15,14 @@ public class Notification {
     private String message;
     private NotificationChannel channel;
     private NotificationPriority priority;
-    private NotificationStatus status;
+    private volatile NotificationStatus status;
     private LocalDateTime createdAt;
     private LocalDateTime sentAt;
     private LocalDateTime deliveredAt;
     private int retryCount;
     private int maxRetries;
     private Map<String, String> metadata;
+    private volatile StatusChangeListener statusListener;
 
     public Notification(String notificationId, User recipient, String subject, 
                        String message, NotificationChannel channel, NotificationPriority priority) {
@@ -39,31 +41,44 @@ public class Notification {
         this.metadata = new HashMap<>();
     }
 
+    public void setStatusListener(StatusChangeListener statusListener) {
+        this.statusListener = statusListener;
+    }
+
     public void markQueued() {
-        this.status = NotificationStatus.QUEUED;
+        transition(NotificationStatus.QUEUED);
     }
 
     public void markSending() {
-        this.status = NotificationStatus.SENDING;
+        transition(NotificationStatus.SENDING);
     }
 
     public void markSent() {
-        this.status = NotificationStatus.SENT;
         this.sentAt = LocalDateTime.now();
+        transition(NotificationStatus.SENT);
     }
 
     public void markDelivered() {
-        this.status = NotificationStatus.DELIVERED;
         this.deliveredAt = LocalDateTime.now();
+        transition(NotificationStatus.DELIVERED);
     }
 
     public void markFailed() {
-        this.status = NotificationStatus.FAILED;
+        transition(NotificationStatus.FAILED);
     }
 
     public void incrementRetry() {
         this.retryCount++;
-        this.status = NotificationStatus.RETRYING;
+        transition(NotificationStatus.RETRYING);
+    }
+
+    private synchronized void transition(NotificationStatus to) {
+        NotificationStatus from = this.status;
+        this.status = to;
+        StatusChangeListener listener = statusListener;
+        if (listener != null && from != to) {
+            listener.onStatusChange(this, from, to);
+        }
     }
 
     public boolean canRetry() {
@@ -4,7 +4,8 @@ import enums.NotificationChannel;
 import java.util.*;
 
 /**
- * Represents a reusable notification template
+ * Represents a reusable notification template.
+ * Subject and message are compiled once at creation and rendered in a single pass.
  */
 public class NotificationTemplate {
     private String templateId;
@@ -12,6 +13,8 @@ public class NotificationTemplate {
     private NotificationChannel channel;
     private String subjectTemplate;
     private String messageTemplate;
+    private CompiledTemplate compiledSubject;
+    private CompiledTemplate compiledMessage;
     private Set<String> requiredVariables;
 
     public NotificationTemplate(String templateId, String name, NotificationChannel channel,
@@ -21,44 +24,30 @@ public class NotificationTemplate {
         this.channel = channel;
         this.subjectTemplate = subjectTemplate;
         this.messageTemplate = messageTemplate;
-        this.requiredVariables = extractVariables(subjectTemplate, messageTemplate);
-    }
-
-    private Set<String> extractVariables(String subject, String message) {
-        Set<String> variables = new HashSet<>();
-        String combined = subject + " " + message;
-        
-        // Extract variables in format {{variable}}
-        int start = 0;
-        while ((start = combined.indexOf("{{", start)) != -1) {
-            int end = combined.indexOf("}}", start);
-            if (end != -1) {
-                String variable = combined.substring(start + 2, end).trim();
-                variables.add(variable);
-                start = end + 2;
-            } else {
-                break;
-            }
-        }
-        
-        return variables;
+        this.compiledSubject = CompiledTemplate.compile(subjectTemplate);
+        this.compiledMessage = CompiledTemplate.compile(messageTemplate);
+        this.requiredVariables = new HashSet<>(compiledSubject.getVariables());
+        this.requiredVariables.addAll(compiledMessage.getVariables());
     }
 
     public String renderSubject(Map<String, String> variables) {
-        return render(subjectTemplate, variables);
+        return compiledSubject.render(variables);
     }
 
     public String renderMessage(Map<String, String> variables) {
-        return render(messageTemplate, variables);
+        return compiledMessage.render(variables);
+    }
+
+    /**
+     * Renders the subject, throwing IllegalArgumentException if a variable is missing.
+     * Validation happens during rendering, so no separate validateVariables pass is needed.
+     */
+    public String renderSubjectStrict(Map<String, String> variables) {
+        return compiledSubject.renderStrict(variables);
     }
 
-    private String render(String template, Map<String, String> variables) {
-        String result = template;
-        for (Map.Entry<String, String> entry : variables.entrySet()) {
-            String placeholder = "{{" + entry.getKey() + "}}";
-            result = result.replace(placeholder, entry.getValue());
-        }
-        return result;
+    public String renderMessageStrict(Map<String, String> variables) {
+        return compiledMessage.renderStrict(variables);
     }
 
     public boolean validateVariables(Map<String, String> variables) {
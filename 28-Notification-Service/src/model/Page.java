@@ -0,0 +1,29 @@
+package model;
+
+import java.util.*;
+
+/**
+ * One page of a cursor-paginated query. Pass nextCursor back to get the
+ * following page; it is null on the last page.
+ */
+public class Page<T> {
+    private final List<T> items;
+    private final String nextCursor;
+
+    public Page(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return Collections.unmodifiableList(items);
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
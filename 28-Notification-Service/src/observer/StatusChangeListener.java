@@ -0,0 +1,11 @@
+package observer;
+
+import enums.NotificationStatus;
+import model.Notification;
+
+/**
+ * Listener for notification status transitions (used to keep indexes current)
+ */
+public interface StatusChangeListener {
+    void onStatusChange(Notification notification, NotificationStatus from, NotificationStatus to);
+}
@@ -1,14 +1,26 @@
 package service;
 
+import dispatch.ChannelMetrics;
+import dispatch.DispatchConfig;
+import dispatch.DispatchEngine;
+import dispatch.DispatchListener;
+import dispatch.RetryPolicy;
 import enums.*;
 import factory.NotificationSenderFactory;
 import model.*;
 import observer.*;
+import store.NotificationArchive;
+import store.NotificationStore;
 import strategy.NotificationSender;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
 import java.util.*;
 import java.util.concurrent.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Main Notification Service (Singleton pattern)
@@ -18,25 +30,81 @@ public class NotificationService implements NotificationSubject {
     private static NotificationService instance;
     
     private Map<String, User> users;
-    private Map<String, Notification> notifications;
+    private NotificationStore notificationStore;
     private Map<String, NotificationTemplate> templates;
     private PriorityQueue<Notification> notificationQueue;
+    private DelayQueue<PendingRetry> retryQueue;
+    private RetryPolicy retryPolicy;
+    private volatile DispatchEngine dispatchEngine;
     private List<NotificationObserver> observers;
-    private int notificationCounter;
-    private int templateCounter;
+    private AtomicInteger notificationCounter;
+    private AtomicInteger templateCounter;
+    private AtomicInteger campaignCounter;
+    private static final int CAMPAIGN_CHUNK_SIZE = 1000;
+    
+    /**
+     * A failed notification waiting out its backoff delay (synchronous path)
+     */
+    private static class PendingRetry implements Delayed {
+        private final Notification notification;
+        private final long dueAtNanos;
+        
+        PendingRetry(Notification notification, long delayMillis) {
+            this.notification = notification;
+            this.dueAtNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis);
+        }
+        
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueAtNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+        
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueAtNanos, ((PendingRetry) other).dueAtNanos);
+        }
+    }
+    
+    /**
+     * The retryable part of a failed campaign batch, waiting out its backoff
+     */
+    private static class PendingBatch implements Delayed {
+        private final NotificationChannel channel;
+        private final List<Notification> notifications;
+        private final long dueAtNanos;
+        
+        PendingBatch(NotificationChannel channel, List<Notification> notifications, long delayMillis) {
+            this.channel = channel;
+            this.notifications = notifications;
+            this.dueAtNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis);
+        }
+        
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueAtNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+        
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueAtNanos, ((PendingBatch) other).dueAtNanos);
+        }
+    }
     
     private NotificationService() {
-        this.users = new HashMap<>();
-        this.notifications = new HashMap<>();
-        this.templates = new HashMap<>();
+        this.users = new ConcurrentHashMap<>();
+        this.notificationStore = new NotificationStore();
+        this.templates = new ConcurrentHashMap<>();
         this.notificationQueue = new PriorityQueue<>(
             Comparator.comparing(Notification::getPriority, 
                                Comparator.comparingInt(NotificationPriority::getValue))
                      .thenComparing(Notification::getCreatedAt)
         );
-        this.observers = new ArrayList<>();
-        this.notificationCounter = 1;
-        this.templateCounter = 1;
+        this.retryQueue = new DelayQueue<>();
+        this.retryPolicy = RetryPolicy.defaultPolicy();
+        this.observers = new CopyOnWriteArrayList<>();
+        this.notificationCounter = new AtomicInteger(1);
+        this.templateCounter = new AtomicInteger(1);
+        this.campaignCounter = new AtomicInteger(1);
     }
     
     public static synchronized NotificationService getInstance() {
@@ -49,9 +117,7 @@ public class NotificationService implements NotificationSubject {
     // Observer pattern methods
     @Override
     public void attach(NotificationObserver observer) {
-        if (!observers.contains(observer)) {
-            observers.add(observer);
-        }
+        ((CopyOnWriteArrayList<NotificationObserver>) observers).addIfAbsent(observer);
     }
     
     @Override
@@ -94,7 +160,7 @@ public class NotificationService implements NotificationSubject {
     // Template management
     public NotificationTemplate createTemplate(String name, NotificationChannel channel,
                                               String subjectTemplate, String messageTemplate) {
-        String templateId = "TPL" + String.format("%04d", templateCounter++);
+        String templateId = "TPL" + String.format("%04d", templateCounter.getAndIncrement());
         NotificationTemplate template = new NotificationTemplate(
             templateId, name, channel, subjectTemplate, messageTemplate
         );
@@ -123,12 +189,12 @@ public class NotificationService implements NotificationSubject {
             );
         }
         
-        String notificationId = "NOTIF" + String.format("%04d", notificationCounter++);
+        String notificationId = "NOTIF" + String.format("%04d", notificationCounter.getAndIncrement());
         Notification notification = new Notification(
             notificationId, user, subject, message, channel, priority
         );
         
-        notifications.put(notificationId, notification);
+        notificationStore.add(notification);
         System.out.println("✓ Notification created: " + notificationId);
         return notification;
     }
@@ -136,25 +202,35 @@ public class NotificationService implements NotificationSubject {
     public Notification createFromTemplate(String userId, String templateId, 
                                           Map<String, String> variables, 
                                           NotificationPriority priority) {
-        User user = getUser(userId);
         NotificationTemplate template = getTemplate(templateId);
         
-        // Validate variables
-        if (!template.validateVariables(variables)) {
+        // Render the precompiled template; a missing variable fails the render
+        String subject;
+        String message;
+        try {
+            subject = template.renderSubjectStrict(variables);
+            message = template.renderMessageStrict(variables);
+        } catch (IllegalArgumentException e) {
             throw new IllegalArgumentException(
                 "Missing required variables: " + template.getRequiredVariables()
             );
         }
         
-        // Render template
-        String subject = template.renderSubject(variables);
-        String message = template.renderMessage(variables);
-        
         return createNotification(userId, subject, message, template.getChannel(), priority);
     }
     
     public void queueNotification(Notification notification) {
         notification.markQueued();
+        DispatchEngine engine = dispatchEngine;
+        if (engine != null) {
+            if (!engine.submit(notification)) {
+                notification.markFailed();
+                notifyObserversFailed(notification);
+                System.out.println("❌ " + notification.getChannel() + " queue full, rejected: " + 
+                                  notification.getNotificationId());
+            }
+            return;
+        }
         notificationQueue.offer(notification);
         System.out.println("✓ Notification queued: " + notification.getNotificationId() + 
                           " [Priority: " + notification.getPriority() + "]");
@@ -183,11 +259,12 @@ public class NotificationService implements NotificationSubject {
     private void handleFailure(Notification notification) {
         if (notification.canRetry()) {
             notification.incrementRetry();
+            long delay = retryPolicy.nextDelayMillis(notification.getRetryCount());
             System.out.println("⚠ Notification failed, will retry (" + 
-                             notification.getRetryCount() + "/3)");
+                             notification.getRetryCount() + "/3) in " + delay + "ms");
             
-            // Re-queue with exponential backoff (simulated)
-            notificationQueue.offer(notification);
+            // Re-queue once the jittered exponential backoff elapses
+            retryQueue.offer(new PendingRetry(notification, delay));
         } else {
             notification.markFailed();
             notifyObserversFailed(notification);
@@ -201,9 +278,20 @@ public class NotificationService implements NotificationSubject {
         System.out.println("========================================");
         System.out.println("Queue size: " + notificationQueue.size() + "\n");
         
-        while (!notificationQueue.isEmpty()) {
-            Notification notification = notificationQueue.poll();
-            sendNotification(notification);
+        while (!notificationQueue.isEmpty() || !retryQueue.isEmpty()) {
+            PendingRetry due;
+            while ((due = retryQueue.poll()) != null) {
+                notificationQueue.offer(due.notification);
+            }
+            if (notificationQueue.isEmpty()) {
+                try {
+                    notificationQueue.offer(retryQueue.take().notification);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            sendNotification(notificationQueue.poll());
         }
         
         System.out.println("\n✓ Queue processing complete");
@@ -228,39 +316,171 @@ public class NotificationService implements NotificationSubject {
         System.out.println("✓ Bulk notifications queued\n");
     }
     
+    public CampaignResult sendCampaign(Iterable<String> userIds, String subject, String message,
+                                       List<NotificationChannel> channelPreference,
+                                       NotificationPriority priority) {
+        return sendCampaign(userIds, subject, message, channelPreference, priority, CAMPAIGN_CHUNK_SIZE);
+    }
+    
+    /**
+     * Streams a large recipient list through the batch sender SPI.
+     * 
+     * Each recipient gets the first channel in channelPreference they have enabled.
+     * Recipients are coalesced per channel into batches of at most chunkSize (or
+     * the provider's max batch size), sent, and dropped, so only one chunk of
+     * Notification objects per channel is alive at a time. Campaign notifications
+     * are not stored individually; the outcome is reported as a CampaignResult.
+     * 
+     * Failed sends never block the stream. While the dispatch engine is running
+     * they are handed to it for retry; otherwise they wait out their backoff in
+     * a delay queue and are re-batched as they come due, with any still pending
+     * sent once the recipient list is exhausted.
+     */
+    public CampaignResult sendCampaign(Iterable<String> userIds, String subject, String message,
+                                       List<NotificationChannel> channelPreference,
+                                       NotificationPriority priority, int chunkSize) {
+        String campaignId = "CMP" + String.format("%04d", campaignCounter.getAndIncrement());
+        CampaignResult result = new CampaignResult(campaignId);
+        Map<NotificationChannel, NotificationSender> senders = new EnumMap<>(NotificationChannel.class);
+        Map<NotificationChannel, List<Notification>> pending = new EnumMap<>(NotificationChannel.class);
+        DelayQueue<PendingBatch> retries = new DelayQueue<>();
+        String idPrefix = campaignId + "-";
+        long sequence = 0;
+        
+        System.out.println("\n→ Starting campaign " + campaignId + "...");
+        
+        for (String userId : userIds) {
+            result.recordRecipient();
+            User user = users.get(userId);
+            NotificationChannel channel = user != null ? pickChannel(user, channelPreference, senders) : null;
+            if (channel == null) {
+                result.recordSkipped();
+                continue;
+            }
+            
+            NotificationSender sender = senders.get(channel);
+            int batchLimit = batchLimit(sender, chunkSize);
+            List<Notification> batch = pending.computeIfAbsent(channel, c -> new ArrayList<>(batchLimit));
+            batch.add(new Notification(idPrefix + sequence++, user, subject, message, channel, priority));
+            if (batch.size() >= batchLimit) {
+                sendCampaignBatch(sender, channel, batch, result, retries);
+                batch.clear();
+                sendDueRetries(retries, senders, result);
+            }
+        }
+        
+        for (Map.Entry<NotificationChannel, List<Notification>> entry : pending.entrySet()) {
+            if (!entry.getValue().isEmpty()) {
+                sendCampaignBatch(senders.get(entry.getKey()), entry.getKey(), entry.getValue(), result, retries);
+            }
+        }
+        
+        try {
+            while (!retries.isEmpty()) {
+                retries.put(retries.take()); // wait for the earliest retry to come due
+                sendDueRetries(retries, senders, result);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.recordFailed(retries.size());
+        }
+        
+        System.out.println("✓ " + result + "\n");
+        return result;
+    }
+    
+    private static int batchLimit(NotificationSender sender, int chunkSize) {
+        return Math.max(1, Math.min(chunkSize, sender.getMaxBatchSize()));
+    }
+    
+    private NotificationChannel pickChannel(User user, List<NotificationChannel> channelPreference,
+                                            Map<NotificationChannel, NotificationSender> senders) {
+        for (NotificationChannel channel : channelPreference) {
+            if (!user.isChannelEnabled(channel)) {
+                continue;
+            }
+            if (!senders.containsKey(channel)) {
+                try {
+                    senders.put(channel, NotificationSenderFactory.getSender(channel));
+                } catch (IllegalArgumentException e) {
+                    continue; // no sender for this channel
+                }
+            }
+            return channel;
+        }
+        return null;
+    }
+    
+    private void sendCampaignBatch(NotificationSender sender, NotificationChannel channel,
+                                   List<Notification> batch, CampaignResult result,
+                                   DelayQueue<PendingBatch> retries) {
+        result.recordBatch();
+        List<Notification> failed = sender.sendBatch(batch);
+        result.recordDelivered(channel, batch.size() - failed.size());
+        
+        DispatchEngine engine = dispatchEngine;
+        List<Notification> retryable = new ArrayList<>(failed.size());
+        for (Notification notification : failed) {
+            if (engine != null && engine.submitRetry(notification)) {
+                // The engine owns the retry from here, including its backoff
+                result.recordHandedOff(1);
+            } else if (notification.canRetry()) {
+                notification.incrementRetry();
+                retryable.add(notification);
+            } else {
+                result.recordFailed(1);
+            }
+        }
+        if (!retryable.isEmpty()) {
+            long delay = retryPolicy.nextDelayMillis(retryable.get(0).getRetryCount());
+            retries.offer(new PendingBatch(channel, retryable, delay));
+        }
+    }
+    
+    // Resends every campaign batch whose backoff has elapsed
+    private void sendDueRetries(DelayQueue<PendingBatch> retries,
+                                Map<NotificationChannel, NotificationSender> senders,
+                                CampaignResult result) {
+        PendingBatch retry;
+        while ((retry = retries.poll()) != null) {
+            sendCampaignBatch(senders.get(retry.channel), retry.channel, retry.notifications, result, retries);
+        }
+    }
+    
     // Analytics and queries
     public void showNotificationStats() {
         System.out.println("\n========================================");
         System.out.println("  NOTIFICATION STATISTICS");
         System.out.println("========================================");
         System.out.println("Total Users: " + users.size());
-        System.out.println("Total Notifications: " + notifications.size());
+        System.out.println("Total Notifications: " + notificationStore.size());
+        if (notificationStore.getArchivedCount() > 0) {
+            System.out.println("Archived Notifications: " + notificationStore.getArchivedCount());
+        }
         System.out.println("Total Templates: " + templates.size());
         System.out.println("Queue Size: " + notificationQueue.size());
         
-        // Status breakdown
-        Map<NotificationStatus, Long> statusCount = notifications.values().stream()
-            .collect(Collectors.groupingBy(Notification::getStatus, Collectors.counting()));
-        
+        // Status breakdown (incremental counters)
         System.out.println("\nNotifications by status:");
-        statusCount.forEach((status, count) -> 
-            System.out.println("  " + status + ": " + count));
+        for (NotificationStatus status : NotificationStatus.values()) {
+            long count = notificationStore.countByStatus(status);
+            if (count > 0) {
+                System.out.println("  " + status + ": " + count);
+            }
+        }
         
         // Channel breakdown
-        Map<NotificationChannel, Long> channelCount = notifications.values().stream()
-            .collect(Collectors.groupingBy(Notification::getChannel, Collectors.counting()));
-        
         System.out.println("\nNotifications by channel:");
-        channelCount.forEach((channel, count) -> 
-            System.out.println("  " + channel + ": " + count));
+        for (NotificationChannel channel : NotificationChannel.values()) {
+            long count = notificationStore.countByChannel(channel);
+            if (count > 0) {
+                System.out.println("  " + channel + ": " + count);
+            }
+        }
         
         // Success rate
-        long delivered = notifications.values().stream()
-            .filter(n -> n.getStatus() == NotificationStatus.DELIVERED)
-            .count();
-        long failed = notifications.values().stream()
-            .filter(n -> n.getStatus() == NotificationStatus.FAILED)
-            .count();
+        long delivered = notificationStore.countByStatus(NotificationStatus.DELIVERED);
+        long failed = notificationStore.countByStatus(NotificationStatus.FAILED);
         long total = delivered + failed;
         
         if (total > 0) {
@@ -273,19 +493,102 @@ public class NotificationService implements NotificationSubject {
     }
     
     public List<Notification> getUserNotifications(String userId) {
-        return notifications.values().stream()
-            .filter(n -> n.getRecipient().getUserId().equals(userId))
-            .sorted(Comparator.comparing(Notification::getCreatedAt).reversed())
-            .collect(Collectors.toList());
+        return notificationStore.getByRecipient(userId);
+    }
+    
+    /**
+     * Cursor-paginated inbox, newest first. Pass null for the first page.
+     */
+    public Page<Notification> getUserNotifications(String userId, String cursor, int limit) {
+        return notificationStore.getByRecipient(userId, cursor, limit);
     }
     
     public List<Notification> getNotificationsByStatus(NotificationStatus status) {
-        return notifications.values().stream()
-            .filter(n -> n.getStatus() == status)
-            .collect(Collectors.toList());
+        return notificationStore.getByStatus(status);
+    }
+    
+    // Retention
+    
+    /**
+     * Appends notifications removed by retention to a compact on-disk log.
+     */
+    public synchronized void enableArchive(Path archiveFile) throws IOException {
+        notificationStore.setArchive(new NotificationArchive(archiveFile));
+    }
+    
+    /**
+     * Removes delivered/failed notifications older than maxAge (archiving them if enabled).
+     */
+    public int applyRetention(Duration maxAge) {
+        try {
+            int removed = notificationStore.applyRetention(LocalDateTime.now().minus(maxAge));
+            System.out.println("✓ Retention removed " + removed + " notifications");
+            return removed;
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to archive notifications", e);
+        }
     }
     
     public int getQueueSize() {
-        return notificationQueue.size();
+        return notificationQueue.size() + retryQueue.size();
+    }
+    
+    // Concurrent dispatch
+    
+    /**
+     * Switches queueNotification to the concurrent, per-channel dispatch engine.
+     */
+    public synchronized void startDispatchEngine(DispatchConfig config) {
+        if (dispatchEngine != null) {
+            throw new IllegalStateException("Dispatch engine already running");
+        }
+        DispatchEngine engine = new DispatchEngine(config, NotificationSenderFactory::getSender,
+                                                   new EngineListener());
+        engine.start();
+        this.dispatchEngine = engine;
+        System.out.println("✓ Dispatch engine started");
+    }
+    
+    /**
+     * Waits for in-flight notifications (including scheduled retries) and stops
+     * the engine. queueNotification falls back to the synchronous queue.
+     */
+    public synchronized boolean stopDispatchEngine(long timeoutMillis) throws InterruptedException {
+        DispatchEngine engine = dispatchEngine;
+        if (engine == null) {
+            return true;
+        }
+        boolean drained = engine.awaitIdle(timeoutMillis);
+        engine.shutdown();
+        dispatchEngine = null;
+        System.out.println("✓ Dispatch engine stopped" + (drained ? "" : " (timed out with work pending)"));
+        return drained;
+    }
+    
+    public Map<NotificationChannel, ChannelMetrics> getDispatchMetrics() {
+        DispatchEngine engine = dispatchEngine;
+        return engine != null ? engine.getMetrics() : Collections.emptyMap();
+    }
+    
+    private class EngineListener implements DispatchListener {
+        @Override
+        public void onDelivered(Notification notification) {
+            notification.markSent();
+            notification.markDelivered();
+            notifyObserversSent(notification);
+            notifyObserversDelivered(notification);
+        }
+        
+        @Override
+        public void onRetryScheduled(Notification notification, long delayMillis) {
+            System.out.println("⚠ " + notification.getNotificationId() + " failed, retry " + 
+                              notification.getRetryCount() + "/3 in " + delayMillis + "ms");
+        }
+        
+        @Override
+        public void onFailed(Notification notification) {
+            notification.markFailed();
+            notifyObserversFailed(notification);
+        }
     }
 }
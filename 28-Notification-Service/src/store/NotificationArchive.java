@@ -0,0 +1,201 @@
+package store;
+
+import enums.*;
+import model.Notification;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.*;
+import java.util.function.Consumer;
+
+/**
+ * Append-only on-disk archive for notifications removed by retention.
+ * 
+ * Each record is written with DataOutputStream in a compact binary form:
+ * id, recipient id, channel/priority/status ordinals (1 byte each), retry count,
+ * created/sent/delivered as epoch millis (-1 if unset), subject and message.
+ */
+public class NotificationArchive implements Closeable {
+    private static final int RECORD_MAGIC = 0x4E;
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+    
+    private final Path file;
+    private final DataOutputStream out;
+    private long recordsWritten;
+    
+    public NotificationArchive(Path file) throws IOException {
+        this.file = file;
+        this.out = new DataOutputStream(new BufferedOutputStream(
+            Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND), 64 * 1024));
+    }
+    
+    public synchronized void append(Notification notification) throws IOException {
+        out.writeByte(RECORD_MAGIC);
+        out.writeUTF(notification.getNotificationId());
+        out.writeUTF(notification.getRecipient().getUserId());
+        out.writeByte(notification.getChannel().ordinal());
+        out.writeByte(notification.getPriority().ordinal());
+        out.writeByte(notification.getStatus().ordinal());
+        out.writeByte(notification.getRetryCount());
+        out.writeLong(toMillis(notification.getCreatedAt()));
+        out.writeLong(toMillis(notification.getSentAt()));
+        out.writeLong(toMillis(notification.getDeliveredAt()));
+        writeText(notification.getSubject());
+        writeText(notification.getMessage());
+        recordsWritten++;
+    }
+    
+    public synchronized void flush() throws IOException {
+        out.flush();
+    }
+    
+    public synchronized long getRecordsWritten() {
+        return recordsWritten;
+    }
+    
+    public Path getFile() {
+        return file;
+    }
+    
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+    
+    // writeUTF is limited to 64 KB, so long bodies use a length-prefixed byte array
+    private void writeText(String text) throws IOException {
+        byte[] bytes = (text != null ? text : "").getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+    
+    private static String readText(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    private static long toMillis(LocalDateTime time) {
+        return time == null ? -1 : time.atZone(ZONE).toInstant().toEpochMilli();
+    }
+    
+    private static LocalDateTime fromMillis(long millis) {
+        return millis < 0 ? null : LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZONE);
+    }
+    
+    /**
+     * Reads every archived record in write order.
+     */
+    public static long scan(Path file, Consumer<ArchivedNotification> consumer) throws IOException {
+        long count = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 64 * 1024))) {
+            int magic;
+            while ((magic = in.read()) != -1) {
+                if (magic != RECORD_MAGIC) {
+                    throw new IOException("Corrupt archive record at #" + count);
+                }
+                ArchivedNotification record = new ArchivedNotification(
+                    in.readUTF(),
+                    in.readUTF(),
+                    NotificationChannel.values()[in.readByte()],
+                    NotificationPriority.values()[in.readByte()],
+                    NotificationStatus.values()[in.readByte()],
+                    in.readByte(),
+                    fromMillis(in.readLong()),
+                    fromMillis(in.readLong()),
+                    fromMillis(in.readLong()),
+                    readText(in),
+                    readText(in)
+                );
+                consumer.accept(record);
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * A notification read back from the archive (the recipient is kept by id only)
+     */
+    public static class ArchivedNotification {
+        private final String notificationId;
+        private final String recipientId;
+        private final NotificationChannel channel;
+        private final NotificationPriority priority;
+        private final NotificationStatus status;
+        private final int retryCount;
+        private final LocalDateTime createdAt;
+        private final LocalDateTime sentAt;
+        private final LocalDateTime deliveredAt;
+        private final String subject;
+        private final String message;
+        
+        ArchivedNotification(String notificationId, String recipientId, NotificationChannel channel,
+                             NotificationPriority priority, NotificationStatus status, int retryCount,
+                             LocalDateTime createdAt, LocalDateTime sentAt, LocalDateTime deliveredAt,
+                             String subject, String message) {
+            this.notificationId = notificationId;
+            this.recipientId = recipientId;
+            this.channel = channel;
+            this.priority = priority;
+            this.status = status;
+            this.retryCount = retryCount;
+            this.createdAt = createdAt;
+            this.sentAt = sentAt;
+            this.deliveredAt = deliveredAt;
+            this.subject = subject;
+            this.message = message;
+        }
+        
+        public String getNotificationId() {
+            return notificationId;
+        }
+        
+        public String getRecipientId() {
+            return recipientId;
+        }
+        
+        public NotificationChannel getChannel() {
+            return channel;
+        }
+        
+        public NotificationPriority getPriority() {
+            return priority;
+        }
+        
+        public NotificationStatus getStatus() {
+            return status;
+        }
+        
+        public int getRetryCount() {
+            return retryCount;
+        }
+        
+        public LocalDateTime getCreatedAt() {
+            return createdAt;
+        }
+        
+        public LocalDateTime getSentAt() {
+            return sentAt;
+        }
+        
+        public LocalDateTime getDeliveredAt() {
+            return deliveredAt;
+        }
+        
+        public String getSubject() {
+            return subject;
+        }
+        
+        public String getMessage() {
+            return message;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("Archived %s [%s] to %s - %s - Status: %s",
+                    notificationId, channel, recipientId, subject, status);
+        }
+    }
+}
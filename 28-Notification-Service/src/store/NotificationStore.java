@@ -0,0 +1,228 @@
+package store;
+
+import enums.*;
+import model.*;
+import observer.StatusChangeListener;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Notification store with secondary indexes and incremental statistics.
+ * 
+ * Every stored notification gets a monotonically increasing sequence number.
+ * Indexes:
+ *   - recipient -> (sequence -> notification), iterated newest first for inbox pages
+ *   - status -> notification ids, updated from Notification status transitions
+ *   - sequence -> notification, oldest first, for time-based retention
+ * Status and channel counters are adjusted on every transition, so statistics
+ * never scan the store.
+ */
+public class NotificationStore implements StatusChangeListener {
+    private final Map<String, Entry> byId;
+    private final Map<String, ConcurrentSkipListMap<Long, Notification>> byRecipient;
+    private final Map<NotificationStatus, Set<String>> byStatus;
+    private final ConcurrentSkipListMap<Long, Notification> bySequence;
+    private final Map<NotificationStatus, LongAdder> statusCounts;
+    private final Map<NotificationChannel, LongAdder> channelCounts;
+    private final AtomicLong sequence;
+    private final LongAdder archivedCount;
+    private NotificationArchive archive;
+    
+    private static class Entry {
+        final long sequence;
+        final Notification notification;
+        
+        Entry(long sequence, Notification notification) {
+            this.sequence = sequence;
+            this.notification = notification;
+        }
+    }
+    
+    public NotificationStore() {
+        this.byId = new ConcurrentHashMap<>();
+        this.byRecipient = new ConcurrentHashMap<>();
+        this.byStatus = new EnumMap<>(NotificationStatus.class);
+        this.statusCounts = new EnumMap<>(NotificationStatus.class);
+        for (NotificationStatus status : NotificationStatus.values()) {
+            byStatus.put(status, ConcurrentHashMap.newKeySet());
+            statusCounts.put(status, new LongAdder());
+        }
+        this.channelCounts = new EnumMap<>(NotificationChannel.class);
+        for (NotificationChannel channel : NotificationChannel.values()) {
+            channelCounts.put(channel, new LongAdder());
+        }
+        this.bySequence = new ConcurrentSkipListMap<>();
+        this.sequence = new AtomicLong();
+        this.archivedCount = new LongAdder();
+    }
+    
+    public void setArchive(NotificationArchive archive) {
+        this.archive = archive;
+    }
+    
+    public void add(Notification notification) {
+        // Hold the notification's lock so no transition slips in before it is indexed
+        synchronized (notification) {
+            Entry entry = new Entry(sequence.incrementAndGet(), notification);
+            if (byId.putIfAbsent(notification.getNotificationId(), entry) != null) {
+                throw new IllegalArgumentException("Duplicate notification: " + notification.getNotificationId());
+            }
+            byRecipient.computeIfAbsent(notification.getRecipient().getUserId(), id -> new ConcurrentSkipListMap<>())
+                       .put(entry.sequence, notification);
+            bySequence.put(entry.sequence, notification);
+            byStatus.get(notification.getStatus()).add(notification.getNotificationId());
+            statusCounts.get(notification.getStatus()).increment();
+            channelCounts.get(notification.getChannel()).increment();
+            notification.setStatusListener(this);
+        }
+    }
+    
+    @Override
+    public void onStatusChange(Notification notification, NotificationStatus from, NotificationStatus to) {
+        String id = notification.getNotificationId();
+        if (!byId.containsKey(id)) {
+            return;
+        }
+        byStatus.get(from).remove(id);
+        byStatus.get(to).add(id);
+        statusCounts.get(from).decrement();
+        statusCounts.get(to).increment();
+    }
+    
+    public Notification get(String notificationId) {
+        Entry entry = byId.get(notificationId);
+        return entry != null ? entry.notification : null;
+    }
+    
+    /**
+     * All of a user's notifications, newest first.
+     */
+    public List<Notification> getByRecipient(String userId) {
+        ConcurrentSkipListMap<Long, Notification> inbox = byRecipient.get(userId);
+        return inbox == null ? new ArrayList<>() : new ArrayList<>(inbox.descendingMap().values());
+    }
+    
+    /**
+     * One page of a user's notifications, newest first, starting after the cursor
+     * (null for the first page).
+     */
+    public Page<Notification> getByRecipient(String userId, String cursor, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page limit must be positive");
+        }
+        ConcurrentSkipListMap<Long, Notification> inbox = byRecipient.get(userId);
+        if (inbox == null) {
+            return new Page<>(new ArrayList<>(), null);
+        }
+        NavigableMap<Long, Notification> view = cursor == null
+            ? inbox.descendingMap()
+            : inbox.headMap(decodeCursor(cursor), false).descendingMap();
+        
+        List<Notification> items = new ArrayList<>(limit);
+        long lastSequence = -1;
+        boolean more = false;
+        for (Map.Entry<Long, Notification> e : view.entrySet()) {
+            if (items.size() == limit) {
+                more = true;
+                break;
+            }
+            items.add(e.getValue());
+            lastSequence = e.getKey();
+        }
+        return new Page<>(items, more ? encodeCursor(lastSequence) : null);
+    }
+    
+    public List<Notification> getByStatus(NotificationStatus status) {
+        List<Notification> result = new ArrayList<>();
+        for (String id : byStatus.get(status)) {
+            Notification notification = get(id);
+            if (notification != null) {
+                result.add(notification);
+            }
+        }
+        return result;
+    }
+    
+    public long countByStatus(NotificationStatus status) {
+        return statusCounts.get(status).sum();
+    }
+    
+    public long countByChannel(NotificationChannel channel) {
+        return channelCounts.get(channel).sum();
+    }
+    
+    public int size() {
+        return byId.size();
+    }
+    
+    public long getArchivedCount() {
+        return archivedCount.sum();
+    }
+    
+    /**
+     * Removes delivered or failed notifications created before the cutoff,
+     * appending them to the archive if one is configured. Walks the sequence
+     * index from the oldest entry and stops at the first one newer than the
+     * cutoff, so cost is proportional to what is removed.
+     * 
+     * @return number of notifications removed
+     */
+    public int applyRetention(LocalDateTime cutoff) throws IOException {
+        int removed = 0;
+        Iterator<Map.Entry<Long, Notification>> it = bySequence.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Long, Notification> e = it.next();
+            Notification notification = e.getValue();
+            if (!notification.getCreatedAt().isBefore(cutoff)) {
+                break;
+            }
+            synchronized (notification) {
+                NotificationStatus status = notification.getStatus();
+                if (status != NotificationStatus.DELIVERED && status != NotificationStatus.FAILED) {
+                    continue; // still in flight; keep it
+                }
+                if (archive != null) {
+                    archive.append(notification);
+                }
+                it.remove();
+                remove(e.getKey(), notification);
+            }
+            removed++;
+        }
+        if (archive != null) {
+            archive.flush();
+        }
+        archivedCount.add(removed);
+        return removed;
+    }
+    
+    private void remove(long seq, Notification notification) {
+        String id = notification.getNotificationId();
+        byId.remove(id);
+        notification.setStatusListener(null);
+        ConcurrentSkipListMap<Long, Notification> inbox = byRecipient.get(notification.getRecipient().getUserId());
+        if (inbox != null) {
+            inbox.remove(seq);
+        }
+        byStatus.get(notification.getStatus()).remove(id);
+        statusCounts.get(notification.getStatus()).decrement();
+        channelCounts.get(notification.getChannel()).decrement();
+    }
+    
+    private static String encodeCursor(long sequence) {
+        return Long.toString(sequence, 36);
+    }
+    
+    private static long decodeCursor(String cursor) {
+        try {
+            return Long.parseLong(cursor, 36);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+}
@@ -2,6 +2,9 @@ package strategy;
 
 import model.Notification;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Email notification sender (simulates SMTP)
  */
@@ -18,6 +21,24 @@ public class EmailSender implements NotificationSender {
         return Math.random() > 0.1;
     }
     
+    @Override
+    public List<Notification> sendBatch(List<Notification> notifications) {
+        // Simulate one bulk SMTP/API call with per-recipient results
+        System.out.println("📧 Sending EMAIL batch of " + notifications.size() + " recipients");
+        List<Notification> failed = new ArrayList<>();
+        for (Notification notification : notifications) {
+            if (Math.random() <= 0.1) {
+                failed.add(notification);
+            }
+        }
+        return failed;
+    }
+    
+    @Override
+    public int getMaxBatchSize() {
+        return 1000;
+    }
+    
     @Override
     public String getChannelName() {
         return "EMAIL";
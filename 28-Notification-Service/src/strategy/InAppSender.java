@@ -2,6 +2,9 @@ package strategy;
 
 import model.Notification;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * In-app notification sender
  */
@@ -17,6 +20,18 @@ public class InAppSender implements NotificationSender {
         return true;
     }
     
+    @Override
+    public List<Notification> sendBatch(List<Notification> notifications) {
+        // Simulate a single bulk insert into the in-app inbox table
+        System.out.println("💬 Storing " + notifications.size() + " IN-APP notifications");
+        return new ArrayList<>();
+    }
+    
+    @Override
+    public int getMaxBatchSize() {
+        return 1000;
+    }
+    
     @Override
     public String getChannelName() {
         return "IN_APP";
@@ -2,10 +2,36 @@ package strategy;
 
 import model.Notification;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Strategy interface for different notification channels
  */
 public interface NotificationSender {
     boolean send(Notification notification);
     String getChannelName();
+    
+    /**
+     * Sends a batch of notifications in as few provider calls as possible.
+     * The default adapter sends them one at a time.
+     * 
+     * @return the notifications that failed
+     */
+    default List<Notification> sendBatch(List<Notification> notifications) {
+        List<Notification> failed = new ArrayList<>();
+        for (Notification notification : notifications) {
+            if (!send(notification)) {
+                failed.add(notification);
+            }
+        }
+        return failed;
+    }
+    
+    /**
+     * Largest batch the provider accepts in a single call
+     */
+    default int getMaxBatchSize() {
+        return 1;
+    }
 }
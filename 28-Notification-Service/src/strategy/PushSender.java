@@ -2,6 +2,9 @@ package strategy;
 
 import model.Notification;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Push notification sender (simulates FCM/APNS)
  */
@@ -25,6 +28,24 @@ public class PushSender implements NotificationSender {
         return Math.random() > 0.15;
     }
     
+    @Override
+    public List<Notification> sendBatch(List<Notification> notifications) {
+        // Simulate one multicast call; recipients without a device token fail up front
+        System.out.println("🔔 Sending PUSH multicast to " + notifications.size() + " devices");
+        List<Notification> failed = new ArrayList<>();
+        for (Notification notification : notifications) {
+            if (notification.getRecipient().getDeviceToken() == null || Math.random() <= 0.15) {
+                failed.add(notification);
+            }
+        }
+        return failed;
+    }
+    
+    @Override
+    public int getMaxBatchSize() {
+        return 500;
+    }
+    
     @Override
     public String getChannelName() {
         return "PUSH";
@@ -2,6 +2,9 @@ package strategy;
 
 import model.Notification;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * SMS notification sender (simulates Twilio)
  */
@@ -17,6 +20,24 @@ public class SmsSender implements NotificationSender {
         return Math.random() > 0.05;
     }
     
+    @Override
+    public List<Notification> sendBatch(List<Notification> notifications) {
+        // Simulate one bulk messaging API call with per-recipient results
+        System.out.println("📱 Sending SMS batch of " + notifications.size() + " recipients");
+        List<Notification> failed = new ArrayList<>();
+        for (Notification notification : notifications) {
+            if (Math.random() <= 0.05) {
+                failed.add(notification);
+            }
+        }
+        return failed;
+    }
+    
+    @Override
+    public int getMaxBatchSize() {
+        return 100;
+    }
+    
     @Override
     public String getChannelName() {
         return "SMS";